@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jrh3k5.mojo.flume.benchmark.SyntheticArchives;
+
+/**
+ * Benchmark of {@link AbstractFlumeAgentsMojo#copyFlumePlugins(Agent, File)} installing an agent's Flume plugins into an empty {@code plugins.d/} directory. The plugins are synthetic archives,
+ * written by {@link SyntheticArchives}, that are handed to the mojo as already-resolved artifacts, so that only their installation is measured.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class CopyFlumePluginsBenchmark {
+    /**
+     * The number of plugins the agent uses.
+     */
+    @Param({ "1", "4" })
+    public int plugins;
+
+    private File workDirectory;
+    private File flumeDirectory;
+    private Agent agent;
+    private PluginCopyingMojo mojo;
+
+    /**
+     * Write the plugins' archives.
+     * 
+     * @throws IOException
+     *             If the archives cannot be written.
+     */
+    @Setup
+    public void writePlugins() throws IOException {
+        workDirectory = new File(System.getProperty("flume.benchmark.directory", "target/flume-benchmarks"), Long.toString(System.nanoTime())).getAbsoluteFile();
+        flumeDirectory = new File(workDirectory, "flume");
+
+        final List<FlumePlugin> flumePlugins = new ArrayList<>(plugins);
+        final List<Artifact> pluginArtifacts = new ArrayList<>(plugins);
+        for (int i = 0; i < plugins; i++) {
+            final String artifactId = "plugin-" + i;
+            final FlumePlugin flumePlugin = new FlumePlugin();
+            flumePlugin.setGroupId("com.github.jrh3k5.benchmark");
+            flumePlugin.setArtifactId(artifactId);
+            flumePlugins.add(flumePlugin);
+
+            final Artifact artifact = new DefaultArtifact(flumePlugin.getGroupId(), artifactId, "1.0", Artifact.SCOPE_COMPILE, flumePlugin.getType(), flumePlugin.getClassifier(),
+                    new DefaultArtifactHandler(flumePlugin.getType()));
+            artifact.setFile(SyntheticArchives.writeFlumePlugin(new File(workDirectory, "repository"), artifactId));
+            pluginArtifacts.add(artifact);
+        }
+        agent = new Agent();
+        agent.setFlumePlugins(flumePlugins);
+        mojo = new PluginCopyingMojo(pluginArtifacts);
+    }
+
+    /**
+     * Remove the plugins installed by the previous iteration.
+     * 
+     * @throws IOException
+     *             If the plugins cannot be removed.
+     */
+    @Setup(Level.Iteration)
+    public void removeInstalledPlugins() throws IOException {
+        FileUtils.deleteDirectory(flumeDirectory);
+    }
+
+    /**
+     * Remove the working directory.
+     * 
+     * @throws IOException
+     *             If the directory cannot be removed.
+     */
+    @TearDown
+    public void removeWorkDirectory() throws IOException {
+        FileUtils.deleteDirectory(workDirectory);
+    }
+
+    /**
+     * Install the agent's plugins.
+     * 
+     * @return The {@link File} of the Flume installation into which the plugins were installed.
+     * @throws IOException
+     *             If the plugins cannot be installed.
+     */
+    @Benchmark
+    public File copyFlumePlugins() throws IOException {
+        mojo.copyFlumePlugins(agent, flumeDirectory);
+        return flumeDirectory;
+    }
+
+    /**
+     * A mojo whose agents' plugins resolve to given artifacts, rather than to the dependencies of a Maven project.
+     * 
+     * @author Joshua Hyde
+     * @since 3.1
+     */
+    private static class PluginCopyingMojo extends AbstractFlumeAgentsMojo {
+        private final List<Artifact> pluginArtifacts;
+
+        /**
+         * Create a mojo.
+         * 
+         * @param pluginArtifacts
+         *            A {@link List} of the resolved {@link Artifact} objects of the plugins.
+         */
+        PluginCopyingMojo(List<Artifact> pluginArtifacts) {
+            this.pluginArtifacts = pluginArtifacts;
+        }
+
+        @Override
+        Collection<Artifact> getFlumePluginDependencies(Agent agent) {
+            return pluginArtifacts;
+        }
+
+        @Override
+        public void execute() {
+            throw new UnsupportedOperationException("This mojo only installs plugins.");
+        }
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.Mojo;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.ReflectionUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jrh3k5.mojo.flume.benchmark.ArchiveServer;
+import com.github.jrh3k5.mojo.flume.benchmark.FlumeDistributionState;
+import com.github.jrh3k5.mojo.flume.io.FlumeArchiveCache;
+import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
+import com.github.jrh3k5.mojo.flume.process.AgentReadiness;
+
+/**
+ * Benchmark of the wall-clock time from the {@code start} goal's {@code execute()} until every agent is ready, for agents installed from a synthetic Flume distribution whose
+ * {@code bin/flume-ng} starts a stub agent. With a {@code cold} cache, the cached archive is removed before each start, so the archive is fetched again from {@code archiveSource}: an HTTP
+ * server within the benchmark's JVM ({@code http}) or a {@code file:} URL ({@code file}); with a {@code warm} cache, it is already cached. The {@code stop} goal stops the agents after each
+ * start.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+    private static final long READINESS_TIMEOUT_MILLIS = 60000;
+    private static final String CONFIGURATION = "${agentName}.sources = r1\n${agentName}.channels = c1\n${agentName}.sinks = k1\n${agentName}.sources.r1.type = netcat\n"
+            + "${agentName}.sources.r1.bind = localhost\n${agentName}.sources.r1.port = ${port:${agentName}-netcat}\n${agentName}.sources.r1.channels = c1\n"
+            + "${agentName}.channels.c1.type = memory\n${agentName}.sinks.k1.type = null\n${agentName}.sinks.k1.channel = c1\n";
+
+    /**
+     * The number of agents started at once.
+     */
+    @Param({ "1", "4" })
+    public int agents;
+
+    /**
+     * Whether the archive is already cached ({@code warm}) or must be fetched by each start ({@code cold}).
+     */
+    @Param({ "cold", "warm" })
+    public String cache;
+
+    /**
+     * Where the archive is fetched from: {@code http} or {@code file}.
+     */
+    @Param({ "http" })
+    public String archiveSource;
+
+    private final MavenProject project = new MavenProject();
+    private ArchiveServer archiveServer;
+    private URL archiveUrl;
+    private String archiveMd5;
+    private File cachedArchive;
+    private File outputDirectory;
+    private List<Agent> agentList;
+
+    /**
+     * Serve the distribution and write the agents' configuration.
+     * 
+     * @param distribution
+     *            The {@link FlumeDistributionState} of the distribution from which the agents are installed.
+     * @throws IOException
+     *             If the distribution cannot be served or the configuration cannot be written.
+     */
+    @Setup
+    public void prepareAgents(FlumeDistributionState distribution) throws IOException {
+        switch (archiveSource) {
+        case "http":
+            archiveServer = new ArchiveServer(distribution.getArchive());
+            archiveUrl = archiveServer.getUrl();
+            break;
+        case "file":
+            archiveUrl = distribution.getArchive().toURI().toURL();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown archive source: " + archiveSource);
+        }
+        archiveMd5 = distribution.getArchiveMd5();
+        cachedArchive = new File(System.getProperty("java.io.tmpdir"), distribution.getArchive().getName());
+        outputDirectory = new File(distribution.getWorkDirectory(), "apache-flume");
+
+        final File configFile = new File(distribution.getWorkDirectory(), "flume.properties");
+        FileUtils.writeStringToFile(configFile, CONFIGURATION, StandardCharsets.UTF_8);
+        agentList = new ArrayList<>(agents);
+        for (int i = 1; i <= agents; i++) {
+            final Agent agent = new Agent();
+            agent.setAgentName("a" + i);
+            agent.setConfigFile(configFile);
+            agent.setTemplateConfigFile(true);
+            // Enough for the heap estimated for the memory channel, so that every start does not warn of it
+            agent.setJavaOpts("-Xmx96m");
+            agentList.add(agent);
+        }
+    }
+
+    /**
+     * Remove the previous iteration's installations and, for a cold cache, the cached archive; for a warm cache, make sure that the archive is cached.
+     * 
+     * @throws IOException
+     *             If the files cannot be removed or the archive cannot be cached.
+     */
+    @Setup(Level.Iteration)
+    public void resetInstallations() throws IOException {
+        FileUtils.deleteDirectory(outputDirectory);
+        if ("cold".equals(cache)) {
+            FileUtils.deleteQuietly(cachedArchive);
+        } else {
+            new FlumeArchiveCache(archiveUrl, archiveMd5).getArchiveLocation();
+        }
+    }
+
+    /**
+     * Start the agents and wait for them to be ready.
+     * 
+     * @return The number of agents started.
+     * @throws Exception
+     *             If the agents cannot be started or are not ready in time.
+     */
+    @Benchmark
+    public int startAgents() throws Exception {
+        newStartMojo().execute();
+        int started = 0;
+        for (Agent agent : agentList) {
+            for (AgentProcess agentProcess : AgentProcessContainer.getAgentProcesses(agent.getAgentName())) {
+                AgentReadiness.awaitReady(agentProcess, READINESS_TIMEOUT_MILLIS);
+                started++;
+            }
+        }
+        return started;
+    }
+
+    /**
+     * Stop the agents started by the iteration.
+     * 
+     * @throws Exception
+     *             If the agents cannot be stopped.
+     */
+    @TearDown(Level.Iteration)
+    public void stopAgents() throws Exception {
+        final StopFlumeAgentsMojo stopMojo = configure(new StopFlumeAgentsMojo());
+        ReflectionUtils.setVariableValueInObject(stopMojo, "agents", agentList);
+        stopMojo.execute();
+    }
+
+    /**
+     * Stop serving the distribution.
+     */
+    @TearDown
+    public void stopServing() {
+        if (archiveServer != null) {
+            archiveServer.close();
+        }
+    }
+
+    /**
+     * Create a {@code start} mojo configured as it would be by Maven.
+     * 
+     * @return A {@link StartFlumeAgentsMojo}.
+     * @throws IllegalAccessException
+     *             If the mojo's parameters cannot be set.
+     */
+    private StartFlumeAgentsMojo newStartMojo() throws IllegalAccessException {
+        final StartFlumeAgentsMojo startMojo = configure(new StartFlumeAgentsMojo());
+        ReflectionUtils.setVariableValueInObject(startMojo, "outputDirectory", outputDirectory);
+        ReflectionUtils.setVariableValueInObject(startMojo, "outputEncoding", "UTF-8");
+        ReflectionUtils.setVariableValueInObject(startMojo, "flumeArchiveUrl", archiveUrl);
+        ReflectionUtils.setVariableValueInObject(startMojo, "flumeArchiveMd5", archiveMd5);
+        ReflectionUtils.setVariableValueInObject(startMojo, "sharedJvmJavaOpts", "-Xmx512m");
+        ReflectionUtils.setVariableValueInObject(startMojo, "classDataSharingTrainingMillis", 10000L);
+        // The stub distribution has none of the Flume classes against which configurations are validated
+        ReflectionUtils.setVariableValueInObject(startMojo, "validateConfiguration", false);
+        ReflectionUtils.setVariableValueInObject(startMojo, "readinessTimeoutMillis", READINESS_TIMEOUT_MILLIS);
+        ReflectionUtils.setVariableValueInObject(startMojo, "metricsDirectory", new File(outputDirectory, "flume-metrics"));
+        ReflectionUtils.setVariableValueInObject(startMojo, "captureDirectory", new File(outputDirectory, "flume-captures"));
+        ReflectionUtils.setVariableValueInObject(startMojo, "project", project);
+        ReflectionUtils.setVariableValueInObject(startMojo, "agents", agentList);
+        return startMojo;
+    }
+
+    /**
+     * Quiet a mojo's log, so that the agents' progress does not drown out the benchmark's.
+     * 
+     * @param mojo
+     *            The {@link Mojo} to be configured.
+     * @return The given mojo.
+     */
+    private static <T extends Mojo> T configure(T mojo) {
+        mojo.setLog(new SystemStreamLog() {
+            @Override
+            public boolean isInfoEnabled() {
+                return false;
+            }
+
+            @Override
+            public void info(CharSequence content) {
+            }
+
+            @Override
+            public void info(CharSequence content, Throwable error) {
+            }
+
+            @Override
+            public void info(Throwable error) {
+            }
+        });
+        return mojo;
+    }
+}
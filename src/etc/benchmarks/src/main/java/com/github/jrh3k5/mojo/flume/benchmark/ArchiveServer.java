@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.benchmark;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * An HTTP server, run within the benchmark's JVM, that serves a single archive, so that the plugin's download of an archive it has not cached can be measured without a network.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ArchiveServer implements Closeable {
+    private final HttpServer server;
+    private final URL url;
+
+    /**
+     * Start serving an archive on a free port of the loopback interface.
+     * 
+     * @param archive
+     *            The {@link File} of the archive to be served.
+     * @throws IOException
+     *             If the server cannot be started.
+     */
+    public ArchiveServer(File archive) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        final String path = "/" + archive.getName();
+        server.createContext(path, exchange -> {
+            try {
+                exchange.sendResponseHeaders(200, archive.length());
+                try (final OutputStream responseOut = exchange.getResponseBody()) {
+                    Files.copy(archive.toPath(), responseOut);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        url = new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), path);
+    }
+
+    /**
+     * Get the location of the archive.
+     * 
+     * @return The {@link URL} from which the archive is served.
+     */
+    public URL getUrl() {
+        return url;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * Runs the benchmarks with JMH's command line, adding its GC profiler so that the bytes allocated by each operation ({@code gc.alloc.rate.norm}) are reported alongside its time. Passing
+ * any {@code -prof} argument replaces the GC profiler.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class BenchmarkMain {
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private BenchmarkMain() {
+    }
+
+    /**
+     * Run the benchmarks.
+     * 
+     * @param args
+     *            The arguments of JMH's command line.
+     * @throws Exception
+     *             If the benchmarks cannot be run.
+     */
+    public static void main(String[] args) throws Exception {
+        final List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-prof")) {
+            arguments.add(0, "gc");
+            arguments.add(0, "-prof");
+        }
+        Main.main(arguments.toArray(new String[arguments.size()]));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ * A synthetic Flume distribution, written by {@link SyntheticArchives} once for each trial into a working directory that is removed when the trial ends. The JVM's temporary directory, in which
+ * the plugin caches the Flume archive, is moved into the working directory, so that the benchmarks neither read nor disturb a real cached archive.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@State(Scope.Benchmark)
+public class FlumeDistributionState {
+    /**
+     * The version of Flume given to the synthetic distribution, which no real distribution has.
+     */
+    public static final String FLUME_VERSION = "0.0.0";
+
+    /**
+     * The fraction of the JARs and pages of a full-sized distribution to be written.
+     */
+    @Param({ "1.0" })
+    public double scale;
+
+    private File workDirectory;
+    private File archive;
+    private String archiveMd5;
+
+    /**
+     * Write the distribution.
+     * 
+     * @throws IOException
+     *             If the distribution cannot be written.
+     */
+    @Setup
+    public void writeDistribution() throws IOException {
+        workDirectory = new File(System.getProperty("flume.benchmark.directory", "target/flume-benchmarks"), Long.toString(System.nanoTime())).getAbsoluteFile();
+        final File tempDirectory = new File(workDirectory, "tmp");
+        FileUtils.forceMkdir(tempDirectory);
+        System.setProperty("java.io.tmpdir", tempDirectory.getAbsolutePath());
+
+        archive = SyntheticArchives.writeFlumeDistribution(new File(workDirectory, "archives"), FLUME_VERSION, scale);
+        archiveMd5 = Files.hash(archive, Hashing.md5()).toString();
+    }
+
+    /**
+     * Remove the working directory.
+     * 
+     * @throws IOException
+     *             If the directory cannot be removed.
+     */
+    @TearDown
+    public void removeWorkDirectory() throws IOException {
+        FileUtils.deleteDirectory(workDirectory);
+    }
+
+    /**
+     * Get the directory in which the trial's files are written.
+     * 
+     * @return The working directory of the trial.
+     */
+    public File getWorkDirectory() {
+        return workDirectory;
+    }
+
+    /**
+     * Get the archive of the distribution.
+     * 
+     * @return The {@link File} of the {@code .tar.gz} archive of the distribution.
+     */
+    public File getArchive() {
+        return archive;
+    }
+
+    /**
+     * Get the MD5 hash of the archive of the distribution.
+     * 
+     * @return The hexadecimal MD5 hash of the archive.
+     */
+    public String getArchiveMd5() {
+        return archiveMd5;
+    }
+}
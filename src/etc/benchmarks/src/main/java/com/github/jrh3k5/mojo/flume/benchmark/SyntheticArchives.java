@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.flume.node.Application;
+import org.codehaus.plexus.archiver.tar.TarEntry;
+import org.codehaus.plexus.archiver.tar.TarOutputStream;
+
+/**
+ * Writes synthetic {@code .tar.gz} archives shaped like a Flume binary distribution and a Flume plugin, so that the plugin's archive handling can be benchmarked without downloading
+ * anything. The contents are generated from a fixed seed, so every run measures the same bytes.
+ * <p />
+ * The distribution is modeled on {@code apache-flume-1.7.0-bin}: a few scripts in {@code bin/} and templates in {@code conf/}, about 180 JARs in {@code lib/} whose sizes are spread
+ * log-uniformly from 4 KB to 1.5 MB (about 47 MB in all), a JAR in {@code tools/}, and about 2,400 HTML pages of 1 KB to 40 KB in {@code docs/}. The JARs are filled with random bytes, which
+ * do not compress, as compressed JARs do not; the pages are filled with words, which compress about as well as HTML does. Its {@code bin/flume-ng} is a working launcher of the stub
+ * {@link Application}, packaged in {@code lib/}, so that agents can be started from the distribution.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class SyntheticArchives {
+    private static final long SEED = 0x466c756d65L;
+    private static final int LIB_JARS = 180;
+    private static final int DOC_PAGES = 2400;
+    private static final int PLUGIN_LIBEXT_JARS = 10;
+    /**
+     * The release date of Flume 1.7.0, given to every entry so that the archives are identical from run to run.
+     */
+    private static final long MODIFIED_MILLIS = 1476662400000L;
+    private static final int FILE_MODE = 0644;
+    private static final int EXECUTABLE_MODE = 0755;
+    /**
+     * A launcher that, like Flume's, reads the JVM arguments from {@code conf/flume-env.sh} and replaces itself with the agent's JVM, so that stopping the process stops the agent.
+     */
+    private static final String LAUNCHER = "#!/bin/sh\n" + "FLUME_HOME=\"$(cd \"$(dirname \"$0\")/..\" && pwd)\"\n"
+            + "[ -f \"$FLUME_HOME/conf/flume-env.sh\" ] && . \"$FLUME_HOME/conf/flume-env.sh\"\n" + "# Skip the \"agent\" command\n" + "shift\n"
+            + "exec \"${JAVA_HOME:+$JAVA_HOME/bin/}java\" $JAVA_OPTS -cp \"$FLUME_HOME/lib/*\" " + Application.class.getName() + " \"$@\"\n";
+    private static final String[] WORDS = { "<div>", "</div>", "<a href=\"", "\">", "</a>", "<td>", "</td>", "org.apache.flume", "Event", "Channel", "Sink", "Source", "public", "class",
+            "interface", "void", "String", "the", "of", "a", "to", "is", "configured", "transaction", "batch", "capacity", "Returns", "Parameters:", "Throws:", "java.lang.Object" };
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SyntheticArchives() {
+    }
+
+    /**
+     * Write a synthetic Flume distribution.
+     * 
+     * @param directory
+     *            The directory in which the archive is to be written.
+     * @param flumeVersion
+     *            The version of Flume in the name of the archive and of its top-level directory.
+     * @param scale
+     *            The fraction of the JARs and pages of a full distribution to be written; {@code 1.0} writes a full-sized distribution.
+     * @return The {@link File} of the written {@code apache-flume-VERSION-bin.tar.gz} archive.
+     * @throws IOException
+     *             If the archive cannot be written.
+     */
+    public static File writeFlumeDistribution(File directory, String flumeVersion, double scale) throws IOException {
+        final String root = String.format("apache-flume-%s-bin/", flumeVersion);
+        final File archive = new File(directory, String.format("apache-flume-%s-bin.tar.gz", flumeVersion));
+        final Random random = new Random(SEED);
+        try (final TarOutputStream tarOut = open(archive)) {
+            writeEntry(tarOut, root + "bin/flume-ng", LAUNCHER.getBytes(StandardCharsets.UTF_8), EXECUTABLE_MODE);
+            for (String script : new String[] { "flume-ng.cmd", "flume-ng.ps1" }) {
+                writeText(tarOut, root + "bin/" + script, 8 * 1024, random);
+            }
+            for (String template : new String[] { "flume-conf.properties.template", "flume-env.sh.template", "flume-env.ps1.template", "log4j.properties" }) {
+                writeText(tarOut, root + "conf/" + template, 2 * 1024, random);
+            }
+            for (int i = 0; i < scaled(LIB_JARS, scale); i++) {
+                writeBinary(tarOut, String.format("%slib/library-%03d.jar", root, i), logUniform(random, 4 * 1024, 1536 * 1024), random);
+            }
+            writeEntry(tarOut, root + "lib/flume-ng-node-stub.jar", createStubAgentJar(), FILE_MODE);
+            writeBinary(tarOut, root + "tools/flume-tools.jar", 64 * 1024, random);
+            for (int i = 0; i < scaled(DOC_PAGES, scale); i++) {
+                writeText(tarOut, String.format("%sdocs/apidocs/org/apache/flume/page-%04d.html", root, i), 1024 + random.nextInt(39 * 1024), random);
+            }
+        }
+        return archive;
+    }
+
+    /**
+     * Write a synthetic Flume plugin, laid out as it is to be extracted into {@code plugins.d/}.
+     * 
+     * @param directory
+     *            The directory in which the archive is to be written.
+     * @param pluginName
+     *            The name of the plugin, which names its archive and its top-level directory.
+     * @return The {@link File} of the written {@code PLUGIN-flume-plugin.tar.gz} archive.
+     * @throws IOException
+     *             If the archive cannot be written.
+     */
+    public static File writeFlumePlugin(File directory, String pluginName) throws IOException {
+        final File archive = new File(directory, pluginName + "-flume-plugin.tar.gz");
+        final Random random = new Random(SEED + pluginName.hashCode());
+        try (final TarOutputStream tarOut = open(archive)) {
+            writeBinary(tarOut, String.format("%s/lib/%s.jar", pluginName, pluginName), 256 * 1024, random);
+            for (int i = 0; i < PLUGIN_LIBEXT_JARS; i++) {
+                writeBinary(tarOut, String.format("%s/libext/dependency-%02d.jar", pluginName, i), logUniform(random, 4 * 1024, 1024 * 1024), random);
+            }
+            writeBinary(tarOut, String.format("%s/native/lib%s.so", pluginName, pluginName), 128 * 1024, random);
+        }
+        return archive;
+    }
+
+    /**
+     * Open a GZIP-compressed TAR archive for writing.
+     * 
+     * @param archive
+     *            The {@link File} to be written.
+     * @return A {@link TarOutputStream} writing the archive.
+     * @throws IOException
+     *             If the archive cannot be opened.
+     */
+    private static TarOutputStream open(File archive) throws IOException {
+        FileUtils.forceMkdir(archive.getParentFile());
+        final OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(archive));
+        final TarOutputStream tarOut = new TarOutputStream(new GZIPOutputStream(fileOut));
+        tarOut.setLongFileMode(TarOutputStream.LONGFILE_GNU);
+        return tarOut;
+    }
+
+    /**
+     * Write an entry of random, incompressible bytes.
+     * 
+     * @param tarOut
+     *            The {@link TarOutputStream} to which the entry is to be written.
+     * @param name
+     *            The name of the entry.
+     * @param size
+     *            The number of bytes in the entry.
+     * @param random
+     *            The {@link Random} from which the bytes are drawn.
+     * @throws IOException
+     *             If the entry cannot be written.
+     */
+    private static void writeBinary(TarOutputStream tarOut, String name, int size, Random random) throws IOException {
+        final byte[] contents = new byte[size];
+        random.nextBytes(contents);
+        writeEntry(tarOut, name, contents, FILE_MODE);
+    }
+
+    /**
+     * Write an entry of words, which compresses about as well as HTML.
+     * 
+     * @param tarOut
+     *            The {@link TarOutputStream} to which the entry is to be written.
+     * @param name
+     *            The name of the entry.
+     * @param size
+     *            The approximate number of bytes in the entry.
+     * @param random
+     *            The {@link Random} from which the words are drawn.
+     * @throws IOException
+     *             If the entry cannot be written.
+     */
+    private static void writeText(TarOutputStream tarOut, String name, int size, Random random) throws IOException {
+        final StringBuilder contents = new StringBuilder(size + 32);
+        while (contents.length() < size) {
+            contents.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(8) == 0 ? '\n' : ' ');
+        }
+        writeEntry(tarOut, name, contents.toString().getBytes(StandardCharsets.UTF_8), FILE_MODE);
+    }
+
+    /**
+     * Write an entry.
+     * 
+     * @param tarOut
+     *            The {@link TarOutputStream} to which the entry is to be written.
+     * @param name
+     *            The name of the entry.
+     * @param contents
+     *            The contents of the entry.
+     * @param mode
+     *            The file mode of the entry.
+     * @throws IOException
+     *             If the entry cannot be written.
+     */
+    private static void writeEntry(TarOutputStream tarOut, String name, byte[] contents, int mode) throws IOException {
+        final TarEntry entry = new TarEntry(name);
+        entry.setMode(mode);
+        entry.setSize(contents.length);
+        entry.setModTime(MODIFIED_MILLIS);
+        tarOut.putNextEntry(entry);
+        tarOut.write(contents);
+        tarOut.closeEntry();
+    }
+
+    /**
+     * Package the stub agent into a JAR.
+     * 
+     * @return The bytes of a JAR holding the class of the stub {@link Application}.
+     * @throws IOException
+     *             If the class cannot be read.
+     */
+    private static byte[] createStubAgentJar() throws IOException {
+        final String classFile = Application.class.getName().replace('.', '/') + ".class";
+        final ByteArrayOutputStream jarBytes = new ByteArrayOutputStream();
+        try (final JarOutputStream jarOut = new JarOutputStream(jarBytes); final InputStream classIn = Application.class.getClassLoader().getResourceAsStream(classFile)) {
+            if (classIn == null) {
+                throw new IOException("Class file not found: " + classFile);
+            }
+            jarOut.putNextEntry(new JarEntry(classFile));
+            IOUtils.copy(classIn, jarOut);
+            jarOut.closeEntry();
+        }
+        return jarBytes.toByteArray();
+    }
+
+    /**
+     * Draw a size spread log-uniformly over a range, as the sizes of a distribution's libraries are.
+     * 
+     * @param random
+     *            The {@link Random} from which the size is drawn.
+     * @param min
+     *            The smallest size.
+     * @param max
+     *            The largest size.
+     * @return A size between the smallest and the largest.
+     */
+    private static int logUniform(Random random, int min, int max) {
+        return (int) Math.round(min * Math.pow((double) max / min, random.nextDouble()));
+    }
+
+    /**
+     * Scale a number of files.
+     * 
+     * @param count
+     *            The number of files in a full-sized archive.
+     * @param scale
+     *            The fraction of the files to be written.
+     * @return The scaled number of files, which is at least one.
+     */
+    private static int scaled(int count, double scale) {
+        return Math.max(1, (int) Math.round(count * scale));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jrh3k5.mojo.flume.benchmark.FlumeDistributionState;
+
+/**
+ * Benchmarks of {@link ArchiveUtils} unpacking a Flume distribution: decompressing the archive, and extracting the decompressed TAR file into an empty directory.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ArchiveUtilsBenchmark {
+    private URL archiveUrl;
+    private File gunzippedFile;
+    private File tarFile;
+    private File extractDirectory;
+
+    /**
+     * Decompress the distribution once, so that its extraction can be measured on its own.
+     * 
+     * @param distribution
+     *            The {@link FlumeDistributionState} of the distribution to be unpacked.
+     * @throws IOException
+     *             If the distribution cannot be decompressed.
+     */
+    @Setup
+    public void decompressDistribution(FlumeDistributionState distribution) throws IOException {
+        archiveUrl = distribution.getArchive().toURI().toURL();
+        gunzippedFile = new File(distribution.getWorkDirectory(), "gunzipped.tar");
+        tarFile = new File(distribution.getWorkDirectory(), "apache-flume.tar");
+        ArchiveUtils.gunzipFile(archiveUrl, tarFile);
+        extractDirectory = new File(distribution.getWorkDirectory(), "extracted");
+    }
+
+    /**
+     * Remove the files extracted by the previous iteration, so that each extraction writes into an empty directory as it does when an agent is set up.
+     * 
+     * @throws IOException
+     *             If the files cannot be removed.
+     */
+    @Setup(Level.Iteration)
+    public void removeExtractedFiles() throws IOException {
+        FileUtils.deleteDirectory(extractDirectory);
+    }
+
+    /**
+     * Decompress the distribution's archive. The decompressed file is overwritten by each operation.
+     * 
+     * @return The decompressed {@link File}.
+     * @throws IOException
+     *             If the archive cannot be decompressed.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public File gunzipFile() throws IOException {
+        ArchiveUtils.gunzipFile(archiveUrl, gunzippedFile);
+        return gunzippedFile;
+    }
+
+    /**
+     * Extract the distribution's TAR file into an empty directory.
+     * 
+     * @return The {@link File} of the directory into which the distribution was extracted.
+     * @throws IOException
+     *             If the TAR file cannot be extracted.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public File untarFile() throws IOException {
+        ArchiveUtils.untarFile(tarFile, extractDirectory);
+        return extractDirectory;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.io;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jrh3k5.mojo.flume.benchmark.FlumeDistributionState;
+
+/**
+ * Benchmark of a new {@link FlumeArchiveCache} resolving an archive that has already been cached, which hashes the cached copy to verify it once in each execution of the plugin.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlumeArchiveCacheBenchmark {
+    private URL archiveUrl;
+    private String archiveMd5;
+
+    /**
+     * Cache the distribution's archive.
+     * 
+     * @param distribution
+     *            The {@link FlumeDistributionState} of the distribution to be cached.
+     * @throws IOException
+     *             If the archive cannot be cached.
+     */
+    @Setup
+    public void cacheArchive(FlumeDistributionState distribution) throws IOException {
+        archiveUrl = distribution.getArchive().toURI().toURL();
+        archiveMd5 = distribution.getArchiveMd5();
+        new FlumeArchiveCache(archiveUrl, archiveMd5).getArchiveLocation();
+    }
+
+    /**
+     * Resolve the cached archive with a new cache, which has not yet verified it.
+     * 
+     * @return The {@link URL} of the cached archive.
+     * @throws IOException
+     *             If the archive cannot be resolved.
+     */
+    @Benchmark
+    public URL getArchiveLocation() throws IOException {
+        return new FlumeArchiveCache(archiveUrl, archiveMd5).getArchiveLocation();
+    }
+}
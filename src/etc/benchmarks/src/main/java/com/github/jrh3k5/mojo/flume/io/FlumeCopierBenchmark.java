@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.jrh3k5.mojo.flume.benchmark.FlumeDistributionState;
+
+/**
+ * Benchmark of {@link FlumeCopier} installing a Flume distribution from an archive that has already been cached and verified, as is done for each agent: decompressing the archive into
+ * the agent's directory and extracting it there.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class FlumeCopierBenchmark {
+    private FlumeCopier copier;
+    private File agentDirectory;
+
+    /**
+     * Cache the distribution's archive.
+     * 
+     * @param distribution
+     *            The {@link FlumeDistributionState} of the distribution to be installed.
+     * @throws IOException
+     *             If the archive cannot be cached.
+     */
+    @Setup
+    public void cacheArchive(FlumeDistributionState distribution) throws IOException {
+        final FlumeArchiveCache archiveCache = new FlumeArchiveCache(distribution.getArchive().toURI().toURL(), distribution.getArchiveMd5());
+        archiveCache.getArchiveLocation();
+        copier = new FlumeCopier(archiveCache);
+        agentDirectory = new File(distribution.getWorkDirectory(), "agent");
+    }
+
+    /**
+     * Remove the installation of the previous iteration, so that each installation is into an empty directory.
+     * 
+     * @throws IOException
+     *             If the installation cannot be removed.
+     */
+    @Setup(Level.Iteration)
+    public void removeInstallation() throws IOException {
+        FileUtils.deleteDirectory(agentDirectory);
+        FileUtils.forceMkdir(agentDirectory);
+    }
+
+    /**
+     * Install the distribution.
+     * 
+     * @return The {@link File} of the installed distribution.
+     * @throws IOException
+     *             If the distribution cannot be installed.
+     */
+    @Benchmark
+    public File copyTo() throws IOException {
+        return copier.copyTo(agentDirectory);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.flume.node;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A stand-in for Flume's agent, packaged into the synthetic distributions written by the benchmarks under the name of Flume's own main class, so that both {@code bin/flume-ng} and agents
+ * launched in {@code DIRECT} mode start it. It does none of Flume's work: it only listens on the ports of the agent's sources, which is what the plugin takes as the agent being ready, and
+ * runs until it is killed. What the startup benchmarks measure is therefore the plugin's own overhead and the cost of starting a JVM, not Flume's startup.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class Application {
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Application() {
+    }
+
+    /**
+     * Start the stub agent.
+     * 
+     * @param args
+     *            Flume's arguments, of which the configuration file ({@code -f}) and the agent's name ({@code -n}) are read.
+     * @throws Exception
+     *             If the configuration cannot be read or a port cannot be listened on.
+     */
+    public static void main(String[] args) throws Exception {
+        String configFile = null;
+        String agentName = null;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if ("-f".equals(args[i])) {
+                configFile = args[++i];
+            } else if ("-n".equals(args[i])) {
+                agentName = args[++i];
+            }
+        }
+        if (configFile == null || agentName == null) {
+            throw new IllegalArgumentException("Both -f and -n must be given.");
+        }
+
+        final Properties configuration = new Properties();
+        try (final InputStream configIn = new FileInputStream(new File(configFile))) {
+            configuration.load(configIn);
+        }
+        final String sourcesPrefix = agentName + ".sources.";
+        final List<ServerSocket> serverSockets = new ArrayList<>();
+        for (String name : configuration.stringPropertyNames()) {
+            if (name.startsWith(sourcesPrefix) && name.endsWith(".port")) {
+                final String source = name.substring(0, name.length() - ".port".length());
+                final String host = configuration.getProperty(source + ".bind", "0.0.0.0").trim();
+                final ServerSocket serverSocket = new ServerSocket();
+                serverSocket.bind(new InetSocketAddress(host, Integer.parseInt(configuration.getProperty(name).trim())));
+                serverSockets.add(serverSocket);
+            }
+        }
+        for (ServerSocket serverSocket : serverSockets) {
+            final Thread acceptor = new Thread(() -> accept(serverSocket), "stub-source-" + serverSocket.getLocalPort());
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+        new CountDownLatch(1).await();
+    }
+
+    /**
+     * Accept and close connections until the agent is killed.
+     * 
+     * @param serverSocket
+     *            The {@link ServerSocket} on which connections are to be accepted.
+     */
+    private static void accept(ServerSocket serverSocket) {
+        while (true) {
+            try {
+                // The plugin only connects to see whether the source is listening
+                serverSocket.accept().close();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+}
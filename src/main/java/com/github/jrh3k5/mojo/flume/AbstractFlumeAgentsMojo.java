@@ -21,12 +21,33 @@ import static com.github.jrh3k5.mojo.flume.io.ArchiveUtils.gunzipFile;
 import static com.github.jrh3k5.mojo.flume.io.ArchiveUtils.untarFile;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
@@ -44,9 +65,25 @@ import org.apache.maven.shared.dependency.graph.DependencyGraphBuilderException;
 import org.apache.maven.shared.dependency.graph.DependencyNode;
 import org.codehaus.plexus.util.FileUtils;
 
+import com.github.jrh3k5.mojo.flume.capture.CaptureContainer;
+import com.github.jrh3k5.mojo.flume.capture.EventCapture;
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+import com.github.jrh3k5.mojo.flume.config.ConfigTemplate;
+import com.github.jrh3k5.mojo.flume.config.HeapEstimate;
+import com.github.jrh3k5.mojo.flume.config.HeapSizingPolicy;
+import com.github.jrh3k5.mojo.flume.config.PortAllocator;
 import com.github.jrh3k5.mojo.flume.io.FlumeArchiveCache;
 import com.github.jrh3k5.mojo.flume.io.FlumeCopier;
+import com.github.jrh3k5.mojo.flume.process.AgentMetrics;
 import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
+import com.github.jrh3k5.mojo.flume.process.AgentReadiness;
+import com.github.jrh3k5.mojo.flume.process.FlumeConfigurationValidator;
+import com.github.jrh3k5.mojo.flume.process.GcLog;
+import com.github.jrh3k5.mojo.flume.process.LaunchMode;
+import com.github.jrh3k5.mojo.flume.timing.Phase;
+import com.github.jrh3k5.mojo.flume.timing.PhaseTimingReport;
+import com.github.jrh3k5.mojo.flume.timing.PhaseTimings;
 
 /**
  * Abstract definition of a mojo that manages a Flume agent.
@@ -56,6 +93,18 @@ import com.github.jrh3k5.mojo.flume.process.AgentProcess;
  */
 
 public abstract class AbstractFlumeAgentsMojo extends AbstractMojo {
+    /**
+     * The JVM arguments appended to those of an agent whose {@code fastStart} is enabled.
+     */
+    static final String FAST_START_JAVA_OPTS = "-XX:TieredStopAtLevel=1 -XX:+UseSerialGC -XX:-UsePerfData";
+
+    private static final String METRICS_DIRECTORY_PROPERTY = "flume.metrics.directory";
+    /**
+     * The allocators of the ports of the agents' configuration templates, by project; these are shared by all executions of the plugin for a project so that its agents can refer to each other's
+     * ports.
+     */
+    private static final Map<MavenProject, PortAllocator> PORT_ALLOCATORS = new WeakHashMap<>();
+
     /**
      * The directory to which the installation of the Flume agent should be extracted.
      */
@@ -84,6 +133,76 @@ public abstract class AbstractFlumeAgentsMojo extends AbstractMojo {
     @Parameter(required = true, defaultValue = "12496e632a96d7ca823ab3c239a2a7d2")
     private String flumeArchiveMd5;
 
+    /**
+     * The JVM arguments of the single JVM forked to host all agents whose {@code launchMode} is {@code SHARED}.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "-Xmx512m")
+    private String sharedJvmJavaOpts;
+
+    /**
+     * The amount of time, in milliseconds, after which the training run that records the classes loaded by the components of an agent whose {@code classDataSharing} is enabled is stopped
+     * when its class data sharing archive must be (re)built.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "10000")
+    private long classDataSharingTrainingMillis;
+
+    /**
+     * Whether each agent's configuration is to be validated with the configuration classes of its Flume installation before the agent is started, failing the build if it has any sources,
+     * channels, or sinks that Flume would discard or whose classes cannot be found.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "true")
+    private boolean validateConfiguration;
+
+    /**
+     * The amount of time, in milliseconds, to wait for an agent on which other agents depend to start accepting connections on its sources' ports before the agents that depend on it are
+     * started. The {@code sweep} goal waits as long for the agent of each trial before sending it events.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "60000")
+    private long readinessTimeoutMillis;
+
+    /**
+     * The amount of time, in milliseconds, between samples of the counters of each agent. If greater than {@code 0}, each agent launched in {@code SCRIPT} or {@code DIRECT} mode is
+     * started with {@code monitoring} enabled, and its counters are written to {@code AGENT.jsonl} in the {@code metricsDirectory}, with a summary of them written to {@code AGENT-summary.json}
+     * when the agent is stopped. The samples and summaries left in the directory by an earlier build are removed before the agents are started.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "0")
+    private long metricsIntervalMillis;
+
+    /**
+     * The directory to which the samples of the agents' counters are written.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "${project.build.directory}/flume-metrics")
+    private File metricsDirectory;
+
+    /**
+     * The directory to which the statistics and persisted events of the agents' captures are written.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "${project.build.directory}/flume-captures")
+    private File captureDirectory;
+
+    /**
+     * The file to which the time spent by each agent in each phase of being prepared and started is written as JSON when the agents have been started. If it is not set, the timings are only
+     * logged.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "${project.build.directory}/flume-timings.json")
+    private File timingsFile;
+
     /**
      * The Maven project descriptor.
      */
@@ -109,57 +228,440 @@ public abstract class AbstractFlumeAgentsMojo extends AbstractMojo {
     private List<Agent> agents = Collections.emptyList();
 
     /**
-     * Get the agents configured for the plugin.
+     * The timings of the phases of preparing and starting each agent, by the name of the agent.
+     */
+    private final Map<String, PhaseTimings> phaseTimings = new ConcurrentHashMap<>();
+
+    /**
+     * The cache of the Flume archive shared by all agents, which verifies the cached archive only once.
+     */
+    private FlumeArchiveCache archiveCache;
+
+    /**
+     * Get the agents configured for the plugin, with any agent whose {@code replicas} is greater than one replaced by its replicas.
      * 
      * @return A {@link List} of {@link Agent} objects representing the agents configured for the plugin.
+     * @throws MojoExecutionException
+     *             If an agent has fewer than one replica.
      * @since 2.0
      */
-    protected List<Agent> getAgents() {
+    protected List<Agent> getAgents() throws MojoExecutionException {
+        final List<Agent> expandedAgents = new ArrayList<>(agents.size());
+        for (Agent agent : agents) {
+            if (agent.getReplicas() < 1) {
+                throw new MojoExecutionException(String.format("Agent %s must have at least one replica, but has %d.", agent.getAgentName(), agent.getReplicas()));
+            }
+            if (agent.getReplicas() == 1) {
+                expandedAgents.add(agent);
+            } else {
+                for (int replica = 1; replica <= agent.getReplicas(); replica++) {
+                    expandedAgents.add(new AgentReplica(agent, replica));
+                }
+            }
+        }
+        return Collections.unmodifiableList(expandedAgents);
+    }
+
+    /**
+     * Get the agents configured for the plugin as they are configured, without replacing any agent by its replicas.
+     * 
+     * @return A {@link List} of {@link Agent} objects representing the agents configured for the plugin.
+     * @since 3.1
+     */
+    protected List<Agent> getConfiguredAgents() {
         return Collections.unmodifiableList(agents);
     }
 
     /**
-     * Build the agent process.
+     * Get the name of the group under which the given agent's process is to be stored.
      * 
      * @param agent
-     *            The {@link Agent} for which a process is to be built.
-     * @return An {@link AgentProcess} describing the agent process.
-     * @throws MojoExecutionException
-     *             If any errors occur while building the agent process.
+     *            The {@link Agent} whose group is to be retrieved.
+     * @return The name of the replicated agent, if the agent is a replica; otherwise, the name of the agent.
+     * @since 3.1
      */
-    protected AgentProcess buildAgentProcess(Agent agent) throws MojoExecutionException {
-        File flumeDirectory;
-        try {
-            flumeDirectory = unpackFlume(agent, new FlumeArchiveCache(flumeArchiveUrl, flumeArchiveMd5));
-        } catch (IOException e) {
-            throw new MojoExecutionException("Failed to unpack Flume.", e);
+    protected static String getGroupName(Agent agent) {
+        return agent instanceof AgentReplica ? ((AgentReplica) agent).getGroupName() : agent.getAgentName();
+    }
+
+    /**
+     * Get the amount of time to wait for an agent to start accepting connections on its sources' ports.
+     * 
+     * @return The amount of time, in milliseconds, to wait for an agent to become ready.
+     * @since 3.1
+     */
+    protected long getReadinessTimeoutMillis() {
+        return readinessTimeoutMillis;
+    }
+
+    /**
+     * Get the timings of the phases of preparing and starting an agent, creating them if the agent has not yet been timed.
+     * 
+     * @param agent
+     *            The {@link Agent} whose timings are to be retrieved.
+     * @return The {@link PhaseTimings} of the agent.
+     * @since 3.1
+     */
+    protected PhaseTimings getPhaseTimings(Agent agent) {
+        return phaseTimings.computeIfAbsent(agent.getAgentName(), PhaseTimings::new);
+    }
+
+    /**
+     * Get the cache of the Flume archive shared by all agents, creating it if it does not yet exist.
+     * 
+     * @return The {@link FlumeArchiveCache} from which the agents' Flume installations are unpacked.
+     * @since 3.1
+     */
+    protected synchronized FlumeArchiveCache getArchiveCache() {
+        if (archiveCache == null) {
+            archiveCache = new FlumeArchiveCache(flumeArchiveUrl, flumeArchiveMd5);
+        }
+        return archiveCache;
+    }
+
+    /**
+     * Log the time spent by each agent in each phase of being prepared and started, and write it as JSON to the {@code timingsFile}, if it is set.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param archiveTimings
+     *            The {@link PhaseTimings} of caching the Flume archive before the agents were prepared, or {@code null} if it was not cached beforehand.
+     * @param timedAgents
+     *            A {@link Collection} of the {@link Agent} objects whose timings are to be reported, in the order in which they are to be reported.
+     */
+    void reportPhaseTimings(PhaseTimings archiveTimings, Collection<Agent> timedAgents) {
+        final List<PhaseTimings> timings = new ArrayList<>(timedAgents.size());
+        for (Agent agent : timedAgents) {
+            timings.add(getPhaseTimings(agent));
+        }
+        final PhaseTimingReport report = new PhaseTimingReport(Instant.now(), archiveTimings, timings);
+        for (String line : report.toTable()) {
+            getLog().info(line);
+        }
+        if (timingsFile == null) {
+            return;
         }
         try {
-            copyFlumePlugins(agent, flumeDirectory);
+            FileUtils.forceMkdir(timingsFile.getParentFile());
+            Files.write(timingsFile.toPath(), report.toJson().getBytes(StandardCharsets.UTF_8));
         } catch (IOException e) {
-            throw new MojoExecutionException("Failed to copy all Flume plugins.", e);
+            getLog().warn("Failed to write the timings of the agents to " + timingsFile.getAbsolutePath(), e);
         }
+    }
+
+    /**
+     * Start the agents configured for the plugin, storing each in the {@link AgentProcessContainer} under the name of its {@link #getGroupName(Agent) group}. The agents are started in the tiers
+     * of their {@link AgentTopology}: the agents of a tier are built and started in parallel, and the agents of the tier on which any later agent depends must be ready before the next tier is
+     * started. The Flume archive starts being cached before any agent is built, so that it is downloaded while the agents' plugins are resolved. Once all agents have been started, the time
+     * each spent in each {@link Phase} is {@link #reportPhaseTimings(PhaseTimings, Collection) reported}.
+     * 
+     * @return A {@link Map} of each started {@link Agent} to its {@link AgentProcess}, in the order in which they were started.
+     * @throws MojoExecutionException
+     *             If any agent cannot be built or started, or does not become ready in time.
+     * @since 3.1
+     */
+    protected Map<Agent, AgentProcess> startAgents() throws MojoExecutionException {
+        if (metricsIntervalMillis > 0) {
+            try {
+                clearMetricsDirectory();
+            } catch (IOException e) {
+                throw new MojoExecutionException("Failed to remove the metrics left by an earlier build from " + metricsDirectory.getAbsolutePath(), e);
+            }
+        }
+        final AgentTopology topology = new AgentTopology(getAgents());
+        final Map<Agent, AgentProcess> agentProcesses = new LinkedHashMap<>();
+        final PhaseTimings archiveTimings = new PhaseTimings(null);
+        final FlumeArchiveCache flumeArchiveCache = getArchiveCache();
+        final ExecutorService archiveExecutor = Executors.newSingleThreadExecutor();
         try {
-            copyLoggingProperties(agent, flumeDirectory);
-        } catch (IOException e) {
-            throw new MojoExecutionException("Failed to copy the Flume logging properties.", e);
+            // A failure is not reported here, but by the first agent to be unpacked, which tries to cache the archive again
+            archiveExecutor.submit(() -> flumeArchiveCache.getArchiveLocation(archiveTimings));
+            startAgents(topology, agentProcesses);
+        } finally {
+            archiveExecutor.shutdownNow();
+        }
+        reportPhaseTimings(archiveTimings, agentProcesses.keySet());
+        return agentProcesses;
+    }
+
+    /**
+     * Remove the samples and summaries of counters left in the {@code metricsDirectory} by an earlier build, such as those of a replica that is no longer configured, so that only the agents
+     * recorded by this build are verified. Only the first execution of this build to record counters into the directory clears it, so that agents recorded by earlier executions of this build are
+     * kept; the directory is then exported as the {@code flume.metrics.directory} project property.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @throws IOException
+     *             If any of the files cannot be removed.
+     */
+    void clearMetricsDirectory() throws IOException {
+        final Properties projectProperties = project.getProperties();
+        synchronized (projectProperties) {
+            if (metricsDirectory.getAbsolutePath().equals(projectProperties.getProperty(METRICS_DIRECTORY_PROPERTY))) {
+                return;
+            }
+            final File[] staleFiles = metricsDirectory.listFiles((dir, name) -> name.endsWith(".jsonl") || name.endsWith("-summary.json"));
+            if (staleFiles != null) {
+                for (File staleFile : staleFiles) {
+                    Files.deleteIfExists(staleFile.toPath());
+                }
+            }
+            projectProperties.setProperty(METRICS_DIRECTORY_PROPERTY, metricsDirectory.getAbsolutePath());
         }
+    }
+
+    /**
+     * Start the agents of a topology, tier by tier.
+     * 
+     * @param topology
+     *            The {@link AgentTopology} of the agents to be started.
+     * @param agentProcesses
+     *            A {@link Map} to which each started {@link Agent} is to be added with its {@link AgentProcess}, in the order in which they are started.
+     * @throws MojoExecutionException
+     *             If any agent cannot be built or started, or does not become ready in time.
+     */
+    private void startAgents(AgentTopology topology, Map<Agent, AgentProcess> agentProcesses) throws MojoExecutionException {
+        for (List<Agent> tier : topology.getTiers()) {
+            final ExecutorService executor = Executors.newFixedThreadPool(tier.size());
+            try {
+                final List<Future<AgentProcess>> started = new ArrayList<>(tier.size());
+                for (final Agent agent : tier) {
+                    started.add(executor.submit(() -> {
+                        final AgentProcess agentProcess = buildAgentProcess(agent);
+                        final PhaseTimings timings = getPhaseTimings(agent);
+                        // Receive events before the agent's sinks first try to connect, so that they do not start by backing off
+                        try (final PhaseTimings.Timer timer = timings.start(Phase.CAPTURES)) {
+                            startCaptures(agent, agentProcess);
+                        }
+                        try (final PhaseTimings.Timer timer = timings.start(Phase.SPAWN)) {
+                            agentProcess.start();
+                        } catch (IOException e) {
+                            throw new MojoExecutionException("Failed to start Flume agent.", e);
+                        }
+                        getLog().info(String.format("Agent %s started.", agentProcess.getAgentName()));
+                        AgentProcessContainer.storeAgentProcess(getGroupName(agent), agentProcess);
+                        return agentProcess;
+                    }));
+                }
+                for (int i = 0; i < tier.size(); i++) {
+                    agentProcesses.put(tier.get(i), await(started.get(i)));
+                }
+
+                final List<Future<AgentProcess>> ready = new ArrayList<>(tier.size());
+                for (final Agent agent : tier) {
+                    if (topology.isDependedOn(agent)) {
+                        final AgentProcess agentProcess = agentProcesses.get(agent);
+                        ready.add(executor.submit(() -> {
+                            try (final PhaseTimings.Timer timer = getPhaseTimings(agent).start(Phase.READINESS)) {
+                                AgentReadiness.awaitReady(agentProcess, readinessTimeoutMillis);
+                            }
+                            getLog().info(String.format("Agent %s is ready.", agentProcess.getAgentName()));
+                            return agentProcess;
+                        }));
+                    }
+                }
+                for (Future<AgentProcess> agentReady : ready) {
+                    await(agentReady);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Start the captures of an agent that have not already been started, each on the port allocated to its name. The location of the file of a capture that persists its events is exported as
+     * the {@code flume.capture.NAME.file} project property.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param agent
+     *            The {@link Agent} whose captures are to be started.
+     * @param agentProcess
+     *            The {@link AgentProcess} of the agent, whose Flume installation provides the captures' Avro protocol.
+     * @throws MojoExecutionException
+     *             If a capture has no name or cannot be started.
+     */
+    void startCaptures(Agent agent, AgentProcess agentProcess) throws MojoExecutionException {
+        for (Capture capture : agent.getCaptures()) {
+            if (capture.getName() == null || capture.getName().trim().isEmpty()) {
+                throw new MojoExecutionException(String.format("A capture of agent %s has no name.", agent.getAgentName()));
+            }
+            try {
+                final PortAllocator portAllocator = getPortAllocator();
+                final int port = portAllocator.getPort(capture.getName());
+                exportPorts(portAllocator);
+                final EventCapture started = CaptureContainer.startCapture(new EventCapture(capture.getName(), captureDirectory, capture.isPersist(), capture.getDelayMillis()),
+                        agentProcess, port);
+                if (capture.isPersist()) {
+                    project.getProperties().setProperty("flume.capture." + capture.getName() + ".file", started.getCaptureFile().getAbsolutePath());
+                }
+            } catch (IOException e) {
+                throw new MojoExecutionException(String.format("Failed to start capture %s of agent %s.", capture.getName(), agent.getAgentName()), e);
+            }
+        }
+    }
+
+    /**
+     * Wait for a step of building or starting an agent to finish.
+     * 
+     * @param <T>
+     *            The type of the result of the step.
+     * @param step
+     *            A {@link Future} representing the step.
+     * @return The result of the step.
+     * @throws MojoExecutionException
+     *             If the step failed or the wait was interrupted.
+     */
+    private static <T> T await(Future<T> step) throws MojoExecutionException {
         try {
-            writeFlumeEnvironment(agent, flumeDirectory);
-        } catch (IOException e) {
-            throw new MojoExecutionException("Error writing Flume environment to directory: " + flumeDirectory.getAbsolutePath(), e);
+            return step.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while starting the Flume agents.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MojoExecutionException) {
+                throw (MojoExecutionException) e.getCause();
+            }
+            throw new MojoExecutionException("Failed to start Flume agent.", e.getCause());
         }
+    }
+
+    /**
+     * Build the agent process, recording the time spent in each {@link Phase} of preparing it in the agent's {@link #getPhaseTimings(Agent) timings}. The steps of preparing the agent's Flume
+     * installation run as a graph of tasks, each started as soon as the steps on which it depends have finished:
+     * <ul>
+     * <li>Flume is unpacked while the agent's plugins are resolved.</li>
+     * <li>Once Flume is unpacked, the plugins are extracted into it (once they are resolved), its libraries are removed, and, in turn, the configuration file is rendered and the logging
+     * properties, heap sizing, and environment are written into its {@code conf/} directory.</li>
+     * <li>The configuration is validated once it is rendered and the plugins and libraries are in place.</li>
+     * </ul>
+     * 
+     * @param agent
+     *            The {@link Agent} for which a process is to be built.
+     * @return An {@link AgentProcess} describing the agent process.
+     * @throws MojoExecutionException
+     *             If any errors occur while building the agent process.
+     */
+    protected AgentProcess buildAgentProcess(Agent agent) throws MojoExecutionException {
+        final PhaseTimings timings = getPhaseTimings(agent);
+        final FlumeArchiveCache flumeArchiveCache = getArchiveCache();
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final File flumeDirectory;
+        final File configFile;
+        final int monitoringPort;
         try {
-            removeLibs(agent, flumeDirectory);
-        } catch (IOException e) {
-            throw new MojoExecutionException("Failed to remove libs.", e);
+            final CompletableFuture<File> unpacked = runStep(executor, () -> {
+                try {
+                    return unpackFlume(agent, flumeArchiveCache);
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Failed to unpack Flume.", e);
+                }
+            });
+            final CompletableFuture<Collection<Artifact>> resolved = runStep(executor, () -> {
+                if (agent.getFlumePlugins().isEmpty()) {
+                    return Collections.<Artifact> emptyList();
+                }
+                try {
+                    return getFlumePluginDependencies(agent);
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Failed to copy all Flume plugins.", e);
+                }
+            });
+            final CompletableFuture<Void> pluginsCopied = CompletableFuture.allOf(unpacked, resolved).thenCompose(resolution -> runStep(executor, () -> {
+                try {
+                    extractFlumePlugins(agent, unpacked.join(), resolved.join());
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Failed to copy all Flume plugins.", e);
+                }
+                return null;
+            }));
+            final CompletableFuture<Void> libsRemoved = unpacked.thenCompose(installation -> runStep(executor, () -> {
+                try {
+                    removeLibs(agent, installation);
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Failed to remove libs.", e);
+                }
+                return null;
+            }));
+            // Everything written into the conf/ directory is written in turn, so that its steps do not race to create the directory
+            final CompletableFuture<File> rendered = unpacked.thenCompose(installation -> runStep(executor, () -> {
+                try (final PhaseTimings.Timer timer = timings.start(Phase.RENDER_CONFIG)) {
+                    return renderConfigFile(agent, installation);
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Failed to render the configuration file of agent " + agent.getAgentName(), e);
+                }
+            }));
+            final CompletableFuture<Integer> configured = rendered.thenCompose(renderedConfigFile -> runStep(executor, () -> {
+                final File installation = unpacked.join();
+                try (final PhaseTimings.Timer timer = timings.start(Phase.LOGGING_PROPERTIES)) {
+                    copyLoggingProperties(agent, installation);
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Failed to copy the Flume logging properties.", e);
+                }
+                try (final PhaseTimings.Timer timer = timings.start(Phase.HEAP_SIZING)) {
+                    sizeHeap(agent, renderedConfigFile);
+                }
+                final int allocatedPort;
+                try {
+                    allocatedPort = allocateMonitoringPort(agent);
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Failed to allocate a monitoring port for agent " + agent.getAgentName(), e);
+                }
+                try (final PhaseTimings.Timer timer = timings.start(Phase.WRITE_ENVIRONMENT)) {
+                    writeFlumeEnvironment(agent, installation, allocatedPort);
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Error writing Flume environment to directory: " + installation.getAbsolutePath(), e);
+                }
+                return allocatedPort;
+            }));
+            final CompletableFuture<Void> validated = CompletableFuture.allOf(rendered, pluginsCopied, libsRemoved).thenCompose(installed -> runStep(executor, () -> {
+                if (validateConfiguration) {
+                    try (final PhaseTimings.Timer timer = timings.start(Phase.VALIDATION)) {
+                        validateAgentConfiguration(agent, unpacked.join(), rendered.join());
+                    }
+                }
+                return null;
+            }));
+            await(CompletableFuture.allOf(configured, validated));
+            flumeDirectory = unpacked.join();
+            configFile = rendered.join();
+            monitoringPort = configured.join();
+        } finally {
+            executor.shutdownNow();
         }
         final AgentProcess.Builder builder = AgentProcess.newBuilder(flumeDirectory);
-        return builder.withAgent(agent.getAgentName()).withConfigFile(agent.getConfigFile()).build();
+        if (agent.isClassDataSharing() && agent.getLaunchMode() != LaunchMode.DIRECT) {
+            getLog().warn(String.format("Class data sharing is only supported for agents launched in DIRECT mode; agent %s will be started without it.", agent.getAgentName()));
+        }
+        return builder.withAgent(agent.getAgentName()).withConfigFile(configFile).withLaunchMode(agent.getLaunchMode())
+                .withJavaOpts(getJavaOpts(agent, monitoringPort)).withSharedJvm(outputDirectory, sharedJvmJavaOpts).withClassDataSharing(agent.isClassDataSharing(), classDataSharingTrainingMillis)
+                .withMonitoringPort(monitoringPort).withMetricsRecording(metricsIntervalMillis > 0 ? metricsDirectory : null, metricsIntervalMillis).build();
+    }
+
+    /**
+     * Run a step of building an agent process.
+     * 
+     * @param <T>
+     *            The type of the result of the step.
+     * @param executor
+     *            The {@link Executor} on which the step is to be run.
+     * @param step
+     *            The {@link BuildStep} to be run.
+     * @return A {@link CompletableFuture} representing the step, which completes exceptionally with the {@link MojoExecutionException} of a step that fails.
+     */
+    private static <T> CompletableFuture<T> runStep(Executor executor, BuildStep<T> step) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return step.run();
+            } catch (MojoExecutionException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
     }
 
     /**
-     * Copy any configured Flume plugins to the given Flume installation directory.
+     * Resolve any configured Flume plugins and copy them to the given Flume installation directory.
      * <p />
      * This is intentionally made package-private to expose it for testing purposes.
      * 
@@ -175,12 +677,37 @@ public abstract class AbstractFlumeAgentsMojo extends AbstractMojo {
             return;
         }
 
+        extractFlumePlugins(agent, flumeDirectory, getFlumePluginDependencies(agent));
+    }
+
+    /**
+     * Extract resolved Flume plugins into the given Flume installation directory, recording their extraction as the agent's {@link Phase#PLUGIN_EXTRACTION} phase.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param agent
+     *            The {@link Agent} whose Flume plugins are to be installed.
+     * @param flumeDirectory
+     *            A {@link File} representing the directory in which Flume is installed.
+     * @param pluginArtifacts
+     *            A {@link Collection} of the resolved {@link Artifact} objects of the plugins.
+     * @throws IOException
+     *             If any errors occur during the extraction.
+     */
+    void extractFlumePlugins(Agent agent, File flumeDirectory, Collection<Artifact> pluginArtifacts) throws IOException {
         final File pluginsDir = new File(flumeDirectory, "plugins.d");
-        for (Artifact pluginArtifact : getFlumePluginDependencies(agent)) {
-            final URL pluginUrl = pluginArtifact.getFile().toURI().toURL();
-            final File tarFile = removeFinalExtension(pluginArtifact.getFile());
-            gunzipFile(pluginUrl, tarFile);
-            untarFile(tarFile, pluginsDir);
+        for (Artifact pluginArtifact : pluginArtifacts) {
+            try (final PhaseTimings.Timer timer = getPhaseTimings(agent).start(Phase.PLUGIN_EXTRACTION)) {
+                final URL pluginUrl = pluginArtifact.getFile().toURI().toURL();
+                // Staged in the agent's own installation rather than beside the artifact in the local repository, where agents sharing the plugin would overwrite each other's
+                final File tarFile = new File(flumeDirectory, removeFinalExtension(pluginArtifact.getFile()).getName());
+                try {
+                    timer.addBytes(gunzipFile(pluginUrl, tarFile));
+                    timer.addFiles(untarFile(tarFile, pluginsDir));
+                } finally {
+                    Files.deleteIfExists(tarFile.toPath());
+                }
+            }
         }
     }
 
@@ -205,7 +732,8 @@ public abstract class AbstractFlumeAgentsMojo extends AbstractMojo {
     }
 
     /**
-     * Retrieve from the current project all Flume plugins declared as dependencies.
+     * Retrieve from the current project all Flume plugins declared as dependencies, recording the building of the dependency graph and the resolution of the plugins as the agent's
+     * {@link Phase#DEPENDENCY_GRAPH} and {@link Phase#PLUGIN_RESOLUTION} phases.
      * <p />
      * This is intentionally made package-private to expose it for testing purposes.
      * 
@@ -216,16 +744,23 @@ public abstract class AbstractFlumeAgentsMojo extends AbstractMojo {
      *             If any errors occur during the plugin retrieval.
      */
     Collection<Artifact> getFlumePluginDependencies(Agent agent) throws IOException {
+        final PhaseTimings timings = getPhaseTimings(agent);
         try {
-            final DependencyNode rootNode = dependencyGraphBuilder.buildDependencyGraph(project, new FlumePluginsArtifactFilter(agent.getFlumePlugins()));
+            final DependencyNode rootNode;
+            try (final PhaseTimings.Timer timer = timings.start(Phase.DEPENDENCY_GRAPH)) {
+                rootNode = dependencyGraphBuilder.buildDependencyGraph(project, new FlumePluginsArtifactFilter(agent.getFlumePlugins()));
+            }
             final List<Artifact> artifacts = new ArrayList<Artifact>(rootNode.getChildren().size());
-            for (DependencyNode childNode : rootNode.getChildren()) {
-                final Artifact artifact = childNode.getArtifact();
-                final ArtifactResolutionResult result = artifactResolver.resolve(toRequest(artifact));
-                if (!result.getMissingArtifacts().isEmpty()) {
-                    throw new IOException("Unable to resolve one or more artifacts: " + result.getMissingArtifacts());
+            try (final PhaseTimings.Timer timer = timings.start(Phase.PLUGIN_RESOLUTION)) {
+                for (DependencyNode childNode : rootNode.getChildren()) {
+                    final Artifact artifact = childNode.getArtifact();
+                    final ArtifactResolutionResult result = artifactResolver.resolve(toRequest(artifact));
+                    if (!result.getMissingArtifacts().isEmpty()) {
+                        throw new IOException("Unable to resolve one or more artifacts: " + result.getMissingArtifacts());
+                    }
+                    artifacts.add(artifact);
+                    timer.addFiles(1);
                 }
-                artifacts.add(artifact);
             }
             return artifacts;
         } catch (DependencyGraphBuilderException e) {
@@ -234,7 +769,7 @@ public abstract class AbstractFlumeAgentsMojo extends AbstractMojo {
     }
 
     /**
-     * Remove any libraries from the {@code lib/} directory in the given Flume installation directory.
+     * Remove any libraries from the {@code lib/} directory in the given Flume installation directory, recording their removal as the agent's {@link Phase#REMOVE_LIBS} phase.
      * 
      * @param agent
      *            The {@link Agent} whose installation's {@code lib/} directory is to be modified.
@@ -247,21 +782,25 @@ public abstract class AbstractFlumeAgentsMojo extends AbstractMojo {
         final File libDir = new File(flumeDirectory, "lib");
         final Log log = getLog();
         final boolean isDebugEnabled = log.isDebugEnabled();
-        for (String removal : agent.getLibs().getRemovals()) {
-            final File lib = new File(libDir, removal);
-            if (lib.exists()) {
-                if (isDebugEnabled) {
-                    log.debug(String.format("The file %s exists and will be removed.", lib.getAbsolutePath()));
+        try (final PhaseTimings.Timer timer = getPhaseTimings(agent).start(Phase.REMOVE_LIBS)) {
+            for (String removal : agent.getLibs().getRemovals()) {
+                final File lib = new File(libDir, removal);
+                if (lib.exists()) {
+                    if (isDebugEnabled) {
+                        log.debug(String.format("The file %s exists and will be removed.", lib.getAbsolutePath()));
+                    }
+                    timer.addBytes(lib.length());
+                    timer.addFiles(1);
+                    FileUtils.forceDelete(lib);
+                } else {
+                    log.warn(String.format("The file %s was specified for deletion, but could not be found in %s", removal, libDir.getAbsolutePath()));
                 }
-                FileUtils.forceDelete(lib);
-            } else {
-                log.warn(String.format("The file %s was specified for deletion, but could not be found in %s", removal, libDir.getAbsolutePath()));
             }
         }
     }
 
     /**
-     * Unpack the Flume installation.
+     * Unpack the Flume installation, recording the caching and unpacking of its archive in the agent's {@link #getPhaseTimings(Agent) timings}.
      * <p />
      * This is intentionally made package-private to expose it for testing purposes.
      * 
@@ -274,7 +813,201 @@ public abstract class AbstractFlumeAgentsMojo extends AbstractMojo {
      *             If any errors occur during the unpacking.
      */
     File unpackFlume(Agent agent, FlumeArchiveCache archiveCache) throws IOException {
-        return new FlumeCopier(archiveCache).copyTo(getAgentDirectory(agent));
+        return new FlumeCopier(archiveCache).copyTo(getAgentDirectory(agent), getPhaseTimings(agent));
+    }
+
+    /**
+     * Render the agent's configuration file into its Flume installation's {@code conf/} directory if it is a template or the agent is a replica or a trial of a sweep, filling in its placeholders and exporting the ports allocated to it as
+     * {@code flume.port.NAME} project properties and in the {@code flume-ports.properties} file of the output directory. Ports are allocated per project, so agents of the same project can refer
+     * to each other's ports by name.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param agent
+     *            The {@link Agent} whose configuration file is to be rendered.
+     * @param flumeDirectory
+     *            A {@link File} representing the directory in which Flume is installed.
+     * @return A {@link File} representing the configuration file with which the agent is to be started: the rendered file if the agent's configuration file was rendered; otherwise, the
+     *         agent's configuration file.
+     * @throws IOException
+     *             If any errors occur while rendering the configuration file or exporting its ports.
+     * @see ConfigTemplate
+     */
+    File renderConfigFile(Agent agent, File flumeDirectory) throws IOException {
+        final boolean isReplica = agent instanceof AgentReplica;
+        final boolean isTrial = agent instanceof SweepTrial;
+        if (!agent.isTemplateConfigFile() && !isReplica && !isTrial) {
+            return agent.getConfigFile();
+        }
+
+        final PortAllocator portAllocator = getPortAllocator();
+        String configuration = FileUtils.fileRead(agent.getConfigFile(), outputEncoding);
+        final Map<String, String> variables = new HashMap<>();
+        variables.put("agentName", agent.getAgentName());
+        if (isReplica) {
+            final AgentReplica replica = (AgentReplica) agent;
+            variables.put("replica", Integer.toString(replica.getReplica()));
+            // Point the replicated agent's properties at the replica, which Flume will look them up by
+            configuration = Pattern.compile("^([ \\t]*)" + Pattern.quote(replica.getGroupName() + "."), Pattern.MULTILINE).matcher(configuration)
+                    .replaceAll("$1" + Matcher.quoteReplacement(agent.getAgentName() + "."));
+        }
+        if (isTrial) {
+            final SweepTrial trial = (SweepTrial) agent;
+            variables.putAll(trial.getParameters());
+            configuration = trial.applyProperties(configuration);
+        }
+        final File renderedConfigFile = new File(flumeDirectory, "conf/" + agent.getConfigFile().getName());
+        FileUtils.forceMkdir(renderedConfigFile.getParentFile());
+        FileUtils.fileWrite(renderedConfigFile, outputEncoding, new ConfigTemplate(configuration).render(variables, portAllocator));
+        exportPorts(portAllocator);
+        return renderedConfigFile;
+    }
+
+    /**
+     * Allocate the port on which the agent is to serve its counters through Flume's HTTP monitoring, exporting it as the {@code flume.port.AGENT.monitoring} project property.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param agent
+     *            The {@link Agent} whose monitoring port is to be allocated.
+     * @return The allocated port; {@code -1} if neither the agent's {@code monitoring} nor the sampling of its counters is enabled, or monitoring is not supported by its launch mode.
+     * @throws IOException
+     *             If a free port cannot be found or the ports cannot be exported.
+     */
+    int allocateMonitoringPort(Agent agent) throws IOException {
+        if (!agent.isMonitoring() && metricsIntervalMillis <= 0) {
+            return -1;
+        }
+        if (agent.getLaunchMode() == LaunchMode.EMBEDDED || agent.getLaunchMode() == LaunchMode.SHARED) {
+            getLog().warn(String.format("Monitoring is only supported for agents launched in SCRIPT or DIRECT mode; agent %s will be started without it.", agent.getAgentName()));
+            return -1;
+        }
+
+        final PortAllocator portAllocator = getPortAllocator();
+        final int monitoringPort = portAllocator.getPort(agent.getAgentName() + ".monitoring");
+        exportPorts(portAllocator);
+        return monitoringPort;
+    }
+
+    /**
+     * Export the ports allocated so far as {@code flume.port.NAME} project properties and in the {@code flume-ports.properties} file of the output directory.
+     * 
+     * @param portAllocator
+     *            The {@link PortAllocator} whose ports are to be exported.
+     * @throws IOException
+     *             If the ports cannot be written to the output directory.
+     */
+    private void exportPorts(PortAllocator portAllocator) throws IOException {
+        // Agents are built in parallel, so export a consistent snapshot of the ports
+        synchronized (portAllocator) {
+            final Properties portProperties = new Properties();
+            for (Entry<String, Integer> port : portAllocator.getPorts().entrySet()) {
+                portProperties.setProperty("flume.port." + port.getKey(), port.getValue().toString());
+            }
+            project.getProperties().putAll(portProperties);
+            FileUtils.forceMkdir(outputDirectory);
+            try (final OutputStream portsOut = new FileOutputStream(new File(outputDirectory, "flume-ports.properties"))) {
+                portProperties.store(portsOut, "Ports allocated to the Flume agents' configuration templates");
+            }
+        }
+    }
+
+    /**
+     * Get the {@link PortAllocator} of the current project, creating it if it does not yet exist.
+     * 
+     * @return The {@link PortAllocator} of the current project.
+     */
+    private PortAllocator getPortAllocator() {
+        synchronized (PORT_ALLOCATORS) {
+            PortAllocator portAllocator = PORT_ALLOCATORS.get(project);
+            if (portAllocator == null) {
+                portAllocator = new PortAllocator();
+                PORT_ALLOCATORS.put(project, portAllocator);
+            }
+            return portAllocator;
+        }
+    }
+
+    /**
+     * Validate the agent's configuration with the configuration classes of its Flume installation.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param agent
+     *            The {@link Agent} whose configuration is to be validated.
+     * @param flumeDirectory
+     *            A {@link File} representing the directory in which Flume is installed.
+     * @param configFile
+     *            A {@link File} representing the configuration file with which the agent is to be started.
+     * @throws MojoExecutionException
+     *             If any problems are found with the agent's configuration.
+     */
+    void validateAgentConfiguration(Agent agent, File flumeDirectory, File configFile) throws MojoExecutionException {
+        final long start = System.currentTimeMillis();
+        final List<String> problems;
+        try {
+            problems = FlumeConfigurationValidator.validate(flumeDirectory, configFile, agent.getAgentName());
+        } catch (IOException e) {
+            getLog().warn(String.format("The configuration of agent %s could not be validated before starting it; it will be started unvalidated.", agent.getAgentName()), e);
+            return;
+        }
+        if (!problems.isEmpty()) {
+            final StringBuilder message = new StringBuilder(String.format("The configuration of agent %s in %s is invalid:", agent.getAgentName(), configFile.getAbsolutePath()));
+            for (String problem : problems) {
+                message.append(System.lineSeparator()).append("  - ").append(problem);
+            }
+            throw new MojoExecutionException(message.toString());
+        }
+        if (getLog().isDebugEnabled()) {
+            getLog().debug(String.format("The configuration of agent %s was validated in %d ms.", agent.getAgentName(), System.currentTimeMillis() - start));
+        }
+    }
+
+    /**
+     * Estimate the heap needed by the agent's channels and apply its {@link HeapSizingPolicy} to its JVM arguments. Under {@link HeapSizingPolicy#AUTO}, an agent whose JVM arguments are the
+     * default has them replaced with ones derived from the estimate.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param agent
+     *            The {@link Agent} whose heap is to be sized.
+     * @param configFile
+     *            A {@link File} representing the configuration file with which the agent is to be started.
+     * @throws MojoExecutionException
+     *             If the agent's configuration cannot be read or the agent's heap is too small and its policy is {@link HeapSizingPolicy#FAIL}.
+     */
+    void sizeHeap(Agent agent, File configFile) throws MojoExecutionException {
+        final HeapSizingPolicy policy = agent.getHeapSizing();
+        if (policy == HeapSizingPolicy.NONE || agent.getLaunchMode() == LaunchMode.EMBEDDED || agent.getLaunchMode() == LaunchMode.SHARED) {
+            return;
+        }
+
+        final HeapEstimate estimate;
+        try {
+            estimate = HeapEstimate.estimate(AgentConfiguration.load(configFile, agent.getAgentName()), agent.getAverageEventSize());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new MojoExecutionException("Failed to read the configuration of agent " + agent.getAgentName() + " to estimate its heap.", e);
+        }
+        if (estimate.getChannelBytes() == 0) {
+            return;
+        }
+
+        if (policy == HeapSizingPolicy.AUTO && Agent.DEFAULT_JAVA_OPTS.equals(agent.getJavaOpts())) {
+            agent.setJavaOpts(estimate.toJavaOpts());
+            getLog().info(String.format("Agent %s's channels hold an estimated %d bytes; its JVM arguments have been set to: %s", agent.getAgentName(), estimate.getChannelBytes(), agent.getJavaOpts()));
+            return;
+        }
+
+        final long maxHeapBytes = HeapEstimate.getMaxHeapBytes(agent.getJavaOpts());
+        if (maxHeapBytes < 0 || maxHeapBytes >= estimate.getHeapBytes()) {
+            return;
+        }
+        final String message = String.format("Agent %s's maximum heap of %d bytes is smaller than the estimated %d bytes needed by its channels (which hold an estimated %d bytes when full); consider: %s",
+                agent.getAgentName(), maxHeapBytes, estimate.getHeapBytes(), estimate.getChannelBytes(), estimate.toJavaOpts());
+        if (policy == HeapSizingPolicy.FAIL) {
+            throw new MojoExecutionException(message);
+        }
+        getLog().warn(message);
     }
 
     /**
@@ -284,13 +1017,39 @@ public abstract class AbstractFlumeAgentsMojo extends AbstractMojo {
      *            The {@link Agent} whose environment is to be modified.
      * @param flumeDirectory
      *            A {@link File} representing the directory to which the Flume environment configuration will be written.
+     * @param monitoringPort
+     *            The port on which the agent is to serve its counters, or {@code -1} if it is not to serve them.
      * @throws IOException
      *             If any errors occur while writing the Flume environment.
      */
-    void writeFlumeEnvironment(Agent agent, File flumeDirectory) throws IOException {
+    void writeFlumeEnvironment(Agent agent, File flumeDirectory, int monitoringPort) throws IOException {
         final File confDir = new File(flumeDirectory, "conf");
         FileUtils.forceMkdir(confDir);
-        FileUtils.fileWrite(new File(confDir, "flume-env.sh"), outputEncoding, String.format("JAVA_OPTS=\"%s\"", agent.getJavaOpts()));
+        FileUtils.fileWrite(new File(confDir, "flume-env.sh"), outputEncoding, String.format("JAVA_OPTS=\"%s\"", getJavaOpts(agent, monitoringPort)));
+    }
+
+    /**
+     * Get the JVM arguments with which the agent is to be started.
+     * 
+     * @param agent
+     *            The {@link Agent} whose JVM arguments are to be retrieved.
+     * @param monitoringPort
+     *            The port on which the agent is to serve its counters, or {@code -1} if it is not to serve them.
+     * @return The agent's configured JVM arguments, followed by the fast-start flags if the agent's {@code fastStart} is enabled, the monitoring properties if it has a monitoring port, and
+     *         the GC log arguments if it is a trial of a sweep.
+     */
+    private String getJavaOpts(Agent agent, int monitoringPort) {
+        final StringBuilder javaOpts = new StringBuilder(agent.getJavaOpts());
+        if (agent.isFastStart()) {
+            javaOpts.append(' ').append(FAST_START_JAVA_OPTS);
+        }
+        if (monitoringPort >= 0) {
+            javaOpts.append(' ').append(AgentMetrics.getJavaOpts(monitoringPort));
+        }
+        if (agent instanceof SweepTrial) {
+            javaOpts.append(' ').append(GcLog.getJavaOpts(((SweepTrial) agent).getGcLogFile()));
+        }
+        return javaOpts.toString();
     }
 
     /**
@@ -339,6 +1098,25 @@ public abstract class AbstractFlumeAgentsMojo extends AbstractMojo {
         return request;
     }
 
+    /**
+     * A step of building an agent process, run as a task of {@link AbstractFlumeAgentsMojo#buildAgentProcess(Agent)}.
+     * 
+     * @param <T>
+     *            The type of the result of the step.
+     * @author Joshua Hyde
+     * @since 3.1
+     */
+    private interface BuildStep<T> {
+        /**
+         * Run the step.
+         * 
+         * @return The result of the step.
+         * @throws MojoExecutionException
+         *             If the step fails.
+         */
+        T run() throws MojoExecutionException;
+    }
+
     /**
      * An {@link ArtifactFilter} that filters out any artifact that don't match the given set of Flume plugins.
      * 
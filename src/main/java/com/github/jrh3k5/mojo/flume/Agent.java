@@ -17,6 +17,8 @@
  */
 package com.github.jrh3k5.mojo.flume;
 
+import com.github.jrh3k5.mojo.flume.config.HeapSizingPolicy;
+import com.github.jrh3k5.mojo.flume.process.LaunchMode;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -33,6 +35,11 @@ import java.util.List;
 
 @Getter @Setter
 public class Agent {
+    /**
+     * The default JVM arguments of an agent.
+     */
+    static final String DEFAULT_JAVA_OPTS = "-Xmx20m";
+
     /**
      * The list of any external Flume plugins to be installed into the agent's plugins directory.
      *
@@ -64,7 +71,7 @@ public class Agent {
      *            The JVM arguments to be supplied to the Flume agent's JVM.
      * @return The JVM arguments to be supplied to the Flume agent's JVM.
      */
-    private String javaOpts = "-Xmx20m";
+    private String javaOpts = DEFAULT_JAVA_OPTS;
     /**
      * The file containing the logging configuration properties.
      *
@@ -84,4 +91,143 @@ public class Agent {
      * @return A {@link Libs} object representing the desired configuration of the agent's {@code libs/} directory.
      */
     private Libs libs = new Libs();
+    /**
+     * How the agent is to be launched: {@code SCRIPT} (the default) forks the agent through Flume's {@code bin/flume-ng} script, {@code EMBEDDED} runs the agent inside the Maven JVM in an
+     * isolated class loader, skipping the cost of starting a new JVM, {@code SHARED} runs the agent in an isolated class loader within a single JVM forked to host all such agents, and
+     * {@code DIRECT} forks the agent's JVM directly rather than through the script.
+     *
+     * @param launchMode
+     *            A {@link LaunchMode} describing how the agent is to be launched.
+     * @return A {@link LaunchMode} describing how the agent is to be launched.
+     * @since 3.1
+     */
+    private LaunchMode launchMode = LaunchMode.SCRIPT;
+    /**
+     * Whether the agent is to be started with an application class data sharing archive, which lets its JVM map the classes Flume loads at startup from a pre-built archive rather than loading
+     * them one at a time. The archive is built by a one-time training run of the agent, cached in the temporary directory, and rebuilt whenever the agent's class path changes. This requires a
+     * {@code launchMode} of {@code DIRECT} and Maven to be run with Java 11 or later.
+     *
+     * @param classDataSharing
+     *            {@code true} if the agent is to be started with a class data sharing archive.
+     * @return {@code true} if the agent is to be started with a class data sharing archive.
+     * @since 3.1
+     */
+    private boolean classDataSharing;
+    /**
+     * Whether the agent's JVM is to be started with flags that favor startup time over peak throughput: compilation limited to the C1 compiler, the serial garbage collector, and no
+     * performance data file. These are appended to the agent's {@code javaOpts}.
+     *
+     * @param fastStart
+     *            {@code true} if the agent's JVM is to be started with flags that favor startup time.
+     * @return {@code true} if the agent's JVM is to be started with flags that favor startup time.
+     * @since 3.1
+     */
+    private boolean fastStart;
+    /**
+     * What is to be done if the agent's maximum heap size is smaller than the heap its {@code memory} and {@code SPILLABLEMEMORY} channels are estimated to need when full. {@code WARN} (the
+     * default) logs a warning, {@code FAIL} fails the build, {@code AUTO} replaces the default {@code javaOpts} with a derived {@code -Xmx} and {@code -XX:MaxDirectMemorySize} (and otherwise
+     * behaves as {@code WARN}), and {@code NONE} skips the estimate. This is only applied to agents whose {@code launchMode} forks a JVM of their own.
+     *
+     * @param heapSizing
+     *            A {@link HeapSizingPolicy} describing what is to be done if the agent's maximum heap size is too small.
+     * @return A {@link HeapSizingPolicy} describing what is to be done if the agent's maximum heap size is too small.
+     * @since 3.1
+     */
+    private HeapSizingPolicy heapSizing = HeapSizingPolicy.WARN;
+    /**
+     * The average size, in bytes, of the events that the agent's channels are expected to hold, used to estimate the heap the channels need.
+     *
+     * @param averageEventSize
+     *            The average size, in bytes, of an event.
+     * @return The average size, in bytes, of an event.
+     * @since 3.1
+     */
+    private long averageEventSize = 1024;
+    /**
+     * Whether the agent's configuration file is a template whose placeholders are to be filled in before the agent is started: {@code ${agentName}} with the name of the agent and
+     * {@code ${port:NAME}} with a free port allocated to {@code NAME}. The rendered file is written to the agent's Flume installation, and the allocated ports are exported as
+     * {@code flume.port.NAME} project properties.
+     *
+     * @param templateConfigFile
+     *            {@code true} if the agent's configuration file is a template.
+     * @return {@code true} if the agent's configuration file is a template.
+     * @since 3.1
+     */
+    private boolean templateConfigFile;
+    /**
+     * The number of copies of the agent to be run. Each copy is named after the agent and its number, starting from 1 (e.g., {@code a1-1}, {@code a1-2}), is installed into a directory of its
+     * own, and has its configuration file rendered with the agent's name in its property names replaced by the copy's, along with the placeholders described by {@code templateConfigFile}
+     * (where {@code ${agentName}} is the copy's name) and {@code ${replica}}, the copy's number. The copies are stopped together by the agent's name.
+     *
+     * @param replicas
+     *            The number of copies of the agent to be run.
+     * @return The number of copies of the agent to be run.
+     * @since 3.1
+     */
+    private int replicas = 1;
+    /**
+     * The names of the agents to which this agent sends events, such as the collector agents fed by an edge agent's Avro sinks. Agents are started in tiers: each tier is started once the
+     * agents on which it depends have started and are accepting connections on their sources' ports, with the agents of a tier started in parallel. Agents are stopped in the reverse order, so
+     * that events still in flight can reach the agents that they are bound for.
+     *
+     * @param dependsOn
+     *            A {@link List} of the names of the agents on which this agent depends.
+     * @return A {@link List} of the names of the agents on which this agent depends.
+     * @since 3.1
+     */
+    private List<String> dependsOn = Collections.emptyList();
+    /**
+     * Whether the agent is to serve its counters (such as the size of each channel) over HTTP through Flume's monitoring. The port is allocated from the free ports of the machine and
+     * exported as the {@code flume.port.AGENT.monitoring} project property, where {@code AGENT} is the agent's name. This is required for the agent's channels to be drained when it is
+     * stopped, and is only supported for a {@code launchMode} of {@code SCRIPT} or {@code DIRECT}, as the monitoring of agents sharing a JVM cannot be told apart.
+     *
+     * @param monitoring
+     *            {@code true} if the agent is to serve its counters over HTTP.
+     * @return {@code true} if the agent is to serve its counters over HTTP.
+     * @since 3.1
+     */
+    private boolean monitoring;
+    /**
+     * In-build stand-ins for the agents downstream of this agent's Avro sinks, each of which counts the events it receives and can write them to a file or acknowledge them slowly. Each is
+     * started before the agent, on the port allocated to its name, and stopped after all of the agents have been stopped. A capture shared by several agents, such as the replicas of an
+     * agent, is started once.
+     *
+     * @param captures
+     *            A {@link List} of {@link Capture} objects describing the agent's captures.
+     * @return A {@link List} of {@link Capture} objects describing the agent's captures.
+     * @since 3.1
+     */
+    private List<Capture> captures = Collections.emptyList();
+
+    /**
+     * Create an agent.
+     */
+    public Agent() {
+    }
+
+    /**
+     * Create a copy of an agent, from which an agent derived from it, such as one of its replicas, can override the values that differ.
+     *
+     * @param agent
+     *            The {@link Agent} to be copied.
+     * @since 3.1
+     */
+    protected Agent(Agent agent) {
+        this.flumePlugins = agent.flumePlugins;
+        this.agentName = agent.agentName;
+        this.configFile = agent.configFile;
+        this.javaOpts = agent.javaOpts;
+        this.loggingProperties = agent.loggingProperties;
+        this.libs = agent.libs;
+        this.launchMode = agent.launchMode;
+        this.classDataSharing = agent.classDataSharing;
+        this.fastStart = agent.fastStart;
+        this.heapSizing = agent.heapSizing;
+        this.averageEventSize = agent.averageEventSize;
+        this.templateConfigFile = agent.templateConfigFile;
+        this.replicas = agent.replicas;
+        this.dependsOn = agent.dependsOn;
+        this.monitoring = agent.monitoring;
+        this.captures = agent.captures;
+    }
 }
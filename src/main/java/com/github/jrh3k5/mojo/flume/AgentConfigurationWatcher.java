@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * An object that watches the files on which running agents depend and notifies registered listeners when any of those files change.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+class AgentConfigurationWatcher implements Runnable, Closeable {
+    private final Map<Path, List<ChangeListener>> listeners = Collections.synchronizedMap(new HashMap<Path, List<ChangeListener>>());
+    private final Set<Path> watchedDirectories = new HashSet<>();
+    private final WatchService watchService;
+    private final Log log;
+    private final long settleMillis;
+
+    /**
+     * Create a watcher.
+     * 
+     * @param log
+     *            The {@link Log} to which any failures to apply a change are to be written.
+     * @param settleMillis
+     *            The amount of time, in milliseconds, to wait after a change is first seen for any follow-up changes to the same files to arrive.
+     * @throws IOException
+     *             If the underlying {@link WatchService} cannot be created.
+     */
+    AgentConfigurationWatcher(Log log, long settleMillis) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.log = log;
+        this.settleMillis = settleMillis;
+    }
+
+    /**
+     * Watch a file for changes.
+     * 
+     * @param file
+     *            A {@link File} representing the file to be watched.
+     * @param listener
+     *            The {@link ChangeListener} to be notified when the file changes.
+     * @throws IOException
+     *             If the directory containing the file cannot be watched.
+     */
+    void watch(File file, ChangeListener listener) throws IOException {
+        final Path path = file.toPath().toAbsolutePath().normalize();
+        final Path directory = path.getParent();
+        synchronized (watchedDirectories) {
+            if (watchedDirectories.add(directory)) {
+                directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+            }
+        }
+        synchronized (listeners) {
+            List<ChangeListener> fileListeners = listeners.get(path);
+            if (fileListeners == null) {
+                fileListeners = new ArrayList<>();
+                listeners.put(path, fileListeners);
+            }
+            fileListeners.add(listener);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final Set<Path> changedFiles = new LinkedHashSet<>();
+                collectChanges(watchService.take(), changedFiles);
+                // Editors commonly write a file in several steps, so give those a chance to land before applying anything
+                Thread.sleep(settleMillis);
+                WatchKey followUp;
+                while ((followUp = watchService.poll()) != null) {
+                    collectChanges(followUp, changedFiles);
+                }
+                for (Path changedFile : changedFiles) {
+                    notifyListeners(changedFile);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // The watcher has been closed; there is nothing left to do
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    /**
+     * Collect the files with registered listeners that have changed according to the given key.
+     * 
+     * @param watchKey
+     *            The {@link WatchKey} whose events are to be collected.
+     * @param changedFiles
+     *            A {@link Set} of {@link Path} objects to which the location of each changed, watched file will be added.
+     */
+    private void collectChanges(WatchKey watchKey, Set<Path> changedFiles) {
+        final Path directory = (Path) watchKey.watchable();
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (!(event.context() instanceof Path)) {
+                continue;
+            }
+            final Path changedFile = directory.resolve((Path) event.context());
+            if (listeners.containsKey(changedFile)) {
+                changedFiles.add(changedFile);
+            }
+        }
+        watchKey.reset();
+    }
+
+    /**
+     * Notify all listeners registered for the given file of a change to it.
+     * 
+     * @param changedFile
+     *            A {@link Path} representing the file that has changed.
+     */
+    private void notifyListeners(Path changedFile) {
+        final List<ChangeListener> fileListeners;
+        synchronized (listeners) {
+            fileListeners = new ArrayList<>(listeners.get(changedFile));
+        }
+        for (ChangeListener listener : fileListeners) {
+            try {
+                listener.onChange(changedFile.toFile());
+            } catch (Exception e) {
+                log.error(String.format("Failed to apply the change to %s.", changedFile), e);
+            }
+        }
+    }
+
+    /**
+     * A listener to be notified when a watched file changes.
+     * 
+     * @author Joshua Hyde
+     * @since 3.1
+     */
+    interface ChangeListener {
+        /**
+         * Handle a change to a watched file.
+         * 
+         * @param file
+         *            A {@link File} representing the file that has changed.
+         * @throws IOException
+         *             If any errors occur while applying the change.
+         */
+        void onChange(File file) throws IOException;
+    }
+}
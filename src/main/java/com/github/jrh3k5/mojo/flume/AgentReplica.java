@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+/**
+ * One of the copies of an {@link Agent} whose {@code replicas} is greater than one.
+ * <p />
+ * A replica is named after its agent and its number (e.g., {@code a1-2}), so it is installed into a directory of its own, and its configuration file is always rendered with the agent's name in
+ * its property names replaced by the replica's.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+class AgentReplica extends Agent {
+    private final String groupName;
+    private final int replica;
+
+    /**
+     * Create a replica of an agent.
+     * 
+     * @param agent
+     *            The {@link Agent} to be replicated.
+     * @param replica
+     *            The number of the replica, starting from 1.
+     */
+    AgentReplica(Agent agent, int replica) {
+        super(agent);
+        this.groupName = agent.getAgentName();
+        this.replica = replica;
+        setAgentName(String.format("%s-%d", agent.getAgentName(), replica));
+        setReplicas(1);
+    }
+
+    /**
+     * Get the name of the agent of which this is a replica, under which all of its replicas are grouped.
+     * 
+     * @return The name of the replicated agent.
+     */
+    String getGroupName() {
+        return groupName;
+    }
+
+    /**
+     * Get the number of this replica.
+     * 
+     * @return The number of this replica, starting from 1.
+     */
+    int getReplica() {
+        return replica;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * The tiers into which agents are ordered by the agents on which they {@link Agent#getDependsOn() depend}. Replicas of an agent are placed in the same tier as each other.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+class AgentTopology {
+    private final List<List<Agent>> tiers;
+    private final Set<String> dependencies;
+
+    /**
+     * Order agents into tiers.
+     * 
+     * @param agents
+     *            A {@link List} of the {@link Agent} objects to be ordered.
+     * @throws MojoExecutionException
+     *             If an agent depends on an agent that is not configured or the agents' dependencies form a cycle.
+     */
+    AgentTopology(List<Agent> agents) throws MojoExecutionException {
+        final Map<String, List<Agent>> groups = new LinkedHashMap<>();
+        final Map<String, Set<String>> groupDependencies = new LinkedHashMap<>();
+        for (Agent agent : agents) {
+            final String groupName = AbstractFlumeAgentsMojo.getGroupName(agent);
+            if (!groups.containsKey(groupName)) {
+                groups.put(groupName, new ArrayList<Agent>());
+                groupDependencies.put(groupName, new HashSet<String>());
+            }
+            groups.get(groupName).add(agent);
+            groupDependencies.get(groupName).addAll(agent.getDependsOn());
+        }
+
+        final Set<String> allDependencies = new HashSet<>();
+        for (Entry<String, Set<String>> group : groupDependencies.entrySet()) {
+            for (String dependency : group.getValue()) {
+                if (!groups.containsKey(dependency)) {
+                    throw new MojoExecutionException(String.format("Agent %s depends on agent %s, which is not configured.", group.getKey(), dependency));
+                }
+            }
+            allDependencies.addAll(group.getValue());
+        }
+
+        final List<List<Agent>> orderedTiers = new ArrayList<>();
+        final Set<String> placed = new HashSet<>();
+        while (placed.size() < groups.size()) {
+            final List<String> tierGroups = new ArrayList<>();
+            for (Entry<String, Set<String>> group : groupDependencies.entrySet()) {
+                if (!placed.contains(group.getKey()) && placed.containsAll(group.getValue())) {
+                    tierGroups.add(group.getKey());
+                }
+            }
+            if (tierGroups.isEmpty()) {
+                final Set<String> unplaced = new HashSet<>(groups.keySet());
+                unplaced.removeAll(placed);
+                throw new MojoExecutionException("The dependencies of the following agents form a cycle: " + unplaced);
+            }
+
+            final List<Agent> tier = new ArrayList<>();
+            for (String groupName : tierGroups) {
+                tier.addAll(groups.get(groupName));
+            }
+            orderedTiers.add(Collections.unmodifiableList(tier));
+            placed.addAll(tierGroups);
+        }
+        this.tiers = Collections.unmodifiableList(orderedTiers);
+        this.dependencies = Collections.unmodifiableSet(allDependencies);
+    }
+
+    /**
+     * Get the tiers of agents, in the order in which they are to be started: each agent is in a later tier than all of the agents on which it depends.
+     * 
+     * @return A {@link List} of tiers, each a {@link List} of {@link Agent} objects in the order in which they were configured.
+     */
+    List<List<Agent>> getTiers() {
+        return tiers;
+    }
+
+    /**
+     * Determine whether any agent depends on the given agent.
+     * 
+     * @param agent
+     *            The {@link Agent} to be checked.
+     * @return {@code true} if any agent depends on the given agent or, if it is a replica, on the agent of which it is a replica.
+     */
+    boolean isDependedOn(Agent agent) {
+        return dependencies.contains(AbstractFlumeAgentsMojo.getGroupName(agent));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import com.github.jrh3k5.mojo.flume.process.AgentMonitor;
+import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
+
+/**
+ * A mojo used to wait for an agent started by the {@code start} goal to process events: either for one of its sinks to have delivered a number of events or, if no sink is given, for all of
+ * its channels to be empty. The agent's {@code monitoring} must be enabled.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@Mojo(name = "await", defaultPhase = LifecyclePhase.INTEGRATION_TEST)
+public class AwaitFlumeAgentsMojo extends AbstractMojo {
+    /**
+     * The name of the agent to wait for. An agent run as replicas is waited for as a whole.
+     */
+    @Parameter(required = true)
+    private String agentName;
+
+    /**
+     * The name of the sink whose delivered events are to be counted. If not set, the goal waits for the agent's channels to be empty.
+     */
+    @Parameter
+    private String sink;
+
+    /**
+     * The number of events that the {@code sink} is to have delivered, summed over the agent's replicas.
+     */
+    @Parameter(defaultValue = "1")
+    private long expectedEvents;
+
+    /**
+     * The amount of time, in milliseconds, to wait before failing the build.
+     */
+    @Parameter(defaultValue = "60000")
+    private long awaitTimeoutMillis;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final List<AgentProcess> agentProcesses = AgentProcessContainer.getAgentProcesses(agentName);
+        if (agentProcesses.isEmpty()) {
+            throw new MojoExecutionException(String.format("Agent %s has not been started.", agentName));
+        }
+        final List<Integer> monitoringPorts = new ArrayList<>(agentProcesses.size());
+        for (AgentProcess agentProcess : agentProcesses) {
+            if (agentProcess.getMonitoringPort() < 0) {
+                throw new MojoExecutionException(String.format("Agent %s cannot be awaited because its monitoring is not enabled.", agentProcess.getAgentName()));
+            }
+            monitoringPorts.add(agentProcess.getMonitoringPort());
+        }
+
+        final AgentMonitor monitor = new AgentMonitor(monitoringPorts);
+        final long start = System.currentTimeMillis();
+        try {
+            if (sink == null) {
+                monitor.awaitChannelsEmpty(awaitTimeoutMillis);
+                getLog().info(String.format("The channels of agent %s were empty after %d ms.", agentName, System.currentTimeMillis() - start));
+            } else {
+                monitor.awaitSinkEvents(sink, expectedEvents, awaitTimeoutMillis);
+                getLog().info(String.format("Sink %s of agent %s delivered %d events after %d ms.", sink, agentName, expectedEvents, System.currentTimeMillis() - start));
+            }
+        } catch (TimeoutException e) {
+            throw new MojoFailureException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to read the counters of agent " + agentName, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for agent " + agentName, e);
+        }
+    }
+}
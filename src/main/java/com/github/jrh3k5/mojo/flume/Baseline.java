@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.File;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Definition of where the results of the {@code load} and {@code benchmark} goals are recorded and how each run is compared against the runs of a baseline revision.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@Getter @Setter
+@ToString
+public class Baseline {
+    /**
+     * The directory in which the results of each run are recorded. It must outlive the build directory, e.g. {@code ${user.home}/.flume-results/my-project}, for runs of earlier builds to be
+     * compared against.
+     * 
+     * @param resultsDirectory
+     *            The directory in which the results of each run are recorded.
+     * @return The directory in which the results of each run are recorded.
+     */
+    private File resultsDirectory;
+    /**
+     * The git revision, or a prefix of it, whose runs are the baseline. If not set, the most recently recorded committed revision other than the one being built is used.
+     * 
+     * @param revision
+     *            The git revision whose runs are the baseline.
+     * @return The git revision whose runs are the baseline; {@code null} if the most recent revision is used.
+     */
+    private String revision;
+    /**
+     * The greatest number of the most recent runs of each revision to be compared.
+     * 
+     * @param runs
+     *            The greatest number of runs of each revision to be compared.
+     * @return The greatest number of runs of each revision to be compared.
+     */
+    private int runs = 5;
+    /**
+     * The smallest significant change, in percent of the baseline, that is reported as a regression or improvement.
+     * 
+     * @param regressionThreshold
+     *            The smallest change, in percent, that is reported as a regression.
+     * @return The smallest change, in percent, that is reported as a regression.
+     */
+    private double regressionThreshold = 5.0;
+    /**
+     * Whether the build is to fail if a metric regressed. If not, regressions are only logged as warnings.
+     * 
+     * @param failOnRegression
+     *            {@code true} if the build is to fail on a regression.
+     * @return {@code true} if the build is to fail on a regression.
+     */
+    private boolean failOnRegression;
+}
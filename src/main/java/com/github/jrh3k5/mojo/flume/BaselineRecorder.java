@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+
+import com.github.jrh3k5.mojo.flume.results.BaselineComparison;
+import com.github.jrh3k5.mojo.flume.results.ConfigFingerprint;
+import com.github.jrh3k5.mojo.flume.results.GitRevision;
+import com.github.jrh3k5.mojo.flume.results.Metric;
+import com.github.jrh3k5.mojo.flume.results.MetricComparison;
+import com.github.jrh3k5.mojo.flume.results.ResultsStore;
+import com.github.jrh3k5.mojo.flume.results.RunRecord;
+import com.github.jrh3k5.mojo.flume.results.Verdict;
+
+/**
+ * Records the results of a run and compares them against its {@link Baseline}. Runs are only compared against runs with the same key and configuration fingerprint, so that changing the
+ * agent's configuration or the goal's parameters starts a new history rather than reporting a regression.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+class BaselineRecorder {
+    private final Baseline baseline;
+    private final File projectDirectory;
+    private final Log log;
+
+    /**
+     * Create a recorder.
+     * 
+     * @param baseline
+     *            The {@link Baseline} against which runs are to be compared.
+     * @param projectDirectory
+     *            The directory of the project, whose git revision is recorded with each run.
+     * @param log
+     *            The {@link Log} to which the comparisons are to be written.
+     */
+    BaselineRecorder(Baseline baseline, File projectDirectory, Log log) {
+        this.baseline = baseline;
+        this.projectDirectory = projectDirectory;
+        this.log = log;
+    }
+
+    /**
+     * Record the results of a run and compare them against the baseline. The run is recorded even if it regressed, so that it can be compared against by later runs.
+     * 
+     * @param key
+     *            The name of the goal and agent measured, such as {@code load/a1}.
+     * @param configFile
+     *            The {@link File} of the agent's configuration.
+     * @param parameters
+     *            A {@link Map} of the names of the goal's parameters that shape the run to their values.
+     * @param metrics
+     *            A {@link Map} of each {@link Metric} measured to its value.
+     * @return The {@link BaselineComparison} of the run.
+     * @throws MojoExecutionException
+     *             If the baseline is not configured correctly or the results cannot be recorded.
+     * @throws MojoFailureException
+     *             If a metric regressed and the baseline is to fail the build on a regression.
+     */
+    BaselineComparison record(String key, File configFile, Map<String, String> parameters, Map<Metric, Double> metrics) throws MojoExecutionException, MojoFailureException {
+        if (baseline.getResultsDirectory() == null) {
+            throw new MojoExecutionException("The resultsDirectory of the baseline must be set.");
+        }
+        if (baseline.getRuns() < 1) {
+            throw new MojoExecutionException("The baseline must compare at least one run of each revision: " + baseline.getRuns());
+        }
+
+        final ResultsStore store = new ResultsStore(baseline.getResultsDirectory());
+        final RunRecord current;
+        final BaselineComparison comparison;
+        try {
+            current = new RunRecord(System.currentTimeMillis(), GitRevision.describe(projectDirectory), ConfigFingerprint.of(configFile, parameters), key, metrics);
+            final List<RunRecord> history = store.read(current.getKey(), current.getFingerprint());
+            comparison = BaselineComparison.compare(history, current, baseline.getRevision(), baseline.getRuns(), baseline.getRegressionThreshold());
+            store.append(current);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to record the results of " + key + " in " + store.getFile(), e);
+        }
+
+        if (comparison.getBaselineRevision() == null) {
+            log.info(String.format("Recorded %s at revision %s; there are no runs of %s to compare it against yet.", key, current.getRevision(),
+                    baseline.getRevision() == null ? "an earlier revision" : "revision " + baseline.getRevision()));
+            return comparison;
+        }
+        log.info(String.format("Comparing %s at revision %s against revision %s:", key, current.getRevision(), comparison.getBaselineRevision()));
+        for (MetricComparison metric : comparison.getComparisons()) {
+            if (Verdict.REGRESSION.equals(metric.getVerdict())) {
+                log.warn("  " + metric);
+            } else {
+                log.info("  " + metric);
+            }
+        }
+
+        final List<MetricComparison> regressions = comparison.getRegressions();
+        if (!regressions.isEmpty() && baseline.isFailOnRegression()) {
+            final StringBuilder message = new StringBuilder(String.format("%d metric(s) of %s regressed against revision %s:", regressions.size(), key, comparison.getBaselineRevision()));
+            for (MetricComparison regression : regressions) {
+                message.append(System.lineSeparator()).append("  - ").append(regression);
+            }
+            throw new MojoFailureException(message.toString());
+        }
+        return comparison;
+    }
+}
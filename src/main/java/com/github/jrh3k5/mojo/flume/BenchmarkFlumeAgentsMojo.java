@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import com.github.jrh3k5.mojo.flume.capture.AvroCaptureServer;
+import com.github.jrh3k5.mojo.flume.capture.CaptureContainer;
+import com.github.jrh3k5.mojo.flume.capture.EventCapture;
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+import com.github.jrh3k5.mojo.flume.load.LatencyBenchmark;
+import com.github.jrh3k5.mojo.flume.load.LatencyHistogram;
+import com.github.jrh3k5.mojo.flume.load.LatencyResult;
+import com.github.jrh3k5.mojo.flume.load.LoadTarget;
+import com.github.jrh3k5.mojo.flume.load.SourceProtocol;
+import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
+import com.github.jrh3k5.mojo.flume.results.Metric;
+
+/**
+ * A mojo used to measure the end-to-end latency of an agent started by the {@code start} goal. Events are sent to one of the agent's Avro or HTTP sources at a fixed rate and received, through
+ * an Avro sink of the agent, by a capture endpoint run within the build; the sink is pointed at the endpoint with a {@code ${port:capture}} placeholder in the agent's configuration. The
+ * distribution of latencies is written, in HdrHistogram's {@code .hgrm} format, to the output directory. If a {@code baseline} is configured, the latency percentiles are recorded and compared
+ * against those of earlier builds.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@Mojo(name = "benchmark", defaultPhase = LifecyclePhase.INTEGRATION_TEST)
+public class BenchmarkFlumeAgentsMojo extends AbstractMojo {
+    /**
+     * The name of the agent whose latency is to be measured.
+     */
+    @Parameter(required = true)
+    private String agentName;
+
+    /**
+     * The name of the source to which events are to be sent. If not set, the first Avro or HTTP source of the agent is used. Netcat sources cannot be used, as they drop the headers in which
+     * events carry their send times.
+     */
+    @Parameter
+    private String source;
+
+    /**
+     * The name of the port, allocated by a {@code ${port:NAME}} placeholder in the agent's configuration, on which the capture endpoint is to listen for the agent's Avro sink. If one of the
+     * agent's {@code captures} has this name, the events are received through it instead.
+     */
+    @Parameter(defaultValue = "capture")
+    private String capturePort;
+
+    /**
+     * The number of events to be sent each second.
+     */
+    @Parameter(defaultValue = "1000")
+    private int rate;
+
+    /**
+     * The number of connections over which events are sent at once. There should be enough that a send stalled by the agent does not hold up the whole schedule.
+     */
+    @Parameter(defaultValue = "4")
+    private int concurrency;
+
+    /**
+     * The number of bytes in the body of each event.
+     */
+    @Parameter(defaultValue = "256")
+    private int eventSize;
+
+    /**
+     * The amount of time, in milliseconds, for which events are to be sent.
+     */
+    @Parameter(defaultValue = "30000")
+    private long benchmarkDurationMillis;
+
+    /**
+     * The amount of time, in milliseconds, to wait for the agent's sink to start delivering events to the capture endpoint before the benchmark starts.
+     */
+    @Parameter(defaultValue = "60000")
+    private long warmupTimeoutMillis;
+
+    /**
+     * The amount of time, in milliseconds, to wait after sending for every event to be received; events not received by then are reported as lost.
+     */
+    @Parameter(defaultValue = "30000")
+    private long receiveTimeoutMillis;
+
+    /**
+     * The directory to which the distributions of latencies are to be written.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/flume-benchmark")
+    private File benchmarkDirectory;
+
+    /**
+     * Where the latency percentiles of each run are recorded and how they are compared against those of a baseline revision. If not set, runs are neither recorded nor compared.
+     */
+    @Parameter
+    private Baseline baseline;
+
+    /**
+     * The Maven project descriptor.
+     */
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final List<AgentProcess> agentProcesses = AgentProcessContainer.getAgentProcesses(agentName);
+        if (agentProcesses.isEmpty()) {
+            throw new MojoExecutionException(String.format("Agent %s has not been started.", agentName));
+        }
+
+        final String capturePortProperty = project.getProperties().getProperty("flume.port." + capturePort);
+        if (capturePortProperty == null) {
+            throw new MojoExecutionException(String.format("No port named %s has been allocated; point an Avro sink of agent %s at localhost:${port:%s}.", capturePort, agentName, capturePort));
+        }
+
+        final List<LoadTarget> targets = new ArrayList<>(agentProcesses.size());
+        try {
+            for (AgentProcess agentProcess : agentProcesses) {
+                final LoadTarget target = LoadTarget.forSource(AgentConfiguration.load(agentProcess.getConfigFile(), agentProcess.getAgentName()), source);
+                if (target.getProtocol() == SourceProtocol.NETCAT) {
+                    throw new MojoExecutionException(String.format("Source %s of agent %s is a netcat source, which cannot carry the send times of events; use an Avro or HTTP source.",
+                            target.getSourceName(), agentName));
+                }
+                targets.add(target);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to find the source to which events are to be sent.", e);
+        }
+
+        final LatencyResult result;
+        try (final URLClassLoader flumeClassLoader = agentProcesses.get(0).newFlumeClassLoader()) {
+            final LatencyBenchmark benchmark = new LatencyBenchmark(worker -> targets.get(worker % targets.size()).newSender(flumeClassLoader, 1), concurrency, rate, eventSize);
+            final EventCapture capture = CaptureContainer.getCapture(capturePort);
+            if (capture == null) {
+                try (final AvroCaptureServer captureServer = new AvroCaptureServer(flumeClassLoader, new InetSocketAddress(Integer.parseInt(capturePortProperty)), benchmark)) {
+                    captureServer.start();
+                    result = runBenchmark(benchmark, targets.get(0), capturePortProperty);
+                }
+            } else {
+                // The agent's configured capture already listens on the port
+                capture.addListener(benchmark);
+                try {
+                    result = runBenchmark(benchmark, targets.get(0), capturePortProperty);
+                } finally {
+                    capture.removeListener(benchmark);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (TimeoutException e) {
+            throw new MojoFailureException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoFailureException("Failed to benchmark agent " + agentName, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while benchmarking agent " + agentName, e);
+        }
+
+        if (result.getFailedWorkers() > 0) {
+            getLog().warn(String.format("%d of %d connections to agent %s failed before the benchmark finished.", result.getFailedWorkers(), concurrency, agentName));
+        }
+        if (result.getElapsedMillis() > benchmarkDurationMillis * 11 / 10) {
+            getLog().warn(String.format("Sending took %d ms instead of %d ms: agent %s did not accept events at %d per second, so the latencies include the time events waited to be sent.",
+                    result.getElapsedMillis(), benchmarkDurationMillis, agentName, rate));
+        }
+        if (result.getLost() > 0) {
+            getLog().warn(String.format("%d event(s) sent to agent %s were not received within %d ms.", result.getLost(), agentName, receiveTimeoutMillis));
+        }
+        getLog().info(String.format("Agent %s: %s", agentName, result));
+
+        try {
+            writeHistogram(result.getLatencies(), new File(benchmarkDirectory, agentName + "-latency.hgrm"));
+            writeHistogram(result.getUncorrectedLatencies(), new File(benchmarkDirectory, agentName + "-latency-uncorrected.hgrm"));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write the latencies of agent " + agentName, e);
+        }
+
+        if (baseline != null && result.getLatencies().getTotalCount() > 0) {
+            final Map<String, String> parameters = new LinkedHashMap<>();
+            parameters.put("source", targets.get(0).getSourceName());
+            parameters.put("rate", Integer.toString(rate));
+            parameters.put("concurrency", Integer.toString(concurrency));
+            parameters.put("eventSize", Integer.toString(eventSize));
+            parameters.put("benchmarkDurationMillis", Long.toString(benchmarkDurationMillis));
+            final LatencyHistogram latencies = result.getLatencies();
+            final Map<Metric, Double> metrics = new EnumMap<>(Metric.class);
+            metrics.put(Metric.LATENCY_P50_MILLIS, latencies.getValueAtPercentile(50) / 1000.0);
+            metrics.put(Metric.LATENCY_P99_MILLIS, latencies.getValueAtPercentile(99) / 1000.0);
+            metrics.put(Metric.LATENCY_P999_MILLIS, latencies.getValueAtPercentile(99.9) / 1000.0);
+            new BaselineRecorder(baseline, project.getBasedir(), getLog()).record("benchmark/" + agentName, agentProcesses.get(0).getConfigFile(), parameters, metrics);
+        }
+    }
+
+    /**
+     * Wait for events to reach the capture endpoint, then run the benchmark.
+     *
+     * @param benchmark
+     *            The {@link LatencyBenchmark} to be run.
+     * @param target
+     *            The {@link LoadTarget} of the first of the agent's processes.
+     * @param capturePortNumber
+     *            The port on which the capture endpoint listens.
+     * @return The {@link LatencyResult} of the benchmark.
+     * @throws IOException
+     *             If every connection to the agent failed.
+     * @throws TimeoutException
+     *             If no event reached the capture endpoint in time.
+     * @throws InterruptedException
+     *             If interrupted while benchmarking.
+     */
+    private LatencyResult runBenchmark(LatencyBenchmark benchmark, LoadTarget target, String capturePortNumber) throws IOException, TimeoutException, InterruptedException {
+        getLog().info(String.format("Waiting up to %d ms for events sent to agent %s to reach the capture endpoint on port %s.", warmupTimeoutMillis, agentName, capturePortNumber));
+        benchmark.awaitDelivery(warmupTimeoutMillis);
+        getLog().info(String.format("Sending %d %d-byte events per second over %d connections to source %s of agent %s for %d ms.", rate, eventSize, concurrency, target.getSourceName(),
+                agentName, benchmarkDurationMillis));
+        return benchmark.run(benchmarkDurationMillis, receiveTimeoutMillis);
+    }
+
+    /**
+     * Write the percentile distribution of a histogram of latencies, in milliseconds.
+     * 
+     * @param histogram
+     *            The {@link LatencyHistogram}, in microseconds, to be written.
+     * @param file
+     *            The {@link File} to which the distribution is to be written.
+     * @throws IOException
+     *             If the file cannot be written.
+     */
+    private void writeHistogram(LatencyHistogram histogram, File file) throws IOException {
+        if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Failed to create directory: " + file.getParentFile());
+        }
+        try (final Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(writer, 1000.0);
+        }
+        getLog().info("Wrote latency distribution to " + file);
+    }
+}
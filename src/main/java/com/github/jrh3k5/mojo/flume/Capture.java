@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Definition of an in-build stand-in for the agent downstream of one of an agent's Avro sinks.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@Getter @Setter
+@ToString
+public class Capture {
+    /**
+     * The name of the port on which events are to be received. The agent's sink is pointed at the capture with a {@code ${port:NAME}} placeholder of the same name.
+     * 
+     * @param name
+     *            The name of the capture's port.
+     * @return The name of the capture's port.
+     */
+    private String name;
+    /**
+     * Whether the events received are to be written to {@code NAME.capture} in the capture directory, whose location is exported as the {@code flume.capture.NAME.file} project property.
+     * 
+     * @param persist
+     *            {@code true} if the events received are to be written to a file.
+     * @return {@code true} if the events received are to be written to a file.
+     */
+    private boolean persist;
+    /**
+     * The amount of time, in milliseconds, for which each batch of events is to be held before it is acknowledged, to simulate a slow downstream agent.
+     * 
+     * @param delayMillis
+     *            The amount of time, in milliseconds, for which each batch is to be held.
+     * @return The amount of time, in milliseconds, for which each batch is to be held.
+     */
+    private long delayMillis;
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+import com.github.jrh3k5.mojo.flume.load.FileFixtureGenerator;
+import com.github.jrh3k5.mojo.flume.load.FileTarget;
+import com.github.jrh3k5.mojo.flume.load.FixtureFormat;
+import com.github.jrh3k5.mojo.flume.load.FixtureResult;
+import com.github.jrh3k5.mojo.flume.process.AgentMonitor;
+import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
+
+/**
+ * A mojo used to write files of records into the directory of a spooling directory or taildir source of an agent started by the {@code start} goal, so that its ingest throughput can be
+ * measured. Replicas of the agent whose sources read different directories are given files in turn. If the agent's monitoring is enabled, the goal then waits for the source to have accepted
+ * every record written, and reports the rate at which it did.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@Mojo(name = "generate-files", defaultPhase = LifecyclePhase.INTEGRATION_TEST)
+public class GenerateFilesMojo extends AbstractMojo {
+    private static final Pattern SIZE = Pattern.compile("(\\d+)\\s*([kmg]?)b?");
+
+    /**
+     * The name of the agent for which files are to be written.
+     */
+    @Parameter(required = true)
+    private String agentName;
+
+    /**
+     * The name of the source into whose directory files are to be written. If not set, the first spooldir or TAILDIR source of the agent is used. For a taildir source, files are written
+     * into the directory of its first file group.
+     */
+    @Parameter
+    private String source;
+
+    /**
+     * The shape of the records written: {@code LINES} of text, or tab-separated {@code RECORDS} of a sequence number, the time at which the record was written, and text.
+     */
+    @Parameter(defaultValue = "LINES")
+    private FixtureFormat format;
+
+    /**
+     * The number of bytes in each record, including its newline.
+     */
+    @Parameter(defaultValue = "256")
+    private int recordSize;
+
+    /**
+     * The number of bytes to be written in all, optionally suffixed with {@code k}, {@code m}, or {@code g} (such as {@code 2g}).
+     */
+    @Parameter(defaultValue = "100m")
+    private String totalSize;
+
+    /**
+     * The size at which a file is rotated, optionally suffixed with {@code k}, {@code m}, or {@code g}.
+     */
+    @Parameter(defaultValue = "16m")
+    private String fileSize;
+
+    /**
+     * The amount of time, in milliseconds, after which a file being written is rotated; if 0, files are rotated only by size.
+     */
+    @Parameter(defaultValue = "0")
+    private long rotateMillis;
+
+    /**
+     * The rate, in bytes per second and optionally suffixed with {@code k}, {@code m}, or {@code g}, at which records are written; if 0, they are written as fast as possible.
+     */
+    @Parameter(defaultValue = "0")
+    private String appendRate;
+
+    /**
+     * The format of the names of the files, given the number of each file. For a taildir source, the names must match its file group. Numbers already used in the directory are skipped.
+     */
+    @Parameter(defaultValue = "fixture-%d.log")
+    private String fileNameFormat;
+
+    /**
+     * The amount of time, in milliseconds, to wait for the source to accept every record written before failing the build. Only applies if the agent's monitoring is enabled.
+     */
+    @Parameter(defaultValue = "300000")
+    private long ingestTimeoutMillis;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final List<AgentProcess> agentProcesses = AgentProcessContainer.getAgentProcesses(agentName);
+        if (agentProcesses.isEmpty()) {
+            throw new MojoExecutionException(String.format("Agent %s has not been started.", agentName));
+        }
+
+        final List<FileTarget> targets = new ArrayList<>(agentProcesses.size());
+        final List<File> directories = new ArrayList<>(agentProcesses.size());
+        final List<Integer> monitoringPorts = new ArrayList<>(agentProcesses.size());
+        try {
+            for (AgentProcess agentProcess : agentProcesses) {
+                final FileTarget target = FileTarget.forSource(AgentConfiguration.load(agentProcess.getConfigFile(), agentProcess.getAgentName()), source);
+                // Replicas that share a directory share its files
+                if (!directories.contains(target.getDirectory().getAbsoluteFile())) {
+                    directories.add(target.getDirectory().getAbsoluteFile());
+                    targets.add(target);
+                }
+                if (agentProcess.getMonitoringPort() >= 0) {
+                    monitoringPorts.add(agentProcess.getMonitoringPort());
+                }
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to find the source for which files are to be written.", e);
+        }
+        final String sourceName = targets.get(0).getSourceName();
+        final AgentMonitor monitor = monitoringPorts.size() == agentProcesses.size() ? new AgentMonitor(monitoringPorts) : null;
+
+        final FixtureResult result;
+        final long start = System.currentTimeMillis();
+        try {
+            final long acceptedBefore = monitor == null ? 0 : monitor.getSourceEvents(sourceName);
+            final long totalBytes = parseSize(totalSize);
+            getLog().info(String.format("Writing %d bytes of %d-byte %s, in files of up to %s bytes, for source %s of agent %s into %s.", totalBytes, recordSize,
+                    format.name().toLowerCase(Locale.ROOT), fileSize, sourceName, agentName, directories));
+            result = new FileFixtureGenerator(format, recordSize, parseSize(fileSize), rotateMillis, parseSize(appendRate), fileNameFormat).write(targets, totalBytes);
+            getLog().info(String.format("Wrote %s", result));
+
+            if (monitor == null) {
+                getLog().info(String.format("The ingest of agent %s is not measured because its monitoring is not enabled.", agentName));
+                return;
+            }
+            monitor.awaitSourceEvents(sourceName, acceptedBefore + result.getEvents(), ingestTimeoutMillis);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (TimeoutException e) {
+            throw new MojoFailureException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write files for agent " + agentName, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while writing files for agent " + agentName, e);
+        }
+
+        final long ingestMillis = Math.max(1, System.currentTimeMillis() - start);
+        getLog().info(String.format(Locale.ROOT, "Source %s of agent %s accepted %d records in %d ms: %.1f records/s, %.2f MB/s", sourceName, agentName, result.getEvents(), ingestMillis,
+                result.getEvents() * 1000.0 / ingestMillis, result.getBytes() / (1024.0 * 1024.0) * 1000.0 / ingestMillis));
+    }
+
+    /**
+     * Parse a number of bytes.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param size
+     *            The number of bytes, optionally suffixed with {@code k}, {@code m}, or {@code g} (for multiples of 1024 bytes) and {@code b}.
+     * @return The number of bytes.
+     * @throws IllegalArgumentException
+     *             If the size is not valid.
+     */
+    static long parseSize(String size) {
+        final Matcher matcher = SIZE.matcher(size == null ? "" : size.trim().toLowerCase(Locale.ROOT));
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a valid size: " + size);
+        }
+        final long value = Long.parseLong(matcher.group(1));
+        switch (matcher.group(2)) {
+        case "k":
+            return value * 1024;
+        case "m":
+            return value * 1024 * 1024;
+        case "g":
+            return value * 1024 * 1024 * 1024;
+        default:
+            return value;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+import com.github.jrh3k5.mojo.flume.load.LatencyHistogram;
+import com.github.jrh3k5.mojo.flume.load.LoadGenerator;
+import com.github.jrh3k5.mojo.flume.load.LoadResult;
+import com.github.jrh3k5.mojo.flume.load.LoadTarget;
+import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
+import com.github.jrh3k5.mojo.flume.results.Metric;
+
+/**
+ * A mojo used to send events to a source of an agent started by the {@code start} goal as fast as the agent accepts them, reporting the agent's sustained throughput. The workers of an agent
+ * run as replicas are spread over its replicas. If a {@code baseline} is configured, the throughput and batch latencies are recorded and compared against those of earlier builds.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@Mojo(name = "load", defaultPhase = LifecyclePhase.INTEGRATION_TEST)
+public class LoadFlumeAgentsMojo extends AbstractMojo {
+    /**
+     * The name of the agent to which events are to be sent.
+     */
+    @Parameter(required = true)
+    private String agentName;
+
+    /**
+     * The name of the source to which events are to be sent. If not set, the first Avro, HTTP, or netcat source of the agent is used.
+     */
+    @Parameter
+    private String source;
+
+    /**
+     * The number of connections over which events are sent at once.
+     */
+    @Parameter(defaultValue = "4")
+    private int concurrency;
+
+    /**
+     * The number of events sent in each batch.
+     */
+    @Parameter(defaultValue = "100")
+    private int batchSize;
+
+    /**
+     * The number of bytes in the body of each event.
+     */
+    @Parameter(defaultValue = "256")
+    private int eventSize;
+
+    /**
+     * The amount of time, in milliseconds, for which events are to be sent.
+     */
+    @Parameter(defaultValue = "10000")
+    private long loadDurationMillis;
+
+    /**
+     * Where the throughput and batch latencies of each run are recorded and how they are compared against those of a baseline revision. If not set, runs are neither recorded nor compared.
+     */
+    @Parameter
+    private Baseline baseline;
+
+    /**
+     * The Maven project descriptor.
+     */
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final List<AgentProcess> agentProcesses = AgentProcessContainer.getAgentProcesses(agentName);
+        if (agentProcesses.isEmpty()) {
+            throw new MojoExecutionException(String.format("Agent %s has not been started.", agentName));
+        }
+
+        final List<LoadTarget> targets = new ArrayList<>(agentProcesses.size());
+        try {
+            for (AgentProcess agentProcess : agentProcesses) {
+                targets.add(LoadTarget.forSource(AgentConfiguration.load(agentProcess.getConfigFile(), agentProcess.getAgentName()), source));
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to find the source to which events are to be sent.", e);
+        }
+
+        final LoadResult result;
+        try (final URLClassLoader flumeClassLoader = agentProcesses.get(0).newFlumeClassLoader()) {
+            getLog().info(String.format("Sending %d-byte events in batches of %d over %d connections to source %s of agent %s for %d ms.", eventSize, batchSize, concurrency,
+                    targets.get(0).getSourceName(), agentName, loadDurationMillis));
+            result = new LoadGenerator(worker -> targets.get(worker % targets.size()).newSender(flumeClassLoader, batchSize), concurrency, batchSize, eventSize).run(loadDurationMillis);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoFailureException("Failed to send events to agent " + agentName, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while sending events to agent " + agentName, e);
+        }
+
+        if (result.getFailedWorkers() > 0) {
+            getLog().warn(String.format("%d of %d connections to agent %s failed before the load finished.", result.getFailedWorkers(), concurrency, agentName));
+        }
+        getLog().info(String.format("Agent %s accepted %s", agentName, result));
+
+        if (baseline != null) {
+            final Map<String, String> parameters = new LinkedHashMap<>();
+            parameters.put("source", targets.get(0).getSourceName());
+            parameters.put("concurrency", Integer.toString(concurrency));
+            parameters.put("batchSize", Integer.toString(batchSize));
+            parameters.put("eventSize", Integer.toString(eventSize));
+            parameters.put("loadDurationMillis", Long.toString(loadDurationMillis));
+            final LatencyHistogram batchLatencies = result.getBatchLatencies();
+            final Map<Metric, Double> metrics = new EnumMap<>(Metric.class);
+            metrics.put(Metric.EVENTS_PER_SECOND, result.getEventsPerSecond());
+            if (batchLatencies.getTotalCount() > 0) {
+                metrics.put(Metric.BATCH_LATENCY_P50_MILLIS, batchLatencies.getValueAtPercentile(50) / 1000.0);
+                metrics.put(Metric.BATCH_LATENCY_P99_MILLIS, batchLatencies.getValueAtPercentile(99) / 1000.0);
+            }
+            new BaselineRecorder(baseline, project.getBasedir(), getLog()).record("load/" + agentName, agentProcesses.get(0).getConfigFile(), parameters, metrics);
+        }
+    }
+}
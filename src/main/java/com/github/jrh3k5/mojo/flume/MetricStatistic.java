@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import com.github.jrh3k5.mojo.flume.process.MetricsSummary;
+
+/**
+ * Enumerations of the statistics of a sampled counter that a {@link MetricThreshold} can be checked against.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public enum MetricStatistic {
+    /**
+     * The value of the counter in the last sample, taken as the agent was stopped.
+     */
+    FINAL {
+        @Override
+        Double getValue(MetricsSummary summary, String component, String counter) {
+            return summary.getFinal(component, counter);
+        }
+    },
+    /**
+     * The greatest value of the counter over the samples, such as the fullest a channel got.
+     */
+    MAX {
+        @Override
+        Double getValue(MetricsSummary summary, String component, String counter) {
+            return summary.getMaximum(component, counter);
+        }
+    },
+    /**
+     * The increase of the counter per second over the samples, such as the events per second drained by a sink.
+     */
+    RATE {
+        @Override
+        Double getValue(MetricsSummary summary, String component, String counter) {
+            return summary.getFinal(component, counter) == null ? null : summary.getRatePerSecond(component, counter);
+        }
+    };
+
+    /**
+     * Get the value of this statistic for a counter of a component.
+     * 
+     * @param summary
+     *            The {@link MetricsSummary} of the samples of the agent's counters.
+     * @param component
+     *            The name of the component, including its type, such as {@code SINK.k1}.
+     * @param counter
+     *            The name of the counter.
+     * @return The value of the statistic; {@code null} if the component never reported the counter.
+     */
+    abstract Double getValue(MetricsSummary summary, String component, String counter);
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.util.regex.Pattern;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Definition of a bound that a counter of the agents' components must stay within, checked by the {@code verify-metrics} goal.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@Getter @Setter
+@ToString
+public class MetricThreshold {
+    /**
+     * The name of the agent whose counters are to be checked. The replicas of an agent are checked by the agent's name. If not set, the counters of every agent are checked.
+     *
+     * @param agent
+     *            The name of the agent whose counters are to be checked.
+     * @return The name of the agent whose counters are to be checked.
+     */
+    private String agent;
+    /**
+     * The component whose counter is to be checked: either its full name, such as {@code SINK.k1}, or a type of component, such as {@code SINK}, to check all components of the type. If not
+     * set, every component that reports the counter is checked.
+     *
+     * @param component
+     *            The component whose counter is to be checked.
+     * @return The component whose counter is to be checked.
+     */
+    private String component;
+    /**
+     * The name of the counter to be checked, such as {@code EventDrainSuccessCount}.
+     *
+     * @param counter
+     *            The name of the counter to be checked.
+     * @return The name of the counter to be checked.
+     */
+    private String counter;
+    /**
+     * The statistic of the counter to be checked.
+     *
+     * @param statistic
+     *            The {@link MetricStatistic} of the counter to be checked.
+     * @return The {@link MetricStatistic} of the counter to be checked.
+     */
+    private MetricStatistic statistic = MetricStatistic.FINAL;
+    /**
+     * The smallest acceptable value of the statistic, if any.
+     *
+     * @param min
+     *            The smallest acceptable value of the statistic.
+     * @return The smallest acceptable value of the statistic; {@code null} if there is none.
+     */
+    private Double min;
+    /**
+     * The greatest acceptable value of the statistic, if any.
+     *
+     * @param max
+     *            The greatest acceptable value of the statistic.
+     * @return The greatest acceptable value of the statistic; {@code null} if there is none.
+     */
+    private Double max;
+
+    /**
+     * Determine whether the counters of the given agent are to be checked.
+     * 
+     * @param agentName
+     *            The name of the agent.
+     * @return {@code true} if no agent has been set, or the given agent is the agent or one of its replicas.
+     */
+    boolean matchesAgent(String agentName) {
+        return agent == null || agent.equals(agentName) || agentName.matches(Pattern.quote(agent) + "-\\d+");
+    }
+
+    /**
+     * Determine whether the counter of the given component is to be checked.
+     * 
+     * @param componentName
+     *            The name of the component, including its type, such as {@code SINK.k1}.
+     * @return {@code true} if no component has been set, or the given component is the component or of its type.
+     */
+    boolean matchesComponent(String componentName) {
+        return component == null || component.equals(componentName) || componentName.startsWith(component + ".");
+    }
+
+    /**
+     * Determine whether a value of the statistic is acceptable.
+     * 
+     * @param value
+     *            The value of the statistic.
+     * @return {@code true} if the value is within the bounds of this threshold.
+     */
+    boolean accepts(double value) {
+        return (min == null || value >= min) && (max == null || value <= max);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+import com.github.jrh3k5.mojo.flume.load.LoadTarget;
+import com.github.jrh3k5.mojo.flume.load.ReplayResult;
+import com.github.jrh3k5.mojo.flume.load.SourceProtocol;
+import com.github.jrh3k5.mojo.flume.load.TrafficReplayer;
+import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
+
+/**
+ * A mojo used to replay a recording of events, such as one persisted by an agent's capture, into a source of an agent started by the {@code start} goal, keeping the recorded headers and
+ * the time between events. The workers of an agent run as replicas are spread over its replicas.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@Mojo(name = "replay", defaultPhase = LifecyclePhase.INTEGRATION_TEST)
+public class ReplayFlumeAgentsMojo extends AbstractMojo {
+    /**
+     * The name of the agent into which the recording is to be replayed.
+     */
+    @Parameter(required = true)
+    private String agentName;
+
+    /**
+     * The name of the source to which events are to be sent. If not set, the first Avro, HTTP, or netcat source of the agent is used.
+     */
+    @Parameter
+    private String source;
+
+    /**
+     * The recording to be replayed: a capture file, such as the {@code NAME.capture} file of a capture that persists its events.
+     */
+    @Parameter(required = true)
+    private File recording;
+
+    /**
+     * The speed of the replay relative to the recording: a multiplier, such as {@code 1} (the default) to replay events at the rate at which they were recorded or {@code 10x} to replay
+     * them ten times as fast, or {@code max} to replay them as fast as the agent accepts them.
+     */
+    @Parameter(defaultValue = "1")
+    private String speed;
+
+    /**
+     * The number of connections over which events are sent at once.
+     */
+    @Parameter(defaultValue = "4")
+    private int concurrency;
+
+    /**
+     * The greatest number of events sent in each batch.
+     */
+    @Parameter(defaultValue = "100")
+    private int batchSize;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final double replaySpeed = parseSpeed(speed);
+        if (!recording.isFile()) {
+            throw new MojoExecutionException("The recording to be replayed does not exist: " + recording);
+        }
+
+        final List<AgentProcess> agentProcesses = AgentProcessContainer.getAgentProcesses(agentName);
+        if (agentProcesses.isEmpty()) {
+            throw new MojoExecutionException(String.format("Agent %s has not been started.", agentName));
+        }
+
+        final List<LoadTarget> targets = new ArrayList<>(agentProcesses.size());
+        try {
+            for (AgentProcess agentProcess : agentProcesses) {
+                targets.add(LoadTarget.forSource(AgentConfiguration.load(agentProcess.getConfigFile(), agentProcess.getAgentName()), source));
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to find the source to which events are to be sent.", e);
+        }
+        final boolean sendHeaders = targets.get(0).getProtocol() != SourceProtocol.NETCAT;
+        if (!sendHeaders) {
+            getLog().warn(String.format("Source %s of agent %s is a netcat source, so the recorded headers will not be sent.", targets.get(0).getSourceName(), agentName));
+        }
+
+        final ReplayResult result;
+        try (final URLClassLoader flumeClassLoader = agentProcesses.get(0).newFlumeClassLoader()) {
+            getLog().info(String.format("Replaying %s at %s speed over %d connections to source %s of agent %s.", recording, Double.isInfinite(replaySpeed) ? "maximum"
+                    : String.format(Locale.ROOT, "%sx", replaySpeed), concurrency, targets.get(0).getSourceName(), agentName));
+            result = new TrafficReplayer(worker -> targets.get(worker % targets.size()).newSender(flumeClassLoader, batchSize), concurrency, batchSize, replaySpeed, sendHeaders)
+                    .run(recording);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoFailureException("Failed to replay " + recording + " into agent " + agentName, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while replaying events into agent " + agentName, e);
+        }
+
+        if (result.getFailedWorkers() > 0) {
+            getLog().warn(String.format("%d of %d connections to agent %s failed before the replay finished.", result.getFailedWorkers(), concurrency, agentName));
+        }
+        if (!Double.isInfinite(replaySpeed) && result.getElapsedMillis() > (long) (result.getRecordedMillis() / replaySpeed * 1.1) + 1000) {
+            getLog().warn(String.format("The replay into agent %s fell behind the recording by up to %d ms; the agent, or the %d connections to it, could not keep up.", agentName,
+                    result.getMaxLagMillis(), concurrency));
+        }
+        getLog().info(String.format("Agent %s accepted %s", agentName, result));
+    }
+
+    /**
+     * Parse the speed of a replay.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param speed
+     *            The speed: a positive multiplier, optionally followed by {@code x}, or {@code max}.
+     * @return The multiplier, which is {@link Double#POSITIVE_INFINITY} for {@code max}.
+     * @throws MojoExecutionException
+     *             If the speed is not valid.
+     */
+    static double parseSpeed(String speed) throws MojoExecutionException {
+        final String trimmed = speed == null ? "" : speed.trim().toLowerCase(Locale.ROOT);
+        if ("max".equals(trimmed)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        try {
+            final double multiplier = Double.parseDouble(trimmed.endsWith("x") ? trimmed.substring(0, trimmed.length() - 1) : trimmed);
+            if (multiplier > 0 && !Double.isInfinite(multiplier)) {
+                return multiplier;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new MojoExecutionException(String.format("The speed of a replay must be a positive multiplier, such as 1 or 10x, or max: %s", speed));
+    }
+}
@@ -17,17 +17,24 @@
  */
 package com.github.jrh3k5.mojo.flume;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 
+import com.github.jrh3k5.mojo.flume.capture.CaptureContainer;
+import com.github.jrh3k5.mojo.flume.process.AgentMonitor;
 import com.github.jrh3k5.mojo.flume.process.AgentProcess;
-import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
 
 /**
  * A mojo used to run Flume agents separate from a Maven build.
@@ -38,28 +45,183 @@ import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
 
 @Mojo(name = "run", defaultPhase = LifecyclePhase.PRE_INTEGRATION_TEST)
 public class RunFlumeAgentsMojo extends AbstractFlumeAgentsMojo {
+    /**
+     * Whether or not the agents' configuration files, logging properties, and Flume plugins should be watched for changes while the agents run. Flume reloads a changed configuration file in place
+     * on its own, once it has been re-rendered if it is a template; a change to an agent's logging properties or Flume plugins is installed into the agent, which is then restarted.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "false")
+    private boolean watchConfiguration;
+
+    /**
+     * The amount of time, in milliseconds, to wait after a watched file first changes for any follow-up writes to it to finish before the change is applied.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "250")
+    private long watchSettleMillis;
+
+    /**
+     * The amount of time, in milliseconds, to wait for an agent to reload a changed configuration file in place before giving up on reporting the time taken to reload it. Flume polls its
+     * configuration file for changes every 30 seconds.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "60000")
+    private long reloadTimeoutMillis;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        final List<Agent> agents = getAgents();
-        final List<AgentProcess> agentProcesses = new ArrayList<>(agents.size());
-        for (Agent agent : agents) {
-            final AgentProcess agentProcess = buildAgentProcess(agent);
+        final Map<Agent, AgentProcess> agentProcesses = startAgents();
+        final AgentConfigurationWatcher watcher = watchConfiguration ? watchAgents(agentProcesses) : null;
+        try {
+            for (AgentProcess agentProcess : agentProcesses.values()) {
+                try {
+                    agentProcess.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } finally {
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    getLog().warn("Failed to stop watching the agents' configuration.", e);
+                }
+            }
             try {
-                agentProcess.start();
-                agentProcesses.add(agentProcess);
+                CaptureContainer.stopCaptures();
             } catch (IOException e) {
-                throw new MojoExecutionException("Failed to start Flume agent.", e);
+                getLog().warn("Failed to stop the agents' captures.", e);
             }
-            getLog().info(String.format("Agent %s started.", agentProcess.getAgentName()));
-            AgentProcessContainer.storeAgentProcess(agentProcess);
         }
+    }
 
-        for (AgentProcess agentProcess : agentProcesses) {
-            try {
-                agentProcess.join();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+    /**
+     * Watch the files on which the given agents depend for changes.
+     * 
+     * @param agentProcesses
+     *            A {@link Map} of the {@link Agent} objects representing the agents to be watched to the {@link AgentProcess} objects representing the started agents.
+     * @return An {@link AgentConfigurationWatcher} that is watching the given agents.
+     * @throws MojoExecutionException
+     *             If any errors occur while setting up the watches.
+     */
+    private AgentConfigurationWatcher watchAgents(Map<Agent, AgentProcess> agentProcesses) throws MojoExecutionException {
+        try {
+            final AgentConfigurationWatcher watcher = new AgentConfigurationWatcher(getLog(), watchSettleMillis);
+            for (Entry<Agent, AgentProcess> started : agentProcesses.entrySet()) {
+                final Agent agent = started.getKey();
+                final AgentProcess agentProcess = started.getValue();
+                watcher.watch(agent.getConfigFile(), file -> reloadConfigFile(agent, agentProcess, file));
+                if (agent.getLoggingProperties() != null) {
+                    watcher.watch(agent.getLoggingProperties(), file -> restartAgent(agentProcess, file, () -> copyLoggingProperties(agent, agentProcess.getFlumeDirectory())));
+                }
+                for (Artifact pluginArtifact : getFlumePluginDependencies(agent)) {
+                    watcher.watch(pluginArtifact.getFile(), file -> restartAgent(agentProcess, file, () -> copyFlumePlugins(agent, agentProcess.getFlumeDirectory())));
+                }
             }
+
+            final Thread watcherThread = new Thread(watcher, getClass().getSimpleName() + "-watcher");
+            watcherThread.setDaemon(true);
+            watcherThread.start();
+            getLog().info("Watching the agents' configuration for changes.");
+            return watcher;
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to watch the agents' configuration for changes.", e);
         }
     }
+
+    /**
+     * Re-render an agent's changed configuration file, if it is rendered, so that Flume reloads it in place on its next configuration poll. If the agent serves its counters, the time taken for
+     * the reload to be observed in them is logged once it is.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param agent
+     *            The {@link Agent} whose configuration file changed.
+     * @param agentProcess
+     *            The {@link AgentProcess} of the running agent.
+     * @param changedFile
+     *            A {@link File} representing the changed configuration file.
+     * @throws IOException
+     *             If any errors occur while re-rendering the configuration file.
+     */
+    void reloadConfigFile(Agent agent, AgentProcess agentProcess, File changedFile) throws IOException {
+        final long changeTime = System.currentTimeMillis();
+        // Replicas and templates run from a copy rendered into conf/, which must be rendered again for Flume to see the change; ports are allocated by name, so the re-rendered file keeps the
+        // ports already in use
+        renderConfigFile(agent, agentProcess.getFlumeDirectory());
+        if (agentProcess.getMonitoringPort() < 0) {
+            getLog().info(String.format("The configuration file %s of agent %s changed; Flume will reload it in place on its next configuration poll. Enable the agent's monitoring to have the time taken to reload it reported.",
+                    changedFile, agentProcess.getAgentName()));
+            return;
+        }
+
+        getLog().info(String.format("The configuration file %s of agent %s changed; waiting for Flume to reload it in place on its next configuration poll.", changedFile, agentProcess.getAgentName()));
+        // Waited for apart from the watcher, so that changes to other files, and other agents sharing this file, are not held up by the poll
+        final Thread reloadThread = new Thread(() -> awaitReload(agentProcess, changedFile, changeTime), getClass().getSimpleName() + "-reload-" + agentProcess.getAgentName());
+        reloadThread.setDaemon(true);
+        reloadThread.start();
+    }
+
+    /**
+     * Wait for an agent to reload its changed configuration file, and log the time taken to do so.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param agentProcess
+     *            The {@link AgentProcess} of the running agent, which must serve its counters.
+     * @param changedFile
+     *            A {@link File} representing the changed configuration file.
+     * @param changeTime
+     *            The time, in milliseconds since the epoch, at which the change was applied.
+     */
+    void awaitReload(AgentProcess agentProcess, File changedFile, long changeTime) {
+        try {
+            new AgentMonitor(Collections.singletonList(agentProcess.getMonitoringPort())).awaitReload(changeTime, reloadTimeoutMillis);
+            getLog().info(String.format("Agent %s reloaded its configuration in %d ms after a change to %s.", agentProcess.getAgentName(), System.currentTimeMillis() - changeTime, changedFile));
+        } catch (TimeoutException e) {
+            getLog().warn(String.format("Agent %s was not observed to reload its configuration within %d ms after a change to %s.", agentProcess.getAgentName(), reloadTimeoutMillis, changedFile));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Re-install a changed file into an agent and restart it.
+     * 
+     * @param agentProcess
+     *            The {@link AgentProcess} to be restarted.
+     * @param changedFile
+     *            A {@link File} representing the file whose change requires the restart.
+     * @param installer
+     *            An {@link Installer} used to install the changed file into the agent's Flume installation.
+     * @throws IOException
+     *             If any errors occur during the installation or restart.
+     */
+    private void restartAgent(AgentProcess agentProcess, File changedFile, Installer installer) throws IOException {
+        final long startTime = System.nanoTime();
+        installer.install();
+        agentProcess.restart();
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        getLog().info(String.format("Agent %s was reconfigured and restarted in %d ms after a change to %s.", agentProcess.getAgentName(), elapsedMillis, changedFile));
+    }
+
+    /**
+     * A step that installs a changed file into an agent's Flume installation.
+     * 
+     * @author Joshua Hyde
+     * @since 3.1
+     */
+    private interface Installer {
+        /**
+         * Install the changed file.
+         * 
+         * @throws IOException
+         *             If any errors occur during the installation.
+         */
+        void install() throws IOException;
+    }
 }
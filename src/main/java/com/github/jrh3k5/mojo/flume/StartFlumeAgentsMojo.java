@@ -17,16 +17,11 @@
  */
 package com.github.jrh3k5.mojo.flume;
 
-import java.io.IOException;
-
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 
-import com.github.jrh3k5.mojo.flume.process.AgentProcess;
-import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
-
 /**
  * A mojo used to start a Flume agent.
  * 
@@ -38,15 +33,6 @@ import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
 public class StartFlumeAgentsMojo extends AbstractFlumeAgentsMojo {
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        for (Agent agent : getAgents()) {
-            final AgentProcess agentProcess = buildAgentProcess(agent);
-            try {
-                agentProcess.start();
-            } catch (IOException e) {
-                throw new MojoExecutionException("Failed to start Flume agent.", e);
-            }
-            getLog().info(String.format("Agent %s started.", agentProcess.getAgentName()));
-            AgentProcessContainer.storeAgentProcess(agentProcess);
-        }
+        startAgents();
     }
 }
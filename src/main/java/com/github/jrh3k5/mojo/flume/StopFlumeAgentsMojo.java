@@ -17,6 +17,8 @@
  */
 package com.github.jrh3k5.mojo.flume;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -27,7 +29,10 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
+import com.github.jrh3k5.mojo.flume.capture.CaptureContainer;
+import com.github.jrh3k5.mojo.flume.process.AgentProcess;
 import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
+import com.github.jrh3k5.mojo.flume.process.ChannelDrain;
 
 /**
  * A mojo used to stop Flume agents.
@@ -44,10 +49,66 @@ public class StopFlumeAgentsMojo extends AbstractMojo {
     @Parameter(required = true)
     private List<Agent> agents = Collections.emptyList();
 
+    /**
+     * The amount of time, in milliseconds, to wait for the channels of each agent to be emptied by its sinks before the agent is stopped. Only agents whose {@code monitoring} is enabled can be
+     * drained; {@code 0} stops the agents without waiting.
+     * 
+     * @since 3.1
+     */
+    @Parameter(defaultValue = "0")
+    private long drainTimeoutMillis;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        for (Agent agent : agents) {
-            AgentProcessContainer.stopAgentProcess(agent.getAgentName());
+        // Stop the agents sending events before the agents receiving them, so that events in flight can be delivered
+        final List<List<Agent>> tiers = new ArrayList<>(new AgentTopology(agents).getTiers());
+        Collections.reverse(tiers);
+        for (List<Agent> tier : tiers) {
+            tier.parallelStream().forEach(agent -> {
+                if (drainTimeoutMillis > 0) {
+                    AgentProcessContainer.getAgentProcesses(agent.getAgentName()).parallelStream().forEach(this::drain);
+                }
+                AgentProcessContainer.stopAgentProcess(agent.getAgentName());
+            });
+        }
+
+        // Captures stand in for the agents downstream of all others, so they are stopped last
+        try {
+            CaptureContainer.stopCaptures();
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to stop the agents' captures.", e);
+        }
+    }
+
+    /**
+     * Wait for the channels of an agent to be emptied, reporting how long it took. An agent that cannot be drained is stopped regardless, as failing to stop it would leave it running.
+     * 
+     * @param agentProcess
+     *            The {@link AgentProcess} of the agent to be drained.
+     */
+    private void drain(AgentProcess agentProcess) {
+        final String agentName = agentProcess.getAgentName();
+        if (agentProcess.getMonitoringPort() < 0) {
+            getLog().warn(String.format("Agent %s cannot be drained because its monitoring is not enabled; it will be stopped without waiting for its channels to empty.", agentName));
+            return;
+        }
+        if (!agentProcess.isAlive()) {
+            return;
+        }
+
+        try {
+            final ChannelDrain drain = ChannelDrain.drain(agentProcess.getMonitoringPort(), drainTimeoutMillis);
+            if (drain.isDrained()) {
+                getLog().info(String.format("Agent %s drained in %d ms (%d events taken from its channels).", agentName, drain.getDrainMillis(), drain.getEventsTaken()));
+            } else {
+                getLog().warn(String.format("Agent %s was not drained within %d ms; %d events remain in its channels (%d were taken while waiting).", agentName, drain.getDrainMillis(),
+                        drain.getRemainingEvents(), drain.getEventsTaken()));
+            }
+        } catch (IOException e) {
+            getLog().warn(String.format("The channels of agent %s could not be read; it will be stopped without waiting for them to empty.", agentName), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            getLog().warn(String.format("Interrupted while draining agent %s.", agentName));
         }
     }
 }
@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import com.github.jrh3k5.mojo.flume.capture.CaptureContainer;
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+import com.github.jrh3k5.mojo.flume.load.LoadGenerator;
+import com.github.jrh3k5.mojo.flume.load.LoadResult;
+import com.github.jrh3k5.mojo.flume.load.LoadTarget;
+import com.github.jrh3k5.mojo.flume.load.SweepReport;
+import com.github.jrh3k5.mojo.flume.load.TrialResult;
+import com.github.jrh3k5.mojo.flume.process.AgentMetrics;
+import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
+import com.github.jrh3k5.mojo.flume.process.AgentReadiness;
+import com.github.jrh3k5.mojo.flume.process.GcLog;
+import com.github.jrh3k5.mojo.flume.process.LaunchMode;
+
+/**
+ * A mojo used to find the configuration under which an agent is fastest. The agent is run once for every combination of the values of its swept parameters, each time started anew through the
+ * same steps as the {@code start} goal, and sent events as fast as it accepts them for a fixed amount of time after a warm-up. The throughput and batch latency of each trial, the rate at which
+ * the agent's sinks delivered events, and the agent's garbage collection pauses are written, ranked by throughput, to {@code AGENT-sweep.json} in the sweep directory.
+ * <p />
+ * Only the swept agent is started; point its sinks at a capture, or at a null sink, rather than at another agent.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@Mojo(name = "sweep", defaultPhase = LifecyclePhase.INTEGRATION_TEST)
+public class SweepFlumeAgentsMojo extends AbstractFlumeAgentsMojo {
+    private static final String SINK = "SINK";
+    private static final String EVENT_DRAIN_SUCCESS_COUNT = "EventDrainSuccessCount";
+
+    /**
+     * The name of the agent whose configuration is to be swept. It must not already be running.
+     */
+    @Parameter(required = true)
+    private String agentName;
+
+    /**
+     * The parameters of the agent's configuration to be swept, each with the values to be tried. Every combination of their values is tried.
+     */
+    @Parameter(required = true)
+    private List<SweepParameter> sweepParameters = Collections.emptyList();
+
+    /**
+     * The name of the source to which events are to be sent. If not set, the first Avro, HTTP, or netcat source of the agent is used.
+     */
+    @Parameter
+    private String source;
+
+    /**
+     * The number of connections over which events are sent at once.
+     */
+    @Parameter(defaultValue = "4")
+    private int concurrency;
+
+    /**
+     * The number of events sent in each batch.
+     */
+    @Parameter(defaultValue = "100")
+    private int batchSize;
+
+    /**
+     * The number of bytes in the body of each event.
+     */
+    @Parameter(defaultValue = "256")
+    private int eventSize;
+
+    /**
+     * The amount of time, in milliseconds, for which events are sent to each trial's agent before its throughput is measured, so that the JIT compiler and the agent's channels have settled.
+     */
+    @Parameter(defaultValue = "5000")
+    private long warmupMillis;
+
+    /**
+     * The amount of time, in milliseconds, for which each trial's throughput is measured.
+     */
+    @Parameter(defaultValue = "30000")
+    private long trialDurationMillis;
+
+    /**
+     * The directory to which the report of the sweep and the GC log of each trial are to be written.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/flume-sweep")
+    private File sweepDirectory;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final Agent agent = getAgent();
+        if (!AgentProcessContainer.getAgentProcesses(agentName).isEmpty()) {
+            throw new MojoExecutionException(String.format("Agent %s is already running; each trial of a sweep starts it anew, so it must be stopped first.", agentName));
+        }
+        final List<Map<String, String>> combinations = getCombinations(sweepParameters);
+        if (agent.getReplicas() > 1) {
+            getLog().info(String.format("Agent %s is run as %d replicas; each trial runs a single instance of it.", agentName, agent.getReplicas()));
+        }
+        if (agent.getLaunchMode() == LaunchMode.EMBEDDED || agent.getLaunchMode() == LaunchMode.SHARED) {
+            getLog().warn(String.format("Agent %s is launched in %s mode, which does not run it in a JVM of its own; its sink throughput and GC pauses will not be reported.", agentName,
+                    agent.getLaunchMode()));
+        }
+
+        final List<TrialResult> trials = new ArrayList<>(combinations.size());
+        try {
+            for (int i = 0; i < combinations.size(); i++) {
+                final Map<String, String> parameters = combinations.get(i);
+                final File trialDirectory = new File(sweepDirectory, String.format("%s/trial-%d", agentName, i + 1));
+                if (!trialDirectory.isDirectory() && !trialDirectory.mkdirs()) {
+                    throw new MojoExecutionException("Failed to create directory: " + trialDirectory);
+                }
+                getLog().info(String.format("Running trial %d of %d of agent %s with %s.", i + 1, combinations.size(), agentName, parameters));
+                final TrialResult trial = runTrial(new SweepTrial(agent, parameters, new File(trialDirectory, "gc.log")));
+                if (trial.isFailed()) {
+                    getLog().warn(String.format("Trial %d of agent %s failed: %s", i + 1, agentName, trial.getFailure()));
+                } else {
+                    getLog().info(String.format("Trial %d of agent %s accepted %s%s", i + 1, agentName, trial.getLoad(), trial.getGcLog() == null ? "" : "; " + trial.getGcLog()));
+                }
+                trials.add(trial);
+            }
+        } finally {
+            try {
+                CaptureContainer.stopCaptures();
+            } catch (IOException e) {
+                getLog().warn("Failed to stop the agent's captures.", e);
+            }
+        }
+
+        final SweepReport report = new SweepReport(trials);
+        final File reportFile = new File(sweepDirectory, agentName + "-sweep.json");
+        try {
+            Files.write(reportFile.toPath(), report.toJson().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write the sweep report to " + reportFile, e);
+        }
+        getLog().info(String.format("Trials of agent %s, ranked by throughput (written to %s):", agentName, reportFile));
+        for (String line : report.toTable()) {
+            getLog().info(line);
+        }
+        if (report.getRanked().get(0).isFailed()) {
+            throw new MojoFailureException(String.format("Every trial of agent %s failed.", agentName));
+        }
+    }
+
+    /**
+     * Get every combination of the values of the swept parameters. The values of the first parameter change slowest.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param sweepParameters
+     *            A {@link List} of the {@link SweepParameter} objects to be combined.
+     * @return A {@link List} of {@link Map} objects, each of the names of the parameters to their values in a combination.
+     * @throws MojoExecutionException
+     *             If there are no parameters, or a parameter has no name, is named more than once, or has no values.
+     */
+    static List<Map<String, String>> getCombinations(List<SweepParameter> sweepParameters) throws MojoExecutionException {
+        if (sweepParameters.isEmpty()) {
+            throw new MojoExecutionException("At least one parameter must be swept.");
+        }
+        final Set<String> names = new HashSet<>();
+        List<Map<String, String>> combinations = Collections.singletonList(Collections.emptyMap());
+        for (SweepParameter sweepParameter : sweepParameters) {
+            final String name = sweepParameter.getName();
+            if (name == null || name.trim().isEmpty()) {
+                throw new MojoExecutionException("A swept parameter has no name.");
+            }
+            if (!names.add(name)) {
+                throw new MojoExecutionException(String.format("Parameter %s is swept more than once.", name));
+            }
+            if (sweepParameter.getValues() == null || sweepParameter.getValues().isEmpty()) {
+                throw new MojoExecutionException(String.format("Swept parameter %s has no values.", name));
+            }
+
+            final List<Map<String, String>> extended = new ArrayList<>(combinations.size() * sweepParameter.getValues().size());
+            for (Map<String, String> combination : combinations) {
+                for (String value : sweepParameter.getValues()) {
+                    final Map<String, String> parameters = new LinkedHashMap<>(combination);
+                    parameters.put(name, value);
+                    extended.add(parameters);
+                }
+            }
+            combinations = extended;
+        }
+        return combinations;
+    }
+
+    /**
+     * Get the agent to be swept.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @return The {@link Agent} to be swept, as it is configured; an agent run as replicas is tried as a single agent under its own name, which its configuration's properties are named by.
+     * @throws MojoExecutionException
+     *             If no agent by the name to be swept is configured.
+     */
+    Agent getAgent() throws MojoExecutionException {
+        for (Agent agent : getConfiguredAgents()) {
+            if (agentName.equals(agent.getAgentName())) {
+                return agent;
+            }
+        }
+        throw new MojoExecutionException(String.format("No agent named %s is configured.", agentName));
+    }
+
+    /**
+     * Start an agent with the values of a trial, send it events, and stop it.
+     * 
+     * @param trial
+     *            The {@link SweepTrial} to be run.
+     * @return A {@link TrialResult} describing the outcome of the trial; a trial whose agent cannot be built or started, or does not accept events, is failed.
+     * @throws MojoExecutionException
+     *             If the agent's captures cannot be started, the load is misconfigured, or the trial is interrupted.
+     */
+    private TrialResult runTrial(SweepTrial trial) throws MojoExecutionException {
+        final AgentProcess agentProcess;
+        try {
+            agentProcess = buildAgentProcess(trial);
+        } catch (MojoExecutionException e) {
+            return new TrialResult(trial.getParameters(), describe(e));
+        }
+        // Captures are started once, by name, and receive the events of every trial
+        startCaptures(trial, agentProcess);
+        AgentProcessContainer.storeAgentProcess(agentName, agentProcess);
+
+        final LoadResult load;
+        final double sinkEventsPerSecond;
+        final long gcLogStart;
+        final long gcLogEnd;
+        try {
+            agentProcess.start();
+            AgentReadiness.awaitReady(agentProcess, getReadinessTimeoutMillis());
+            final LoadTarget target = LoadTarget.forSource(AgentConfiguration.load(agentProcess.getConfigFile(), agentName), source);
+            try (final URLClassLoader flumeClassLoader = agentProcess.newFlumeClassLoader()) {
+                final LoadGenerator generator = new LoadGenerator(worker -> target.newSender(flumeClassLoader, batchSize), concurrency, batchSize, eventSize);
+                if (warmupMillis > 0) {
+                    generator.run(warmupMillis);
+                }
+                final long sinkEventsBefore = getSinkEvents(agentProcess);
+                // Only the pauses written to the GC log during the measured load are counted, so that they cover the same period as the throughput
+                gcLogStart = trial.getGcLogFile().length();
+                final long start = System.nanoTime();
+                load = generator.run(trialDurationMillis);
+                final long elapsedNanos = System.nanoTime() - start;
+                gcLogEnd = trial.getGcLogFile().length();
+                sinkEventsPerSecond = sinkEventsBefore < 0 ? -1 : (getSinkEvents(agentProcess) - sinkEventsBefore) * 1000000000.0 / elapsedNanos;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IOException e) {
+            return new TrialResult(trial.getParameters(), describe(e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while sweeping agent " + agentName, e);
+        } finally {
+            AgentProcessContainer.stopAgentProcess(agentName);
+        }
+        if (load.getFailedWorkers() > 0) {
+            getLog().warn(String.format("%d of %d connections to agent %s failed before the trial finished.", load.getFailedWorkers(), concurrency, agentName));
+        }
+        return new TrialResult(trial.getParameters(), load, sinkEventsPerSecond, readGcLog(trial, gcLogStart, gcLogEnd));
+    }
+
+    /**
+     * Get the number of events the agent's sinks have delivered.
+     * 
+     * @param agentProcess
+     *            The {@link AgentProcess} of the agent.
+     * @return The number of events delivered by all of the agent's sinks, or {@code -1} if the agent does not serve its counters.
+     * @throws IOException
+     *             If the agent's counters cannot be fetched.
+     */
+    private static long getSinkEvents(AgentProcess agentProcess) throws IOException {
+        if (agentProcess.getMonitoringPort() < 0) {
+            return -1;
+        }
+        return AgentMetrics.fetch(agentProcess.getMonitoringPort()).sum(SINK, EVENT_DRAIN_SUCCESS_COUNT);
+    }
+
+    /**
+     * Read the part of the GC log of a trial's agent written during the trial's measured load.
+     * 
+     * @param trial
+     *            The {@link SweepTrial} whose GC log is to be read.
+     * @param fromOffset
+     *            The length, in bytes, of the log when the measured load started.
+     * @param toOffset
+     *            The length, in bytes, of the log when the measured load finished.
+     * @return A {@link GcLog} of the agent's pauses during the measured load, or {@code null} if the agent did not write a log or it cannot be read.
+     */
+    private GcLog readGcLog(SweepTrial trial, long fromOffset, long toOffset) {
+        if (trial.getLaunchMode() == LaunchMode.EMBEDDED || trial.getLaunchMode() == LaunchMode.SHARED) {
+            return null;
+        }
+        if (!trial.getGcLogFile().isFile()) {
+            getLog().warn(String.format("Agent %s did not write a GC log to %s.", agentName, trial.getGcLogFile()));
+            return null;
+        }
+        try {
+            return GcLog.read(trial.getGcLogFile(), fromOffset, toOffset);
+        } catch (IOException e) {
+            getLog().warn("Failed to read the GC log " + trial.getGcLogFile(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Describe why a trial failed.
+     * 
+     * @param failure
+     *            The {@link Exception} that failed the trial.
+     * @return The message of the failure and of its cause, if it has one.
+     */
+    private static String describe(Exception failure) {
+        final String message = failure.getMessage() == null ? failure.toString() : failure.getMessage();
+        if (failure.getCause() == null || failure.getCause().getMessage() == null) {
+            return message;
+        }
+        return message + ": " + failure.getCause().getMessage();
+    }
+}
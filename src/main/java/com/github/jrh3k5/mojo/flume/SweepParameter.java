@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Definition of a parameter of an agent's configuration whose values are to be tried by the {@code sweep} goal.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@Getter @Setter
+@ToString
+public class SweepParameter {
+    /**
+     * The name of the parameter: either a property of the agent's configuration (e.g., {@code a1.channels.c1.transactionCapacity}), whose value is replaced in each trial, or a variable
+     * filled into the agent's configuration file through a {@code ${NAME}} placeholder (e.g., {@code ${channelType}}).
+     * 
+     * @param name
+     *            The name of the parameter.
+     * @return The name of the parameter.
+     */
+    private String name;
+    /**
+     * The values of the parameter to be tried.
+     * 
+     * @param values
+     *            A {@link List} of the values to be tried.
+     * @return A {@link List} of the values to be tried.
+     */
+    private List<String> values = Collections.emptyList();
+}
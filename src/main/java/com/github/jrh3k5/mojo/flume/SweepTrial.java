@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An {@link Agent} run with one combination of the values of a parameter sweep.
+ * <p />
+ * A trial's configuration file is always rendered: each value is filled into the {@code ${NAME}} placeholders of its parameter and, if the parameter is a property of the agent, replaces the
+ * property's value (or is added, if the property is not set). The trial writes its GC log to a file of its own.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+class SweepTrial extends Agent {
+    private final Map<String, String> parameters;
+    private final File gcLogFile;
+
+    /**
+     * Create a trial of an agent.
+     * 
+     * @param agent
+     *            The {@link Agent} to be tried.
+     * @param parameters
+     *            A {@link Map} of the names of the swept parameters to their values in the trial.
+     * @param gcLogFile
+     *            The {@link File} to which the agent is to write its GC log.
+     */
+    SweepTrial(Agent agent, Map<String, String> parameters, File gcLogFile) {
+        super(agent);
+        this.parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+        this.gcLogFile = gcLogFile;
+        setTemplateConfigFile(true);
+        // The rate at which the agent's sinks deliver events is read from its counters
+        setMonitoring(true);
+        setReplicas(1);
+    }
+
+    /**
+     * Get the values of the swept parameters in this trial.
+     * 
+     * @return A {@link Map} of the names of the swept parameters to their values in this trial.
+     */
+    Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Get the file to which the agent writes its GC log.
+     * 
+     * @return The {@link File} to which the agent writes its GC log.
+     */
+    File getGcLogFile() {
+        return gcLogFile;
+    }
+
+    /**
+     * Set the properties of the agent that are swept parameters to their values in this trial.
+     * 
+     * @param configuration
+     *            The agent's configuration.
+     * @return The configuration, with each swept property's value replaced, or added if the property was not set.
+     */
+    String applyProperties(String configuration) {
+        String applied = configuration;
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            if (!parameter.getKey().startsWith(getAgentName() + ".")) {
+                continue;
+            }
+            final Matcher matcher = Pattern.compile("^([ \\t]*" + Pattern.quote(parameter.getKey()) + "[ \\t]*[=:]).*$", Pattern.MULTILINE).matcher(applied);
+            if (matcher.find()) {
+                // Flume reads its configuration as properties, so a property set more than once takes its last value; replace them all
+                applied = matcher.replaceAll("$1 " + Matcher.quoteReplacement(parameter.getValue()));
+            } else {
+                applied += (applied.isEmpty() || applied.endsWith("\n") ? "" : "\n") + parameter.getKey() + " = " + parameter.getValue() + "\n";
+            }
+        }
+        return applied;
+    }
+}
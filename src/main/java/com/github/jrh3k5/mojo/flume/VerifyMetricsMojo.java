@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import com.github.jrh3k5.mojo.flume.process.MetricsSummary;
+
+/**
+ * A mojo used to fail the build if the counters recorded from the agents while they ran (see {@code metricsIntervalMillis}) fall outside of the configured thresholds.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@Mojo(name = "verify-metrics", defaultPhase = LifecyclePhase.VERIFY)
+public class VerifyMetricsMojo extends AbstractMojo {
+    private static final String SAMPLES_SUFFIX = ".jsonl";
+
+    /**
+     * The directory to which the samples of the agents' counters were written.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/flume-metrics")
+    private File metricsDirectory;
+
+    /**
+     * The thresholds to be checked, expressed as {@link MetricThreshold} objects.
+     */
+    @Parameter
+    private List<MetricThreshold> thresholds = Collections.emptyList();
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (thresholds.isEmpty()) {
+            getLog().info("No metric thresholds have been configured.");
+            return;
+        }
+
+        final List<MetricsSummary> summaries = readSummaries();
+        final List<String> failures = new ArrayList<>();
+        for (MetricThreshold threshold : thresholds) {
+            if (threshold.getCounter() == null) {
+                throw new MojoExecutionException("A metric threshold has no counter: " + threshold);
+            }
+            failures.addAll(check(threshold, summaries));
+        }
+
+        if (!failures.isEmpty()) {
+            final StringBuilder message = new StringBuilder(String.format("%d metric threshold(s) were not met:", failures.size()));
+            for (String failure : failures) {
+                message.append(System.lineSeparator()).append("  - ").append(failure);
+            }
+            throw new MojoFailureException(message.toString());
+        }
+    }
+
+    /**
+     * Check a threshold against the counters of the agents.
+     * 
+     * @param threshold
+     *            The {@link MetricThreshold} to be checked.
+     * @param summaries
+     *            A {@link List} of the {@link MetricsSummary} objects of the agents' counters.
+     * @return A {@link List} describing each component whose counter missed the threshold, or describing the threshold if no component reported its counter.
+     */
+    List<String> check(MetricThreshold threshold, List<MetricsSummary> summaries) {
+        final List<String> failures = new ArrayList<>();
+        boolean checked = false;
+        for (MetricsSummary summary : summaries) {
+            if (!threshold.matchesAgent(summary.getAgentName())) {
+                continue;
+            }
+            for (String component : summary.getComponents()) {
+                if (!threshold.matchesComponent(component)) {
+                    continue;
+                }
+                final Double value = threshold.getStatistic().getValue(summary, component, threshold.getCounter());
+                if (value == null) {
+                    continue;
+                }
+                checked = true;
+                final String description = String.format(Locale.ROOT, "%s %s %s (%s) = %s", summary.getAgentName(), component, threshold.getCounter(), threshold.getStatistic(), format(value));
+                if (threshold.accepts(value)) {
+                    getLog().info(description + " [OK]");
+                } else {
+                    failures.add(description + ", expected " + describeBounds(threshold));
+                }
+            }
+        }
+        if (!checked) {
+            failures.add(String.format("No component%s%s reported %s.", threshold.getComponent() == null ? "" : " matching " + threshold.getComponent(),
+                    threshold.getAgent() == null ? "" : " of agent " + threshold.getAgent(), threshold.getCounter()));
+        }
+        return failures;
+    }
+
+    /**
+     * Read the samples of the counters of every agent in the metrics directory.
+     * 
+     * @return A {@link List} of {@link MetricsSummary} objects, one for each agent, ordered by the name of the agent.
+     * @throws MojoExecutionException
+     *             If no samples can be found or they cannot be read.
+     */
+    private List<MetricsSummary> readSummaries() throws MojoExecutionException {
+        final File[] samplesFiles = metricsDirectory.listFiles((dir, name) -> name.endsWith(SAMPLES_SUFFIX));
+        if (samplesFiles == null || samplesFiles.length == 0) {
+            throw new MojoExecutionException(String.format("No samples of the agents' counters were found in %s; set metricsIntervalMillis for the agents to be sampled.",
+                    metricsDirectory.getAbsolutePath()));
+        }
+        Arrays.sort(samplesFiles);
+
+        final List<MetricsSummary> summaries = new ArrayList<>(samplesFiles.length);
+        for (File samplesFile : samplesFiles) {
+            final String agentName = samplesFile.getName().substring(0, samplesFile.getName().length() - SAMPLES_SUFFIX.length());
+            try {
+                summaries.add(MetricsSummary.read(agentName, samplesFile));
+            } catch (IOException e) {
+                throw new MojoExecutionException("Failed to read the samples of the counters of agent " + agentName, e);
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Describe the bounds of a threshold.
+     * 
+     * @param threshold
+     *            The {@link MetricThreshold} to be described.
+     * @return A description of the bounds of the threshold.
+     */
+    private static String describeBounds(MetricThreshold threshold) {
+        if (threshold.getMin() != null && threshold.getMax() != null) {
+            return String.format("between %s and %s", format(threshold.getMin()), format(threshold.getMax()));
+        }
+        return threshold.getMin() != null ? "at least " + format(threshold.getMin()) : "at most " + format(threshold.getMax());
+    }
+
+    /**
+     * Format a value for the report.
+     * 
+     * @param value
+     *            The value to be formatted.
+     * @return The value, without a fractional part if it is a whole number.
+     */
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.format(Locale.ROOT, "%.0f", value) : String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A server, run within the build, that speaks the protocol of Flume's Avro source so that an agent's Avro sink can deliver events to it. Each batch of events received is handed to a
+ * {@link CaptureListener} and acknowledged. Neither Avro nor Flume is a dependency of this plugin, so the protocol is loaded, by reflection, from the Flume installation of the agent that sends
+ * the events.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AvroCaptureServer implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AvroCaptureServer.class);
+
+    private final ClassLoader classLoader;
+    private final InetSocketAddress endpoint;
+    private final CaptureListener listener;
+    private Object server;
+
+    /**
+     * Create a server.
+     * 
+     * @param classLoader
+     *            The {@link ClassLoader} from which Flume and Avro are to be loaded.
+     * @param endpoint
+     *            The {@link InetSocketAddress} on which the server is to listen.
+     * @param listener
+     *            The {@link CaptureListener} to be notified of the events received.
+     */
+    public AvroCaptureServer(ClassLoader classLoader, InetSocketAddress endpoint, CaptureListener listener) {
+        this.classLoader = classLoader;
+        this.endpoint = endpoint;
+        this.listener = listener;
+    }
+
+    /**
+     * Start listening for events.
+     * 
+     * @throws IOException
+     *             If Flume or Avro cannot be loaded or the server cannot listen on its port.
+     * @throws IllegalStateException
+     *             If the server has already been started.
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("The capture server on " + endpoint + " has already been started.");
+        }
+
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(classLoader);
+        try {
+            final Class<?> protocolClass = classLoader.loadClass("org.apache.flume.source.avro.AvroSourceProtocol");
+            final Object protocol = Proxy.newProxyInstance(classLoader, new Class<?>[] { protocolClass }, new ProtocolHandler(classLoader.loadClass("org.apache.flume.source.avro.Status")));
+            final Class<?> responderClass = classLoader.loadClass("org.apache.avro.ipc.Responder");
+            final Object responder = classLoader.loadClass("org.apache.avro.ipc.specific.SpecificResponder").getConstructor(Class.class, Object.class).newInstance(protocolClass, protocol);
+            server = classLoader.loadClass("org.apache.avro.ipc.NettyServer").getConstructor(responderClass, InetSocketAddress.class).newInstance(responder, endpoint);
+            server.getClass().getMethod("start").invoke(server);
+        } catch (InvocationTargetException e) {
+            throw new IOException("Failed to start the capture server on " + endpoint, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Failed to load Flume's Avro protocol.", e);
+        } finally {
+            currentThread.setContextClassLoader(previousClassLoader);
+        }
+        LOGGER.debug("Capturing events on {}", endpoint);
+    }
+
+    /**
+     * Get the port on which the server listens.
+     * 
+     * @return The port on which the server listens, which is the one it was given unless that was 0.
+     * @throws IllegalStateException
+     *             If the server has not been started.
+     */
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("The capture server on " + endpoint + " has not been started.");
+        }
+        try {
+            return (Integer) server.getClass().getMethod("getPort").invoke(server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to get the port of the capture server.", e);
+        }
+    }
+
+    /**
+     * Stop listening for events. Closing a server that was not started does nothing.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (server == null) {
+            return;
+        }
+        try {
+            server.getClass().getMethod("close").invoke(server);
+        } catch (InvocationTargetException e) {
+            throw new IOException("Failed to stop the capture server on " + endpoint, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Failed to stop the capture server on " + endpoint, e);
+        } finally {
+            server = null;
+        }
+    }
+
+    /**
+     * Convert Avro events, received as instances of Flume's {@code AvroFlumeEvent}, to {@link CapturedEvent} objects.
+     * 
+     * @param avroEvents
+     *            A {@link List} of the received events.
+     * @param receivedNanos
+     *            The {@link System#nanoTime()} at which the events were received.
+     * @return A {@link List} of {@link CapturedEvent} objects.
+     * @throws ReflectiveOperationException
+     *             If the events cannot be read.
+     */
+    static List<CapturedEvent> toCapturedEvents(List<?> avroEvents, long receivedNanos) throws ReflectiveOperationException {
+        final List<CapturedEvent> events = new ArrayList<>(avroEvents.size());
+        for (Object avroEvent : avroEvents) {
+            final Map<?, ?> avroHeaders = (Map<?, ?>) avroEvent.getClass().getMethod("getHeaders").invoke(avroEvent);
+            final Map<String, String> headers = new HashMap<>(avroHeaders.size());
+            for (Map.Entry<?, ?> header : avroHeaders.entrySet()) {
+                headers.put(String.valueOf(header.getKey()), String.valueOf(header.getValue()));
+            }
+            final ByteBuffer avroBody = ((ByteBuffer) avroEvent.getClass().getMethod("getBody").invoke(avroEvent)).duplicate();
+            final byte[] body = new byte[avroBody.remaining()];
+            avroBody.get(body);
+            events.add(new CapturedEvent(headers, body, receivedNanos));
+        }
+        return events;
+    }
+
+    /**
+     * The implementation of Flume's {@code AvroSourceProtocol}.
+     * 
+     * @author Joshua Hyde
+     * @since 3.1
+     */
+    private class ProtocolHandler implements InvocationHandler {
+        private final Object ok;
+        private final Object failed;
+
+        /**
+         * Create a handler.
+         * 
+         * @param statusClass
+         *            The {@link Class} of Flume's {@code Status} enumeration, which is returned for each call.
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        ProtocolHandler(Class<?> statusClass) {
+            this.ok = Enum.valueOf((Class<Enum>) statusClass, "OK");
+            this.failed = Enum.valueOf((Class<Enum>) statusClass, "FAILED");
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+            case "append":
+                return receive(Collections.singletonList(args[0]));
+            case "appendBatch":
+                return receive((List<?>) args[0]);
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "AvroCaptureServer[" + endpoint + "]";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+        }
+
+        /**
+         * Hand received events to the listener.
+         * 
+         * @param avroEvents
+         *            A {@link List} of the received events.
+         * @return {@code Status.OK} if the listener accepted the events; {@code Status.FAILED}, so that the sink sends them again, if it did not.
+         */
+        private Object receive(List<?> avroEvents) {
+            try {
+                listener.eventsReceived(toCapturedEvents(avroEvents, System.nanoTime()));
+                return ok;
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOGGER.warn("Failed to capture a batch of " + avroEvents.size() + " event(s) on " + endpoint, e);
+                return failed;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+
+/**
+ * A container used to share started {@link EventCapture} objects across mojo invocations, by name.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class CaptureContainer {
+    private static final Map<String, EventCapture> CAPTURES = new HashMap<>();
+
+    /**
+     * Start a capture, unless a capture by the same name has already been started, such as by another replica of the agent whose sink it stands in for.
+     * 
+     * @param capture
+     *            The {@link EventCapture} to be started.
+     * @param agentProcess
+     *            The {@link AgentProcess} of the agent whose Flume installation is to provide the Avro protocol.
+     * @param port
+     *            The port on which the capture is to receive events.
+     * @return The started {@link EventCapture} by the capture's name, which is the given capture unless one by its name had already been started.
+     * @throws IOException
+     *             If the capture cannot be started.
+     */
+    public static synchronized EventCapture startCapture(EventCapture capture, AgentProcess agentProcess, int port) throws IOException {
+        final EventCapture started = CAPTURES.get(capture.getName());
+        if (started != null) {
+            return started;
+        }
+        capture.start(agentProcess.newFlumeClassLoader(), port);
+        CAPTURES.put(capture.getName(), capture);
+        return capture;
+    }
+
+    /**
+     * Get a started capture.
+     * 
+     * @param name
+     *            The name of the capture.
+     * @return The started {@link EventCapture} by the given name, or {@code null} if there is none.
+     */
+    public static synchronized EventCapture getCapture(String name) {
+        return CAPTURES.get(name);
+    }
+
+    /**
+     * Stop every started capture.
+     * 
+     * @return A {@link List} of the stopped {@link EventCapture} objects.
+     * @throws IOException
+     *             If any capture cannot be stopped; the others are stopped regardless.
+     */
+    public static List<EventCapture> stopCaptures() throws IOException {
+        final List<EventCapture> captures;
+        synchronized (CaptureContainer.class) {
+            captures = new ArrayList<>(CAPTURES.values());
+            CAPTURES.clear();
+        }
+        IOException failure = null;
+        for (EventCapture capture : captures) {
+            try {
+                capture.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return captures;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the events of a file written by a {@link CaptureFileWriter} through a memory-mapped region of the file. Integration tests can use it to make assertions about the events an agent
+ * delivered:
+ * 
+ * <pre>
+ * List&lt;CapturedEvent&gt; events = CaptureFileReader.readAll(new File(System.getProperty("flume.capture.capture.file")));
+ * </pre>
+ * <p>
+ * The {@link CapturedEvent#getReceivedNanos() time} at which each event read was received is relative to the start of the capture. A file can be read while its capture is still running;
+ * only the events of the batches written before it was opened are read.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class CaptureFileReader implements Closeable {
+    private static final int REGION_SIZE = 64 * 1024 * 1024;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long startMillis;
+    private long size;
+    private MappedByteBuffer region;
+    private long regionPosition;
+
+    /**
+     * Open a capture file.
+     * 
+     * @param file
+     *            The {@link File} to be read.
+     * @throws IOException
+     *             If the file cannot be read or is not a capture file.
+     */
+    public CaptureFileReader(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            this.size = channel.size();
+            this.region = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, REGION_SIZE));
+            final byte[] magic = new byte[CaptureFileWriter.MAGIC.length];
+            ensureAvailable(CaptureFileWriter.HEADER_SIZE);
+            region.get(magic);
+            if (!Arrays.equals(magic, CaptureFileWriter.MAGIC)) {
+                throw new IOException("Not a capture file: " + file);
+            }
+            final int version = region.getInt();
+            if (version != CaptureFileWriter.VERSION) {
+                throw new IOException(String.format("Capture file %s is of version %d, but only version %d can be read.", file, version, CaptureFileWriter.VERSION));
+            }
+            this.startMillis = region.getLong();
+            // The file extends past the events written to it until the capture is closed
+            final long endOffset = region.getLong();
+            if (endOffset < CaptureFileWriter.HEADER_SIZE) {
+                throw new IOException(String.format("Capture file %s is corrupt: its events end at offset %d.", file, endOffset));
+            }
+            this.size = Math.min(size, endOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read all of the events of a capture file.
+     * 
+     * @param file
+     *            The {@link File} to be read.
+     * @return A {@link List} of the {@link CapturedEvent} objects in the file, in the order in which they were received.
+     * @throws IOException
+     *             If the file cannot be read.
+     */
+    public static List<CapturedEvent> readAll(File file) throws IOException {
+        try (final CaptureFileReader reader = new CaptureFileReader(file)) {
+            final List<CapturedEvent> events = new ArrayList<>();
+            CapturedEvent event;
+            while ((event = reader.next()) != null) {
+                events.add(event);
+            }
+            return events;
+        }
+    }
+
+    /**
+     * Get the time at which the capture started.
+     * 
+     * @return The time, in milliseconds since the epoch, at which the capture started.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Read the next event.
+     * 
+     * @return The next {@link CapturedEvent}, or {@code null} if all of the events have been read.
+     * @throws IOException
+     *             If the file ends part of the way through an event.
+     */
+    public CapturedEvent next() throws IOException {
+        if (regionPosition + region.position() >= size) {
+            return null;
+        }
+        try {
+            ensureAvailable(Long.BYTES + Integer.BYTES);
+            final long receivedMicros = region.getLong();
+            final int headerCount = region.getInt();
+            final Map<String, String> headers = new LinkedHashMap<>(headerCount * 2);
+            for (int i = 0; i < headerCount; i++) {
+                headers.put(new String(readBytes(), StandardCharsets.UTF_8), new String(readBytes(), StandardCharsets.UTF_8));
+            }
+            return new CapturedEvent(headers, readBytes(), receivedMicros * 1000L);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Capture file " + file + " ends part of the way through an event.", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Read a length-prefixed array of bytes.
+     * 
+     * @return The bytes read.
+     * @throws IOException
+     *             If the next region of the file cannot be mapped.
+     */
+    private byte[] readBytes() throws IOException {
+        ensureAvailable(Integer.BYTES);
+        final int length = region.getInt();
+        if (length < 0) {
+            throw new IOException(String.format("Capture file %s is corrupt: a length of %d was read.", file, length));
+        }
+        ensureAvailable(length);
+        final byte[] bytes = new byte[length];
+        region.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Map the file from the current position if the current region does not hold the given number of bytes.
+     * 
+     * @param length
+     *            The number of bytes to be read.
+     * @throws IOException
+     *             If the file cannot be mapped.
+     */
+    private void ensureAvailable(int length) throws IOException {
+        if (region.remaining() >= length) {
+            return;
+        }
+        regionPosition += region.position();
+        region = channel.map(FileChannel.MapMode.READ_ONLY, regionPosition, Math.min(size - regionPosition, Math.max(REGION_SIZE, length)));
+    }
+}
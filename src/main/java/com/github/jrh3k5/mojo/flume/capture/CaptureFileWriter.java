@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes captured events to a file through a memory-mapped region, so that recording events adds no system call per event to the path of the sink being captured. The file is mapped a region
+ * at a time and truncated to the events written when it is closed.
+ * <p>
+ * A capture file starts with the {@link #MAGIC} bytes, a version number, the time at which the capture started, in milliseconds since the epoch, and the offset at which the events written
+ * so far end, which is updated after each batch so that the file can be read while events are still being written to the region mapped beyond them. Each event follows as the number of
+ * microseconds between the start of the capture and its receipt, its number of headers, each header's key and value, and its body; strings are UTF-8, and every string and the body are
+ * preceded by their length. All numbers are big-endian.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class CaptureFileWriter implements Closeable {
+    /**
+     * The bytes with which every capture file starts.
+     */
+    static final byte[] MAGIC = "FLUMECAP".getBytes(StandardCharsets.US_ASCII);
+    /**
+     * The version of the format of capture files.
+     */
+    static final int VERSION = 2;
+    /**
+     * The offset within a capture file of the offset at which its events end.
+     */
+    static final int END_OFFSET_POSITION = MAGIC.length + Integer.BYTES + Long.BYTES;
+    /**
+     * The number of bytes that precede the events of a capture file.
+     */
+    static final int HEADER_SIZE = END_OFFSET_POSITION + Long.BYTES;
+    private static final int REGION_SIZE = 16 * 1024 * 1024;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long startNanos;
+    private final MappedByteBuffer header;
+    private MappedByteBuffer region;
+    private long regionPosition;
+
+    /**
+     * Create a capture file, replacing any file already at the given location.
+     * 
+     * @param file
+     *            The {@link File} to which events are to be written.
+     * @param startNanos
+     *            The {@link System#nanoTime()} at which the capture started, from which the times at which events were received are measured.
+     * @throws IOException
+     *             If the file cannot be created.
+     */
+    public CaptureFileWriter(File file, long startNanos) throws IOException {
+        if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Failed to create directory: " + file.getParentFile());
+        }
+        this.file = file;
+        this.startNanos = startNanos;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.region = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_SIZE);
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        region.put(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis() - (System.nanoTime() - startNanos) / 1000000L).putLong(HEADER_SIZE);
+    }
+
+    /**
+     * Write a batch of events.
+     * 
+     * @param events
+     *            A {@link List} of the {@link CapturedEvent} objects to be written.
+     * @throws IOException
+     *             If the events cannot be written.
+     */
+    public synchronized void write(List<CapturedEvent> events) throws IOException {
+        for (CapturedEvent event : events) {
+            final Map<String, String> headers = event.getHeaders();
+            final byte[][] encodedHeaders = new byte[headers.size() * 2][];
+            int size = Long.BYTES + Integer.BYTES + Integer.BYTES + event.getBody().length;
+            int i = 0;
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                encodedHeaders[i] = header.getKey().getBytes(StandardCharsets.UTF_8);
+                encodedHeaders[i + 1] = header.getValue().getBytes(StandardCharsets.UTF_8);
+                size += 2 * Integer.BYTES + encodedHeaders[i].length + encodedHeaders[i + 1].length;
+                i += 2;
+            }
+
+            ensureCapacity(size);
+            region.putLong((event.getReceivedNanos() - startNanos) / 1000L).putInt(headers.size());
+            for (byte[] encoded : encodedHeaders) {
+                region.putInt(encoded.length).put(encoded);
+            }
+            region.putInt(event.getBody().length).put(event.getBody());
+        }
+        // Only once the whole batch is in the file does a reader see it
+        header.putLong(END_OFFSET_POSITION, regionPosition + region.position());
+    }
+
+    /**
+     * Truncate the file to the events written and close it.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            region.force();
+            channel.truncate(regionPosition + region.position());
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Map the next region of the file if the current one cannot hold a record of the given size.
+     * 
+     * @param size
+     *            The number of bytes in the record.
+     * @throws IOException
+     *             If the next region cannot be mapped.
+     */
+    private void ensureCapacity(int size) throws IOException {
+        if (region.remaining() >= size) {
+            return;
+        }
+        region.force();
+        regionPosition += region.position();
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionPosition, Math.max(REGION_SIZE, size));
+    }
+
+    @Override
+    public String toString() {
+        return "CaptureFileWriter[" + file + "]";
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import java.util.List;
+
+/**
+ * A listener notified of the events received by a {@link AvroCaptureServer}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public interface CaptureListener {
+    /**
+     * Receive a batch of events. This is called on the server's I/O threads, and the sending sink waits for it to return, so it should not block.
+     * 
+     * @param events
+     *            A {@link List} of the {@link CapturedEvent} objects in the batch.
+     */
+    void eventsReceived(List<CapturedEvent> events);
+}
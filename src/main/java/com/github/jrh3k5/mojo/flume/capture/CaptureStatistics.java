@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import static com.github.jrh3k5.mojo.flume.process.MetricsSummary.quote;
+
+import java.util.List;
+import java.util.Locale;
+
+import com.github.jrh3k5.mojo.flume.load.LatencyHistogram;
+
+/**
+ * Statistics of the events received by an {@link EventCapture}: how many events and batches arrived, the rate at which they arrived, and the distribution of the time between batches, which
+ * shows how evenly the sink being captured delivered them.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class CaptureStatistics {
+    private static final double[] PERCENTILES = { 50, 90, 99 };
+
+    private final String name;
+    private final LatencyHistogram interArrivalMicros = new LatencyHistogram(3);
+    private long events;
+    private long batches;
+    private long bytes;
+    private long firstBatchEvents;
+    private long firstNanos;
+    private long lastNanos;
+
+    /**
+     * Create statistics.
+     * 
+     * @param name
+     *            The name of the capture.
+     */
+    public CaptureStatistics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record a batch of events.
+     * 
+     * @param batch
+     *            A {@link List} of the {@link CapturedEvent} objects received in the batch, all of which were received at the same time.
+     */
+    public synchronized void record(List<CapturedEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final long receivedNanos = batch.get(0).getReceivedNanos();
+        if (batches == 0) {
+            firstNanos = receivedNanos;
+            firstBatchEvents = batch.size();
+        } else {
+            interArrivalMicros.recordValue((receivedNanos - lastNanos) / 1000L);
+        }
+        lastNanos = receivedNanos;
+        batches++;
+        events += batch.size();
+        for (CapturedEvent event : batch) {
+            bytes += event.getBody().length;
+        }
+    }
+
+    /**
+     * Get the name of the capture.
+     * 
+     * @return The name of the capture.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the number of events received.
+     * 
+     * @return The number of events received.
+     */
+    public synchronized long getEvents() {
+        return events;
+    }
+
+    /**
+     * Get the number of batches received.
+     * 
+     * @return The number of batches received.
+     */
+    public synchronized long getBatches() {
+        return batches;
+    }
+
+    /**
+     * Get the number of bytes of event bodies received.
+     * 
+     * @return The number of bytes of event bodies received.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the amount of time between the first and the last batch received.
+     * 
+     * @return The amount of time, in milliseconds, between the first and the last batch received.
+     */
+    public synchronized long getDurationMillis() {
+        return (lastNanos - firstNanos) / 1000000L;
+    }
+
+    /**
+     * Get the rate at which events arrived between the first and the last batch.
+     * 
+     * @return The number of events received per second, or 0 if fewer than two batches were received.
+     */
+    public synchronized double getEventsPerSecond() {
+        // The events of the first batch arrived at the start of the measured time, so they are not counted
+        return batches < 2 ? 0 : (events - firstBatchEvents) * 1000000000.0 / (lastNanos - firstNanos);
+    }
+
+    /**
+     * Get the time between batches at a percentile.
+     * 
+     * @param percentile
+     *            The percentile, from 0 to 100.
+     * @return The number of milliseconds between batches at the percentile, or 0 if fewer than two batches were received.
+     */
+    public synchronized double getInterArrivalMillis(double percentile) {
+        return interArrivalMicros.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Express the statistics as a JSON object.
+     * 
+     * @return The statistics as a JSON object.
+     */
+    public synchronized String toJson() {
+        final StringBuilder json = new StringBuilder("{");
+        json.append(quote("capture")).append(':').append(quote(name));
+        json.append(',').append(quote("events")).append(':').append(events);
+        json.append(',').append(quote("batches")).append(':').append(batches);
+        json.append(',').append(quote("bytes")).append(':').append(bytes);
+        json.append(',').append(quote("durationMillis")).append(':').append(getDurationMillis());
+        json.append(',').append(quote("eventsPerSecond")).append(':').append(String.format(Locale.ROOT, "%.2f", getEventsPerSecond()));
+        json.append(',').append(quote("interArrivalMillis")).append(":{");
+        for (double percentile : PERCENTILES) {
+            json.append(quote(String.format(Locale.ROOT, "p%.0f", percentile))).append(':').append(String.format(Locale.ROOT, "%.3f", getInterArrivalMillis(percentile))).append(',');
+        }
+        json.append(quote("max")).append(':').append(String.format(Locale.ROOT, "%.3f", interArrivalMicros.getMaxValue() / 1000.0));
+        return json.append("}}").toString();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.ROOT, "%d events in %d batches over %d ms (%.1f events/s); time between batches p50 %.3f ms, p99 %.3f ms, max %.3f ms", events, batches,
+                getDurationMillis(), getEventsPerSecond(), getInterArrivalMillis(50), getInterArrivalMillis(99), interArrivalMicros.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An event received by a {@link AvroCaptureServer}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class CapturedEvent {
+    private final Map<String, String> headers;
+    private final byte[] body;
+    private final long receivedNanos;
+
+    /**
+     * Create an event.
+     * 
+     * @param headers
+     *            A {@link Map} of the headers of the event.
+     * @param body
+     *            The body of the event.
+     * @param receivedNanos
+     *            The {@link System#nanoTime()} at which the event was received.
+     */
+    public CapturedEvent(Map<String, String> headers, byte[] body, long receivedNanos) {
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+        this.receivedNanos = receivedNanos;
+    }
+
+    /**
+     * Get the headers of the event.
+     * 
+     * @return An unmodifiable {@link Map} of the headers of the event.
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Get the body of the event.
+     * 
+     * @return The body of the event.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Get the time at which the event was received.
+     * 
+     * @return The {@link System#nanoTime()} at which the event was received.
+     */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+}
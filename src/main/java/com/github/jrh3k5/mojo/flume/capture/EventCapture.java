@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A stand-in for the agent downstream of an Avro sink: an {@link AvroCaptureServer} that keeps {@link CaptureStatistics} of the events it receives and, optionally, writes them to a capture
+ * file for tests to read. Each batch can be held for a fixed amount of time before it is acknowledged, so that the sink, and the channel behind it, see a slow downstream agent.
+ * <p>
+ * When closed, the capture's statistics are written to {@code NAME-summary.json} in its directory, and its events, if persisted, are in {@code NAME.capture}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class EventCapture implements CaptureListener, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventCapture.class);
+
+    private final String name;
+    private final File directory;
+    private final boolean persist;
+    private final long delayMillis;
+    private final CaptureStatistics statistics;
+    private final List<CaptureListener> listeners = new CopyOnWriteArrayList<>();
+    private URLClassLoader classLoader;
+    private AvroCaptureServer server;
+    private CaptureFileWriter writer;
+
+    /**
+     * Create a capture.
+     * 
+     * @param name
+     *            The name of the capture.
+     * @param directory
+     *            The directory to which the capture's statistics and events are to be written.
+     * @param persist
+     *            Whether the events received are to be written to a capture file.
+     * @param delayMillis
+     *            The amount of time, in milliseconds, for which each batch is to be held before it is acknowledged.
+     */
+    public EventCapture(String name, File directory, boolean persist, long delayMillis) {
+        this.name = name;
+        this.directory = directory;
+        this.persist = persist;
+        this.delayMillis = delayMillis;
+        this.statistics = new CaptureStatistics(name);
+    }
+
+    /**
+     * Start receiving events.
+     * 
+     * @param flumeClassLoader
+     *            The {@link URLClassLoader} from which Flume and Avro are to be loaded; it is closed when the capture is.
+     * @param port
+     *            The port on which events are to be received.
+     * @throws IOException
+     *             If the capture file cannot be created or the server cannot be started.
+     * @throws IllegalStateException
+     *             If the capture has already been started.
+     */
+    public synchronized void start(URLClassLoader flumeClassLoader, int port) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Capture " + name + " has already been started.");
+        }
+        this.classLoader = flumeClassLoader;
+        if (persist) {
+            writer = new CaptureFileWriter(getCaptureFile(), System.nanoTime());
+        }
+        server = new AvroCaptureServer(flumeClassLoader, new InetSocketAddress(port), this);
+        try {
+            server.start();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        LOGGER.info("Capture {} is receiving events on port {}{}.", name, port, persist ? " and writing them to " + getCaptureFile() : "");
+    }
+
+    /**
+     * Add a listener to be notified of the events received, after they have been recorded.
+     * 
+     * @param listener
+     *            The {@link CaptureListener} to be added.
+     */
+    public void addListener(CaptureListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Remove a listener.
+     * 
+     * @param listener
+     *            The {@link CaptureListener} to be removed.
+     */
+    public void removeListener(CaptureListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void eventsReceived(List<CapturedEvent> events) {
+        if (writer != null) {
+            try {
+                writer.write(events);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write events to " + getCaptureFile(), e);
+            }
+        }
+        statistics.record(events);
+        for (CaptureListener listener : listeners) {
+            listener.eventsReceived(events);
+        }
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Get the name of the capture.
+     * 
+     * @return The name of the capture.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the statistics of the events received so far.
+     * 
+     * @return The {@link CaptureStatistics} of the capture.
+     */
+    public CaptureStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Get the file to which events are written if they are persisted.
+     * 
+     * @return The {@link File} to which events are written if they are persisted.
+     */
+    public File getCaptureFile() {
+        return new File(directory, name + ".capture");
+    }
+
+    /**
+     * Stop receiving events and write the capture's statistics.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (server != null) {
+                server.close();
+            }
+        } finally {
+            server = null;
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+            } finally {
+                writer = null;
+                if (classLoader != null) {
+                    classLoader.close();
+                    classLoader = null;
+                }
+            }
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create directory: " + directory);
+        }
+        final File summaryFile = new File(directory, name + "-summary.json");
+        Files.write(summaryFile.toPath(), statistics.toJson().getBytes(StandardCharsets.UTF_8));
+        LOGGER.info("Capture {} received {}", name, statistics);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A read-only view of a single agent's section of a Flume agent configuration file.
+ * <p />
+ * Only the sources, channels, and sinks named in the agent's {@code sources}, {@code channels}, and {@code sinks} properties are included, in the order in which they are named, as Flume ignores
+ * any others.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentConfiguration {
+    private final String agentName;
+    private final Map<String, Map<String, String>> sources;
+    private final Map<String, Map<String, String>> channels;
+    private final Map<String, Map<String, String>> sinks;
+
+    /**
+     * Read an agent's section of a configuration file.
+     * 
+     * @param configFile
+     *            A {@link File} representing the Flume agent configuration file to be read.
+     * @param agentName
+     *            The name of the agent whose section of the configuration file is to be read.
+     * @return An {@link AgentConfiguration} representing the agent's section of the configuration file.
+     * @throws IOException
+     *             If any errors occur while reading the configuration file.
+     */
+    public static AgentConfiguration load(File configFile, String agentName) throws IOException {
+        final Properties properties = new Properties();
+        try (final InputStream in = new FileInputStream(configFile)) {
+            properties.load(in);
+        }
+        return new AgentConfiguration(properties, agentName);
+    }
+
+    /**
+     * Create a view of an agent's section of a configuration.
+     * 
+     * @param properties
+     *            The {@link Properties} of the configuration.
+     * @param agentName
+     *            The name of the agent whose section of the configuration is to be viewed.
+     */
+    public AgentConfiguration(Properties properties, String agentName) {
+        this.agentName = agentName;
+        this.sources = getComponents(properties, "sources");
+        this.channels = getComponents(properties, "channels");
+        this.sinks = getComponents(properties, "sinks");
+    }
+
+    /**
+     * Get the name of the agent.
+     * 
+     * @return The name of the agent.
+     */
+    public String getAgentName() {
+        return agentName;
+    }
+
+    /**
+     * Get the agent's sources.
+     * 
+     * @return A {@link Map} of each source's name to its properties, the names of which are relative to the source (e.g., {@code type}).
+     */
+    public Map<String, Map<String, String>> getSources() {
+        return sources;
+    }
+
+    /**
+     * Get the agent's channels.
+     * 
+     * @return A {@link Map} of each channel's name to its properties, the names of which are relative to the channel (e.g., {@code capacity}).
+     */
+    public Map<String, Map<String, String>> getChannels() {
+        return channels;
+    }
+
+    /**
+     * Get the agent's sinks.
+     * 
+     * @return A {@link Map} of each sink's name to its properties, the names of which are relative to the sink (e.g., {@code hostname}).
+     */
+    public Map<String, Map<String, String>> getSinks() {
+        return sinks;
+    }
+
+    /**
+     * Get the components of a given kind.
+     * 
+     * @param properties
+     *            The {@link Properties} of the configuration.
+     * @param kind
+     *            The kind of the components - {@code sources}, {@code channels}, or {@code sinks}.
+     * @return A {@link Map} of each named component to its properties.
+     */
+    private Map<String, Map<String, String>> getComponents(Properties properties, String kind) {
+        final String names = properties.getProperty(agentName + "." + kind);
+        if (names == null || names.trim().isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, Map<String, String>> components = new LinkedHashMap<>();
+        for (String name : names.trim().split("\\s+")) {
+            final String prefix = String.format("%s.%s.%s.", agentName, kind, name);
+            final Map<String, String> componentProperties = new LinkedHashMap<>();
+            for (String propertyName : properties.stringPropertyNames()) {
+                if (propertyName.startsWith(prefix)) {
+                    componentProperties.put(propertyName.substring(prefix.length()), properties.getProperty(propertyName).trim());
+                }
+            }
+            components.put(name, Collections.unmodifiableMap(componentProperties));
+        }
+        return Collections.unmodifiableMap(components);
+    }
+}
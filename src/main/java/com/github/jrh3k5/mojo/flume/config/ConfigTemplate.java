@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.config;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A Flume agent configuration file containing placeholders to be filled in before the agent is started.
+ * <p />
+ * Two kinds of placeholders are supported:
+ * <ul>
+ * <li>{@code ${NAME}}, replaced by the value of the variable {@code NAME}, if there is one.</li>
+ * <li>{@code ${port:NAME}}, replaced by a free port allocated to {@code NAME} by a {@link PortAllocator}.</li>
+ * </ul>
+ * Variables are replaced first, so they can be used in the names of ports (e.g., {@code ${port:${agentName}-avro}}). Any other placeholders are left as they are.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ConfigTemplate {
+    private static final Pattern VARIABLE_PATTERN = Pattern.compile("\\$\\{([\\w.-]+)\\}");
+    private static final Pattern PORT_PATTERN = Pattern.compile("\\$\\{port:([^${}]+)\\}");
+
+    private final String template;
+
+    /**
+     * Create a template.
+     * 
+     * @param template
+     *            The text of the template.
+     */
+    public ConfigTemplate(String template) {
+        this.template = template;
+    }
+
+    /**
+     * Render the template.
+     * 
+     * @param variables
+     *            A {@link Map} of the names of the variables to their values.
+     * @param portAllocator
+     *            The {@link PortAllocator} used to allocate ports to the template's port placeholders.
+     * @return The rendered text.
+     * @throws IOException
+     *             If a port cannot be allocated.
+     */
+    public String render(Map<String, String> variables, PortAllocator portAllocator) throws IOException {
+        final Matcher variableMatcher = VARIABLE_PATTERN.matcher(template);
+        final StringBuffer withVariables = new StringBuffer();
+        while (variableMatcher.find()) {
+            final String value = variables.get(variableMatcher.group(1));
+            variableMatcher.appendReplacement(withVariables, Matcher.quoteReplacement(value == null ? variableMatcher.group() : value));
+        }
+        variableMatcher.appendTail(withVariables);
+
+        final Matcher portMatcher = PORT_PATTERN.matcher(withVariables);
+        final StringBuffer rendered = new StringBuffer();
+        while (portMatcher.find()) {
+            portMatcher.appendReplacement(rendered, Integer.toString(portAllocator.getPort(portMatcher.group(1).trim())));
+        }
+        portMatcher.appendTail(rendered);
+        return rendered.toString();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.config;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An estimate of the memory needed by an agent to hold its channels when they are full.
+ * <p />
+ * Only {@code memory} channels, which hold up to {@code capacity} events on the heap, and {@code SPILLABLEMEMORY} channels, which hold up to {@code memoryCapacity} events on the heap before
+ * spilling to disk, are counted; each is capped at its {@code byteCapacity}, if one is set. The estimated heap is twice the channels' bytes, to allow for the overhead of each event's objects and
+ * headers and for the garbage collector's headroom, plus a fixed baseline for Flume itself.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class HeapEstimate {
+    private static final long MEBIBYTE = 1024 * 1024;
+    private static final long BASELINE_HEAP_BYTES = 64 * MEBIBYTE;
+    private static final long MINIMUM_DIRECT_MEMORY_BYTES = 64 * MEBIBYTE;
+    private static final Pattern MAX_HEAP_PATTERN = Pattern.compile("(?:^|\\s)-Xmx(\\d+)([kKmMgGtT]?)(?=\\s|$)");
+
+    private final long channelBytes;
+
+    /**
+     * Estimate the memory needed by an agent's channels.
+     * 
+     * @param configuration
+     *            The {@link AgentConfiguration} of the agent.
+     * @param averageEventSize
+     *            The average size, in bytes, of an event.
+     * @return A {@link HeapEstimate} of the memory needed by the agent.
+     * @throws IllegalArgumentException
+     *             If a channel's capacity is not a number.
+     */
+    public static HeapEstimate estimate(AgentConfiguration configuration, long averageEventSize) {
+        long channelBytes = 0;
+        for (Entry<String, Map<String, String>> channel : configuration.getChannels().entrySet()) {
+            final Map<String, String> properties = channel.getValue();
+            final String type = properties.containsKey("type") ? properties.get("type").toUpperCase(Locale.ROOT) : "";
+            final long capacity;
+            if ("MEMORY".equals(type) || "ORG.APACHE.FLUME.CHANNEL.MEMORYCHANNEL".equals(type)) {
+                capacity = getLong(channel.getKey(), properties, "capacity", 100);
+            } else if ("SPILLABLEMEMORY".equals(type) || "ORG.APACHE.FLUME.CHANNEL.SPILLABLEMEMORYCHANNEL".equals(type)) {
+                capacity = getLong(channel.getKey(), properties, "memoryCapacity", 10000);
+            } else {
+                continue;
+            }
+            channelBytes += Math.min(capacity * averageEventSize, getLong(channel.getKey(), properties, "byteCapacity", Long.MAX_VALUE));
+        }
+        return new HeapEstimate(channelBytes);
+    }
+
+    /**
+     * Get the maximum heap size set by the given JVM arguments.
+     * 
+     * @param javaOpts
+     *            The JVM arguments.
+     * @return {@code -1} if the JVM arguments do not set a maximum heap size; otherwise, the maximum heap size, in bytes, set by the last {@code -Xmx} argument.
+     */
+    public static long getMaxHeapBytes(String javaOpts) {
+        long maxHeapBytes = -1;
+        if (javaOpts == null) {
+            return maxHeapBytes;
+        }
+        final Matcher matcher = MAX_HEAP_PATTERN.matcher(javaOpts);
+        while (matcher.find()) {
+            final long size = Long.parseLong(matcher.group(1));
+            switch (matcher.group(2).toLowerCase(Locale.ROOT)) {
+            case "k":
+                maxHeapBytes = size * 1024;
+                break;
+            case "m":
+                maxHeapBytes = size * MEBIBYTE;
+                break;
+            case "g":
+                maxHeapBytes = size * MEBIBYTE * 1024;
+                break;
+            case "t":
+                maxHeapBytes = size * MEBIBYTE * MEBIBYTE;
+                break;
+            default:
+                maxHeapBytes = size;
+            }
+        }
+        return maxHeapBytes;
+    }
+
+    /**
+     * Create an estimate.
+     * 
+     * @param channelBytes
+     *            The number of bytes held by the agent's channels when they are full.
+     */
+    private HeapEstimate(long channelBytes) {
+        this.channelBytes = channelBytes;
+    }
+
+    /**
+     * Get the number of bytes held by the agent's channels when they are full.
+     * 
+     * @return The number of bytes held by the agent's channels when they are full.
+     */
+    public long getChannelBytes() {
+        return channelBytes;
+    }
+
+    /**
+     * Get the estimated maximum heap size needed by the agent.
+     * 
+     * @return The estimated maximum heap size, in bytes, rounded up to the nearest mebibyte.
+     */
+    public long getHeapBytes() {
+        return roundUpToMebibytes(BASELINE_HEAP_BYTES + 2 * channelBytes);
+    }
+
+    /**
+     * Get the estimated maximum direct memory size needed by the agent: a quarter of its heap, for the buffers of its Netty-based sources and sinks and of its file I/O, but no less than 64 MiB.
+     * 
+     * @return The estimated maximum direct memory size, in bytes, rounded up to the nearest mebibyte.
+     */
+    public long getDirectMemoryBytes() {
+        return roundUpToMebibytes(Math.max(MINIMUM_DIRECT_MEMORY_BYTES, getHeapBytes() / 4));
+    }
+
+    /**
+     * Get JVM arguments that size the agent's heap and direct memory according to this estimate.
+     * 
+     * @return The JVM arguments, separated by whitespace.
+     */
+    public String toJavaOpts() {
+        return String.format("-Xmx%dm -XX:MaxDirectMemorySize=%dm", getHeapBytes() / MEBIBYTE, getDirectMemoryBytes() / MEBIBYTE);
+    }
+
+    /**
+     * Get a numeric property of a channel.
+     * 
+     * @param channelName
+     *            The name of the channel.
+     * @param properties
+     *            A {@link Map} of the channel's properties.
+     * @param propertyName
+     *            The name of the property.
+     * @param defaultValue
+     *            The value to be used if the property is not set.
+     * @return The value of the property.
+     * @throws IllegalArgumentException
+     *             If the property is not a number.
+     */
+    private static long getLong(String channelName, Map<String, String> properties, String propertyName, long defaultValue) {
+        final String value = properties.get(propertyName);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format("The %s of channel %s is not a number: %s", propertyName, channelName, value), e);
+        }
+    }
+
+    /**
+     * Round a number of bytes up to the nearest mebibyte.
+     * 
+     * @param bytes
+     *            The number of bytes to be rounded.
+     * @return The rounded number of bytes.
+     */
+    private static long roundUpToMebibytes(long bytes) {
+        return (bytes + MEBIBYTE - 1) / MEBIBYTE * MEBIBYTE;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.config;
+
+/**
+ * Enumerations of what is to be done when an agent's maximum heap size is smaller than its channels are estimated to need.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public enum HeapSizingPolicy {
+    /**
+     * Do not estimate the heap needed by the agent's channels.
+     */
+    NONE,
+    /**
+     * Log a warning if the agent's maximum heap size is too small.
+     */
+    WARN,
+    /**
+     * Fail the build if the agent's maximum heap size is too small.
+     */
+    FAIL,
+    /**
+     * Derive the agent's maximum heap and direct memory sizes from its channels if its JVM arguments have been left at their default; otherwise, behave as {@link #WARN}.
+     */
+    AUTO
+}
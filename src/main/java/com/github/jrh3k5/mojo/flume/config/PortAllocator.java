@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.config;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Allocates free TCP ports to names, such as those used by the {@code ${port:NAME}} placeholders of a {@link ConfigTemplate}.
+ * <p />
+ * A name is bound to the same port for the life of the allocator, so that agents sharing an allocator can refer to each other's ports. Ports are chosen by the operating system from its
+ * ephemeral range, and no port is handed out twice within the same JVM, even by different allocators.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class PortAllocator {
+    private static final Set<Integer> ALLOCATED_PORTS = new HashSet<>();
+
+    private final Map<String, Integer> ports = new TreeMap<>();
+
+    /**
+     * Get the port bound to a name, allocating a free port to it if it has none yet.
+     * 
+     * @param name
+     *            The name of the port.
+     * @return The port bound to the name.
+     * @throws IOException
+     *             If no free port can be found.
+     */
+    public synchronized int getPort(String name) throws IOException {
+        final Integer existing = ports.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        final int port = allocatePort();
+        ports.put(name, port);
+        return port;
+    }
+
+    /**
+     * Get all of the ports allocated so far.
+     * 
+     * @return A {@link Map} of each port's name to the port, sorted by name.
+     */
+    public synchronized Map<String, Integer> getPorts() {
+        return Collections.unmodifiableMap(new TreeMap<>(ports));
+    }
+
+    /**
+     * Find a free port that has not yet been handed out within this JVM.
+     * 
+     * @return A free port.
+     * @throws IOException
+     *             If no free port can be found.
+     */
+    private static int allocatePort() throws IOException {
+        synchronized (ALLOCATED_PORTS) {
+            // Bound the retries; the operating system only repeats an ephemeral port after cycling through its range
+            for (int attempt = 0; attempt < 100; attempt++) {
+                final int port;
+                try (final ServerSocket socket = new ServerSocket()) {
+                    socket.setReuseAddress(false);
+                    socket.bind(new InetSocketAddress(0));
+                    port = socket.getLocalPort();
+                }
+                if (ALLOCATED_PORTS.add(port)) {
+                    return port;
+                }
+            }
+        }
+        throw new IOException("Failed to find a free port that had not already been allocated.");
+    }
+}
@@ -20,11 +20,15 @@ package com.github.jrh3k5.mojo.flume.io;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.archiver.ArchiverException;
 import org.codehaus.plexus.archiver.tar.TarUnArchiver;
 
 /**
@@ -41,17 +45,18 @@ public class ArchiveUtils {
      *            A {@link URL} representing the GZIP file to be unzipped.
      * @param toFile
      *            A {@link File} representing the location to which the unzipped file should be placed.
+     * @return The number of bytes written to the unzipped file.
      * @throws IOException
      *             If any errors occur during the unzipping.
      * @see #gunzipFile(URL, File)
      */
-    public static void gunzipFile(URL toUnzip, File toFile) throws IOException {
+    public static long gunzipFile(URL toUnzip, File toFile) throws IOException {
         if (toFile.exists() && !toFile.isFile()) {
             throw new IllegalArgumentException("Destination file " + toFile + " exists, but is not a file and, as such, cannot be written to.");
         }
 
         try (final GZIPInputStream zipIn = new GZIPInputStream(toUnzip.openStream()); final FileOutputStream fileOut = new FileOutputStream(toFile)){
-            IOUtils.copy(zipIn, fileOut);
+            return IOUtils.copyLarge(zipIn, fileOut);
         }
     }
 
@@ -62,12 +67,13 @@ public class ArchiveUtils {
      *            A {@link File} representing the TAR file whose contents are to be extracted.
      * @param toDirectory
      *            A {@link File} representing the directory to which the contents of the TAR file to be extracted.
+     * @return The number of files (not counting directories) extracted from the TAR file.
      * @throws IllegalArgumentException
      *             If the given TAR file is not a file or does not exist or the given output directory is not a directory or does not exist.
      * @throws IOException
      *             If any errors occur during the extraction.
      */
-    public static void untarFile(File tarFile, File toDirectory) throws IOException {
+    public static int untarFile(File tarFile, File toDirectory) throws IOException {
         if (!tarFile.isFile()) {
             throw new IllegalArgumentException("TAR file " + tarFile + " must be an existent file.");
         }
@@ -80,9 +86,20 @@ public class ArchiveUtils {
             throw new IllegalArgumentException("Output directory " + toDirectory + " must be an existent directory.");
         }
 
-        final TarUnArchiver unarchiver = new TarUnArchiver(tarFile);
+        final AtomicInteger files = new AtomicInteger();
+        final TarUnArchiver unarchiver = new TarUnArchiver(tarFile) {
+            @Override
+            protected void extractFile(File srcF, File dir, InputStream compressedInputStream, String entryName, Date entryDate, boolean isDirectory, Integer mode) throws IOException,
+                    ArchiverException {
+                super.extractFile(srcF, dir, compressedInputStream, entryName, entryDate, isDirectory, mode);
+                if (!isDirectory) {
+                    files.incrementAndGet();
+                }
+            }
+        };
         unarchiver.enableLogging(new Slf4jPlexusLogger(FlumeCopier.class));
         unarchiver.setDestDirectory(toDirectory);
         unarchiver.extract();
+        return files.get();
     }
 }
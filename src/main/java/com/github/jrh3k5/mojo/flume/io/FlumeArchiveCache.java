@@ -13,6 +13,8 @@ import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.jrh3k5.mojo.flume.timing.Phase;
+import com.github.jrh3k5.mojo.flume.timing.PhaseTimings;
 import com.google.common.hash.Hashing;
 import com.google.common.io.Files;
 
@@ -27,11 +29,19 @@ public class FlumeArchiveCache {
     private static final Pattern BIN_NAME_PATTERN = Pattern.compile("(.*)(apache-flume-([\\d]+\\.[\\d]+\\.[\\d]+)-bin\\.tar\\.gz)");
     private static final int PATTERN_FILENAME_INDEX = 2;
     private static final int PATTERN_VERSION_INDEX = 3;
+    /**
+     * Guards the cached archive, which agents being set up in parallel would otherwise download over each other.
+     */
+    private static final Object CACHE_LOCK = new Object();
 
     private final URL archiveUrl;
     private final String md5Hash;
     private final String fileName;
     private final String flumeVersion;
+    /**
+     * The location of the cached archive once it has been downloaded or verified by this cache, after which it is not hashed again; guarded by {@link #CACHE_LOCK}.
+     */
+    private URL verifiedLocation;
 
     /**
      * Create a Flume archive cache.
@@ -60,24 +70,68 @@ public class FlumeArchiveCache {
      *             If any errors occur while trying to resolve the URL.
      */
     public URL getArchiveLocation() throws IOException {
+        return getArchiveLocation(new PhaseTimings(fileName));
+    }
+
+    /**
+     * Get the location of the archive (post-caching), timing the waiting for, hashing, and downloading of the cached archive.
+     * 
+     * @param timings
+     *            The {@link PhaseTimings} in which the {@link Phase#CACHE_WAIT}, {@link Phase#HASH}, and {@link Phase#DOWNLOAD} phases are to be recorded.
+     * @return A {@link URL} from which the archive can be retrieved.
+     * @throws IOException
+     *             If any errors occur while trying to resolve the URL.
+     * @since 3.1
+     */
+    public URL getArchiveLocation(PhaseTimings timings) throws IOException {
+        final PhaseTimings.Timer waitTimer = timings.start(Phase.CACHE_WAIT);
+        synchronized (CACHE_LOCK) {
+            waitTimer.close();
+            return cacheArchive(timings);
+        }
+    }
+
+    /**
+     * Download the archive into the cache if a valid copy of it has not yet been cached. Once this cache has downloaded or verified the archive, it is trusted for as long as it exists.
+     * 
+     * @param timings
+     *            The {@link PhaseTimings} in which the hashing and downloading of the archive are to be recorded.
+     * @return A {@link URL} from which the archive can be retrieved.
+     * @throws IOException
+     *             If any errors occur while trying to resolve the URL.
+     */
+    private URL cacheArchive(PhaseTimings timings) throws IOException {
         final File tempDir = FileUtils.getTempDirectory();
         final File flumeCache = new File(tempDir, fileName);
+        if (verifiedLocation != null && flumeCache.exists()) {
+            return verifiedLocation;
+        }
         LOGGER.info("The Flume archive is being cached in {}.", flumeCache.getAbsolutePath());
         if (flumeCache.exists()) {
-            final String fileHash = Files.hash(flumeCache, Hashing.md5()).toString();
+            final String fileHash;
+            try (final PhaseTimings.Timer timer = timings.start(Phase.HASH)) {
+                fileHash = Files.hash(flumeCache, Hashing.md5()).toString();
+                timer.addBytes(flumeCache.length());
+                timer.addFiles(1);
+            }
             if (!fileHash.equals(md5Hash)) {
                 LOGGER.warn("The local Flume archive copy has a hash of {}, but expected a hash of {}. It will be downloaded again.", fileHash, md5Hash);
                 FileUtils.forceDelete(flumeCache);
             } else {
-                return flumeCache.toURI().toURL();
+                verifiedLocation = flumeCache.toURI().toURL();
+                return verifiedLocation;
             }
         }
 
-        try (final InputStream urlIn = archiveUrl.openStream(); final FileOutputStream fileOut = new FileOutputStream(flumeCache)) {
-            IOUtils.copy(urlIn, fileOut);
+        try (final PhaseTimings.Timer timer = timings.start(Phase.DOWNLOAD);
+                final InputStream urlIn = archiveUrl.openStream();
+                final FileOutputStream fileOut = new FileOutputStream(flumeCache)) {
+            timer.addBytes(IOUtils.copyLarge(urlIn, fileOut));
+            timer.addFiles(1);
         }
 
-        return flumeCache.toURI().toURL();
+        verifiedLocation = flumeCache.toURI().toURL();
+        return verifiedLocation;
     }
 
     /**
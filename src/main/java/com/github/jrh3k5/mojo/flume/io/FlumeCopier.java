@@ -22,6 +22,10 @@ import static com.github.jrh3k5.mojo.flume.io.ArchiveUtils.untarFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URL;
+
+import com.github.jrh3k5.mojo.flume.timing.Phase;
+import com.github.jrh3k5.mojo.flume.timing.PhaseTimings;
 
 /**
  * A utility class used to copy a Flume installation.
@@ -52,9 +56,32 @@ public class FlumeCopier {
      *             If any errors occur during the unpacking of the Flume installation.
      */
     public File copyTo(File directory) throws IOException {
+        return copyTo(directory, new PhaseTimings(directory.getName()));
+    }
+
+    /**
+     * Copy the Flume installation to a given directory, timing each step of the copying.
+     * 
+     * @param directory
+     *            A {@link File} representing the directory to which Flume is to be installed.
+     * @param timings
+     *            The {@link PhaseTimings} in which the caching of the archive and the {@link Phase#GUNZIP} and {@link Phase#UNTAR} phases are to be recorded.
+     * @return A {@link File} representing the location of the unpacked Flume installation.
+     * @throws IOException
+     *             If any errors occur during the unpacking of the Flume installation.
+     * @since 3.1
+     */
+    public File copyTo(File directory, PhaseTimings timings) throws IOException {
+        final URL archiveLocation = archiveCache.getArchiveLocation(timings);
         final File tarFile = new File(directory, "apache-flume.tar");
-        gunzipFile(archiveCache.getArchiveLocation(), tarFile);
-        untarFile(tarFile, directory);
+        try (final PhaseTimings.Timer timer = timings.start(Phase.GUNZIP)) {
+            timer.addBytes(gunzipFile(archiveLocation, tarFile));
+            timer.addFiles(1);
+        }
+        try (final PhaseTimings.Timer timer = timings.start(Phase.UNTAR)) {
+            timer.addFiles(untarFile(tarFile, directory));
+            timer.addBytes(tarFile.length());
+        }
         return new File(directory, String.format("apache-flume-%s-bin", archiveCache.getFlumeVersion()));
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link EventSender} that sends batches of events to an Avro source through the {@code RpcClient} of the Flume client SDK. The SDK is not a dependency of this plugin, so it is loaded, by
+ * reflection, from the agent's own Flume installation; this also guarantees that the client speaks the same version of the protocol as the source.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AvroEventSender implements EventSender {
+    private final ClassLoader classLoader;
+    private final Object client;
+    private final Method withBody;
+    private final Method appendBatch;
+    private final Method close;
+
+    /**
+     * Create a sender.
+     * 
+     * @param classLoader
+     *            The {@link ClassLoader} from which the Flume client SDK is to be loaded.
+     * @param endpoint
+     *            The {@link InetSocketAddress} on which the source listens.
+     * @param batchSize
+     *            The largest number of events to be sent at once.
+     * @throws IOException
+     *             If the Flume client SDK cannot be loaded or the source cannot be connected to.
+     */
+    public AvroEventSender(ClassLoader classLoader, InetSocketAddress endpoint, int batchSize) throws IOException {
+        this.classLoader = classLoader;
+        try {
+            final Class<?> clientClass = classLoader.loadClass("org.apache.flume.api.RpcClient");
+            this.withBody = classLoader.loadClass("org.apache.flume.event.EventBuilder").getMethod("withBody", byte[].class, Map.class);
+            this.appendBatch = clientClass.getMethod("appendBatch", List.class);
+            this.close = clientClass.getMethod("close");
+            final Method getDefaultInstance = classLoader.loadClass("org.apache.flume.api.RpcClientFactory").getMethod("getDefaultInstance", String.class, Integer.class, Integer.class);
+            this.client = invoke(getDefaultInstance, null, endpoint.getHostString(), endpoint.getPort(), batchSize);
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Failed to load the Flume client SDK.", e);
+        }
+    }
+
+    @Override
+    public void send(List<byte[]> bodies, List<Map<String, String>> headers) throws IOException {
+        final List<Object> events = new ArrayList<>(bodies.size());
+        try {
+            for (int i = 0; i < bodies.size(); i++) {
+                events.add(withBody.invoke(null, bodies.get(i), headers == null ? new HashMap<String, String>() : new HashMap<>(headers.get(i))));
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Failed to build events.", e);
+        }
+        invoke(appendBatch, client, events);
+    }
+
+    @Override
+    public void close() throws IOException {
+        invoke(close, client);
+    }
+
+    /**
+     * Invoke a method of the Flume client SDK with the SDK's class loader as the thread's context class loader, unwrapping any exception thrown by the method.
+     * 
+     * @param method
+     *            The {@link Method} to be invoked.
+     * @param target
+     *            The object on which the method is to be invoked, or {@code null} if the method is static.
+     * @param args
+     *            The arguments of the method.
+     * @return The value returned by the method.
+     * @throws IOException
+     *             If the method fails.
+     */
+    private Object invoke(Method method, Object target, Object... args) throws IOException {
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(classLoader);
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw new IOException("The Avro source did not accept a batch of events.", e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IOException("Failed to call the Flume client SDK.", e);
+        } finally {
+            currentThread.setContextClassLoader(previousClassLoader);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A client that sends batches of events to a source of an agent, returning only once the source has accepted them.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public interface EventSender extends Closeable {
+    /**
+     * Send a batch of events without headers.
+     * 
+     * @param bodies
+     *            A {@link List} of the bodies of the events to be sent.
+     * @throws IOException
+     *             If the events cannot be sent or are not accepted.
+     */
+    default void send(List<byte[]> bodies) throws IOException {
+        send(bodies, null);
+    }
+
+    /**
+     * Send a batch of events.
+     * 
+     * @param bodies
+     *            A {@link List} of the bodies of the events to be sent.
+     * @param headers
+     *            A {@link List} of the headers of each of the events to be sent, or {@code null} if the events have no headers.
+     * @throws IOException
+     *             If the events cannot be sent or are not accepted.
+     * @throws UnsupportedOperationException
+     *             If headers are given and the source cannot receive them.
+     */
+    void send(List<byte[]> bodies, List<Map<String, String>> headers) throws IOException;
+}
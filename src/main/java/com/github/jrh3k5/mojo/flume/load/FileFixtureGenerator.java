@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes files of newline-terminated records into the directories of file-reading sources, as fixtures for their agents to ingest. Files are rotated when they reach a target size or have
+ * been written to for a given amount of time, and are spread over the given targets in turn.
+ * <p>
+ * Records are assembled in a direct buffer, from a block of text generated once, and written through a {@link FileChannel}, so that gigabytes can be written without creating garbage on the
+ * heap. A file for a spooling directory source is written under a hidden name, which the source ignores, and moved to its final name once complete; a file for a taildir source is appended
+ * to in place, a whole number of records at a time, optionally throttled to a rate, so that the source reads it as it grows.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class FileFixtureGenerator {
+    /**
+     * The smallest size of a record of the {@link FixtureFormat#RECORDS} format, which holds two numbers of up to 19 digits.
+     */
+    static final int MIN_RECORDS_SIZE = 48;
+    private static final int CHUNK_SIZE = 1024 * 1024;
+    private static final int TEXT_SIZE = 64 * 1024;
+    private static final int THROTTLE_CHUNKS_PER_SECOND = 100;
+
+    private final FixtureFormat format;
+    private final int recordSize;
+    private final long fileSize;
+    private final long rotateMillis;
+    private final long bytesPerSecond;
+    private final String fileNameFormat;
+    private final ByteBuffer text;
+    private final byte[] digits = new byte[20];
+
+    /**
+     * Create a generator.
+     * 
+     * @param format
+     *            The {@link FixtureFormat} of the records.
+     * @param recordSize
+     *            The number of bytes in each record, including its newline.
+     * @param fileSize
+     *            The number of bytes at which a file is rotated; a file holds at least one record.
+     * @param rotateMillis
+     *            The amount of time, in milliseconds, after which a file being written is rotated, or 0 to rotate files only by size.
+     * @param bytesPerSecond
+     *            The rate, in bytes per second, at which records are written, or 0 to write them as fast as possible.
+     * @param fileNameFormat
+     *            The {@link String#format(String, Object...) format} of the names of the files, given the number of each file, starting at 1.
+     * @throws IllegalArgumentException
+     *             If the record size is less than 2 (or less than {@value #MIN_RECORDS_SIZE} for {@link FixtureFormat#RECORDS}), or the file size is less than 1.
+     */
+    public FileFixtureGenerator(FixtureFormat format, int recordSize, long fileSize, long rotateMillis, long bytesPerSecond, String fileNameFormat) {
+        final int minRecordSize = format == FixtureFormat.RECORDS ? MIN_RECORDS_SIZE : 2;
+        if (recordSize < minRecordSize) {
+            throw new IllegalArgumentException(String.format("A record of the %s format must be of at least %d bytes: %d", format, minRecordSize, recordSize));
+        }
+        if (fileSize < 1) {
+            throw new IllegalArgumentException("The size of a file must be at least 1 byte: " + fileSize);
+        }
+        this.format = format;
+        this.recordSize = recordSize;
+        this.fileSize = fileSize;
+        this.rotateMillis = rotateMillis;
+        this.bytesPerSecond = bytesPerSecond;
+        this.fileNameFormat = fileNameFormat;
+        this.text = ByteBuffer.allocateDirect(TEXT_SIZE + recordSize);
+        text.put(LoadGenerator.newBody(new Random(0), text.capacity())).clear();
+    }
+
+    /**
+     * Write files until the given number of bytes has been written.
+     * 
+     * @param targets
+     *            A {@link List} of the {@link FileTarget} objects for whose sources files are to be written, in turn.
+     * @param totalBytes
+     *            The number of bytes to be written; the last record may take the files past it.
+     * @return A {@link FixtureResult} describing the files written.
+     * @throws IOException
+     *             If a file cannot be written or its name is not one that its source reads.
+     * @throws InterruptedException
+     *             If interrupted while throttled.
+     */
+    public FixtureResult write(List<FileTarget> targets, long totalBytes) throws IOException, InterruptedException {
+        final ByteBuffer chunk = ByteBuffer.allocateDirect(getChunkSize());
+        final long start = System.nanoTime();
+        long records = 0;
+        long bytes = 0;
+        int files = 0;
+        int fileNumber = 0;
+        while (bytes < totalBytes) {
+            final FileTarget target = targets.get(files % targets.size());
+            if (!target.getDirectory().isDirectory() && !target.getDirectory().mkdirs()) {
+                throw new IOException("Failed to create directory: " + target.getDirectory());
+            }
+            String fileName;
+            do {
+                fileName = String.format(Locale.ROOT, fileNameFormat, ++fileNumber);
+            } while (isUsed(target.getDirectory(), fileName));
+            if (!target.accepts(fileName)) {
+                throw new IOException(String.format("Source %s does not read files named %s; set a file name format that its file group matches.", target.getSourceName(), fileName));
+            }
+
+            final File file = new File(target.getDirectory(), fileName);
+            final File writing = target.isSpooling() ? new File(target.getDirectory(), "." + fileName + ".tmp") : file;
+            final long opened = System.nanoTime();
+            long fileBytes = 0;
+            try (final FileChannel channel = FileChannel.open(writing.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                do {
+                    chunk.clear();
+                    do {
+                        putRecord(chunk, records++);
+                    } while (chunk.remaining() >= recordSize && fileBytes + chunk.position() + recordSize <= fileSize && bytes + chunk.position() < totalBytes);
+                    chunk.flip();
+                    final int written = chunk.remaining();
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                    fileBytes += written;
+                    bytes += written;
+                    throttle(start, bytes);
+                } while (bytes < totalBytes && fileBytes + recordSize <= fileSize && (rotateMillis <= 0 || System.nanoTime() - opened < rotateMillis * 1000000L));
+            }
+            if (target.isSpooling()) {
+                Files.move(writing.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+            files++;
+        }
+        return new FixtureResult(records, bytes, (System.nanoTime() - start) / 1000000L, files);
+    }
+
+    /**
+     * Get the size of the buffer in which records are assembled: a whole number of records, small enough when throttled that files grow smoothly.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @return The size, in bytes, of the buffer.
+     */
+    int getChunkSize() {
+        final long size = bytesPerSecond > 0 ? Math.min(CHUNK_SIZE, bytesPerSecond / THROTTLE_CHUNKS_PER_SECOND) : CHUNK_SIZE;
+        return (int) Math.max(recordSize, size - size % recordSize);
+    }
+
+    /**
+     * Assemble a record.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param chunk
+     *            The {@link ByteBuffer} into which the record is to be put.
+     * @param sequence
+     *            The sequence number of the record within the run, starting at 0.
+     */
+    void putRecord(ByteBuffer chunk, long sequence) {
+        final int start = chunk.position();
+        if (format == FixtureFormat.RECORDS) {
+            putDecimal(chunk, sequence);
+            chunk.put((byte) '\t');
+            putDecimal(chunk, System.currentTimeMillis());
+            chunk.put((byte) '\t');
+        }
+        final int offset = (int) (sequence * 31 % TEXT_SIZE);
+        text.limit(offset + recordSize - 1 - (chunk.position() - start));
+        text.position(offset);
+        chunk.put(text);
+        chunk.put((byte) '\n');
+    }
+
+    /**
+     * Put a non-negative number into a buffer as ASCII digits.
+     * 
+     * @param buffer
+     *            The {@link ByteBuffer} into which the number is to be put.
+     * @param value
+     *            The number.
+     */
+    private void putDecimal(ByteBuffer buffer, long value) {
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        buffer.put(digits, position, digits.length - position);
+    }
+
+    /**
+     * Wait until writing the given number of bytes is due at the generator's rate.
+     * 
+     * @param start
+     *            The {@link System#nanoTime()} at which writing started.
+     * @param bytes
+     *            The number of bytes written.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    private void throttle(long start, long bytes) throws InterruptedException {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        final long due = start + (long) (bytes * 1000000000.0 / bytesPerSecond);
+        long remainingNanos;
+        while ((remainingNanos = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remainingNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Determine whether a file name is already in use in a directory, including by a file that a spooling directory source has renamed with a suffix once reading it.
+     * 
+     * @param directory
+     *            The directory.
+     * @param fileName
+     *            The name of the file.
+     * @return {@code true} if a file in the directory has the given name or starts with it.
+     */
+    private static boolean isUsed(File directory, String fileName) {
+        final String[] used = directory.list((dir, name) -> name.startsWith(fileName) || name.startsWith("." + fileName));
+        return used != null && used.length > 0;
+    }
+}
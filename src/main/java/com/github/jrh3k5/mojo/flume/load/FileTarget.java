@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+
+/**
+ * A file-reading source of an agent into whose directory a {@link FileFixtureGenerator} can write files: a spooling directory source, which reads files once they are complete, or a taildir
+ * source, which reads files as they are appended to.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class FileTarget {
+    private static final String SPOOLDIR_ALIAS = "spooldir";
+    private static final String SPOOLDIR_CLASS_NAME = "org.apache.flume.source.SpoolDirectorySource";
+    private static final String TAILDIR_ALIAS = "taildir";
+    private static final String TAILDIR_CLASS_NAME = "org.apache.flume.source.taildir.TaildirSource";
+
+    private final String sourceName;
+    private final File directory;
+    private final boolean spooling;
+    private final Pattern fileNamePattern;
+
+    /**
+     * Create a target.
+     * 
+     * @param sourceName
+     *            The name of the source.
+     * @param directory
+     *            The directory from which the source reads files.
+     * @param spooling
+     *            Whether the source is a spooling directory source, which requires files to be complete when they appear in its directory.
+     * @param fileNamePattern
+     *            The {@link Pattern} that the names of files read by the source must match, or {@code null} if it reads all files.
+     */
+    FileTarget(String sourceName, File directory, boolean spooling, Pattern fileNamePattern) {
+        this.sourceName = sourceName;
+        this.directory = directory;
+        this.spooling = spooling;
+        this.fileNamePattern = fileNamePattern;
+    }
+
+    /**
+     * Find the file-reading source of an agent into whose directory files are to be written.
+     * 
+     * @param configuration
+     *            The {@link AgentConfiguration} of the agent.
+     * @param sourceName
+     *            The name of the source, or {@code null} to use the first spooling directory or taildir source of the agent.
+     * @return A {@link FileTarget} representing the source; for a taildir source, its first file group.
+     * @throws IOException
+     *             If there is no such source, it does not read files, or its directory is not configured.
+     */
+    public static FileTarget forSource(AgentConfiguration configuration, String sourceName) throws IOException {
+        for (Map.Entry<String, Map<String, String>> source : configuration.getSources().entrySet()) {
+            if (sourceName != null && !sourceName.equals(source.getKey())) {
+                continue;
+            }
+            final Map<String, String> properties = source.getValue();
+            final String type = properties.get("type");
+            if (isType(type, SPOOLDIR_ALIAS, SPOOLDIR_CLASS_NAME)) {
+                final String spoolDir = properties.get("spoolDir");
+                if (spoolDir == null) {
+                    throw new IOException(String.format("Source %s of agent %s has no spoolDir.", source.getKey(), configuration.getAgentName()));
+                }
+                return new FileTarget(source.getKey(), new File(spoolDir), true, null);
+            } else if (isType(type, TAILDIR_ALIAS, TAILDIR_CLASS_NAME)) {
+                final String fileGroups = properties.get("filegroups");
+                final String fileGroup = fileGroups == null ? null : properties.get("filegroups." + fileGroups.trim().split("\\s+")[0]);
+                if (fileGroup == null) {
+                    throw new IOException(String.format("Source %s of agent %s has no file groups.", source.getKey(), configuration.getAgentName()));
+                }
+                final File path = new File(fileGroup);
+                try {
+                    return new FileTarget(source.getKey(), path.getParentFile(), false, Pattern.compile(path.getName()));
+                } catch (PatternSyntaxException e) {
+                    throw new IOException(String.format("The file group of source %s of agent %s is not a valid pattern: %s", source.getKey(), configuration.getAgentName(), fileGroup),
+                            e);
+                }
+            } else if (sourceName != null) {
+                throw new IOException(String.format("Files cannot be written for source %s of agent %s, whose type is %s; only spooldir and TAILDIR sources are supported.", sourceName,
+                        configuration.getAgentName(), type));
+            }
+        }
+        throw new IOException(sourceName == null ? String.format("Agent %s has no spooldir or TAILDIR source to write files for.", configuration.getAgentName())
+                : String.format("Agent %s has no source named %s.", configuration.getAgentName(), sourceName));
+    }
+
+    /**
+     * Determine whether the source reads a file of the given name.
+     * 
+     * @param fileName
+     *            The name of the file.
+     * @return {@code true} if the source reads the file.
+     */
+    public boolean accepts(String fileName) {
+        return fileNamePattern == null || fileNamePattern.matcher(fileName).matches();
+    }
+
+    /**
+     * Get the name of the source.
+     * 
+     * @return The name of the source.
+     */
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    /**
+     * Get the directory from which the source reads files.
+     * 
+     * @return The directory from which the source reads files.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Determine whether the source is a spooling directory source, which requires files to be complete when they appear in its directory.
+     * 
+     * @return {@code true} if the source is a spooling directory source; {@code false} if it is a taildir source.
+     */
+    public boolean isSpooling() {
+        return spooling;
+    }
+
+    /**
+     * Determine whether a source's type is a given one.
+     * 
+     * @param type
+     *            The {@code type} of the source, either an alias or a class name.
+     * @param alias
+     *            The alias, in lower case, of the type.
+     * @param className
+     *            The class name of the type.
+     * @return {@code true} if the source is of the given type.
+     */
+    private static boolean isType(String type, String alias, String className) {
+        return type != null && (alias.equals(type.toLowerCase(Locale.ROOT)) || className.equals(type));
+    }
+
+    @Override
+    public String toString() {
+        return "FileTarget[" + sourceName + ", " + directory + "]";
+    }
+}
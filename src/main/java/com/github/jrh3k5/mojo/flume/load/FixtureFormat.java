@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+/**
+ * Enumerations of the shapes of the data written by a {@link FileFixtureGenerator}. Every record ends with a newline, so that each is read as one event by Flume's {@code LINE}
+ * deserializer and by a taildir source.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public enum FixtureFormat {
+    /**
+     * Lines of alphanumeric text.
+     */
+    LINES,
+    /**
+     * Tab-separated records of a sequence number, unique within the run, the time at which the record was written, in milliseconds since the epoch, and alphanumeric text, so that an
+     * integration test can check the order, loss, and latency of the events read.
+     */
+    RECORDS
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.util.Locale;
+
+/**
+ * The outcome of a run of a {@link FileFixtureGenerator}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class FixtureResult extends LoadResult {
+    private final int files;
+
+    /**
+     * Create an outcome.
+     * 
+     * @param records
+     *            The number of records written.
+     * @param bytes
+     *            The number of bytes written.
+     * @param elapsedMillis
+     *            The amount of time, in milliseconds, for which files were written.
+     * @param files
+     *            The number of files written.
+     */
+    FixtureResult(long records, long bytes, long elapsedMillis, int files) {
+        super(records, bytes, elapsedMillis, 0);
+        this.files = files;
+    }
+
+    /**
+     * Get the number of files written.
+     * 
+     * @return The number of files written.
+     */
+    public int getFiles() {
+        return files;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s, in %d file(s)", super.toString(), files);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * An {@link EventSender} that posts batches of events to an HTTP source as the JSON arrays understood by Flume's default {@code JSONHandler}. The bodies of the events must be text that needs no
+ * escaping in JSON.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class HttpEventSender implements EventSender {
+    private static final int TIMEOUT_MILLIS = 30000;
+    private static final byte[] EVENT_PREFIX = "{\"headers\":{".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BODY_PREFIX = "},\"body\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EVENT_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final URL url;
+
+    /**
+     * Create a sender.
+     * 
+     * @param endpoint
+     *            The {@link InetSocketAddress} on which the source listens.
+     * @throws IOException
+     *             If the source's URL cannot be formed.
+     */
+    public HttpEventSender(InetSocketAddress endpoint) throws IOException {
+        this.url = new URL("http", endpoint.getHostString(), endpoint.getPort(), "/");
+    }
+
+    @Override
+    public void send(List<byte[]> bodies, List<Map<String, String>> headers) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+        connection.setDoOutput(true);
+        try (final OutputStream out = connection.getOutputStream()) {
+            out.write('[');
+            for (int i = 0; i < bodies.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(EVENT_PREFIX);
+                if (headers != null) {
+                    boolean first = true;
+                    for (Map.Entry<String, String> header : headers.get(i).entrySet()) {
+                        out.write(String.format("%s\"%s\":\"%s\"", first ? "" : ",", escape(header.getKey()), escape(header.getValue())).getBytes(StandardCharsets.UTF_8));
+                        first = false;
+                    }
+                }
+                out.write(BODY_PREFIX);
+                out.write(bodies.get(i));
+                out.write(EVENT_SUFFIX);
+            }
+            out.write(']');
+        }
+
+        final int status = connection.getResponseCode();
+        // Read the response fully so that the connection can be reused
+        try (final InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (in != null) {
+                IOUtils.toByteArray(in);
+            }
+        }
+        if (status != HttpURLConnection.HTTP_OK) {
+            throw new IOException(String.format("The HTTP source did not accept a batch of events: %d %s", status, connection.getResponseMessage()));
+        }
+    }
+
+    /**
+     * Escape a string for JSON.
+     * 
+     * @param value
+     *            The string to be escaped.
+     * @return The escaped string.
+     */
+    private static String escape(String value) {
+        final StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    @Override
+    public void close() {
+        // Connections are kept alive by the JDK, so there is nothing to close
+    }
+}
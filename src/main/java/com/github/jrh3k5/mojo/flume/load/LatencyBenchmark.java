@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.github.jrh3k5.mojo.flume.capture.CaptureListener;
+import com.github.jrh3k5.mojo.flume.capture.CapturedEvent;
+import com.github.jrh3k5.mojo.flume.load.LoadGenerator.SenderFactory;
+
+/**
+ * An open-loop latency benchmark: events are sent on a fixed schedule, whether or not the agent has kept up, and the time each takes to come out of the agent's sink is recorded when it is
+ * received by a {@link CaptureListener}. Each event carries the time at which it was scheduled to be sent and the time at which it actually was as headers.
+ * <p>
+ * Latency is measured from the scheduled time. A sender stalled by the agent delays the events queued behind it, and measuring from the time they were actually sent would hide that delay -
+ * the coordinated omission that makes closed-loop benchmarks report latencies far better than the agent's users see. The latency from the actual send time is recorded as well, to show how
+ * much would have been hidden.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class LatencyBenchmark implements CaptureListener {
+    /**
+     * The header holding the {@link System#nanoTime()} at which an event was scheduled to be sent.
+     */
+    public static final String INTENDED_HEADER = "flume.benchmark.intended";
+    /**
+     * The header holding the {@link System#nanoTime()} at which an event was sent.
+     */
+    public static final String SENT_HEADER = "flume.benchmark.sent";
+    /**
+     * The header marking an event sent to check that events reach the capture endpoint before the benchmark starts.
+     */
+    public static final String PROBE_HEADER = "flume.benchmark.probe";
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final long PROBE_INTERVAL_MILLIS = 500;
+
+    private final SenderFactory senderFactory;
+    private final int concurrency;
+    private final int rate;
+    private final int eventSize;
+    private final LatencyHistogram latencies = new LatencyHistogram(SIGNIFICANT_DIGITS);
+    private final LatencyHistogram uncorrectedLatencies = new LatencyHistogram(SIGNIFICANT_DIGITS);
+    private final AtomicLong received = new AtomicLong();
+    private volatile boolean probeReceived;
+
+    /**
+     * Create a benchmark.
+     * 
+     * @param senderFactory
+     *            The {@link SenderFactory} used to create each worker's {@link EventSender}, which must be able to send headers.
+     * @param concurrency
+     *            The number of workers sending events at once; enough are needed that a stalled send does not hold up the whole schedule.
+     * @param rate
+     *            The number of events to be sent each second.
+     * @param eventSize
+     *            The number of bytes in the body of each event.
+     * @throws IllegalArgumentException
+     *             If the concurrency, rate, or event size is less than 1.
+     */
+    public LatencyBenchmark(SenderFactory senderFactory, int concurrency, int rate, int eventSize) {
+        if (concurrency < 1 || rate < 1 || eventSize < 1) {
+            throw new IllegalArgumentException(String.format("The concurrency (%d), rate (%d), and event size (%d) must all be at least 1.", concurrency, rate, eventSize));
+        }
+        this.senderFactory = senderFactory;
+        this.concurrency = concurrency;
+        this.rate = rate;
+        this.eventSize = eventSize;
+    }
+
+    @Override
+    public void eventsReceived(List<CapturedEvent> events) {
+        for (CapturedEvent event : events) {
+            final Map<String, String> headers = event.getHeaders();
+            if (headers.containsKey(PROBE_HEADER)) {
+                probeReceived = true;
+                continue;
+            }
+            final String intended = headers.get(INTENDED_HEADER);
+            final String sent = headers.get(SENT_HEADER);
+            if (intended == null || sent == null) {
+                continue;
+            }
+            // Latencies are recorded in microseconds
+            latencies.recordValue((event.getReceivedNanos() - Long.parseLong(intended)) / 1000);
+            uncorrectedLatencies.recordValue((event.getReceivedNanos() - Long.parseLong(sent)) / 1000);
+            received.incrementAndGet();
+        }
+    }
+
+    /**
+     * Send probe events until one of them is received, so that the benchmark does not measure the time taken for the agent's sink to connect to the capture endpoint.
+     * 
+     * @param timeoutMillis
+     *            The amount of time, in milliseconds, to wait for a probe event to be received.
+     * @throws IOException
+     *             If a probe event cannot be sent.
+     * @throws TimeoutException
+     *             If no probe event is received in time.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    public void awaitDelivery(long timeoutMillis) throws IOException, TimeoutException, InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        try (final EventSender sender = senderFactory.newSender(0)) {
+            while (!probeReceived) {
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new TimeoutException(String.format("No event sent to the agent reached the capture endpoint within %d ms.", timeoutMillis));
+                }
+                sender.send(Collections.singletonList(LoadGenerator.newBody(new Random(), eventSize)), Collections.singletonList(Collections.singletonMap(PROBE_HEADER, "true")));
+                Thread.sleep(PROBE_INTERVAL_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Send events on schedule for the given amount of time, then wait for them to be received. A worker whose sender fails stops sending; the run only fails if every worker does.
+     * 
+     * @param durationMillis
+     *            The amount of time, in milliseconds, for which events are to be sent.
+     * @param receiveTimeoutMillis
+     *            The amount of time, in milliseconds, to wait after sending for every event sent to be received; events not received by then are reported as lost.
+     * @return A {@link LatencyResult} describing the latencies of the events received.
+     * @throws IOException
+     *             If every worker failed; the first failure is the cause.
+     * @throws InterruptedException
+     *             If interrupted while sending or waiting.
+     */
+    public LatencyResult run(long durationMillis, long receiveTimeoutMillis) throws IOException, InterruptedException {
+        final long events = Math.max(1, rate * durationMillis / 1000);
+        final double intervalNanos = 1000000000.0 / rate;
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        final long start = System.nanoTime();
+        long sent = 0;
+        int failedWorkers = 0;
+        try {
+            final List<Future<Long>> workers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                final int worker = i;
+                workers.add(executor.submit(() -> runWorker(worker, start, intervalNanos, events)));
+            }
+
+            IOException firstFailure = null;
+            for (Future<Long> worker : workers) {
+                try {
+                    sent += worker.get();
+                } catch (ExecutionException e) {
+                    failedWorkers++;
+                    if (firstFailure == null) {
+                        firstFailure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException("A benchmark worker failed.", e.getCause());
+                    }
+                }
+            }
+            if (failedWorkers == concurrency) {
+                throw firstFailure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        final long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+
+        final long receiveDeadline = System.currentTimeMillis() + receiveTimeoutMillis;
+        while (received.get() < sent && System.currentTimeMillis() < receiveDeadline) {
+            Thread.sleep(100);
+        }
+        return new LatencyResult(latencies, uncorrectedLatencies, rate, sent, received.get(), elapsedMillis, failedWorkers);
+    }
+
+    /**
+     * Send this worker's share of the scheduled events: worker {@code w} sends events {@code w}, {@code w + concurrency}, and so on, each at its scheduled time or, if the worker has fallen behind,
+     * at once.
+     * 
+     * @param worker
+     *            The number of the worker, starting from 0.
+     * @param start
+     *            The {@link System#nanoTime()} at which the schedule starts.
+     * @param intervalNanos
+     *            The number of nanoseconds between scheduled events.
+     * @param events
+     *            The total number of events in the schedule.
+     * @return The number of events sent.
+     * @throws IOException
+     *             If the worker's sender fails.
+     */
+    private long runWorker(int worker, long start, double intervalNanos, long events) throws IOException {
+        final List<byte[]> body = Collections.singletonList(LoadGenerator.newBody(new Random(worker), eventSize));
+        long sent = 0;
+        try (final EventSender sender = senderFactory.newSender(worker)) {
+            for (long event = worker; event < events && !Thread.currentThread().isInterrupted(); event += concurrency) {
+                final long intended = start + (long) (event * intervalNanos);
+                long now;
+                while ((now = System.nanoTime()) < intended) {
+                    LockSupport.parkNanos(intended - now);
+                }
+                final Map<String, String> headers = new HashMap<>(2);
+                headers.put(INTENDED_HEADER, Long.toString(intended));
+                headers.put(SENT_HEADER, Long.toString(now));
+                sender.send(body, Collections.singletonList(headers));
+                sent++;
+            }
+        }
+        return sent;
+    }
+}
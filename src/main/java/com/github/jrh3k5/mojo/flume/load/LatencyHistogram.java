@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * A high dynamic range histogram of latencies. Values are counted in log-linear buckets, as in HdrHistogram: every power-of-two range of values is split into the same number of sub-buckets, so
+ * any recorded value can be told apart from its neighbours to the same relative precision, from a microsecond up to hours, in a fixed amount of memory. The percentile distribution is written
+ * in HdrHistogram's {@code .hgrm} format so that it can be plotted with the same tools.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class LatencyHistogram {
+    private final int subBucketBits;
+    private final int subBucketCount;
+    private final int subBucketHalfCount;
+    private final long[] counts;
+    private long totalCount;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue;
+    private double sum;
+    private double sumOfSquares;
+
+    /**
+     * Create a histogram.
+     * 
+     * @param significantDigits
+     *            The number of significant decimal digits to which recorded values are to be told apart, from 1 to 5.
+     * @throws IllegalArgumentException
+     *             If the number of significant digits is not from 1 to 5.
+     */
+    public LatencyHistogram(int significantDigits) {
+        if (significantDigits < 1 || significantDigits > 5) {
+            throw new IllegalArgumentException("The number of significant digits must be from 1 to 5: " + significantDigits);
+        }
+        final long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        this.subBucketBits = 64 - Long.numberOfLeadingZeros(largestValueWithSingleUnitResolution - 1);
+        this.subBucketCount = 1 << subBucketBits;
+        this.subBucketHalfCount = subBucketCount / 2;
+        // The first bucket holds every value below the sub-bucket count exactly; each further bucket doubles the range covered by its upper half
+        this.counts = new long[subBucketCount + (63 - subBucketBits) * subBucketHalfCount];
+    }
+
+    /**
+     * Record a value.
+     * 
+     * @param value
+     *            The value to be recorded; negative values, which can only come from clock skew, are recorded as 0.
+     */
+    public synchronized void recordValue(long value) {
+        final long recorded = Math.max(0, value);
+        counts[getIndex(recorded)]++;
+        totalCount++;
+        minValue = Math.min(minValue, recorded);
+        maxValue = Math.max(maxValue, recorded);
+        sum += recorded;
+        sumOfSquares += (double) recorded * recorded;
+    }
+
+    /**
+     * Get the number of values recorded.
+     * 
+     * @return The number of values recorded.
+     */
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Get the smallest value recorded.
+     * 
+     * @return The smallest value recorded, or 0 if none have been.
+     */
+    public synchronized long getMinValue() {
+        return totalCount == 0 ? 0 : minValue;
+    }
+
+    /**
+     * Get the largest value recorded.
+     * 
+     * @return The largest value recorded, or 0 if none have been.
+     */
+    public synchronized long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * Get the mean of the values recorded.
+     * 
+     * @return The mean of the values recorded, or 0 if none have been.
+     */
+    public synchronized double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /**
+     * Get the standard deviation of the values recorded.
+     * 
+     * @return The standard deviation of the values recorded, or 0 if none have been.
+     */
+    public synchronized double getStdDeviation() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        final double mean = sum / totalCount;
+        return Math.sqrt(Math.max(0, sumOfSquares / totalCount - mean * mean));
+    }
+
+    /**
+     * Get the value at a percentile: the highest value equivalent, to the histogram's precision, to the value below which the given percentage of recorded values fall.
+     * 
+     * @param percentile
+     *            The percentile, from 0 to 100.
+     * @return The value at the percentile, or 0 if no values have been recorded.
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        final long countAtPercentile = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * totalCount));
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            count += counts[i];
+            if (count >= countAtPercentile) {
+                return Math.min(maxValue, getHighestEquivalentValue(i));
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Write the percentile distribution of the recorded values in HdrHistogram's {@code .hgrm} format: five percentiles for each halving of the distance to 100%, followed by a summary.
+     * 
+     * @param writer
+     *            The {@link Writer} to which the distribution is to be written; it is flushed, but not closed.
+     * @param outputValueUnitScalingRatio
+     *            The number by which recorded values are to be divided for output, such as 1000 to write values recorded in microseconds as milliseconds.
+     */
+    public synchronized void outputPercentileDistribution(Writer writer, double outputValueUnitScalingRatio) {
+        final PrintWriter out = new PrintWriter(writer);
+        out.format(Locale.ROOT, "%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+        if (totalCount > 0) {
+            for (int tick = 0;; tick++) {
+                final double percentile = 100 * (1 - Math.pow(0.5, tick / 5.0));
+                final double fraction = percentile / 100;
+                if (1 - fraction < 1.0 / totalCount) {
+                    break;
+                }
+                final long value = getValueAtPercentile(percentile);
+                out.format(Locale.ROOT, "%12.3f %2.12f %10d %14.2f%n", value / outputValueUnitScalingRatio, fraction, getCountAtOrBelow(value), 1 / (1 - fraction));
+            }
+            out.format(Locale.ROOT, "%12.3f %2.12f %10d%n", maxValue / outputValueUnitScalingRatio, 1.0, totalCount);
+        }
+        out.format(Locale.ROOT, "#[Mean    = %12.3f, StdDeviation   = %12.3f]%n", getMean() / outputValueUnitScalingRatio, getStdDeviation() / outputValueUnitScalingRatio);
+        out.format(Locale.ROOT, "#[Max     = %12.3f, Total count    = %12d]%n", maxValue / outputValueUnitScalingRatio, totalCount);
+        out.format(Locale.ROOT, "#[Buckets = %12d, SubBuckets     = %12d]%n", 64 - subBucketBits, subBucketCount);
+        out.flush();
+    }
+
+    /**
+     * Get the number of values recorded at or below a value, to the histogram's precision.
+     * 
+     * @param value
+     *            The value.
+     * @return The number of values at or below the value.
+     */
+    private long getCountAtOrBelow(long value) {
+        final int index = getIndex(value);
+        long count = 0;
+        for (int i = 0; i <= index; i++) {
+            count += counts[i];
+        }
+        return count;
+    }
+
+    /**
+     * Get the index of the counter of a value.
+     * 
+     * @param value
+     *            The value, which must not be negative.
+     * @return The index of the value's counter.
+     */
+    int getIndex(long value) {
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        // Shift the value right until it falls in the upper half of the sub-buckets
+        final int shift = 64 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        return subBucketCount + (shift - 1) * subBucketHalfCount + (int) (value >>> shift) - subBucketHalfCount;
+    }
+
+    /**
+     * Get the lowest value counted by a counter.
+     * 
+     * @param index
+     *            The index of the counter.
+     * @return The lowest value counted by the counter.
+     */
+    long getLowestEquivalentValue(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        final int offset = index - subBucketCount;
+        final int shift = offset / subBucketHalfCount + 1;
+        return (long) (offset % subBucketHalfCount + subBucketHalfCount) << shift;
+    }
+
+    /**
+     * Get the highest value counted by a counter.
+     * 
+     * @param index
+     *            The index of the counter.
+     * @return The highest value counted by the counter.
+     */
+    long getHighestEquivalentValue(int index) {
+        if (index < subBucketCount) {
+            return index;
+        }
+        final int shift = (index - subBucketCount) / subBucketHalfCount + 1;
+        return getLowestEquivalentValue(index) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.util.Locale;
+
+/**
+ * The outcome of a {@link LatencyBenchmark}. Latencies are in microseconds.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class LatencyResult {
+    private final LatencyHistogram latencies;
+    private final LatencyHistogram uncorrectedLatencies;
+    private final int rate;
+    private final long sent;
+    private final long received;
+    private final long elapsedMillis;
+    private final int failedWorkers;
+
+    /**
+     * Create an outcome.
+     * 
+     * @param latencies
+     *            A {@link LatencyHistogram} of the latencies of the events received, measured from the times at which they were scheduled to be sent.
+     * @param uncorrectedLatencies
+     *            A {@link LatencyHistogram} of the latencies of the events received, measured from the times at which they were actually sent.
+     * @param rate
+     *            The number of events scheduled to be sent each second.
+     * @param sent
+     *            The number of events sent.
+     * @param received
+     *            The number of events received.
+     * @param elapsedMillis
+     *            The amount of time, in milliseconds, taken to send the events.
+     * @param failedWorkers
+     *            The number of workers that stopped sending because of an error.
+     */
+    LatencyResult(LatencyHistogram latencies, LatencyHistogram uncorrectedLatencies, int rate, long sent, long received, long elapsedMillis, int failedWorkers) {
+        this.latencies = latencies;
+        this.uncorrectedLatencies = uncorrectedLatencies;
+        this.rate = rate;
+        this.sent = sent;
+        this.received = received;
+        this.elapsedMillis = elapsedMillis;
+        this.failedWorkers = failedWorkers;
+    }
+
+    /**
+     * Get the latencies of the events received, corrected for coordinated omission.
+     * 
+     * @return A {@link LatencyHistogram} of the latencies of the events received, measured from the times at which they were scheduled to be sent.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Get the latencies of the events received, as a closed-loop benchmark would have measured them.
+     * 
+     * @return A {@link LatencyHistogram} of the latencies of the events received, measured from the times at which they were actually sent.
+     */
+    public LatencyHistogram getUncorrectedLatencies() {
+        return uncorrectedLatencies;
+    }
+
+    /**
+     * Get the rate at which events were scheduled to be sent.
+     * 
+     * @return The number of events scheduled to be sent each second.
+     */
+    public int getRate() {
+        return rate;
+    }
+
+    /**
+     * Get the number of events sent.
+     * 
+     * @return The number of events sent.
+     */
+    public long getSent() {
+        return sent;
+    }
+
+    /**
+     * Get the number of events received.
+     * 
+     * @return The number of events received.
+     */
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * Get the number of events sent but not received.
+     * 
+     * @return The number of events sent but not received.
+     */
+    public long getLost() {
+        return Math.max(0, sent - received);
+    }
+
+    /**
+     * Get the amount of time taken to send the events.
+     * 
+     * @return The amount of time, in milliseconds, taken to send the events.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Get the number of workers that stopped sending because of an error.
+     * 
+     * @return The number of workers that stopped sending because of an error.
+     */
+    public int getFailedWorkers() {
+        return failedWorkers;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d of %d events at %d events/s received; latency p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms (%.3f ms at p99 uncorrected)",
+                received, sent, rate, latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(90) / 1000.0, latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getValueAtPercentile(99.9) / 1000.0, latencies.getMaxValue() / 1000.0, uncorrectedLatencies.getValueAtPercentile(99) / 1000.0);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A closed-loop load generator: each of a number of workers sends a batch of events, waits for it to be accepted, and sends the next, for a fixed amount of time. The rate at which events are
+ * accepted is therefore the sustained throughput of the agent at that concurrency. The time the agent takes to accept each batch is recorded as well.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class LoadGenerator {
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    private final SenderFactory senderFactory;
+    private final int concurrency;
+    private final int batchSize;
+    private final int eventSize;
+
+    /**
+     * Create a load generator.
+     * 
+     * @param senderFactory
+     *            The {@link SenderFactory} used to create each worker's {@link EventSender}.
+     * @param concurrency
+     *            The number of workers sending events at once.
+     * @param batchSize
+     *            The number of events in each batch.
+     * @param eventSize
+     *            The number of bytes in the body of each event.
+     * @throws IllegalArgumentException
+     *             If the concurrency, batch size, or event size is less than 1.
+     */
+    public LoadGenerator(SenderFactory senderFactory, int concurrency, int batchSize, int eventSize) {
+        if (concurrency < 1 || batchSize < 1 || eventSize < 1) {
+            throw new IllegalArgumentException(String.format("The concurrency (%d), batch size (%d), and event size (%d) must all be at least 1.", concurrency, batchSize, eventSize));
+        }
+        this.senderFactory = senderFactory;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.eventSize = eventSize;
+    }
+
+    /**
+     * Send events for the given amount of time. A worker whose sender fails stops sending; the run only fails if every worker does.
+     * 
+     * @param durationMillis
+     *            The amount of time, in milliseconds, for which events are to be sent.
+     * @return A {@link LoadResult} describing the events accepted.
+     * @throws IOException
+     *             If every worker failed; the first failure is the cause.
+     * @throws InterruptedException
+     *             If interrupted while sending.
+     */
+    public LoadResult run(long durationMillis) throws IOException, InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            final long start = System.nanoTime();
+            final long deadline = start + durationMillis * 1000000L;
+            final LatencyHistogram batchLatencies = new LatencyHistogram(SIGNIFICANT_DIGITS);
+            final List<Future<long[]>> workers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                final int worker = i;
+                workers.add(executor.submit(() -> runWorker(worker, deadline, batchLatencies)));
+            }
+
+            long events = 0;
+            long bytes = 0;
+            int failedWorkers = 0;
+            IOException firstFailure = null;
+            for (Future<long[]> worker : workers) {
+                try {
+                    final long[] sent = worker.get();
+                    events += sent[0];
+                    bytes += sent[1];
+                } catch (ExecutionException e) {
+                    failedWorkers++;
+                    if (firstFailure == null) {
+                        firstFailure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException("A load generator worker failed.", e.getCause());
+                    }
+                }
+            }
+            final long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+            if (failedWorkers == concurrency) {
+                throw firstFailure;
+            }
+            return new LoadResult(events, bytes, elapsedMillis, failedWorkers, batchLatencies);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Send batches of events until the deadline passes.
+     * 
+     * @param worker
+     *            The number of the worker, starting from 0.
+     * @param deadline
+     *            The {@link System#nanoTime()} after which no more batches are to be sent.
+     * @param batchLatencies
+     *            The {@link LatencyHistogram} to which the time, in microseconds, taken to accept each batch is to be recorded.
+     * @return The number of events and of bytes sent.
+     * @throws IOException
+     *             If the worker's sender fails.
+     */
+    private long[] runWorker(int worker, long deadline, LatencyHistogram batchLatencies) throws IOException {
+        final List<byte[]> batch = newBatch(new Random(worker));
+        long events = 0;
+        try (final EventSender sender = senderFactory.newSender(worker)) {
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                final long sent = System.nanoTime();
+                sender.send(batch);
+                batchLatencies.recordValue((System.nanoTime() - sent) / 1000L);
+                events += batch.size();
+            }
+        }
+        return new long[] { events, events * eventSize };
+    }
+
+    /**
+     * Create a batch of events with random, alphanumeric bodies, which can be sent to any source without escaping.
+     * 
+     * @param random
+     *            The {@link Random} used to fill in the bodies.
+     * @return A {@link List} of the bodies of the events in the batch.
+     */
+    List<byte[]> newBatch(Random random) {
+        final List<byte[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(newBody(random, eventSize));
+        }
+        return Collections.unmodifiableList(batch);
+    }
+
+    /**
+     * Create a random, alphanumeric event body.
+     * 
+     * @param random
+     *            The {@link Random} used to fill in the body.
+     * @param eventSize
+     *            The number of bytes in the body.
+     * @return The body.
+     */
+    static byte[] newBody(Random random, int eventSize) {
+        final byte[] body = new byte[eventSize];
+        for (int i = 0; i < eventSize; i++) {
+            body[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return body;
+    }
+
+    /**
+     * A factory of the {@link EventSender} of each worker.
+     * 
+     * @author Joshua Hyde
+     * @since 3.1
+     */
+    public interface SenderFactory {
+        /**
+         * Create the sender of a worker.
+         * 
+         * @param worker
+         *            The number of the worker, starting from 0.
+         * @return An {@link EventSender}.
+         * @throws IOException
+         *             If the sender cannot be created.
+         */
+        EventSender newSender(int worker) throws IOException;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.util.Locale;
+
+/**
+ * The outcome of a run of a {@link LoadGenerator}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class LoadResult {
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private final long events;
+    private final long bytes;
+    private final long elapsedMillis;
+    private final int failedWorkers;
+    private final LatencyHistogram batchLatencies;
+
+    /**
+     * Create an outcome without batch latencies.
+     * 
+     * @param events
+     *            The number of events accepted by the agent.
+     * @param bytes
+     *            The number of bytes of event bodies accepted by the agent.
+     * @param elapsedMillis
+     *            The amount of time, in milliseconds, for which events were sent.
+     * @param failedWorkers
+     *            The number of workers that stopped sending because of an error.
+     */
+    LoadResult(long events, long bytes, long elapsedMillis, int failedWorkers) {
+        this(events, bytes, elapsedMillis, failedWorkers, new LatencyHistogram(3));
+    }
+
+    /**
+     * Create an outcome.
+     * 
+     * @param events
+     *            The number of events accepted by the agent.
+     * @param bytes
+     *            The number of bytes of event bodies accepted by the agent.
+     * @param elapsedMillis
+     *            The amount of time, in milliseconds, for which events were sent.
+     * @param failedWorkers
+     *            The number of workers that stopped sending because of an error.
+     * @param batchLatencies
+     *            A {@link LatencyHistogram} of the time, in microseconds, the agent took to accept each batch.
+     */
+    LoadResult(long events, long bytes, long elapsedMillis, int failedWorkers, LatencyHistogram batchLatencies) {
+        this.events = events;
+        this.bytes = bytes;
+        this.elapsedMillis = elapsedMillis;
+        this.failedWorkers = failedWorkers;
+        this.batchLatencies = batchLatencies;
+    }
+
+    /**
+     * Get the number of events accepted by the agent.
+     * 
+     * @return The number of events accepted by the agent.
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Get the number of bytes of event bodies accepted by the agent.
+     * 
+     * @return The number of bytes of event bodies accepted by the agent.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the amount of time for which events were sent.
+     * 
+     * @return The amount of time, in milliseconds, for which events were sent.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Get the number of workers that stopped sending because of an error.
+     * 
+     * @return The number of workers that stopped sending because of an error.
+     */
+    public int getFailedWorkers() {
+        return failedWorkers;
+    }
+
+    /**
+     * Get the time the agent took to accept each batch.
+     * 
+     * @return A {@link LatencyHistogram} of the time, in microseconds, the agent took to accept each batch; it is empty if batch latencies were not recorded.
+     */
+    public LatencyHistogram getBatchLatencies() {
+        return batchLatencies;
+    }
+
+    /**
+     * Get the sustained rate at which the agent accepted events.
+     * 
+     * @return The number of events accepted per second.
+     */
+    public double getEventsPerSecond() {
+        return elapsedMillis == 0 ? 0 : events * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * Get the sustained rate at which the agent accepted the bodies of events.
+     * 
+     * @return The number of megabytes (of 2<sup>20</sup> bytes) of event bodies accepted per second.
+     */
+    public double getMegabytesPerSecond() {
+        return elapsedMillis == 0 ? 0 : bytes / BYTES_PER_MEGABYTE * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        final String summary = String.format(Locale.ROOT, "%d events (%.2f MB) in %d ms: %.1f events/s, %.2f MB/s", events, bytes / BYTES_PER_MEGABYTE, elapsedMillis,
+                getEventsPerSecond(), getMegabytesPerSecond());
+        if (batchLatencies.getTotalCount() == 0) {
+            return summary;
+        }
+        return String.format(Locale.ROOT, "%s; batches were accepted in %.2f ms (p50), %.2f ms (p99), %.2f ms (max)", summary, batchLatencies.getValueAtPercentile(50) / 1000.0,
+                batchLatencies.getValueAtPercentile(99) / 1000.0, batchLatencies.getMaxValue() / 1000.0);
+    }
+}
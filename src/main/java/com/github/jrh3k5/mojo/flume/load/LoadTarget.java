@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+
+/**
+ * A source of an agent to which a {@link LoadGenerator} can send events.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class LoadTarget {
+    private final String sourceName;
+    private final SourceProtocol protocol;
+    private final InetSocketAddress endpoint;
+    private final boolean acknowledged;
+
+    /**
+     * Create a target.
+     * 
+     * @param sourceName
+     *            The name of the source.
+     * @param protocol
+     *            The {@link SourceProtocol} of the source.
+     * @param endpoint
+     *            The {@link InetSocketAddress} on which the source listens.
+     * @param acknowledged
+     *            Whether a netcat source acknowledges each event.
+     */
+    LoadTarget(String sourceName, SourceProtocol protocol, InetSocketAddress endpoint, boolean acknowledged) {
+        this.sourceName = sourceName;
+        this.protocol = protocol;
+        this.endpoint = endpoint;
+        this.acknowledged = acknowledged;
+    }
+
+    /**
+     * Find the source of an agent to which events are to be sent.
+     * 
+     * @param configuration
+     *            The {@link AgentConfiguration} of the agent.
+     * @param sourceName
+     *            The name of the source, or {@code null} to use the first source of the agent that listens on a port and to which events can be sent.
+     * @return A {@link LoadTarget} representing the source.
+     * @throws IOException
+     *             If there is no such source, events cannot be sent to it, or its port is not valid.
+     */
+    public static LoadTarget forSource(AgentConfiguration configuration, String sourceName) throws IOException {
+        for (Map.Entry<String, Map<String, String>> source : configuration.getSources().entrySet()) {
+            if (sourceName != null && !sourceName.equals(source.getKey())) {
+                continue;
+            }
+            final Map<String, String> properties = source.getValue();
+            final SourceProtocol protocol = SourceProtocol.forType(properties.get("type"));
+            if (protocol == null || properties.get("port") == null) {
+                if (sourceName != null) {
+                    throw new IOException(String.format("Events cannot be sent to source %s of agent %s, whose type is %s; only Avro, HTTP, and netcat sources are supported.", sourceName,
+                            configuration.getAgentName(), properties.get("type")));
+                }
+                continue;
+            }
+
+            String bind = properties.get("bind");
+            if (bind == null || "0.0.0.0".equals(bind) || "::".equals(bind)) {
+                bind = "localhost";
+            }
+            try {
+                return new LoadTarget(source.getKey(), protocol, new InetSocketAddress(bind, Integer.parseInt(properties.get("port"))),
+                        !"false".equalsIgnoreCase(properties.get("ack-every-event")));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(String.format("The port of source %s of agent %s is not valid: %s", source.getKey(), configuration.getAgentName(), properties.get("port")), e);
+            }
+        }
+        throw new IOException(sourceName == null ? String.format("Agent %s has no Avro, HTTP, or netcat source to send events to.", configuration.getAgentName())
+                : String.format("Agent %s has no source named %s.", configuration.getAgentName(), sourceName));
+    }
+
+    /**
+     * Create a sender of events to this source.
+     * 
+     * @param flumeClassLoader
+     *            The {@link ClassLoader} of the agent's Flume installation, from which the client SDK used to send events to an Avro source is loaded.
+     * @param batchSize
+     *            The number of events in each batch.
+     * @return An {@link EventSender}.
+     * @throws IOException
+     *             If the sender cannot be created.
+     */
+    public EventSender newSender(ClassLoader flumeClassLoader, int batchSize) throws IOException {
+        switch (protocol) {
+        case AVRO:
+            return new AvroEventSender(flumeClassLoader, endpoint, batchSize);
+        case HTTP:
+            return new HttpEventSender(endpoint);
+        default:
+            return new NetcatEventSender(endpoint, acknowledged);
+        }
+    }
+
+    /**
+     * Get the name of the source.
+     * 
+     * @return The name of the source.
+     */
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    /**
+     * Get the protocol of the source.
+     * 
+     * @return The {@link SourceProtocol} of the source.
+     */
+    public SourceProtocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Get the endpoint on which the source listens.
+     * 
+     * @return The {@link InetSocketAddress} on which the source listens.
+     */
+    public InetSocketAddress getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link EventSender} that writes events as lines of text to a netcat source and, unless the source does not acknowledge events, reads the source's acknowledgement of each.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class NetcatEventSender implements EventSender {
+    private static final int TIMEOUT_MILLIS = 30000;
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final BufferedReader in;
+    private final boolean acknowledged;
+
+    /**
+     * Create a sender.
+     * 
+     * @param endpoint
+     *            The {@link InetSocketAddress} on which the source listens.
+     * @param acknowledged
+     *            Whether the source acknowledges each event, as it does unless its {@code ack-every-event} is {@code false}.
+     * @throws IOException
+     *             If the source cannot be connected to.
+     */
+    public NetcatEventSender(InetSocketAddress endpoint, boolean acknowledged) throws IOException {
+        this.socket = new Socket();
+        socket.connect(endpoint, TIMEOUT_MILLIS);
+        socket.setSoTimeout(TIMEOUT_MILLIS);
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.acknowledged = acknowledged;
+    }
+
+    @Override
+    public void send(List<byte[]> bodies, List<Map<String, String>> headers) throws IOException {
+        if (headers != null) {
+            throw new UnsupportedOperationException("A netcat source cannot receive the headers of events.");
+        }
+        for (byte[] body : bodies) {
+            out.write(body);
+            out.write('\n');
+        }
+        out.flush();
+        if (!acknowledged) {
+            return;
+        }
+        for (int i = 0; i < bodies.size(); i++) {
+            final String response = in.readLine();
+            if (response == null) {
+                throw new IOException("The netcat source closed the connection.");
+            }
+            if (!response.startsWith("OK")) {
+                throw new IOException("The netcat source did not accept an event: " + response);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.util.Locale;
+
+/**
+ * The outcome of a run of a {@link TrafficReplayer}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ReplayResult extends LoadResult {
+    private final long recordedMillis;
+    private final long maxLagMillis;
+
+    /**
+     * Create an outcome.
+     * 
+     * @param events
+     *            The number of events accepted by the agent.
+     * @param bytes
+     *            The number of bytes of event bodies accepted by the agent.
+     * @param elapsedMillis
+     *            The amount of time, in milliseconds, for which events were sent.
+     * @param failedWorkers
+     *            The number of workers that stopped sending because of an error.
+     * @param recordedMillis
+     *            The amount of time, in milliseconds, between the first and the last event replayed.
+     * @param maxLagMillis
+     *            The greatest amount of time, in milliseconds, by which a batch was handed to the workers later than it was due.
+     */
+    ReplayResult(long events, long bytes, long elapsedMillis, int failedWorkers, long recordedMillis, long maxLagMillis) {
+        super(events, bytes, elapsedMillis, failedWorkers);
+        this.recordedMillis = recordedMillis;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    /**
+     * Get the amount of time covered by the events replayed.
+     * 
+     * @return The amount of time, in milliseconds, between the first and the last event replayed.
+     */
+    public long getRecordedMillis() {
+        return recordedMillis;
+    }
+
+    /**
+     * Get the greatest lateness of a batch, which shows whether the agent, or the workers sending to it, kept up with the recording.
+     * 
+     * @return The greatest amount of time, in milliseconds, by which a batch was handed to the workers later than it was due.
+     */
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s, replaying %d ms of recording; the greatest lag behind the recording was %d ms", super.toString(), recordedMillis, maxLagMillis);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.util.Locale;
+
+/**
+ * Enumerations of the kinds of sources to which events can be sent by the {@code load} goal.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public enum SourceProtocol {
+    /**
+     * An Avro RPC source, sent events through the Flume client SDK of the agent's Flume installation.
+     */
+    AVRO("avro", "org.apache.flume.source.AvroSource"),
+    /**
+     * An HTTP source using the default {@code JSONHandler}, sent events as JSON arrays.
+     */
+    HTTP("http", "org.apache.flume.source.http.HTTPSource"),
+    /**
+     * A netcat source, sent events as lines of text.
+     */
+    NETCAT("netcat", "org.apache.flume.source.NetcatSource");
+
+    private final String alias;
+    private final String className;
+
+    /**
+     * Create a protocol.
+     * 
+     * @param alias
+     *            The alias by which Flume knows the source's type.
+     * @param className
+     *            The name of the source's class.
+     */
+    SourceProtocol(String alias, String className) {
+        this.alias = alias;
+        this.className = className;
+    }
+
+    /**
+     * Get the protocol of a source.
+     * 
+     * @param type
+     *            The {@code type} of the source, either an alias or a class name.
+     * @return The {@link SourceProtocol} of the source; {@code null} if events cannot be sent to a source of the given type.
+     */
+    public static SourceProtocol forType(String type) {
+        if (type == null) {
+            return null;
+        }
+        for (SourceProtocol protocol : values()) {
+            if (protocol.alias.equals(type.toLowerCase(Locale.ROOT)) || protocol.className.equals(type)) {
+                return protocol;
+            }
+        }
+        return null;
+    }
+}
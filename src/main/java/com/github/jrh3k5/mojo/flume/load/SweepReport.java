@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import static com.github.jrh3k5.mojo.flume.process.MetricsSummary.quote;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.github.jrh3k5.mojo.flume.process.GcLog;
+
+/**
+ * The trials of a parameter sweep, ranked from the combination of values under which the agent accepted events fastest to the slowest; trials whose throughput is equal are ranked by the
+ * latency of their 99th percentile batch, and failed trials are ranked last.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class SweepReport {
+    private static final Comparator<TrialResult> RANKING = Comparator.comparingDouble((TrialResult trial) -> -trial.getLoad().getEventsPerSecond())
+            .thenComparingLong(trial -> trial.getLoad().getBatchLatencies().getValueAtPercentile(99));
+
+    private final List<TrialResult> ranked;
+
+    /**
+     * Create a report.
+     * 
+     * @param trials
+     *            A {@link List} of the {@link TrialResult} objects of the sweep, in the order in which they were run.
+     */
+    public SweepReport(List<TrialResult> trials) {
+        final List<TrialResult> sorted = new ArrayList<>(trials);
+        // Failed trials have no load by which to be ranked, so they are only ranked after those that ran to completion
+        Collections.sort(sorted, (left, right) -> left.isFailed() || right.isFailed() ? Boolean.compare(left.isFailed(), right.isFailed()) : RANKING.compare(left, right));
+        this.ranked = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Get the trials, ranked.
+     * 
+     * @return A {@link List} of the {@link TrialResult} objects of the sweep, from the best to the worst.
+     */
+    public List<TrialResult> getRanked() {
+        return ranked;
+    }
+
+    /**
+     * Describe the ranked trials as a table, one trial to a line.
+     * 
+     * @return A {@link List} of the lines of the table, starting with its heading.
+     */
+    public List<String> toTable() {
+        final List<String> lines = new ArrayList<>(ranked.size() + 1);
+        lines.add(String.format(Locale.ROOT, "%4s %12s %8s %12s %9s %9s %12s  %s", "rank", "events/s", "MB/s", "sink evt/s", "p50 ms", "p99 ms", "GC pause ms", "parameters"));
+        int rank = 1;
+        for (TrialResult trial : ranked) {
+            if (trial.isFailed()) {
+                lines.add(String.format(Locale.ROOT, "%4d %12s %8s %12s %9s %9s %12s  %s (failed: %s)", rank++, "-", "-", "-", "-", "-", "-", trial.getParameters(), trial.getFailure()));
+                continue;
+            }
+            final LoadResult load = trial.getLoad();
+            lines.add(String.format(Locale.ROOT, "%4d %12.1f %8.2f %12s %9.2f %9.2f %12s  %s", rank++, load.getEventsPerSecond(), load.getMegabytesPerSecond(),
+                    trial.getSinkEventsPerSecond() < 0 ? "-" : String.format(Locale.ROOT, "%.1f", trial.getSinkEventsPerSecond()), load.getBatchLatencies().getValueAtPercentile(50) / 1000.0,
+                    load.getBatchLatencies().getValueAtPercentile(99) / 1000.0, trial.getGcLog() == null ? "-" : String.format(Locale.ROOT, "%.1f", trial.getGcLog().getPauseMillis()),
+                    trial.getParameters()));
+        }
+        return lines;
+    }
+
+    /**
+     * Describe the ranked trials as JSON.
+     * 
+     * @return A JSON object whose {@code trials} are the trials, from the best to the worst; counters that are not known are {@code null}.
+     */
+    public String toJson() {
+        final StringBuilder json = new StringBuilder("{").append(quote("trials")).append(":[");
+        int rank = 1;
+        for (TrialResult trial : ranked) {
+            if (rank > 1) {
+                json.append(',');
+            }
+            json.append('{').append(quote("rank")).append(':').append(rank++);
+            json.append(',').append(quote("parameters")).append(":{");
+            boolean first = true;
+            for (Map.Entry<String, String> parameter : trial.getParameters().entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                json.append(quote(parameter.getKey())).append(':').append(quote(parameter.getValue()));
+            }
+            json.append('}');
+            if (trial.isFailed()) {
+                json.append(',').append(quote("failure")).append(':').append(quote(trial.getFailure())).append('}');
+                continue;
+            }
+
+            final LoadResult load = trial.getLoad();
+            final LatencyHistogram batchLatencies = load.getBatchLatencies();
+            json.append(',').append(quote("events")).append(':').append(load.getEvents());
+            json.append(',').append(quote("eventsPerSecond")).append(':').append(String.format(Locale.ROOT, "%.2f", load.getEventsPerSecond()));
+            json.append(',').append(quote("megabytesPerSecond")).append(':').append(String.format(Locale.ROOT, "%.3f", load.getMegabytesPerSecond()));
+            json.append(',').append(quote("sinkEventsPerSecond")).append(':')
+                    .append(trial.getSinkEventsPerSecond() < 0 ? "null" : String.format(Locale.ROOT, "%.2f", trial.getSinkEventsPerSecond()));
+            json.append(',').append(quote("failedWorkers")).append(':').append(load.getFailedWorkers());
+            json.append(',').append(quote("batchLatencyMillis")).append(":{");
+            json.append(quote("p50")).append(':').append(String.format(Locale.ROOT, "%.3f", batchLatencies.getValueAtPercentile(50) / 1000.0));
+            json.append(',').append(quote("p99")).append(':').append(String.format(Locale.ROOT, "%.3f", batchLatencies.getValueAtPercentile(99) / 1000.0));
+            json.append(',').append(quote("max")).append(':').append(String.format(Locale.ROOT, "%.3f", batchLatencies.getMaxValue() / 1000.0)).append('}');
+            json.append(',').append(quote("gc")).append(':');
+            final GcLog gcLog = trial.getGcLog();
+            if (gcLog == null) {
+                json.append("null");
+            } else {
+                json.append('{').append(quote("pauses")).append(':').append(gcLog.getPauses());
+                json.append(',').append(quote("pauseMillis")).append(':').append(String.format(Locale.ROOT, "%.3f", gcLog.getPauseMillis()));
+                json.append(',').append(quote("maxPauseMillis")).append(':').append(String.format(Locale.ROOT, "%.3f", gcLog.getMaxPauseMillis())).append('}');
+            }
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+}
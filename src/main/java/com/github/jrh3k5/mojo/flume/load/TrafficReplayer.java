@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.github.jrh3k5.mojo.flume.capture.CaptureFileReader;
+import com.github.jrh3k5.mojo.flume.capture.CapturedEvent;
+import com.github.jrh3k5.mojo.flume.load.LoadGenerator.SenderFactory;
+
+/**
+ * Replays a recording, in the format of a capture file, into an agent: each event is sent, with its headers, when it is due according to the time at which it was recorded after the first
+ * event, scaled by the speed of the replay. Events recorded within the same millisecond (such as those of one batch of the recorded sink) are sent together, up to the batch size; at an infinite speed, every
+ * event is due at once, and the recording is sent as fast as the agent accepts it.
+ * <p>
+ * The recording is read through the {@link CaptureFileReader}'s memory-mapped regions by a single thread, which hands batches to a number of workers that send them. Should the workers fall
+ * behind the recording, the replay slips, and the greatest lateness of a batch is reported.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class TrafficReplayer {
+    private static final List<CapturedEvent> END = Collections.emptyList();
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final long GROUPING_NANOS = 1000000L;
+
+    private final SenderFactory senderFactory;
+    private final int concurrency;
+    private final int batchSize;
+    private final double speed;
+    private final boolean sendHeaders;
+
+    /**
+     * Create a replayer.
+     * 
+     * @param senderFactory
+     *            The {@link SenderFactory} used to create each worker's {@link EventSender}.
+     * @param concurrency
+     *            The number of workers sending events at once.
+     * @param batchSize
+     *            The greatest number of events sent in each batch.
+     * @param speed
+     *            The speed of the replay relative to the recording, such as 2 to replay it in half the time in which it was recorded, or {@link Double#POSITIVE_INFINITY} to replay it as
+     *            fast as possible.
+     * @param sendHeaders
+     *            Whether the recorded headers are to be sent; the {@link EventSender} of a netcat source cannot send them.
+     * @throws IllegalArgumentException
+     *             If the concurrency or batch size is less than 1 or the speed is not positive.
+     */
+    public TrafficReplayer(SenderFactory senderFactory, int concurrency, int batchSize, double speed, boolean sendHeaders) {
+        if (concurrency < 1 || batchSize < 1) {
+            throw new IllegalArgumentException(String.format("The concurrency (%d) and batch size (%d) must both be at least 1.", concurrency, batchSize));
+        }
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("The speed of a replay must be positive: " + speed);
+        }
+        this.senderFactory = senderFactory;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.speed = speed;
+        this.sendHeaders = sendHeaders;
+    }
+
+    /**
+     * Replay a recording. A worker whose sender fails stops sending, and the others send the rest of the recording; the replay only fails if every worker does.
+     * 
+     * @param recording
+     *            The capture file holding the recording.
+     * @return A {@link ReplayResult} describing the events sent.
+     * @throws IOException
+     *             If the recording cannot be read or every worker failed; the first failure of a worker is the cause.
+     * @throws InterruptedException
+     *             If interrupted while replaying.
+     */
+    public ReplayResult run(File recording) throws IOException, InterruptedException {
+        final BlockingQueue<List<CapturedEvent>> batches = new ArrayBlockingQueue<>(concurrency * 2);
+        final AtomicInteger runningWorkers = new AtomicInteger(concurrency);
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try (final CaptureFileReader reader = new CaptureFileReader(recording)) {
+            final List<Future<long[]>> workers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                final int worker = i;
+                workers.add(executor.submit(() -> {
+                    try {
+                        return runWorker(worker, batches);
+                    } finally {
+                        runningWorkers.decrementAndGet();
+                    }
+                }));
+            }
+
+            final long start = System.nanoTime();
+            long firstNanos = -1;
+            long recordedNanos = 0;
+            long maxLagNanos = 0;
+            List<CapturedEvent> batch = new ArrayList<>(batchSize);
+            long batchRecordedNanos = 0;
+            CapturedEvent event;
+            // Once every worker has stopped, the rest of the recording cannot be sent
+            while ((event = reader.next()) != null && runningWorkers.get() > 0) {
+                // The replay starts with the first event, rather than with any quiet time before it at the start of the recording
+                if (firstNanos < 0) {
+                    firstNanos = event.getReceivedNanos();
+                }
+                recordedNanos = event.getReceivedNanos() - firstNanos;
+                if (!batch.isEmpty() && (batch.size() == batchSize || dueNanos(recordedNanos) - dueNanos(batchRecordedNanos) >= GROUPING_NANOS)) {
+                    maxLagNanos = Math.max(maxLagNanos, dispatch(batch, start + dueNanos(batchRecordedNanos), batches, runningWorkers));
+                    batch = new ArrayList<>(batchSize);
+                }
+                if (batch.isEmpty()) {
+                    batchRecordedNanos = recordedNanos;
+                }
+                batch.add(event);
+            }
+            if (!batch.isEmpty()) {
+                maxLagNanos = Math.max(maxLagNanos, dispatch(batch, start + dueNanos(batchRecordedNanos), batches, runningWorkers));
+            }
+            for (int i = 0; i < concurrency; i++) {
+                offer(END, batches, runningWorkers);
+            }
+
+            long events = 0;
+            long bytes = 0;
+            int failedWorkers = 0;
+            IOException firstFailure = null;
+            for (Future<long[]> worker : workers) {
+                try {
+                    final long[] sent = worker.get();
+                    events += sent[0];
+                    bytes += sent[1];
+                } catch (ExecutionException e) {
+                    failedWorkers++;
+                    if (firstFailure == null) {
+                        firstFailure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException("A replay worker failed.", e.getCause());
+                    }
+                }
+            }
+            final long elapsedMillis = (System.nanoTime() - start) / 1000000L;
+            if (failedWorkers == concurrency) {
+                throw firstFailure;
+            }
+            return new ReplayResult(events, bytes, elapsedMillis, failedWorkers, recordedNanos / 1000000L, maxLagNanos / 1000000L);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the time, relative to the start of the replay, at which an event is due.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param recordedNanos
+     *            The time, in nanoseconds relative to the first event of the recording, at which the event was recorded.
+     * @return The time, in nanoseconds relative to the start of the replay, at which the event is due.
+     */
+    long dueNanos(long recordedNanos) {
+        return Double.isInfinite(speed) ? 0 : (long) (recordedNanos / speed);
+    }
+
+    /**
+     * Wait until a batch is due and hand it to the workers.
+     * 
+     * @param batch
+     *            A {@link List} of the {@link CapturedEvent} objects in the batch.
+     * @param dueNanos
+     *            The {@link System#nanoTime()} at which the batch is due.
+     * @param batches
+     *            The {@link BlockingQueue} from which the workers take batches.
+     * @param runningWorkers
+     *            The number of workers that are still running.
+     * @return The number of nanoseconds by which the batch was late in being handed to the workers.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    private long dispatch(List<CapturedEvent> batch, long dueNanos, BlockingQueue<List<CapturedEvent>> batches, AtomicInteger runningWorkers) throws InterruptedException {
+        long remainingNanos;
+        while ((remainingNanos = dueNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remainingNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        offer(batch, batches, runningWorkers);
+        return Math.max(0, System.nanoTime() - dueNanos);
+    }
+
+    /**
+     * Hand a batch to the workers, waiting for one to be free. The batch is dropped if every worker has stopped.
+     * 
+     * @param batch
+     *            A {@link List} of the {@link CapturedEvent} objects in the batch.
+     * @param batches
+     *            The {@link BlockingQueue} from which the workers take batches.
+     * @param runningWorkers
+     *            The number of workers that are still running.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    private void offer(List<CapturedEvent> batch, BlockingQueue<List<CapturedEvent>> batches, AtomicInteger runningWorkers) throws InterruptedException {
+        while (!batches.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (runningWorkers.get() == 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Send batches until the end of the recording.
+     * 
+     * @param worker
+     *            The number of the worker, starting from 0.
+     * @param batches
+     *            The {@link BlockingQueue} from which batches are taken.
+     * @return The number of events and of bytes sent.
+     * @throws IOException
+     *             If the worker's sender fails.
+     * @throws InterruptedException
+     *             If interrupted while waiting for a batch.
+     */
+    private long[] runWorker(int worker, BlockingQueue<List<CapturedEvent>> batches) throws IOException, InterruptedException {
+        long events = 0;
+        long bytes = 0;
+        try (final EventSender sender = senderFactory.newSender(worker)) {
+            List<CapturedEvent> batch;
+            while ((batch = batches.take()) != END) {
+                final List<byte[]> bodies = new ArrayList<>(batch.size());
+                final List<Map<String, String>> headers = sendHeaders ? new ArrayList<>(batch.size()) : null;
+                for (CapturedEvent event : batch) {
+                    bodies.add(event.getBody());
+                    if (headers != null) {
+                        headers.add(event.getHeaders());
+                    }
+                }
+                sender.send(bodies, headers);
+                events += batch.size();
+                for (byte[] body : bodies) {
+                    bytes += body.length;
+                }
+            }
+        }
+        return new long[] { events, bytes };
+    }
+}
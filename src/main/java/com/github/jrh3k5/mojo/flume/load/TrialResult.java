@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.jrh3k5.mojo.flume.process.GcLog;
+
+/**
+ * The outcome of running an agent under load with one combination of the values of a parameter sweep.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class TrialResult {
+    private final Map<String, String> parameters;
+    private final LoadResult load;
+    private final double sinkEventsPerSecond;
+    private final GcLog gcLog;
+    private final String failure;
+
+    /**
+     * Create the outcome of a trial that ran to completion.
+     * 
+     * @param parameters
+     *            A {@link Map} of the names of the swept parameters to their values in the trial.
+     * @param load
+     *            A {@link LoadResult} describing the events accepted by the agent.
+     * @param sinkEventsPerSecond
+     *            The rate, in events per second, at which the agent's sinks delivered events, or {@code -1} if it is not known.
+     * @param gcLog
+     *            A {@link GcLog} of the agent's garbage collection pauses, or {@code null} if they are not known.
+     */
+    public TrialResult(Map<String, String> parameters, LoadResult load, double sinkEventsPerSecond, GcLog gcLog) {
+        this(parameters, load, sinkEventsPerSecond, gcLog, null);
+    }
+
+    /**
+     * Create the outcome of a trial that failed.
+     * 
+     * @param parameters
+     *            A {@link Map} of the names of the swept parameters to their values in the trial.
+     * @param failure
+     *            A description of the failure.
+     */
+    public TrialResult(Map<String, String> parameters, String failure) {
+        this(parameters, null, -1, null, failure);
+    }
+
+    /**
+     * Create an outcome.
+     * 
+     * @param parameters
+     *            A {@link Map} of the names of the swept parameters to their values in the trial.
+     * @param load
+     *            A {@link LoadResult} describing the events accepted by the agent, or {@code null} if the trial failed.
+     * @param sinkEventsPerSecond
+     *            The rate, in events per second, at which the agent's sinks delivered events, or {@code -1} if it is not known.
+     * @param gcLog
+     *            A {@link GcLog} of the agent's garbage collection pauses, or {@code null} if they are not known.
+     * @param failure
+     *            A description of the failure, or {@code null} if the trial did not fail.
+     */
+    private TrialResult(Map<String, String> parameters, LoadResult load, double sinkEventsPerSecond, GcLog gcLog, String failure) {
+        this.parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+        this.load = load;
+        this.sinkEventsPerSecond = sinkEventsPerSecond;
+        this.gcLog = gcLog;
+        this.failure = failure;
+    }
+
+    /**
+     * Get the values of the swept parameters in the trial.
+     * 
+     * @return A {@link Map} of the names of the swept parameters to their values in the trial.
+     */
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Get the events accepted by the agent.
+     * 
+     * @return A {@link LoadResult} describing the events accepted by the agent, or {@code null} if the trial failed.
+     */
+    public LoadResult getLoad() {
+        return load;
+    }
+
+    /**
+     * Get the rate at which the agent's sinks delivered events.
+     * 
+     * @return The rate, in events per second, at which the agent's sinks delivered events, or {@code -1} if it is not known.
+     */
+    public double getSinkEventsPerSecond() {
+        return sinkEventsPerSecond;
+    }
+
+    /**
+     * Get the agent's garbage collection pauses.
+     * 
+     * @return A {@link GcLog} of the agent's garbage collection pauses, or {@code null} if they are not known.
+     */
+    public GcLog getGcLog() {
+        return gcLog;
+    }
+
+    /**
+     * Get the reason the trial failed.
+     * 
+     * @return A description of the failure, or {@code null} if the trial did not fail.
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * Determine whether the trial failed.
+     * 
+     * @return {@code true} if the trial did not run to completion; {@code false} if it did.
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+}
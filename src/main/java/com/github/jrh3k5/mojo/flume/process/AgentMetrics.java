@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * A snapshot of the counters an agent reports through Flume's HTTP monitoring ({@code -Dflume.monitoring.type=http}), by component. Flume reports each component as
+ * {@code "TYPE.name"}, such as {@code "CHANNEL.c1"}, mapped to its counters.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentMetrics {
+    /**
+     * The system property through which Flume is told what kind of monitoring to start.
+     */
+    public static final String MONITORING_TYPE_PROPERTY = "flume.monitoring.type";
+    /**
+     * The system property through which Flume is told on which port to serve its HTTP monitoring.
+     */
+    public static final String MONITORING_PORT_PROPERTY = "flume.monitoring.port";
+
+    private static final int TIMEOUT_MILLIS = 2000;
+    private static final Pattern COMPONENT = Pattern.compile("\"([^\"]+)\"\\s*:\\s*\\{([^{}]*)\\}");
+    private static final Pattern COUNTER = Pattern.compile("\"([^\"]+)\"\\s*:\\s*(?:\"([^\"]*)\"|([^,\\s}]+))");
+
+    private final Map<String, Map<String, String>> components;
+
+    /**
+     * Create a snapshot.
+     * 
+     * @param components
+     *            A {@link Map} of the names of the components, including their types, to their counters.
+     */
+    AgentMetrics(Map<String, Map<String, String>> components) {
+        this.components = Collections.unmodifiableMap(components);
+    }
+
+    /**
+     * Get the JVM arguments with which an agent serves its counters over HTTP.
+     * 
+     * @param port
+     *            The port on which the counters are to be served.
+     * @return The JVM arguments, separated by whitespace.
+     */
+    public static String getJavaOpts(int port) {
+        return String.format("-D%s=http -D%s=%d", MONITORING_TYPE_PROPERTY, MONITORING_PORT_PROPERTY, port);
+    }
+
+    /**
+     * Fetch the counters of an agent from its HTTP monitoring.
+     * 
+     * @param port
+     *            The port on which the agent serves its counters.
+     * @return An {@link AgentMetrics} representing the agent's counters at the time of the request.
+     * @throws IOException
+     *             If the agent's counters cannot be fetched.
+     */
+    public static AgentMetrics fetch(int port) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL("http", "localhost", port, "/metrics").openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        try (final InputStream in = connection.getInputStream()) {
+            return parse(IOUtils.toString(in, StandardCharsets.UTF_8));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Parse the counters reported by Flume's HTTP monitoring. Flume reports a single object of components, each of which is an object of counters whose values are strings.
+     * 
+     * @param json
+     *            The JSON reported by the agent.
+     * @return An {@link AgentMetrics} representing the reported counters.
+     */
+    static AgentMetrics parse(String json) {
+        final Map<String, Map<String, String>> components = new LinkedHashMap<>();
+        final Matcher component = COMPONENT.matcher(json);
+        while (component.find()) {
+            final Map<String, String> counters = new LinkedHashMap<>();
+            final Matcher counter = COUNTER.matcher(component.group(2));
+            while (counter.find()) {
+                counters.put(counter.group(1), counter.group(2) == null ? counter.group(3) : counter.group(2));
+            }
+            components.put(component.group(1), Collections.unmodifiableMap(counters));
+        }
+        return new AgentMetrics(components);
+    }
+
+    /**
+     * Get the counters of all components.
+     * 
+     * @return A {@link Map} of the names of the components, including their types (such as {@code CHANNEL.c1}), to their counters.
+     */
+    public Map<String, Map<String, String>> getComponents() {
+        return components;
+    }
+
+    /**
+     * Get the counters of the components of a type.
+     * 
+     * @param type
+     *            The type of the components, such as {@code CHANNEL}, {@code SOURCE}, or {@code SINK}.
+     * @return A {@link Map} of the names of the components, without their type, to their counters.
+     */
+    public Map<String, Map<String, String>> getComponents(String type) {
+        final String prefix = type + ".";
+        final Map<String, Map<String, String>> typed = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, String>> component : components.entrySet()) {
+            if (component.getKey().startsWith(prefix)) {
+                typed.put(component.getKey().substring(prefix.length()), component.getValue());
+            }
+        }
+        return typed;
+    }
+
+    /**
+     * Get the sum of a counter over all components of a type.
+     * 
+     * @param type
+     *            The type of the components, such as {@code CHANNEL}.
+     * @param counter
+     *            The name of the counter, such as {@code ChannelSize}.
+     * @return The sum of the counter over the components that report it as a whole number.
+     */
+    public long sum(String type, String counter) {
+        long sum = 0;
+        for (Map<String, String> counters : getComponents(type).values()) {
+            final String value = counters.get(counter);
+            if (value != null) {
+                try {
+                    sum += Long.parseLong(value);
+                } catch (NumberFormatException e) {
+                    // Not a count, so nothing to add
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Samples the counters of an agent from its HTTP monitoring at a fixed interval, appending each sample as a line of JSON to {@code AGENT.jsonl} and writing a {@link MetricsSummary} of the
+ * samples to {@code AGENT-summary.json} when closed.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentMetricsRecorder implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AgentMetricsRecorder.class);
+
+    private final String agentName;
+    private final int monitoringPort;
+    private final File metricsDirectory;
+    private final long intervalMillis;
+    private final MetricsSummary summary;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Create a recorder.
+     * 
+     * @param agentName
+     *            The name of the agent whose counters are to be recorded.
+     * @param monitoringPort
+     *            The port on which the agent serves its counters.
+     * @param metricsDirectory
+     *            A {@link File} representing the directory to which the samples and summary are to be written.
+     * @param intervalMillis
+     *            The amount of time, in milliseconds, between samples.
+     */
+    public AgentMetricsRecorder(String agentName, int monitoringPort, File metricsDirectory, long intervalMillis) {
+        this.agentName = agentName;
+        this.monitoringPort = monitoringPort;
+        this.metricsDirectory = metricsDirectory;
+        this.intervalMillis = intervalMillis;
+        this.summary = new MetricsSummary(agentName);
+    }
+
+    /**
+     * Start sampling the agent's counters, replacing any samples previously recorded for an agent of the same name.
+     * 
+     * @throws IOException
+     *             If the samples file cannot be created.
+     */
+    public synchronized void start() throws IOException {
+        FileUtils.forceMkdir(metricsDirectory);
+        FileUtils.write(getSamplesFile(), "", StandardCharsets.UTF_8);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "flume-metrics-" + agentName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Take a sample of the agent's counters. A sample that cannot be taken, such as one taken before the agent's monitoring has started, is skipped.
+     */
+    void sample() {
+        final AgentMetrics metrics;
+        try {
+            metrics = AgentMetrics.fetch(monitoringPort);
+        } catch (IOException e) {
+            LOGGER.debug("Unable to sample the counters of agent {}.", agentName, e);
+            return;
+        }
+        final long timestamp = System.currentTimeMillis();
+        summary.add(timestamp, metrics);
+
+        final StringBuilder line = new StringBuilder("{").append(MetricsSummary.quote("timestamp")).append(':').append(timestamp);
+        for (Map.Entry<String, Map<String, String>> component : metrics.getComponents().entrySet()) {
+            line.append(',').append(MetricsSummary.quote(component.getKey())).append(":{");
+            boolean first = true;
+            for (Map.Entry<String, String> counter : component.getValue().entrySet()) {
+                line.append(first ? "" : ",").append(MetricsSummary.quote(counter.getKey())).append(':').append(MetricsSummary.quote(counter.getValue()));
+                first = false;
+            }
+            line.append('}');
+        }
+        line.append('}').append(System.lineSeparator());
+
+        synchronized (this) {
+            try (final Writer writer = new OutputStreamWriter(new FileOutputStream(getSamplesFile(), true), StandardCharsets.UTF_8)) {
+                writer.write(line.toString());
+            } catch (IOException e) {
+                LOGGER.warn("Unable to record a sample of the counters of agent {}.", agentName, e);
+            }
+        }
+    }
+
+    /**
+     * Get the summary of the samples taken so far.
+     * 
+     * @return A {@link MetricsSummary} of the samples.
+     */
+    public MetricsSummary getSummary() {
+        return summary;
+    }
+
+    /**
+     * Take a final sample, stop sampling, and write the summary of the samples.
+     * 
+     * @throws IOException
+     *             If the summary cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (scheduler == null) {
+                return;
+            }
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        sample();
+        FileUtils.write(new File(metricsDirectory, agentName + "-summary.json"), summary.toJson() + System.lineSeparator(), StandardCharsets.UTF_8);
+        LOGGER.info("Metrics of agent {}: {}", agentName, summary);
+    }
+
+    /**
+     * Get the file to which the samples are written.
+     * 
+     * @return A {@link File} representing the samples file.
+     */
+    private File getSamplesFile() {
+        return new File(metricsDirectory, agentName + ".jsonl");
+    }
+}
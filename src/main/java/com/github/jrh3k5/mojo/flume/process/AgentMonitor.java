@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * A client of the HTTP monitoring of an agent, used to wait for the agent to process events rather than sleeping for a guessed amount of time. An agent run as several replicas is monitored
+ * as a whole: its counters are summed over the replicas.
+ * <p />
+ * Integration tests can find the monitoring port of an agent started by this plugin through the {@code flume.port.AGENT.monitoring} project property, passed to them as a system property:
+ * 
+ * <pre>
+ * AgentMonitor.forAgent("a1").awaitSinkEvents("k1", 1000, 30000);
+ * </pre>
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentMonitor {
+    private static final String SINK = "SINK";
+    private static final String CHANNEL = "CHANNEL";
+    private static final String SOURCE = "SOURCE";
+    private static final String EVENT_ACCEPTED_COUNT = "EventAcceptedCount";
+    private static final String EVENT_DRAIN_SUCCESS_COUNT = "EventDrainSuccessCount";
+    private static final String CHANNEL_SIZE = "ChannelSize";
+    private static final String START_TIME = "StartTime";
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final List<Integer> monitoringPorts;
+
+    /**
+     * Create a monitor.
+     * 
+     * @param monitoringPorts
+     *            The ports on which the agent, or each of its replicas, serves its counters.
+     * @throws IllegalArgumentException
+     *             If no ports are given.
+     */
+    public AgentMonitor(List<Integer> monitoringPorts) {
+        if (monitoringPorts.isEmpty()) {
+            throw new IllegalArgumentException("At least one monitoring port must be given.");
+        }
+        this.monitoringPorts = Collections.unmodifiableList(new ArrayList<>(monitoringPorts));
+    }
+
+    /**
+     * Create a monitor of an agent from the {@code flume.port.AGENT.monitoring} system property, or, if the agent is run as replicas, from the {@code flume.port.AGENT-N.monitoring} property of
+     * each of its replicas.
+     * 
+     * @param agentName
+     *            The name of the agent.
+     * @return An {@link AgentMonitor} of the agent.
+     * @throws IllegalStateException
+     *             If no monitoring port can be found for the agent.
+     */
+    public static AgentMonitor forAgent(String agentName) {
+        final List<Integer> monitoringPorts = new ArrayList<>();
+        final String monitoringPort = System.getProperty(getPortProperty(agentName));
+        if (monitoringPort != null) {
+            monitoringPorts.add(Integer.valueOf(monitoringPort));
+        } else {
+            for (int replica = 1; System.getProperty(getPortProperty(agentName + "-" + replica)) != null; replica++) {
+                monitoringPorts.add(Integer.valueOf(System.getProperty(getPortProperty(agentName + "-" + replica))));
+            }
+        }
+        if (monitoringPorts.isEmpty()) {
+            throw new IllegalStateException(String.format("No monitoring port was found for agent %s in the system property %s; is the agent's monitoring enabled?", agentName,
+                    getPortProperty(agentName)));
+        }
+        return new AgentMonitor(monitoringPorts);
+    }
+
+    /**
+     * Get the current counters of the agent.
+     * 
+     * @return A {@link List} of the {@link AgentMetrics} of the agent, or of each of its replicas.
+     * @throws IOException
+     *             If the counters cannot be fetched.
+     */
+    public List<AgentMetrics> getMetrics() throws IOException {
+        final List<AgentMetrics> metrics = new ArrayList<>(monitoringPorts.size());
+        for (int monitoringPort : monitoringPorts) {
+            metrics.add(AgentMetrics.fetch(monitoringPort));
+        }
+        return metrics;
+    }
+
+    /**
+     * Wait for a sink to have delivered at least the given number of events.
+     * 
+     * @param sink
+     *            The name of the sink, without its type.
+     * @param events
+     *            The number of events, summed over the agent's replicas, that the sink is to have delivered.
+     * @param timeoutMillis
+     *            The amount of time, in milliseconds, to wait.
+     * @return A {@link List} of the {@link AgentMetrics} that met the condition.
+     * @throws IOException
+     *             If the counters cannot be fetched.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     * @throws TimeoutException
+     *             If the sink has not delivered the events in time; its message includes the agent's current counters.
+     */
+    public List<AgentMetrics> awaitSinkEvents(String sink, long events, long timeoutMillis) throws IOException, InterruptedException, TimeoutException {
+        return await(metrics -> sum(metrics, SINK + "." + sink, EVENT_DRAIN_SUCCESS_COUNT) >= events, String.format("sink %s to deliver %d events", sink, events), timeoutMillis);
+    }
+
+    /**
+     * Get the number of events that a source has accepted.
+     * 
+     * @param source
+     *            The name of the source, without its type.
+     * @return The number of events, summed over the agent's replicas, that the source has accepted.
+     * @throws IOException
+     *             If the counters cannot be fetched.
+     */
+    public long getSourceEvents(String source) throws IOException {
+        return sum(getMetrics(), SOURCE + "." + source, EVENT_ACCEPTED_COUNT);
+    }
+
+    /**
+     * Wait for a source to have accepted at least the given number of events.
+     * 
+     * @param source
+     *            The name of the source, without its type.
+     * @param events
+     *            The number of events, summed over the agent's replicas, that the source is to have accepted.
+     * @param timeoutMillis
+     *            The amount of time, in milliseconds, to wait.
+     * @return A {@link List} of the {@link AgentMetrics} that met the condition.
+     * @throws IOException
+     *             If the counters cannot be fetched.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     * @throws TimeoutException
+     *             If the source has not accepted the events in time; its message includes the agent's current counters.
+     */
+    public List<AgentMetrics> awaitSourceEvents(String source, long events, long timeoutMillis) throws IOException, InterruptedException, TimeoutException {
+        return await(metrics -> sum(metrics, SOURCE + "." + source, EVENT_ACCEPTED_COUNT) >= events, String.format("source %s to accept %d events", source, events), timeoutMillis);
+    }
+
+    /**
+     * Wait for all of the agent's channels to be empty.
+     * 
+     * @param timeoutMillis
+     *            The amount of time, in milliseconds, to wait.
+     * @return A {@link List} of the {@link AgentMetrics} that met the condition.
+     * @throws IOException
+     *             If the counters cannot be fetched.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     * @throws TimeoutException
+     *             If the channels are not empty in time; its message includes the agent's current counters.
+     */
+    public List<AgentMetrics> awaitChannelsEmpty(long timeoutMillis) throws IOException, InterruptedException, TimeoutException {
+        return await(metrics -> {
+            for (AgentMetrics replicaMetrics : metrics) {
+                if (replicaMetrics.sum(CHANNEL, CHANNEL_SIZE) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }, "the channels to be empty", timeoutMillis);
+    }
+
+    /**
+     * Wait for the agent, or each of its replicas, to reload its configuration: Flume stops and restarts all of an agent's components when it reloads its configuration, so the reload is observed
+     * once one of the agent's components reports having been started at or after the given time. The agent stops serving its counters while it reloads, so counters that cannot be fetched are
+     * treated as the reload being underway.
+     * 
+     * @param sinceMillis
+     *            The time, in milliseconds since the epoch, after which the agent must have started one of its components.
+     * @param timeoutMillis
+     *            The amount of time, in milliseconds, to wait.
+     * @return A {@link List} of the {@link AgentMetrics} that showed the reload.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     * @throws TimeoutException
+     *             If the reload is not observed in time.
+     */
+    public List<AgentMetrics> awaitReload(long sinceMillis, long timeoutMillis) throws InterruptedException, TimeoutException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            try {
+                final List<AgentMetrics> metrics = getMetrics();
+                if (metrics.stream().allMatch(replicaMetrics -> getLatestStartTime(replicaMetrics) >= sinceMillis)) {
+                    return metrics;
+                }
+            } catch (IOException e) {
+                // The agent is reloading
+            }
+            final long now = System.currentTimeMillis();
+            if (now >= deadline) {
+                throw new TimeoutException(String.format("Timed out after %d ms waiting for the configuration to be reloaded.", timeoutMillis));
+            }
+            Thread.sleep(Math.min(POLL_INTERVAL_MILLIS, deadline - now));
+        }
+    }
+
+    /**
+     * Wait for the agent's counters to meet a condition.
+     * 
+     * @param condition
+     *            A {@link Predicate} of the {@link AgentMetrics} of the agent, or of each of its replicas, that determines whether the condition has been met.
+     * @param description
+     *            A description of the condition, used in the message of the exception thrown if it is not met.
+     * @param timeoutMillis
+     *            The amount of time, in milliseconds, to wait.
+     * @return A {@link List} of the {@link AgentMetrics} that met the condition.
+     * @throws IOException
+     *             If the counters cannot be fetched.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     * @throws TimeoutException
+     *             If the condition is not met in time; its message includes the agent's current counters.
+     */
+    public List<AgentMetrics> await(Predicate<List<AgentMetrics>> condition, String description, long timeoutMillis) throws IOException, InterruptedException, TimeoutException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            final List<AgentMetrics> metrics = getMetrics();
+            if (condition.test(metrics)) {
+                return metrics;
+            }
+            final long now = System.currentTimeMillis();
+            if (now >= deadline) {
+                final StringBuilder message = new StringBuilder(String.format("Timed out after %d ms waiting for %s; the current counters are:", timeoutMillis, description));
+                for (int i = 0; i < metrics.size(); i++) {
+                    message.append(System.lineSeparator()).append("  port ").append(monitoringPorts.get(i)).append(": ").append(metrics.get(i).getComponents());
+                }
+                throw new TimeoutException(message.toString());
+            }
+            Thread.sleep(Math.min(POLL_INTERVAL_MILLIS, deadline - now));
+        }
+    }
+
+    /**
+     * Get the time at which the most recently started of an agent's components was started.
+     * 
+     * @param metrics
+     *            The {@link AgentMetrics} of the agent.
+     * @return The latest start time, in milliseconds since the epoch, reported by the agent's components; {@code 0} if none reports it.
+     */
+    private static long getLatestStartTime(AgentMetrics metrics) {
+        long latest = 0;
+        for (Map<String, String> counters : metrics.getComponents().values()) {
+            final String startTime = counters.get(START_TIME);
+            if (startTime != null) {
+                try {
+                    latest = Math.max(latest, Long.parseLong(startTime));
+                } catch (NumberFormatException e) {
+                    // Not a time
+                }
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Sum a counter of a component over the agent's replicas.
+     * 
+     * @param metrics
+     *            A {@link List} of the {@link AgentMetrics} of the agent, or of each of its replicas.
+     * @param component
+     *            The name of the component, including its type.
+     * @param counter
+     *            The name of the counter.
+     * @return The sum of the counter over the replicas.
+     */
+    private static long sum(List<AgentMetrics> metrics, String component, String counter) {
+        long sum = 0;
+        for (AgentMetrics replicaMetrics : metrics) {
+            final String value = replicaMetrics.getComponents().getOrDefault(component, Collections.emptyMap()).get(counter);
+            if (value != null) {
+                sum += Long.parseLong(value);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Get the name of the property holding the monitoring port of an agent.
+     * 
+     * @param agentName
+     *            The name of the agent.
+     * @return The name of the property.
+     */
+    private static String getPortProperty(String agentName) {
+        return "flume.port." + agentName + ".monitoring";
+    }
+}
@@ -18,9 +18,12 @@
 package com.github.jrh3k5.mojo.flume.process;
 
 import org.apache.commons.lang3.SystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
@@ -28,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A representation of a Flume agent process.
@@ -36,9 +40,22 @@ import java.util.UUID;
  */
 
 public class AgentProcess {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AgentProcess.class);
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
     private final Map<AgentArguments, String> arguments;
     private final File flumeDirectory;
+    private final LaunchMode launchMode;
+    private final String javaOpts;
+    private final File sharedJvmDirectory;
+    private final String sharedJvmJavaOpts;
+    private final long classDataSharingTrainingMillis;
+    private final int monitoringPort;
+    private final File metricsDirectory;
+    private final long metricsIntervalMillis;
+    private AgentMetricsRecorder metricsRecorder;
     private Process process;
+    private boolean shutdownHookRegistered;
 
     /**
      * Create a new builder for an agent process.
@@ -58,10 +75,20 @@ public class AgentProcess {
      *            A {@link File} representing the location of the Flume installation.
      * @param arguments
      *            A {@link Map} of the arguments to be used during the invocation of the Flume process.
+     * @param builder
+     *            The {@link Builder} describing how the agent is to be launched.
      */
-    private AgentProcess(File flumeDirectory, Map<AgentArguments, String> arguments) {
+    private AgentProcess(File flumeDirectory, Map<AgentArguments, String> arguments, Builder builder) {
         this.flumeDirectory = flumeDirectory;
         this.arguments = Collections.unmodifiableMap(arguments);
+        this.launchMode = builder.launchMode;
+        this.javaOpts = builder.javaOpts;
+        this.sharedJvmDirectory = builder.sharedJvmDirectory;
+        this.sharedJvmJavaOpts = builder.sharedJvmJavaOpts;
+        this.classDataSharingTrainingMillis = builder.classDataSharing ? builder.classDataSharingTrainingMillis : -1;
+        this.monitoringPort = builder.monitoringPort;
+        this.metricsDirectory = builder.metricsDirectory;
+        this.metricsIntervalMillis = builder.metricsIntervalMillis;
     }
 
     /**
@@ -79,16 +106,105 @@ public class AgentProcess {
     }
 
     /**
-     * Join this thread to the execution of the Flume agent.
+     * Get the location of the configuration file with which the agent is started.
+     * 
+     * @return A {@link File} representing the location of the agent's configuration file.
+     * @since 3.1
+     */
+    public File getConfigFile() {
+        return new File(arguments.get(AgentArguments.CONFIGURATION_FILE));
+    }
+
+    /**
+     * Get the location of the Flume installation used by this agent.
+     * 
+     * @return A {@link File} representing the location of the Flume installation.
+     * @since 3.1
+     */
+    public File getFlumeDirectory() {
+        return flumeDirectory;
+    }
+
+    /**
+     * Create a class loader of the Flume libraries of the agent's installation, such as to talk to the agent through the Flume client SDK of the same version as the agent. The installation's
+     * configuration directory is left out, so that the agent's logging configuration is not applied. The caller is responsible for closing the class loader.
+     * 
+     * @return A {@link URLClassLoader} of the agent's Flume libraries.
+     * @throws IOException
+     *             If the Flume installation cannot be read.
+     * @since 3.1
+     */
+    public URLClassLoader newFlumeClassLoader() throws IOException {
+        final List<File> classPath = FlumeInstallation.getClassPath(flumeDirectory);
+        classPath.remove(new File(flumeDirectory, "conf"));
+        return new ChildFirstClassLoader(FlumeInstallation.toUrls(classPath), ClassLoader.getSystemClassLoader().getParent());
+    }
+
+    /**
+     * Get the port on which the agent serves its counters through Flume's HTTP monitoring.
+     * 
+     * @return The port on which the agent serves its counters; {@code -1} if the agent does not serve them.
+     * @since 3.1
+     * @see AgentMetrics
+     */
+    public int getMonitoringPort() {
+        return monitoringPort;
+    }
+
+    /**
+     * Determine whether or not the agent is running.
+     * 
+     * @return {@code true} if the agent has been started and has not since stopped; {@code false} if not.
+     * @since 3.1
+     */
+    public synchronized boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
+    /**
+     * Join this thread to the execution of the Flume agent. If the agent is {@link #restart() restarted} while this thread is joined to it, this thread will be joined to the restarted agent.
      * 
      * @throws InterruptedException
      *             If anything interrupts the joining.
      */
     public void join() throws InterruptedException {
+        Process current;
+        synchronized (this) {
+            current = process;
+        }
+        while (current != null) {
+            current.waitFor();
+            synchronized (this) {
+                if (process == current) {
+                    return;
+                }
+                current = process;
+            }
+        }
+    }
+
+    /**
+     * Stop and start the Flume agent, picking up any changes made to its installation since it was last started. An agent that has not exited within {@value #STOP_TIMEOUT_SECONDS} seconds of
+     * being asked to stop is killed.
+     * 
+     * @throws IllegalStateException
+     *             If the Flume agent has not been started.
+     * @throws IOException
+     *             If any errors occur while attempting to start the Flume agent again.
+     * @since 3.1
+     */
+    public synchronized void restart() throws IOException {
         if (process == null) {
-            return;
+            throw new IllegalStateException("The agent process cannot be restarted because it has not been started.");
         }
-        process.waitFor();
+
+        try {
+            stopProcess();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for agent " + getAgentName() + " to stop.", e);
+        }
+        process = startProcess();
     }
 
     /**
@@ -99,27 +215,83 @@ public class AgentProcess {
      * @throws IOException
      *             If any errors occur while attempting to start the Flume agent.
      */
-    public void start() throws IOException {
+    public synchronized void start() throws IOException {
         if (process != null) {
             throw new IllegalStateException("An agent process is already being managed by this object and another cannot be started.");
         }
 
-        process = new ProcessBuilderProxy(flumeDirectory, getProcessArgs(flumeDirectory)).start();
+        process = startProcess();
+        if (monitoringPort >= 0 && metricsDirectory != null && metricsRecorder == null) {
+            metricsRecorder = new AgentMetricsRecorder(getAgentName(), monitoringPort, metricsDirectory, metricsIntervalMillis);
+            metricsRecorder.start();
+        }
 
         // Register a shutdown hook to ensure that the process is terminated with the JVM
-        Runtime.getRuntime().addShutdownHook(new Thread(new FlumeShutdownRunnable(this), getClass().getCanonicalName() + "-shutdown-thread-" + UUID.randomUUID().toString()));
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(new FlumeShutdownRunnable(this), getClass().getCanonicalName() + "-shutdown-thread-" + UUID.randomUUID().toString()));
+            shutdownHookRegistered = true;
+        }
     }
 
     /**
-     * Stop the Flume agent process.
+     * Stop the Flume agent process, waiting for it to exit so that it has finished shutting down its components before anything that depends on it is stopped. An agent that has not exited
+     * within {@value #STOP_TIMEOUT_SECONDS} seconds is killed. If the agent's counters are being recorded, a final sample is taken and the summary of the samples written first.
      */
-    void stop() {
+    synchronized void stop() {
+        if (metricsRecorder != null) {
+            try {
+                metricsRecorder.close();
+            } catch (IOException e) {
+                LOGGER.warn("Unable to write the summary of the metrics of agent {}.", getAgentName(), e);
+            }
+            metricsRecorder = null;
+        }
         if (process != null) {
-            process.destroy();
+            try {
+                stopProcess();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
             process = null;
         }
     }
 
+    /**
+     * Ask the agent's process to stop and wait for it to exit, killing it if it has not exited within {@value #STOP_TIMEOUT_SECONDS} seconds. The caller must hold the lock of this object.
+     * 
+     * @throws InterruptedException
+     *             If interrupted while waiting for the process to exit.
+     */
+    private void stopProcess() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            LOGGER.warn("Agent {} did not stop within {} seconds and will be killed.", getAgentName(), STOP_TIMEOUT_SECONDS);
+            process.destroyForcibly();
+            // Give the killed process a moment to release its resources, such as its ports, before anything replaces it
+            process.waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Launch the Flume agent according to its launch mode.
+     * 
+     * @return A {@link Process} representing the launched agent.
+     * @throws IOException
+     *             If any errors occur while launching the agent.
+     */
+    private Process startProcess() throws IOException {
+        final File configFile = getConfigFile();
+        switch (launchMode) {
+        case EMBEDDED:
+            return EmbeddedAgentProcess.start(getAgentName(), flumeDirectory, configFile);
+        case SHARED:
+            return SharedAgentJvm.startAgent(sharedJvmDirectory == null ? flumeDirectory.getParentFile() : sharedJvmDirectory, sharedJvmJavaOpts, getAgentName(), flumeDirectory, configFile);
+        default:
+            break;
+        }
+        return new ProcessBuilderProxy(flumeDirectory, getProcessArgs(flumeDirectory)).start();
+    }
+
     /**
      * This proxy class wraps the work of a {@link ProcessBuilder} and its return values. This is to facilitate testing - hence, why it is also package-private in scope.
      * 
@@ -173,8 +345,13 @@ public class AgentProcess {
      *
      * @param flumeDirectory A {@link File} describing the directory in which Flume is installed.
      * @return A {@link List} of {@link String} objects representing the process arguments to be used.
+     * @throws IOException If the Flume installation cannot be read.
      */
-    private List<String> getProcessArgs(File flumeDirectory) {
+    private List<String> getProcessArgs(File flumeDirectory) throws IOException {
+        if (launchMode == LaunchMode.DIRECT) {
+            return getDirectProcessArgs(flumeDirectory);
+        }
+
         final List<String> processArgs = new ArrayList<>((arguments.size() * 2) + 2);
         if(SystemUtils.IS_OS_WINDOWS) {
             processArgs.add(new File(flumeDirectory, "bin/flume-ng.cmd").getAbsolutePath());
@@ -189,6 +366,45 @@ public class AgentProcess {
         return processArgs;
     }
 
+    /**
+     * Get the process arguments to be used when launching the Flume agent's JVM directly.
+     *
+     * @param flumeDirectory A {@link File} describing the directory in which Flume is installed.
+     * @return A {@link List} of {@link String} objects representing the process arguments to be used.
+     * @throws IOException If the Flume installation cannot be read.
+     */
+    private List<String> getDirectProcessArgs(File flumeDirectory) throws IOException {
+        final List<File> classPath = classDataSharingTrainingMillis >= 0 ? ClassDataSharingArchive.orderForSharing(FlumeInstallation.getClassPath(flumeDirectory))
+                : FlumeInstallation.getClassPath(flumeDirectory);
+        final List<String> systemProperties = new ArrayList<>();
+        final List<File> nativeLibraryPath = FlumeInstallation.getNativeLibraryPath(flumeDirectory);
+        if (!nativeLibraryPath.isEmpty()) {
+            systemProperties.add("-Djava.library.path=" + FlumeInstallation.toPath(nativeLibraryPath));
+        }
+        final List<String> applicationArgs = new ArrayList<>(systemProperties);
+        applicationArgs.add(FlumeInstallation.APPLICATION_CLASS);
+        for (Entry<AgentArguments, String> argument : arguments.entrySet()) {
+            // The configuration directory is only understood by the script, which puts it on the class path
+            if (argument.getKey() != AgentArguments.CONFIGURATION_DIRECTORY) {
+                applicationArgs.add(String.format("-%s", argument.getKey().getArgumentName()));
+                applicationArgs.add(argument.getValue());
+            }
+        }
+
+        final List<String> processArgs = JavaCommand.newJavaCommand(javaOpts);
+        if (classDataSharingTrainingMillis >= 0) {
+            final File archive = ClassDataSharingArchive.getArchive(classPath, systemProperties, arguments.get(AgentArguments.AGENT_NAME),
+                    arguments.get(AgentArguments.CONFIGURATION_FILE), javaOpts, classDataSharingTrainingMillis);
+            if (archive != null) {
+                processArgs.add("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+            }
+        }
+        processArgs.add("-cp");
+        processArgs.add(FlumeInstallation.toPath(classPath));
+        processArgs.addAll(applicationArgs);
+        return processArgs;
+    }
+
     /**
      * A builder used to construct {@link AgentProcess} objects.
      * 
@@ -197,6 +413,15 @@ public class AgentProcess {
     public static class Builder {
         private final Map<AgentArguments, String> arguments = new EnumMap<>(AgentArguments.class);
         private final File flumeDirectory;
+        private LaunchMode launchMode = LaunchMode.SCRIPT;
+        private String javaOpts;
+        private File sharedJvmDirectory;
+        private String sharedJvmJavaOpts;
+        private boolean classDataSharing;
+        private long classDataSharingTrainingMillis;
+        private int monitoringPort = -1;
+        private File metricsDirectory;
+        private long metricsIntervalMillis;
 
         /**
          * Create a builder.
@@ -223,7 +448,7 @@ public class AgentProcess {
                 }
             }
 
-            return new AgentProcess(flumeDirectory, arguments);
+            return new AgentProcess(flumeDirectory, arguments, this);
         }
 
         /**
@@ -249,6 +474,98 @@ public class AgentProcess {
             arguments.put(AgentArguments.CONFIGURATION_FILE, configFile.getAbsolutePath());
             return this;
         }
+
+        /**
+         * Set how the agent is to be launched. If not set, the agent is launched through the {@code bin/flume-ng} script of the Flume installation.
+         * 
+         * @param launchMode
+         *            The {@link LaunchMode} describing how the agent is to be launched.
+         * @return This builder.
+         * @since 3.1
+         */
+        public AgentProcess.Builder withLaunchMode(LaunchMode launchMode) {
+            this.launchMode = launchMode;
+            return this;
+        }
+
+        /**
+         * Set the JVM arguments to be supplied to an agent launched with {@link LaunchMode#DIRECT}. Agents launched through the {@code bin/flume-ng} script instead read their JVM arguments from
+         * the {@code flume-env.sh} file of their Flume installation.
+         * 
+         * @param javaOpts
+         *            The JVM arguments, separated by whitespace, to be supplied to the agent's JVM.
+         * @return This builder.
+         * @since 3.1
+         */
+        public AgentProcess.Builder withJavaOpts(String javaOpts) {
+            this.javaOpts = javaOpts;
+            return this;
+        }
+
+        /**
+         * Set how the JVM shared by agents launched with {@link LaunchMode#SHARED} is to be started, should this agent be the one to start it.
+         * 
+         * @param workingDirectory
+         *            A {@link File} representing the working directory of the shared JVM.
+         * @param javaOpts
+         *            The JVM arguments to be supplied to the shared JVM.
+         * @return This builder.
+         * @since 3.1
+         */
+        public AgentProcess.Builder withSharedJvm(File workingDirectory, String javaOpts) {
+            this.sharedJvmDirectory = workingDirectory;
+            this.sharedJvmJavaOpts = javaOpts;
+            return this;
+        }
+
+        /**
+         * Set whether an agent launched with {@link LaunchMode#DIRECT} is to be started with an application class data sharing archive. The archive is built by a training run that configures, but does not
+         * start, the agent's components the first time the agent's class path is seen and is reused for as long as the class path and Java runtime are unchanged.
+         * 
+         * @param classDataSharing
+         *            {@code true} if the agent is to be started with a class data sharing archive.
+         * @param trainingMillis
+         *            The amount of time, in milliseconds, after which the training run of a new archive is to be stopped if it has not finished.
+         * @return This builder.
+         * @since 3.1
+         */
+        public AgentProcess.Builder withClassDataSharing(boolean classDataSharing, long trainingMillis) {
+            this.classDataSharing = classDataSharing;
+            this.classDataSharingTrainingMillis = trainingMillis;
+            return this;
+        }
+
+        /**
+         * Set the port on which the agent serves its counters through Flume's HTTP monitoring. This does not itself enable the monitoring, which must be set up through the agent's JVM
+         * arguments; it records where the counters are to be found.
+         * 
+         * @param monitoringPort
+         *            The port on which the agent serves its counters, or {@code -1} if the agent does not serve them.
+         * @return This builder.
+         * @since 3.1
+         * @see AgentMetrics#getJavaOpts(int)
+         */
+        public AgentProcess.Builder withMonitoringPort(int monitoringPort) {
+            this.monitoringPort = monitoringPort;
+            return this;
+        }
+
+        /**
+         * Set the agent's counters to be sampled from its {@link #withMonitoringPort(int) monitoring port} while it runs.
+         * 
+         * @param metricsDirectory
+         *            A {@link File} representing the directory to which the samples and their summary are to be written, or {@code null} if the counters are not to be sampled.
+         * @param intervalMillis
+         *            The amount of time, in milliseconds, between samples.
+         * @return This builder.
+         * @since 3.1
+         * @see AgentMetricsRecorder
+         */
+        public AgentProcess.Builder withMetricsRecording(File metricsDirectory, long intervalMillis) {
+            this.metricsDirectory = metricsDirectory;
+            this.metricsIntervalMillis = intervalMillis;
+            return this;
+        }
     }
 
     /**
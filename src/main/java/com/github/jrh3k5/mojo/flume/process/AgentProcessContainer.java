@@ -17,7 +17,10 @@
  */
 package com.github.jrh3k5.mojo.flume.process;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -31,23 +34,81 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class AgentProcessContainer {
     private static final Map<String, AgentProcess> AGENT_PROCESSES = new HashMap<>();
+    private static final Map<String, List<String>> AGENT_GROUPS = new HashMap<>();
     private static final ReadWriteLock PROCESSES_LOCK = new ReentrantReadWriteLock();
 
     /**
-     * Stop any previously-stored, started agent process.
+     * Get the previously-stored agent processes stored by the given name.
+     * 
+     * @param name
+     *            The name of a group of agents or of a single agent.
+     * @return A {@link List} of the stored {@link AgentProcess} objects of the agents in the group, if the name is that of a group; otherwise, a {@link List} containing the stored agent
+     *         process by the given name, if there is one.
+     * @since 3.1
+     */
+    public static List<AgentProcess> getAgentProcesses(String name) {
+        final Lock readLock = PROCESSES_LOCK.readLock();
+        readLock.lock();
+        try {
+            final List<AgentProcess> agentProcesses = new ArrayList<>();
+            for (String agentName : getAgentNames(name)) {
+                final AgentProcess agentProcess = AGENT_PROCESSES.get(agentName);
+                if (agentProcess != null) {
+                    agentProcesses.add(agentProcess);
+                }
+            }
+            return agentProcesses;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Stop any previously-stored, started agent process. If the given name is that of a group of agents, all of the agents in the group are stopped, concurrently.
      * 
      * @param agentName
-     *            The name of the agent to be stopped.
+     *            The name of the agent, or group of agents, to be stopped.
      * @since 1.2
      */
     public static void stopAgentProcess(String agentName) {
+        final List<AgentProcess> agentProcesses = new ArrayList<>();
+        final Lock writeLock = PROCESSES_LOCK.writeLock();
+        writeLock.lock();
+        try {
+            for (String memberName : getAgentNames(agentName)) {
+                final AgentProcess agentProcess = AGENT_PROCESSES.remove(memberName);
+                if (agentProcess != null) {
+                    agentProcesses.add(agentProcess);
+                }
+            }
+            AGENT_GROUPS.remove(agentName);
+        } finally {
+            writeLock.unlock();
+        }
+        // Stopping waits for the agents to exit, so leave other agents free to be stopped meanwhile
+        agentProcesses.parallelStream().forEach(AgentProcess::stop);
+    }
+
+    /**
+     * Store an agent process as a member of a group of agents, such as the replicas of an agent, so that the group can be stopped as a whole.
+     * 
+     * @param groupName
+     *            The name of the group.
+     * @param agentProcess
+     *            The {@link AgentProcess} to be stored for later interaction and retrieval.
+     * @since 3.1
+     */
+    public static void storeAgentProcess(String groupName, AgentProcess agentProcess) {
         final Lock writeLock = PROCESSES_LOCK.writeLock();
         writeLock.lock();
         try {
-            final AgentProcess agentProcess = AGENT_PROCESSES.remove(agentName);
-            if (agentProcess != null) {
-                agentProcess.stop();
+            storeAgentProcess(agentProcess);
+            List<String> members = AGENT_GROUPS.get(groupName);
+            if (members == null) {
+                members = new ArrayList<>();
+                AGENT_GROUPS.put(groupName, members);
             }
+            members.add(agentProcess.getAgentName());
         } finally {
             writeLock.unlock();
         }
@@ -72,4 +133,16 @@ public class AgentProcessContainer {
             writeLock.unlock();
         }
     }
+
+    /**
+     * Get the names of the agents stored by the given name. The caller must hold {@link #PROCESSES_LOCK}.
+     * 
+     * @param name
+     *            The name of a group of agents or of a single agent.
+     * @return A {@link List} of the names of the agents in the group, if the name is that of a group; otherwise, a {@link List} containing only the given name.
+     */
+    private static List<String> getAgentNames(String name) {
+        final List<String> members = AGENT_GROUPS.get(name);
+        return members == null ? Collections.singletonList(name) : new ArrayList<>(members);
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+
+/**
+ * Determines whether a started agent is ready to receive events: that is, whether each of its sources that listens on a TCP port (such as an Avro, Thrift, netcat, or HTTP source) is accepting
+ * connections.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentReadiness {
+    private static final int CONNECT_TIMEOUT_MILLIS = 250;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private AgentReadiness() {
+    }
+
+    /**
+     * Wait for an agent to become ready. An agent none of whose sources listens on a TCP port is considered ready as soon as it is running.
+     * 
+     * @param agentProcess
+     *            The {@link AgentProcess} of the agent.
+     * @param timeoutMillis
+     *            The amount of time, in milliseconds, to wait for the agent to become ready.
+     * @throws IOException
+     *             If the agent's configuration cannot be read, the agent exits, or the agent is not ready within the given amount of time.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    public static void awaitReady(AgentProcess agentProcess, long timeoutMillis) throws IOException, InterruptedException {
+        final List<InetSocketAddress> pending = getEndpoints(AgentConfiguration.load(agentProcess.getConfigFile(), agentProcess.getAgentName()));
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            if (!agentProcess.isAlive()) {
+                throw new IOException(String.format("Agent %s exited before it became ready.", agentProcess.getAgentName()));
+            }
+            for (Iterator<InetSocketAddress> endpoints = pending.iterator(); endpoints.hasNext();) {
+                if (isListening(endpoints.next())) {
+                    endpoints.remove();
+                }
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IOException(String.format("Agent %s was not ready within %d ms; its sources were not yet listening on: %s", agentProcess.getAgentName(), timeoutMillis, pending));
+            }
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    /**
+     * Get the TCP endpoints on which the sources of an agent listen: those that have a {@code port}, at their {@code bind} address. A source bound to all interfaces is reached through the
+     * loopback interface, and sources that receive UDP datagrams are left out.
+     * 
+     * @param configuration
+     *            The {@link AgentConfiguration} of the agent.
+     * @return A {@link List} of {@link InetSocketAddress} objects representing the endpoints.
+     * @throws IOException
+     *             If a source's port is not a number.
+     */
+    static List<InetSocketAddress> getEndpoints(AgentConfiguration configuration) throws IOException {
+        final List<InetSocketAddress> endpoints = new ArrayList<>();
+        for (Map.Entry<String, Map<String, String>> source : configuration.getSources().entrySet()) {
+            final Map<String, String> properties = source.getValue();
+            final String port = properties.get("port");
+            final String type = properties.get("type");
+            if (port == null || type != null && type.toLowerCase(Locale.ROOT).contains("udp")) {
+                continue;
+            }
+
+            String bind = properties.get("bind");
+            if (bind == null || "0.0.0.0".equals(bind) || "::".equals(bind)) {
+                bind = "localhost";
+            }
+            try {
+                endpoints.add(InetSocketAddress.createUnresolved(bind, Integer.parseInt(port)));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(String.format("The port of source %s of agent %s is not valid: %s", source.getKey(), configuration.getAgentName(), port), e);
+            }
+        }
+        return endpoints;
+    }
+
+    /**
+     * Determine whether anything is accepting connections at the given endpoint.
+     * 
+     * @param endpoint
+     *            The {@link InetSocketAddress} to be tried.
+     * @return {@code true} if a connection to the endpoint was accepted.
+     */
+    private static boolean isListening(InetSocketAddress endpoint) {
+        try (final Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(endpoint.getHostString(), endpoint.getPort()), CONNECT_TIMEOUT_MILLIS);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
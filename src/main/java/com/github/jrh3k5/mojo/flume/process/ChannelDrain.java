@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.IOException;
+
+/**
+ * The outcome of waiting for the channels of an agent to be emptied by its sinks before the agent is stopped, judged from the {@code ChannelSize} and {@code EventTakeSuccessCount} counters
+ * the agent reports through its HTTP monitoring.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ChannelDrain {
+    private static final String CHANNEL = "CHANNEL";
+    private static final String CHANNEL_SIZE = "ChannelSize";
+    private static final String EVENT_TAKE_SUCCESS_COUNT = "EventTakeSuccessCount";
+    private static final long POLL_INTERVAL_MILLIS = 250;
+
+    private final boolean drained;
+    private final long drainMillis;
+    private final long eventsTaken;
+    private final long remainingEvents;
+
+    /**
+     * Create an outcome.
+     * 
+     * @param drained
+     *            Whether the agent's channels were emptied.
+     * @param drainMillis
+     *            The amount of time, in milliseconds, spent waiting.
+     * @param eventsTaken
+     *            The number of events taken from the agent's channels while waiting.
+     * @param remainingEvents
+     *            The number of events left in the agent's channels.
+     */
+    private ChannelDrain(boolean drained, long drainMillis, long eventsTaken, long remainingEvents) {
+        this.drained = drained;
+        this.drainMillis = drainMillis;
+        this.eventsTaken = eventsTaken;
+        this.remainingEvents = remainingEvents;
+    }
+
+    /**
+     * Wait for all of the channels of an agent to be empty.
+     * 
+     * @param monitoringPort
+     *            The port on which the agent serves its counters.
+     * @param timeoutMillis
+     *            The amount of time, in milliseconds, to wait for the channels to be emptied.
+     * @return A {@link ChannelDrain} describing the outcome.
+     * @throws IOException
+     *             If the agent's counters cannot be fetched.
+     * @throws InterruptedException
+     *             If interrupted while waiting.
+     */
+    public static ChannelDrain drain(int monitoringPort, long timeoutMillis) throws IOException, InterruptedException {
+        final long start = System.currentTimeMillis();
+        final long deadline = start + timeoutMillis;
+        AgentMetrics metrics = AgentMetrics.fetch(monitoringPort);
+        final long initialTakes = metrics.sum(CHANNEL, EVENT_TAKE_SUCCESS_COUNT);
+        while (true) {
+            final long remainingEvents = metrics.sum(CHANNEL, CHANNEL_SIZE);
+            final long now = System.currentTimeMillis();
+            if (remainingEvents == 0 || now >= deadline) {
+                return new ChannelDrain(remainingEvents == 0, now - start, metrics.sum(CHANNEL, EVENT_TAKE_SUCCESS_COUNT) - initialTakes, remainingEvents);
+            }
+            Thread.sleep(Math.min(POLL_INTERVAL_MILLIS, deadline - now));
+            metrics = AgentMetrics.fetch(monitoringPort);
+        }
+    }
+
+    /**
+     * Determine whether the agent's channels were emptied.
+     * 
+     * @return {@code true} if all of the agent's channels were empty before the wait timed out; {@code false} if not.
+     */
+    public boolean isDrained() {
+        return drained;
+    }
+
+    /**
+     * Get the amount of time spent waiting for the agent's channels to be emptied.
+     * 
+     * @return The amount of time, in milliseconds, spent waiting.
+     */
+    public long getDrainMillis() {
+        return drainMillis;
+    }
+
+    /**
+     * Get the number of events taken from the agent's channels while waiting.
+     * 
+     * @return The number of events taken from the agent's channels while waiting.
+     */
+    public long getEventsTaken() {
+        return eventsTaken;
+    }
+
+    /**
+     * Get the number of events left in the agent's channels when waiting ended.
+     * 
+     * @return The number of events left in the agent's channels; {@code 0} if the agent was drained.
+     */
+    public long getRemainingEvents() {
+        return remainingEvents;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * A {@link URLClassLoader} that prefers its own URLs over those of its parent, only consulting its parent first for classes belonging to the Java platform itself.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+class ChildFirstClassLoader extends URLClassLoader {
+    private static final String[] PLATFORM_PACKAGES = { "java.", "javax.", "jdk.", "sun.", "com.sun.", "org.ietf.", "org.omg.", "org.w3c.dom.", "org.xml.sax." };
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    /**
+     * Create a class loader.
+     * 
+     * @param urls
+     *            An array of {@link URL} objects representing the locations from which classes and resources are to be loaded.
+     * @param parent
+     *            The parent {@link ClassLoader}.
+     */
+    ChildFirstClassLoader(URL[] urls, ClassLoader parent) {
+        super(urls, parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (loadedClass == null) {
+                if (isPlatformClass(name)) {
+                    try {
+                        loadedClass = getParent().loadClass(name);
+                    } catch (ClassNotFoundException e) {
+                        // Some javax.* packages (such as the servlet API) ship with Flume rather than the platform
+                        loadedClass = findClass(name);
+                    }
+                } else {
+                    try {
+                        loadedClass = findClass(name);
+                    } catch (ClassNotFoundException e) {
+                        loadedClass = getParent().loadClass(name);
+                    }
+                }
+            }
+            if (resolve) {
+                resolveClass(loadedClass);
+            }
+            return loadedClass;
+        }
+    }
+
+    @Override
+    public URL getResource(String name) {
+        final URL resource = findResource(name);
+        return resource == null ? getParent().getResource(name) : resource;
+    }
+
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+        final List<URL> resources = new ArrayList<>(Collections.list(findResources(name)));
+        resources.addAll(Collections.list(getParent().getResources(name)));
+        return Collections.enumeration(resources);
+    }
+
+    /**
+     * Determine whether or not the given class is expected to be provided by the Java platform.
+     * 
+     * @param className
+     *            The name of the class.
+     * @return {@code true} if the class is expected to be provided by the Java platform; {@code false} if not.
+     */
+    private static boolean isPlatformClass(String className) {
+        for (String platformPackage : PLATFORM_PACKAGES) {
+            if (className.startsWith(platformPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Manages the application class data sharing (AppCDS) archives used to speed up the startup of agents launched with {@link LaunchMode#DIRECT}.
+ * <p />
+ * An archive is built by a one-time training run that records the classes loaded by creating and configuring, but not starting, the agent's components (see
+ * {@link ClassDataSharingTrainer}), followed by a dump of those classes into an archive. Archives are cached alongside the cached Flume
+ * archive, keyed by a fingerprint of the Java runtime and of the agent's class path; because the JVM refuses an archive whose class path has changed, a changed class path simply produces a new
+ * archive.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+class ClassDataSharingArchive {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassDataSharingArchive.class);
+    private static final Object TRAINING_LOCK = new Object();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ClassDataSharingArchive() {
+    }
+
+    /**
+     * Order a class path so that it can be used with a class data sharing archive. The JVM only archives classes loaded from JAR files and refuses to dump an archive whose class path contains a
+     * non-empty directory, but it does accept a runtime class path that appends entries to the class path of the archive; directories are therefore moved after all JAR files.
+     * 
+     * @param classPath
+     *            A {@link List} of {@link File} objects representing the class path to be ordered.
+     * @return A {@link List} of {@link File} objects representing the given class path with its JAR files first, each group in its original order.
+     */
+    static List<File> orderForSharing(List<File> classPath) {
+        final List<File> ordered = new ArrayList<>(classPath.size());
+        for (File entry : classPath) {
+            if (!entry.isDirectory()) {
+                ordered.add(entry);
+            }
+        }
+        for (File entry : classPath) {
+            if (entry.isDirectory()) {
+                ordered.add(entry);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Get the archive for the given class path, training and dumping it if it has not yet been built.
+     * 
+     * @param classPath
+     *            A {@link List} of {@link File} objects, ordered by {@link #orderForSharing(List)}, representing the class path with which the agent will be launched.
+     * @param systemProperties
+     *            A {@link List} of the system property arguments (e.g., {@code -Djava.library.path=...}) with which the agent will be launched.
+     * @param agentName
+     *            The name of the agent.
+     * @param configFile
+     *            The location of the agent's configuration file.
+     * @param javaOpts
+     *            The JVM arguments of the agent.
+     * @param trainingMillis
+     *            The amount of time, in milliseconds, after which the training run is to be stopped if it has not finished.
+     * @return {@code null} if no archive could be built for the current Java runtime; otherwise, a {@link File} representing the archive.
+     * @throws IOException
+     *             If any errors occur while reading or writing the cache.
+     */
+    static File getArchive(List<File> classPath, List<String> systemProperties, String agentName, String configFile, String javaOpts, long trainingMillis) throws IOException {
+        final String specificationVersion = System.getProperty("java.specification.version");
+        if (specificationVersion.startsWith("1.") || "10".equals(specificationVersion)) {
+            LOGGER.warn("Class data sharing of application classes requires Java 11 or later, but Maven is running Java {}; agents will be started without it.", specificationVersion);
+            return null;
+        }
+
+        final List<File> archivedClassPath = new ArrayList<>();
+        for (File entry : classPath) {
+            if (entry.isDirectory()) {
+                break;
+            }
+            archivedClassPath.add(entry);
+        }
+
+        final File cacheDirectory = new File(FileUtils.getTempDirectory(), "flume-cds");
+        final String fingerprint = fingerprint(archivedClassPath);
+        final File archive = new File(cacheDirectory, fingerprint + ".jsa");
+        synchronized (TRAINING_LOCK) {
+            if (archive.isFile()) {
+                return archive;
+            }
+
+            FileUtils.forceMkdir(cacheDirectory);
+            final File classList = new File(cacheDirectory, fingerprint + ".classlist");
+            final File log = new File(cacheDirectory, fingerprint + ".log");
+            LOGGER.info("Training a class data sharing archive from the components of agent {}; it will be cached as {}.", agentName, archive.getAbsolutePath());
+
+            // The trainer is not archived, as it is appended after the agent's class path
+            final List<File> trainingClassPath = new ArrayList<>(classPath);
+            try {
+                trainingClassPath.add(new File(ClassDataSharingTrainer.class.getProtectionDomain().getCodeSource().getLocation().toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Unable to determine the location of " + ClassDataSharingTrainer.class.getName(), e);
+            }
+            final List<String> trainingCommand = JavaCommand.newJavaCommand(javaOpts);
+            trainingCommand.add("-Xshare:off");
+            trainingCommand.add("-XX:DumpLoadedClassList=" + classList.getAbsolutePath());
+            trainingCommand.addAll(systemProperties);
+            trainingCommand.add("-cp");
+            trainingCommand.add(FlumeInstallation.toPath(trainingClassPath));
+            trainingCommand.add(ClassDataSharingTrainer.class.getName());
+            trainingCommand.add(agentName);
+            trainingCommand.add(configFile);
+            if (run(trainingCommand, log, trainingMillis) != 0) {
+                LOGGER.warn("The training run failed; see {}. Agents will be started without class data sharing.", log.getAbsolutePath());
+                return null;
+            }
+            if (!classList.isFile()) {
+                LOGGER.warn("The training run did not produce a class list; see {}. Agents will be started without class data sharing.", log.getAbsolutePath());
+                return null;
+            }
+
+            final File dumpedArchive = new File(cacheDirectory, fingerprint + ".jsa.tmp");
+            final List<String> dumpCommand = JavaCommand.newJavaCommand(null);
+            dumpCommand.add("-Xshare:dump");
+            dumpCommand.add("-XX:SharedClassListFile=" + classList.getAbsolutePath());
+            dumpCommand.add("-XX:SharedArchiveFile=" + dumpedArchive.getAbsolutePath());
+            dumpCommand.add("-cp");
+            dumpCommand.add(FlumeInstallation.toPath(archivedClassPath));
+            if (run(dumpCommand, log, TimeUnit.MINUTES.toMillis(5)) != 0 || !dumpedArchive.isFile()) {
+                LOGGER.warn("The class data sharing archive could not be dumped; see {}. Agents will be started without class data sharing.", log.getAbsolutePath());
+                return null;
+            }
+            Files.move(dumpedArchive.toPath(), archive.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return archive;
+        }
+    }
+
+    /**
+     * Compute the fingerprint of a class path: a hash of the current Java runtime's version and of the location, size, and modification time of each class path entry.
+     * 
+     * @param classPath
+     *            A {@link List} of {@link File} objects representing the class path.
+     * @return The fingerprint of the class path.
+     */
+    static String fingerprint(List<File> classPath) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is a required algorithm of the Java platform.", e);
+        }
+        digest.update(System.getProperty("java.vm.version").getBytes(StandardCharsets.UTF_8));
+        for (File entry : classPath) {
+            digest.update(String.format("|%s|%d|%d", entry.getAbsolutePath(), entry.length(), entry.lastModified()).getBytes(StandardCharsets.UTF_8));
+        }
+        return BaseEncoding.base16().lowerCase().encode(digest.digest());
+    }
+
+    /**
+     * Run a command, stopping it if it has not finished within the given amount of time.
+     * 
+     * @param command
+     *            A {@link List} representing the command to be run.
+     * @param log
+     *            A {@link File} to which the command's output is to be appended.
+     * @param timeoutMillis
+     *            The amount of time, in milliseconds, after which the command is to be stopped.
+     * @return The exit value of the command.
+     * @throws IOException
+     *             If the command cannot be run.
+     */
+    private static int run(List<String> command, File log, long timeoutMillis) throws IOException {
+        final ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(ProcessBuilder.Redirect.appendTo(log));
+        final Process process = builder.start();
+        try {
+            if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                process.destroy();
+            }
+            return process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running " + command.get(0), e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.File;
+
+/**
+ * The entry point of the JVM whose loaded classes are recorded to train a {@link ClassDataSharingArchive}. Rather than running the agent, which would bind its ports, consume the input of its
+ * sources, and deliver events to its sinks, the trainer loads Flume's application class and has Flume create and configure each of the agent's sources, channels, and sinks from its
+ * configuration file without starting any of them, then exits.
+ * <p />
+ * This class must rely on nothing but the Java platform, as Flume is only reachable through reflection.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ClassDataSharingTrainer {
+    private static final String CONFIGURATION_PROVIDER_CLASS = "org.apache.flume.node.PropertiesFileConfigurationProvider";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ClassDataSharingTrainer() {
+    }
+
+    /**
+     * Run the training.
+     * 
+     * @param args
+     *            The name of the agent and the location of its configuration file.
+     * @throws Exception
+     *             If Flume cannot be loaded or the agent's components cannot be configured.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: " + ClassDataSharingTrainer.class.getName() + " <agent name> <configuration file>");
+        }
+
+        train(args[0], new File(args[1]));
+        // Components may leave behind non-daemon threads that would otherwise keep the JVM alive
+        System.exit(0);
+    }
+
+    /**
+     * Load Flume's application class and create and configure, but do not start, each of an agent's components.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param agentName
+     *            The name of the agent.
+     * @param configFile
+     *            A {@link File} representing the agent's configuration file.
+     * @throws ReflectiveOperationException
+     *             If Flume cannot be loaded.
+     */
+    static void train(String agentName, File configFile) throws ReflectiveOperationException {
+        Class.forName(FlumeInstallation.APPLICATION_CLASS);
+        final Class<?> providerClass = Class.forName(CONFIGURATION_PROVIDER_CLASS);
+        final Object provider = providerClass.getConstructor(String.class, File.class).newInstance(agentName, configFile);
+        // Creates and configures, but does not start, every component of the agent
+        providerClass.getMethod("getConfiguration").invoke(provider);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Process} representing a Flume agent run within the current JVM.
+ * <p />
+ * The agent's classes are loaded from its Flume installation's {@code lib/} directory and {@code plugins.d/} directory by a {@link ChildFirstClassLoader} of its own, and the agent is driven through
+ * Flume's {@code org.apache.flume.node.Application} by reflection. Because the agent shares the JVM, its {@code flume-env.sh} and any native libraries provided by its plugins are not applied.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+class EmbeddedAgentProcess extends Process {
+    /**
+     * The interval, in seconds, at which Flume polls the agent's configuration file for changes; this matches the interval used by Flume's own command line.
+     */
+    private static final int CONFIGURATION_POLL_INTERVAL = 30;
+
+    private final CountDownLatch stopLatch = new CountDownLatch(1);
+    private final String agentName;
+    private final ChildFirstClassLoader classLoader;
+    private final Object application;
+
+    /**
+     * Start a Flume agent within the current JVM.
+     * 
+     * @param agentName
+     *            The name of the agent to be started.
+     * @param flumeDirectory
+     *            A {@link File} representing the location of the Flume installation from which the agent is to be loaded.
+     * @param configFile
+     *            A {@link File} representing the location of the agent's configuration file.
+     * @return An {@link EmbeddedAgentProcess} representing the started agent.
+     * @throws IOException
+     *             If the agent cannot be loaded or started.
+     */
+    static EmbeddedAgentProcess start(String agentName, File flumeDirectory, File configFile) throws IOException {
+        final ChildFirstClassLoader classLoader = new ChildFirstClassLoader(getClassPath(flumeDirectory), ClassLoader.getSystemClassLoader().getParent());
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+        // Flume creates its threads as the agent starts, and they inherit the context class loader used here
+        currentThread.setContextClassLoader(classLoader);
+        try {
+            final Class<?> eventBusClass = classLoader.loadClass("com.google.common.eventbus.EventBus");
+            final Object eventBus = eventBusClass.getConstructor(String.class).newInstance(agentName + "-event-bus");
+            final Class<?> providerClass = classLoader.loadClass("org.apache.flume.node.PollingPropertiesFileConfigurationProvider");
+            final Object provider = providerClass.getConstructor(String.class, File.class, eventBusClass, int.class).newInstance(agentName, configFile, eventBus, CONFIGURATION_POLL_INTERVAL);
+            final Class<?> applicationClass = classLoader.loadClass(FlumeInstallation.APPLICATION_CLASS);
+            final Object application = applicationClass.getConstructor(List.class).newInstance(Collections.singletonList(provider));
+            eventBusClass.getMethod("register", Object.class).invoke(eventBus, application);
+            applicationClass.getMethod("start").invoke(application);
+            return new EmbeddedAgentProcess(agentName, classLoader, application);
+        } catch (ReflectiveOperationException e) {
+            classLoader.close();
+            throw new IOException("Failed to start embedded agent " + agentName + " from " + flumeDirectory.getAbsolutePath(), unwrap(e));
+        } finally {
+            currentThread.setContextClassLoader(previousClassLoader);
+        }
+    }
+
+    /**
+     * Create a process.
+     * 
+     * @param agentName
+     *            The name of the agent.
+     * @param classLoader
+     *            The {@link ChildFirstClassLoader} from which the agent was loaded.
+     * @param application
+     *            The started {@code org.apache.flume.node.Application} running the agent.
+     */
+    private EmbeddedAgentProcess(String agentName, ChildFirstClassLoader classLoader, Object application) {
+        this.agentName = agentName;
+        this.classLoader = classLoader;
+        this.application = application;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+                // The embedded agent has no standard input, so anything written to it is discarded
+            }
+        };
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+        return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public int waitFor() throws InterruptedException {
+        stopLatch.await();
+        return 0;
+    }
+
+    @Override
+    public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+        return stopLatch.await(timeout, unit);
+    }
+
+    @Override
+    public int exitValue() {
+        if (stopLatch.getCount() > 0) {
+            throw new IllegalThreadStateException("Embedded agent " + agentName + " is still running.");
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean isAlive() {
+        return stopLatch.getCount() > 0;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (stopLatch.getCount() == 0) {
+            return;
+        }
+
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(classLoader);
+        try {
+            application.getClass().getMethod("stop").invoke(application);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to stop embedded agent " + agentName, unwrap(e));
+        } finally {
+            currentThread.setContextClassLoader(previousClassLoader);
+            try {
+                classLoader.close();
+            } catch (IOException e) {
+                // Nothing can be done about a class loader that cannot release its files
+            }
+            stopLatch.countDown();
+        }
+    }
+
+    /**
+     * Get the class path of a Flume installation as URLs.
+     * 
+     * @param flumeDirectory
+     *            A {@link File} representing the location of the Flume installation.
+     * @return An array of {@link URL} objects representing the class path.
+     * @throws IOException
+     *             If the Flume installation has no {@code lib/} directory.
+     * @see FlumeInstallation#getClassPath(File)
+     */
+    private static URL[] getClassPath(File flumeDirectory) throws IOException {
+        return FlumeInstallation.toUrls(FlumeInstallation.getClassPath(flumeDirectory));
+    }
+
+    /**
+     * Unwrap the exception thrown by a reflectively-invoked method.
+     * 
+     * @param e
+     *            The {@link ReflectiveOperationException} to be unwrapped.
+     * @return The cause of the given exception if it wraps an exception thrown by an invoked method; otherwise, the given exception.
+     */
+    private static Throwable unwrap(ReflectiveOperationException e) {
+        return e instanceof InvocationTargetException && e.getCause() != null ? e.getCause() : e;
+    }
+}
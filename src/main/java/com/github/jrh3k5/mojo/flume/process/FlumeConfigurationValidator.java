@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Set;
+
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+
+/**
+ * Validates an agent's configuration with the configuration classes of its own Flume installation, without starting the agent.
+ * <p />
+ * Flume's {@code FlumeConfiguration} is loaded from the installation by a {@link ChildFirstClassLoader} and asked to validate the configuration file. Flume silently discards any source, channel,
+ * or sink that it finds invalid - such as one with an unknown type or a binding to a channel that does not exist - so each component named by the agent is checked to have survived validation.
+ * The class of each surviving component's {@code type} is then resolved against the installation's class path, as Flume itself would only do so once the agent has started.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class FlumeConfigurationValidator {
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FlumeConfigurationValidator() {
+    }
+
+    /**
+     * Validate an agent's configuration.
+     * 
+     * @param flumeDirectory
+     *            A {@link File} representing the location of the Flume installation with which the agent is to be run.
+     * @param configFile
+     *            A {@link File} representing the location of the agent's configuration file.
+     * @param agentName
+     *            The name of the agent whose configuration is to be validated.
+     * @return A {@link List} of descriptions of the problems found with the configuration; if none were found, the list is empty.
+     * @throws IOException
+     *             If the configuration file cannot be read or the installation's configuration classes cannot be loaded.
+     */
+    public static List<String> validate(File flumeDirectory, File configFile, String agentName) throws IOException {
+        final Properties properties = new Properties();
+        try (final InputStream in = new FileInputStream(configFile)) {
+            properties.load(in);
+        }
+        final AgentConfiguration configuration = new AgentConfiguration(properties, agentName);
+
+        // Leave out conf/ so that the installation's log4j.properties is not used to write Flume's validation logging to a file relative to the working directory
+        final List<File> classPath = FlumeInstallation.getClassPath(flumeDirectory);
+        classPath.remove(new File(flumeDirectory, "conf"));
+        try (final ChildFirstClassLoader classLoader = new ChildFirstClassLoader(FlumeInstallation.toUrls(classPath), ClassLoader.getSystemClassLoader().getParent())) {
+            final Thread currentThread = Thread.currentThread();
+            final ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+            currentThread.setContextClassLoader(classLoader);
+            try {
+                silenceLogging(classLoader);
+                return validate(classLoader, properties, configuration);
+            } catch (ReflectiveOperationException e) {
+                throw new IOException("Failed to validate the configuration of agent " + agentName + " with the Flume installation at " + flumeDirectory.getAbsolutePath(),
+                        e instanceof InvocationTargetException && e.getCause() != null ? e.getCause() : e);
+            } finally {
+                currentThread.setContextClassLoader(previousClassLoader);
+            }
+        }
+    }
+
+    /**
+     * Validate an agent's configuration with the given class loader.
+     * 
+     * @param classLoader
+     *            The {@link ClassLoader} from which Flume's configuration classes are to be loaded.
+     * @param properties
+     *            The {@link Properties} of the configuration file.
+     * @param configuration
+     *            The {@link AgentConfiguration} of the agent, as named in the configuration file.
+     * @return A {@link List} of descriptions of the problems found with the configuration.
+     * @throws ReflectiveOperationException
+     *             If Flume's configuration classes cannot be used.
+     */
+    private static List<String> validate(ClassLoader classLoader, Properties properties, AgentConfiguration configuration) throws ReflectiveOperationException {
+        final String agentName = configuration.getAgentName();
+        final Map<String, String> propertiesMap = new HashMap<>();
+        for (String propertyName : properties.stringPropertyNames()) {
+            propertiesMap.put(propertyName, properties.getProperty(propertyName));
+        }
+        final Class<?> flumeConfigurationClass = classLoader.loadClass("org.apache.flume.conf.FlumeConfiguration");
+        final Object flumeConfiguration = flumeConfigurationClass.getConstructor(Map.class).newInstance(propertiesMap);
+
+        final List<String> problems = new ArrayList<>();
+        final Set<String> componentNames = new HashSet<>();
+        componentNames.add(agentName);
+        componentNames.addAll(configuration.getSources().keySet());
+        componentNames.addAll(configuration.getChannels().keySet());
+        componentNames.addAll(configuration.getSinks().keySet());
+        for (Object error : (Collection<?>) flumeConfigurationClass.getMethod("getConfigurationErrors").invoke(flumeConfiguration)) {
+            final Class<?> errorClass = error.getClass();
+            final String componentName = (String) errorClass.getMethod("getComponentName").invoke(error);
+            if ("ERROR".equals(String.valueOf(errorClass.getMethod("getErrorOrWarning").invoke(error))) && componentNames.contains(componentName)) {
+                problems.add(String.format("Flume reported %s for %s (property: %s)", errorClass.getMethod("getErrorType").invoke(error), componentName, errorClass.getMethod("getKey").invoke(error)));
+            }
+        }
+
+        final Object agentConfiguration = flumeConfigurationClass.getMethod("getConfigurationFor", String.class).invoke(flumeConfiguration, agentName);
+        if (agentConfiguration == null) {
+            problems.add(String.format("Flume found no valid configuration for agent %s; it needs at least one channel, and a source or sink bound to it.", agentName));
+            return problems;
+        }
+
+        final Class<?> agentConfigurationClass = agentConfiguration.getClass();
+        checkComponents(classLoader, "source", configuration.getSources(), (Set<?>) agentConfigurationClass.getMethod("getSourceSet").invoke(agentConfiguration),
+                "org.apache.flume.conf.source.SourceType", "getSourceClassName", problems);
+        checkComponents(classLoader, "channel", configuration.getChannels(), (Set<?>) agentConfigurationClass.getMethod("getChannelSet").invoke(agentConfiguration),
+                "org.apache.flume.conf.channel.ChannelType", "getChannelClassName", problems);
+        checkComponents(classLoader, "sink", configuration.getSinks(), (Set<?>) agentConfigurationClass.getMethod("getSinkSet").invoke(agentConfiguration),
+                "org.apache.flume.conf.sink.SinkType", "getSinkClassName", problems);
+        return problems;
+    }
+
+    /**
+     * Check that each of the named components of a given kind survived Flume's validation and that its type resolves to a class.
+     * 
+     * @param classLoader
+     *            The {@link ClassLoader} against which the components' classes are to be resolved.
+     * @param kind
+     *            The kind of the components, used to describe any problems.
+     * @param components
+     *            A {@link Map} of the named components to their properties.
+     * @param validComponents
+     *            A {@link Set} of the names of the components that survived Flume's validation.
+     * @param typeEnumName
+     *            The name of the Flume enumeration of the built-in types of the components.
+     * @param classNameMethod
+     *            The name of the method of the enumeration that supplies the class of a built-in type.
+     * @param problems
+     *            A {@link List} to which any problems are to be added.
+     * @throws ReflectiveOperationException
+     *             If the enumeration of the built-in types cannot be used.
+     */
+    private static void checkComponents(ClassLoader classLoader, String kind, Map<String, Map<String, String>> components, Set<?> validComponents, String typeEnumName,
+            String classNameMethod, List<String> problems) throws ReflectiveOperationException {
+        final Class<?> typeEnum = classLoader.loadClass(typeEnumName);
+        final Method getClassName = typeEnum.getMethod(classNameMethod);
+        for (Entry<String, Map<String, String>> component : components.entrySet()) {
+            if (!validComponents.contains(component.getKey())) {
+                problems.add(String.format("The %s %s was discarded by Flume's validation; check its type and channel bindings.", kind, component.getKey()));
+                continue;
+            }
+
+            final String type = component.getValue().get("type");
+            if (type == null) {
+                continue;
+            }
+            String className = type;
+            for (Object constant : typeEnum.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equals(type.toUpperCase(Locale.ROOT))) {
+                    className = (String) getClassName.invoke(constant);
+                    break;
+                }
+            }
+            if (className == null) {
+                continue;
+            }
+            try {
+                Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                problems.add(String.format("The %s %s has a type of %s, but its class %s could not be loaded from the agent's Flume installation or plugins: %s", kind, component.getKey(), type,
+                        className, e));
+            }
+        }
+    }
+
+    /**
+     * Turn off the logging of Flume's validation, which would otherwise complain about log4j not being configured, if log4j is Flume's logging implementation.
+     * 
+     * @param classLoader
+     *            The {@link ClassLoader} from which Flume is loaded.
+     */
+    private static void silenceLogging(ClassLoader classLoader) {
+        try {
+            final Class<?> levelClass = classLoader.loadClass("org.apache.log4j.Level");
+            final Object rootLogger = classLoader.loadClass("org.apache.log4j.LogManager").getMethod("getRootLogger").invoke(null);
+            rootLogger.getClass().getMethod("setLevel", levelClass).invoke(rootLogger, levelClass.getField("OFF").get(null));
+        } catch (ReflectiveOperationException e) {
+            // Flume's logging is not log4j, so leave it as it is
+        }
+    }
+}
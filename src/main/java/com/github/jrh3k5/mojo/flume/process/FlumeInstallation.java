@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Utilities for locating the parts of a Flume installation needed to run an agent without the {@code bin/flume-ng} script, following the same layout that the script does.
+ * <p />
+ * This class must rely on nothing but the Java platform, as it is used within the JVM run by {@link SharedAgentHost}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+class FlumeInstallation {
+    /**
+     * The class run by the {@code bin/flume-ng} script to start an agent.
+     */
+    static final String APPLICATION_CLASS = "org.apache.flume.node.Application";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FlumeInstallation() {
+    }
+
+    /**
+     * Assemble the class path of a Flume installation in the same order as the {@code bin/flume-ng} script: its configuration directory, the JAR files in its {@code lib/} directory, and then the
+     * JAR files in the {@code lib/} and {@code libext/} directories of each of its plugins.
+     * 
+     * @param flumeDirectory
+     *            A {@link File} representing the location of the Flume installation.
+     * @return A {@link List} of {@link File} objects representing the class path.
+     * @throws IOException
+     *             If the Flume installation has no {@code lib/} directory.
+     */
+    static List<File> getClassPath(File flumeDirectory) throws IOException {
+        final File libDirectory = new File(flumeDirectory, "lib");
+        if (!libDirectory.isDirectory()) {
+            throw new IOException("No Flume libraries were found in " + libDirectory.getAbsolutePath());
+        }
+
+        final List<File> classPath = new ArrayList<>();
+        classPath.add(new File(flumeDirectory, "conf"));
+        addJars(libDirectory, classPath);
+        for (File plugin : getPlugins(flumeDirectory)) {
+            addJars(new File(plugin, "lib"), classPath);
+            addJars(new File(plugin, "libext"), classPath);
+        }
+        return classPath;
+    }
+
+    /**
+     * Get the {@code native/} directories of the plugins in a Flume installation, which the {@code bin/flume-ng} script adds to the {@code java.library.path}.
+     * 
+     * @param flumeDirectory
+     *            A {@link File} representing the location of the Flume installation.
+     * @return A {@link List} of {@link File} objects representing the native library directories of the installation's plugins.
+     */
+    static List<File> getNativeLibraryPath(File flumeDirectory) {
+        final List<File> libraryPath = new ArrayList<>();
+        for (File plugin : getPlugins(flumeDirectory)) {
+            final File nativeDirectory = new File(plugin, "native");
+            if (nativeDirectory.isDirectory()) {
+                libraryPath.add(nativeDirectory);
+            }
+        }
+        return libraryPath;
+    }
+
+    /**
+     * Join the given files into a path, such as a class path, using the platform's path separator.
+     * 
+     * @param files
+     *            A {@link List} of {@link File} objects to be joined.
+     * @return The joined path.
+     */
+    static String toPath(List<File> files) {
+        final StringBuilder path = new StringBuilder();
+        for (File file : files) {
+            if (path.length() > 0) {
+                path.append(File.pathSeparatorChar);
+            }
+            path.append(file.getAbsolutePath());
+        }
+        return path.toString();
+    }
+
+    /**
+     * Convert the given files, such as a class path, into URLs suitable for a class loader.
+     * 
+     * @param files
+     *            A {@link List} of {@link File} objects to be converted.
+     * @return An array of {@link URL} objects representing the given files.
+     * @throws MalformedURLException
+     *             If any of the files cannot be converted.
+     */
+    static URL[] toUrls(List<File> files) throws MalformedURLException {
+        final URL[] urls = new URL[files.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = files.get(i).toURI().toURL();
+        }
+        return urls;
+    }
+
+    /**
+     * Get the plugin directories within a Flume installation's {@code plugins.d/} directory.
+     * 
+     * @param flumeDirectory
+     *            A {@link File} representing the location of the Flume installation.
+     * @return An array of {@link File} objects representing the installation's plugins, sorted by name.
+     */
+    private static File[] getPlugins(File flumeDirectory) {
+        final File[] plugins = new File(flumeDirectory, "plugins.d").listFiles(File::isDirectory);
+        if (plugins == null) {
+            return new File[0];
+        }
+        Arrays.sort(plugins);
+        return plugins;
+    }
+
+    /**
+     * Add all JAR files within the given directory to the given class path.
+     * 
+     * @param directory
+     *            A {@link File} representing the directory whose JAR files are to be added; if it does not exist, nothing is added.
+     * @param classPath
+     *            A {@link List} of {@link File} objects to which the JAR files are to be added.
+     */
+    private static void addJars(File directory, List<File> classPath) {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isFile() && file.getName().endsWith(".jar")) {
+                classPath.add(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The stop-the-world pauses of an agent's garbage collector, read from the log written by the {@code -Xloggc} JVM argument. Both the log of a Java 8 JVM (e.g.,
+ * {@code [GC (Allocation Failure)  33280K->1234K(125952K), 0.0045678 secs]}) and the unified log of later JVMs (e.g., {@code GC(3) Pause Young (Normal) (G1 Evacuation Pause) 24M->3M(256M) 3.456ms})
+ * can be read; concurrent phases, which do not pause the agent, are not counted. As the JVM writes out each pause as it ends, the pauses of a period can be read from the part of the log written
+ * during it.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class GcLog {
+    private static final Pattern LEGACY_PAUSE_PATTERN = Pattern.compile("\\[(?:Full )?GC[ (].*?, (\\d+[.,]\\d+) secs\\]");
+    private static final Pattern UNIFIED_PAUSE_PATTERN = Pattern.compile("GC\\(\\d+\\) Pause .*?(\\d+[.,]\\d+)ms\\s*$");
+
+    private final int pauses;
+    private final double pauseMillis;
+    private final double maxPauseMillis;
+
+    /**
+     * Create a summary of a GC log.
+     * 
+     * @param pauses
+     *            The number of pauses.
+     * @param pauseMillis
+     *            The total amount of time, in milliseconds, for which the JVM was paused.
+     * @param maxPauseMillis
+     *            The longest pause, in milliseconds.
+     */
+    private GcLog(int pauses, double pauseMillis, double maxPauseMillis) {
+        this.pauses = pauses;
+        this.pauseMillis = pauseMillis;
+        this.maxPauseMillis = maxPauseMillis;
+    }
+
+    /**
+     * Get the JVM arguments with which an agent writes its GC log.
+     * 
+     * @param logFile
+     *            The {@link File} to which the log is to be written.
+     * @return The JVM arguments.
+     */
+    public static String getJavaOpts(File logFile) {
+        return "-Xloggc:" + logFile.getAbsolutePath();
+    }
+
+    /**
+     * Read the part of a GC log written between two points, such as the start and end of a measured load. A line cut by either point is not read, as it was not written entirely within the
+     * period.
+     * 
+     * @param logFile
+     *            The {@link File} to be read.
+     * @param fromOffset
+     *            The length, in bytes, of the log at the start of the period.
+     * @param toOffset
+     *            The length, in bytes, of the log at the end of the period.
+     * @return A {@link GcLog} summarizing the pauses in that part of the log.
+     * @throws IOException
+     *             If the log cannot be read.
+     */
+    public static GcLog read(File logFile, long fromOffset, long toOffset) throws IOException {
+        final byte[] bytes;
+        final boolean startsLine;
+        try (final RandomAccessFile log = new RandomAccessFile(logFile, "r")) {
+            final long from = Math.min(fromOffset, log.length());
+            final long to = Math.max(from, Math.min(toOffset, log.length()));
+            if (from > 0) {
+                log.seek(from - 1);
+                startsLine = log.read() == '\n';
+            } else {
+                startsLine = true;
+            }
+            bytes = new byte[(int) (to - from)];
+            log.seek(from);
+            log.readFully(bytes);
+        }
+
+        final List<String> lines = new ArrayList<>(Arrays.asList(new String(bytes, StandardCharsets.UTF_8).split("\n", -1)));
+        // The last element follows the final line break: empty, or a line still being written at the end of the period
+        lines.remove(lines.size() - 1);
+        if (!startsLine && !lines.isEmpty()) {
+            lines.remove(0);
+        }
+        return parse(lines);
+    }
+
+    /**
+     * Summarize the pauses in the lines of a GC log.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param lines
+     *            A {@link List} of the lines of the log.
+     * @return A {@link GcLog} summarizing the pauses in the log.
+     */
+    static GcLog parse(List<String> lines) {
+        int pauses = 0;
+        double pauseMillis = 0;
+        double maxPauseMillis = 0;
+        for (String line : lines) {
+            final double millis;
+            final Matcher unifiedMatcher = UNIFIED_PAUSE_PATTERN.matcher(line);
+            if (unifiedMatcher.find()) {
+                millis = parseNumber(unifiedMatcher.group(1));
+            } else {
+                final Matcher legacyMatcher = LEGACY_PAUSE_PATTERN.matcher(line);
+                if (!legacyMatcher.find()) {
+                    continue;
+                }
+                millis = parseNumber(legacyMatcher.group(1)) * 1000.0;
+            }
+            pauses++;
+            pauseMillis += millis;
+            maxPauseMillis = Math.max(maxPauseMillis, millis);
+        }
+        return new GcLog(pauses, pauseMillis, maxPauseMillis);
+    }
+
+    /**
+     * Get the number of pauses.
+     * 
+     * @return The number of times the JVM was paused by its garbage collector.
+     */
+    public int getPauses() {
+        return pauses;
+    }
+
+    /**
+     * Get the total amount of time for which the JVM was paused.
+     * 
+     * @return The total amount of time, in milliseconds, for which the JVM was paused by its garbage collector.
+     */
+    public double getPauseMillis() {
+        return pauseMillis;
+    }
+
+    /**
+     * Get the longest pause.
+     * 
+     * @return The longest pause, in milliseconds.
+     */
+    public double getMaxPauseMillis() {
+        return maxPauseMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d GC pause(s) totalling %.1f ms (longest %.1f ms)", pauses, pauseMillis, maxPauseMillis);
+    }
+
+    /**
+     * Parse a number written by the JVM, whose decimal separator depends on its locale.
+     * 
+     * @param number
+     *            The number to be parsed.
+     * @return The number.
+     */
+    private static double parseNumber(String number) {
+        return Double.parseDouble(number.replace(',', '.'));
+    }
+}
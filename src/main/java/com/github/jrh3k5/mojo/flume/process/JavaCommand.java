@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilities for assembling the command line of a forked JVM.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+class JavaCommand {
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private JavaCommand() {
+    }
+
+    /**
+     * Start the command line of a JVM run by the same Java installation as the current JVM.
+     * 
+     * @param javaOpts
+     *            The JVM arguments, separated by whitespace, to be supplied to the JVM; may be {@code null}.
+     * @return A {@link List} containing the Java executable followed by the given JVM arguments, to which further arguments can be added.
+     */
+    static List<String> newJavaCommand(String javaOpts) {
+        final List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getAbsolutePath());
+        if (javaOpts != null) {
+            for (String javaOpt : javaOpts.trim().split("\\s+")) {
+                if (!javaOpt.isEmpty()) {
+                    command.add(javaOpt);
+                }
+            }
+        }
+        return command;
+    }
+}
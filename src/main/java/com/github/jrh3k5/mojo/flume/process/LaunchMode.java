@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+/**
+ * Enumerations of the ways in which a Flume agent can be launched.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public enum LaunchMode {
+    /**
+     * Fork the agent through the {@code bin/flume-ng} script of its Flume installation.
+     */
+    SCRIPT,
+    /**
+     * Run the agent within the Maven JVM, isolated in a class loader of its own that is built from its Flume installation.
+     */
+    EMBEDDED,
+    /**
+     * Run the agent in a single JVM forked to host all of the agents using this mode, with each agent isolated in a class loader of its own.
+     */
+    SHARED,
+    /**
+     * Fork the agent's JVM directly, with a class path and native library path assembled from its Flume installation in the same way as the {@code bin/flume-ng} script. This skips the script's
+     * sourcing of {@code flume-env.sh} and its probing for Hadoop, HBase, and Hive installations, and leaves the forked process being the agent's JVM itself.
+     */
+    DIRECT
+}
@@ -0,0 +1,392 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A summary of the samples of an agent's counters: the events per second handled by each source and sink, the percentiles of the fill percentage of each channel, and the rollbacks counted by
+ * each component. Counters that drop between samples, as they do when an agent is restarted, are treated as having been reset.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class MetricsSummary {
+    private static final String SOURCE = "SOURCE";
+    private static final String CHANNEL = "CHANNEL";
+    private static final String SINK = "SINK";
+    private static final String EVENT_ACCEPTED_COUNT = "EventAcceptedCount";
+    private static final String EVENT_DRAIN_SUCCESS_COUNT = "EventDrainSuccessCount";
+    private static final String CHANNEL_FILL_PERCENTAGE = "ChannelFillPercentage";
+    private static final double[] PERCENTILES = { 50, 90, 99, 100 };
+    private static final Pattern TIMESTAMP = Pattern.compile("\"timestamp\"\\s*:\\s*(\\d+)");
+
+    private final String agentName;
+    private final Map<String, Map<String, Long>> totals = new LinkedHashMap<>();
+    private final Map<String, Map<String, Long>> previous = new LinkedHashMap<>();
+    private final Map<String, List<Double>> channelFill = new LinkedHashMap<>();
+    private final Map<String, Map<String, Double>> latest = new LinkedHashMap<>();
+    private final Map<String, Map<String, Double>> maxima = new LinkedHashMap<>();
+    private long firstTimestamp = -1;
+    private long lastTimestamp = -1;
+    private int sampleCount;
+
+    /**
+     * Create a summary.
+     * 
+     * @param agentName
+     *            The name of the agent whose counters are summarized.
+     */
+    public MetricsSummary(String agentName) {
+        this.agentName = agentName;
+    }
+
+    /**
+     * Add a sample of the agent's counters to the summary.
+     * 
+     * @param timestamp
+     *            The time, in milliseconds since the epoch, at which the sample was taken.
+     * @param metrics
+     *            The {@link AgentMetrics} sampled.
+     */
+    public synchronized void add(long timestamp, AgentMetrics metrics) {
+        if (firstTimestamp < 0) {
+            firstTimestamp = timestamp;
+        }
+        lastTimestamp = timestamp;
+        sampleCount++;
+
+        for (Map.Entry<String, Map<String, String>> component : metrics.getComponents().entrySet()) {
+            final Map<String, Long> componentTotals = getOrCreate(totals, component.getKey());
+            final Map<String, Long> componentPrevious = getOrCreate(previous, component.getKey());
+            final Map<String, Double> componentLatest = getOrCreate(latest, component.getKey());
+            final Map<String, Double> componentMaxima = getOrCreate(maxima, component.getKey());
+            for (Map.Entry<String, String> counter : component.getValue().entrySet()) {
+                try {
+                    final double value = Double.parseDouble(counter.getValue());
+                    componentLatest.put(counter.getKey(), value);
+                    componentMaxima.merge(counter.getKey(), value, Math::max);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+
+                final long value;
+                try {
+                    value = Long.parseLong(counter.getValue());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                final Long last = componentPrevious.put(counter.getKey(), value);
+                if (last != null) {
+                    // A counter that went down was reset, so everything it now holds is new
+                    final long increase = value >= last ? value - last : value;
+                    componentTotals.put(counter.getKey(), componentTotals.getOrDefault(counter.getKey(), 0L) + increase);
+                }
+            }
+        }
+
+        for (Map.Entry<String, Map<String, String>> channel : metrics.getComponents(CHANNEL).entrySet()) {
+            final String fill = channel.getValue().get(CHANNEL_FILL_PERCENTAGE);
+            if (fill != null) {
+                try {
+                    List<Double> fills = channelFill.get(channel.getKey());
+                    if (fills == null) {
+                        fills = new ArrayList<>();
+                        channelFill.put(channel.getKey(), fills);
+                    }
+                    fills.add(Double.parseDouble(fill));
+                } catch (NumberFormatException e) {
+                    // Not a percentage, so nothing to record
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the samples of an agent's counters written by an {@link AgentMetricsRecorder}.
+     * 
+     * @param agentName
+     *            The name of the agent whose counters were sampled.
+     * @param samplesFile
+     *            A {@link File} representing the file of samples, one JSON object per line.
+     * @return A {@link MetricsSummary} of the samples in the file.
+     * @throws IOException
+     *             If the file cannot be read.
+     */
+    public static MetricsSummary read(String agentName, File samplesFile) throws IOException {
+        final MetricsSummary summary = new MetricsSummary(agentName);
+        for (String line : FileUtils.readLines(samplesFile, StandardCharsets.UTF_8)) {
+            final Matcher timestamp = TIMESTAMP.matcher(line);
+            if (timestamp.find()) {
+                summary.add(Long.parseLong(timestamp.group(1)), AgentMetrics.parse(line));
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Get the name of the agent whose counters are summarized.
+     * 
+     * @return The name of the agent.
+     */
+    public String getAgentName() {
+        return agentName;
+    }
+
+    /**
+     * Get the names of the components that reported numeric counters.
+     * 
+     * @return A {@link Set} of the names of the components, including their types (such as {@code SINK.k1}), in the order in which they were first reported.
+     */
+    public synchronized Set<String> getComponents() {
+        return new LinkedHashSet<>(latest.keySet());
+    }
+
+    /**
+     * Get the value of a counter of a component in the last sample in which the component reported it.
+     * 
+     * @param component
+     *            The name of the component, including its type, such as {@code SINK.k1}.
+     * @param counter
+     *            The name of the counter.
+     * @return The last value of the counter; {@code null} if the component never reported the counter as a number.
+     */
+    public synchronized Double getFinal(String component, String counter) {
+        final Map<String, Double> componentLatest = latest.get(component);
+        return componentLatest == null ? null : componentLatest.get(counter);
+    }
+
+    /**
+     * Get the greatest value of a counter of a component over the samples.
+     * 
+     * @param component
+     *            The name of the component, including its type, such as {@code CHANNEL.c1}.
+     * @param counter
+     *            The name of the counter.
+     * @return The greatest value of the counter; {@code null} if the component never reported the counter as a number.
+     */
+    public synchronized Double getMaximum(String component, String counter) {
+        final Map<String, Double> componentMaxima = maxima.get(component);
+        return componentMaxima == null ? null : componentMaxima.get(counter);
+    }
+
+    /**
+     * Get the number of samples in the summary.
+     * 
+     * @return The number of samples added to the summary.
+     */
+    public synchronized int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Get the amount of time between the first and last samples.
+     * 
+     * @return The amount of time, in milliseconds, covered by the samples.
+     */
+    public synchronized long getDurationMillis() {
+        return firstTimestamp < 0 ? 0 : lastTimestamp - firstTimestamp;
+    }
+
+    /**
+     * Get the increase of a counter of a component over the samples.
+     * 
+     * @param component
+     *            The name of the component, including its type, such as {@code SINK.k1}.
+     * @param counter
+     *            The name of the counter.
+     * @return The increase of the counter between the first and last samples; {@code 0} if the component did not report the counter.
+     */
+    public synchronized long getIncrease(String component, String counter) {
+        final Map<String, Long> componentTotals = totals.get(component);
+        return componentTotals == null ? 0 : componentTotals.getOrDefault(counter, 0L);
+    }
+
+    /**
+     * Get the rate at which a counter of a component increased over the samples.
+     * 
+     * @param component
+     *            The name of the component, including its type, such as {@code SINK.k1}.
+     * @param counter
+     *            The name of the counter.
+     * @return The increase of the counter per second; {@code 0} if fewer than two samples were taken apart.
+     */
+    public synchronized double getRatePerSecond(String component, String counter) {
+        final long durationMillis = getDurationMillis();
+        return durationMillis == 0 ? 0 : getIncrease(component, counter) * 1000.0 / durationMillis;
+    }
+
+    /**
+     * Get a percentile of the fill percentages sampled from a channel, using the nearest-rank method.
+     * 
+     * @param channel
+     *            The name of the channel, without its type.
+     * @param percentile
+     *            The percentile, from greater than 0 to 100.
+     * @return The fill percentage at the given percentile; {@code 0} if no fill percentage was sampled from the channel.
+     */
+    public synchronized double getChannelFillPercentile(String channel, double percentile) {
+        final List<Double> fills = channelFill.get(channel);
+        if (fills == null || fills.isEmpty()) {
+            return 0;
+        }
+        final List<Double> sorted = new ArrayList<>(fills);
+        Collections.sort(sorted);
+        final int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size(), rank) - 1));
+    }
+
+    /**
+     * Render the summary as a JSON object.
+     * 
+     * @return A JSON object describing the summary.
+     */
+    public synchronized String toJson() {
+        final StringBuilder json = new StringBuilder("{");
+        json.append(quote("agent")).append(':').append(quote(agentName));
+        json.append(',').append(quote("samples")).append(':').append(sampleCount);
+        json.append(',').append(quote("durationMillis")).append(':').append(getDurationMillis());
+
+        json.append(',').append(quote("sources")).append(":{");
+        appendThroughput(json, SOURCE, EVENT_ACCEPTED_COUNT);
+        json.append("},").append(quote("sinks")).append(":{");
+        appendThroughput(json, SINK, EVENT_DRAIN_SUCCESS_COUNT);
+
+        json.append("},").append(quote("channels")).append(":{");
+        boolean first = true;
+        for (String channel : channelFill.keySet()) {
+            json.append(first ? "" : ",").append(quote(channel)).append(":{").append(quote("fillPercentage")).append(":{");
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                final String label = PERCENTILES[i] == 100 ? "max" : String.format(Locale.ROOT, "p%.0f", PERCENTILES[i]);
+                json.append(i == 0 ? "" : ",").append(quote(label)).append(':').append(format(getChannelFillPercentile(channel, PERCENTILES[i])));
+            }
+            json.append("}}");
+            first = false;
+        }
+
+        json.append("},").append(quote("rollbacks")).append(":{");
+        first = true;
+        for (Map.Entry<String, Map<String, Long>> component : totals.entrySet()) {
+            long rollbacks = 0;
+            boolean reported = false;
+            for (Map.Entry<String, Long> counter : component.getValue().entrySet()) {
+                if (counter.getKey().contains("Rollback")) {
+                    rollbacks += counter.getValue();
+                    reported = true;
+                }
+            }
+            if (reported) {
+                json.append(first ? "" : ",").append(quote(component.getKey())).append(':').append(rollbacks);
+                first = false;
+            }
+        }
+        return json.append("}}").toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    /**
+     * Append the throughput of each component of a type to a JSON object.
+     * 
+     * @param json
+     *            The {@link StringBuilder} to which the throughput is to be appended.
+     * @param type
+     *            The type of the components.
+     * @param counter
+     *            The counter of the events handled by the components.
+     */
+    private void appendThroughput(StringBuilder json, String type, String counter) {
+        boolean first = true;
+        for (String component : totals.keySet()) {
+            if (component.startsWith(type + ".")) {
+                json.append(first ? "" : ",").append(quote(component.substring(type.length() + 1))).append(":{").append(quote("events")).append(':')
+                        .append(getIncrease(component, counter)).append(',').append(quote("eventsPerSecond")).append(':').append(format(getRatePerSecond(component, counter)))
+                        .append('}');
+                first = false;
+            }
+        }
+    }
+
+    /**
+     * Get an entry of a map of maps, creating it if it does not yet exist.
+     * 
+     * @param map
+     *            The {@link Map} from which the entry is to be retrieved.
+     * @param key
+     *            The key of the entry.
+     * @return The entry.
+     */
+    private static <V> Map<String, V> getOrCreate(Map<String, Map<String, V>> map, String key) {
+        Map<String, V> value = map.get(key);
+        if (value == null) {
+            value = new LinkedHashMap<>();
+            map.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Format a number for JSON.
+     * 
+     * @param value
+     *            The number to be formatted.
+     * @return The number, to two decimal places.
+     */
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * Quote a string for JSON.
+     * 
+     * @param value
+     *            The string to be quoted.
+     * @return The string, escaped and in quotes.
+     */
+    public static String quote(String value) {
+        final StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The entry point of a JVM that hosts several Flume agents, each run as an {@link EmbeddedAgentProcess} within a class loader of its own.
+ * <p />
+ * The host reads tab-separated commands, one per line, from its standard input: {@code START} (followed by the agent's name, Flume installation directory, and configuration file) and {@code STOP}
+ * (followed by the agent's name). It answers each command on its standard output with {@code STARTED}, {@code FAILED} (followed by a description of the failure), or {@code STOPPED}, followed by the
+ * agent's name. The agents' own console output is sent to standard error. When its standard input is closed, the host stops all of its agents and exits.
+ * <p />
+ * This class, and the classes it uses, must rely on nothing but the Java platform, as the host JVM is given nothing else on its class path.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class SharedAgentHost {
+    static final String START = "START";
+    static final String STOP = "STOP";
+    static final String STARTED = "STARTED";
+    static final String STOPPED = "STOPPED";
+    static final String FAILED = "FAILED";
+    static final String SEPARATOR = "\t";
+
+    private final Map<String, EmbeddedAgentProcess> agents = new HashMap<>();
+    private final PrintStream responses;
+
+    /**
+     * Run the host.
+     * 
+     * @param args
+     *            Ignored.
+     * @throws IOException
+     *             If the host's standard input cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        final PrintStream responses = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        // Keep the agents' console logging from being mistaken for responses
+        System.setOut(System.err);
+        new SharedAgentHost(responses).run(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+        // Flume may leave behind non-daemon threads that would otherwise keep the host alive
+        System.exit(0);
+    }
+
+    /**
+     * Create a host.
+     * 
+     * @param responses
+     *            The {@link PrintStream} to which responses to commands are to be written.
+     */
+    SharedAgentHost(PrintStream responses) {
+        this.responses = responses;
+    }
+
+    /**
+     * Process commands until there are no more to be read, and then stop all hosted agents.
+     * 
+     * @param commands
+     *            A {@link BufferedReader} from which commands are to be read.
+     * @throws IOException
+     *             If the commands cannot be read.
+     */
+    void run(BufferedReader commands) throws IOException {
+        try {
+            String command;
+            while ((command = commands.readLine()) != null) {
+                handle(command.split(SEPARATOR));
+            }
+        } finally {
+            for (String agentName : new ArrayList<>(agents.keySet())) {
+                stop(agentName);
+            }
+        }
+    }
+
+    /**
+     * Handle a command.
+     * 
+     * @param command
+     *            An array of {@link String} objects representing the name of the command and its arguments.
+     */
+    private void handle(String[] command) {
+        if (START.equals(command[0]) && command.length == 4) {
+            final String agentName = command[1];
+            try {
+                agents.put(agentName, EmbeddedAgentProcess.start(agentName, new File(command[2]), new File(command[3])));
+                respond(STARTED, agentName);
+            } catch (IOException | RuntimeException e) {
+                respond(FAILED, agentName, String.valueOf(e.getCause() == null ? e : e.getCause()));
+            }
+        } else if (STOP.equals(command[0]) && command.length == 2) {
+            stop(command[1]);
+        } else {
+            System.err.println("Ignoring unrecognized command: " + String.join(" ", command));
+        }
+    }
+
+    /**
+     * Stop a hosted agent, if it is running.
+     * 
+     * @param agentName
+     *            The name of the agent to be stopped.
+     */
+    private void stop(String agentName) {
+        final EmbeddedAgentProcess agent = agents.remove(agentName);
+        if (agent != null) {
+            try {
+                agent.destroy();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        respond(STOPPED, agentName);
+    }
+
+    /**
+     * Write a response.
+     * 
+     * @param values
+     *            The values making up the response.
+     */
+    private void respond(String... values) {
+        // Descriptions of failures must stay on a single line
+        responses.println(String.join(SEPARATOR, values).replace('\n', ' ').replace('\r', ' '));
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A forked JVM, run by {@link SharedAgentHost}, in which several Flume agents are hosted.
+ * <p />
+ * A single host is shared by all agents started with {@link LaunchMode#SHARED} within the current JVM; it is started when the first such agent is started and exits once all of its agents have been
+ * stopped.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+class SharedAgentJvm {
+    private static final long RESPONSE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    private static SharedAgentJvm instance;
+
+    private final Map<String, CompletableFuture<String[]>> pendingResponses = new ConcurrentHashMap<>();
+    private final Map<String, HostedAgentProcess> agents = new ConcurrentHashMap<>();
+    private final Process host;
+    private final Writer commands;
+    private final long responseTimeoutMillis;
+    /**
+     * The number of agents being started in this JVM; guarded by the class.
+     */
+    private int reservations;
+
+    /**
+     * Start an agent within the shared JVM, starting the shared JVM if it is not already running.
+     * 
+     * @param workingDirectory
+     *            A {@link File} representing the working directory of the shared JVM, should it need to be started; its output is written to {@code shared-agents.log} within this directory.
+     * @param javaOpts
+     *            The JVM arguments of the shared JVM, should it need to be started.
+     * @param agentName
+     *            The name of the agent to be started.
+     * @param flumeDirectory
+     *            A {@link File} representing the location of the Flume installation from which the agent is to be loaded.
+     * @param configFile
+     *            A {@link File} representing the location of the agent's configuration file.
+     * @return A {@link Process} representing the agent hosted within the shared JVM.
+     * @throws IOException
+     *             If the shared JVM cannot be started or the agent fails to start within it.
+     */
+    static Process startAgent(File workingDirectory, String javaOpts, String agentName, File flumeDirectory, File configFile) throws IOException {
+        final SharedAgentJvm jvm;
+        synchronized (SharedAgentJvm.class) {
+            if (instance == null || !instance.host.isAlive()) {
+                instance = new SharedAgentJvm(launchHost(workingDirectory, javaOpts), RESPONSE_TIMEOUT_MILLIS);
+            }
+            jvm = instance;
+            // Keeps a concurrent stop of the JVM's last agent from shutting the JVM down before this agent is started
+            jvm.reserve();
+        }
+        try {
+            return jvm.start(agentName, flumeDirectory, configFile);
+        } finally {
+            jvm.release();
+        }
+    }
+
+    /**
+     * Fork the shared JVM.
+     * 
+     * @param workingDirectory
+     *            A {@link File} representing the working directory of the shared JVM.
+     * @param javaOpts
+     *            The JVM arguments of the shared JVM.
+     * @return A {@link Process} representing the shared JVM.
+     * @throws IOException
+     *             If the shared JVM cannot be started.
+     */
+    private static Process launchHost(File workingDirectory, String javaOpts) throws IOException {
+        final List<String> command = JavaCommand.newJavaCommand(javaOpts);
+        command.add("-cp");
+        try {
+            command.add(new File(SharedAgentHost.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath());
+        } catch (URISyntaxException e) {
+            throw new IOException("Unable to determine the location of " + SharedAgentHost.class.getName(), e);
+        }
+        command.add(SharedAgentHost.class.getName());
+
+        if (!workingDirectory.isDirectory() && !workingDirectory.mkdirs()) {
+            throw new IOException("Unable to create directory " + workingDirectory.getAbsolutePath());
+        }
+        final ProcessBuilder builder = new ProcessBuilder(command);
+        builder.directory(workingDirectory);
+        builder.redirectError(ProcessBuilder.Redirect.appendTo(new File(workingDirectory, "shared-agents.log")));
+        return builder.start();
+    }
+
+    /**
+     * Create a shared JVM.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param host
+     *            The {@link Process} representing the forked JVM.
+     * @param responseTimeoutMillis
+     *            The amount of time, in milliseconds, to wait for the JVM to respond to a command.
+     */
+    SharedAgentJvm(Process host, long responseTimeoutMillis) {
+        this.host = host;
+        this.responseTimeoutMillis = responseTimeoutMillis;
+        this.commands = new OutputStreamWriter(host.getOutputStream(), StandardCharsets.UTF_8);
+        final Thread responseReader = new Thread(this::readResponses, getClass().getSimpleName() + "-responses");
+        responseReader.setDaemon(true);
+        responseReader.start();
+    }
+
+    /**
+     * Reserve this JVM for an agent about to be started in it, so that it is not shut down until the reservation is {@link #release() released}.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     */
+    void reserve() {
+        synchronized (SharedAgentJvm.class) {
+            reservations++;
+        }
+    }
+
+    /**
+     * Release a {@link #reserve() reservation} of this JVM, shutting it down if no agents are running or being started within it.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     */
+    void release() {
+        synchronized (SharedAgentJvm.class) {
+            reservations--;
+            shutDownIfIdle();
+        }
+    }
+
+    /**
+     * Start an agent within this JVM.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param agentName
+     *            The name of the agent to be started.
+     * @param flumeDirectory
+     *            A {@link File} representing the location of the agent's Flume installation.
+     * @param configFile
+     *            A {@link File} representing the location of the agent's configuration file.
+     * @return A {@link HostedAgentProcess} representing the started agent.
+     * @throws IOException
+     *             If the agent fails to start.
+     */
+    HostedAgentProcess start(String agentName, File flumeDirectory, File configFile) throws IOException {
+        final String[] response = send(agentName, SharedAgentHost.START, agentName, flumeDirectory.getAbsolutePath(), configFile.getAbsolutePath());
+        if (!SharedAgentHost.STARTED.equals(response[0])) {
+            throw new IOException(String.format("Agent %s failed to start in the shared JVM: %s", agentName, response.length > 2 ? response[2] : "no reason given"));
+        }
+        final HostedAgentProcess agent = new HostedAgentProcess(agentName);
+        agents.put(agentName, agent);
+        return agent;
+    }
+
+    /**
+     * Stop an agent within this JVM, and shut down this JVM if no other agents are running within it.
+     * 
+     * @param agentName
+     *            The name of the agent to be stopped.
+     * @throws IOException
+     *             If the request to stop the agent cannot be sent.
+     */
+    private void stop(String agentName) throws IOException {
+        if (host.isAlive()) {
+            send(agentName, SharedAgentHost.STOP, agentName);
+        }
+        final HostedAgentProcess agent = agents.remove(agentName);
+        if (agent != null) {
+            agent.markStopped(0);
+        }
+        synchronized (SharedAgentJvm.class) {
+            shutDownIfIdle();
+        }
+    }
+
+    /**
+     * Shut down this JVM if no agents are running, being started, or awaiting a response within it. The caller must hold the lock of this class.
+     */
+    private void shutDownIfIdle() {
+        if (agents.isEmpty() && pendingResponses.isEmpty() && reservations == 0) {
+            // Closing the host's input tells it to exit
+            try {
+                commands.close();
+            } catch (IOException e) {
+                // The host has already gone away
+            }
+            if (instance == this) {
+                instance = null;
+            }
+        }
+    }
+
+    /**
+     * Send a command and wait for its response.
+     * 
+     * @param agentName
+     *            The name of the agent to which the command pertains.
+     * @param command
+     *            The command and its arguments.
+     * @return The response to the command and its values.
+     * @throws IOException
+     *             If the command cannot be sent or no response is received in time.
+     */
+    private String[] send(String agentName, String... command) throws IOException {
+        final CompletableFuture<String[]> response = new CompletableFuture<>();
+        if (pendingResponses.putIfAbsent(agentName, response) != null) {
+            throw new IllegalStateException("A command for agent " + agentName + " is already awaiting a response.");
+        }
+        try {
+            synchronized (commands) {
+                commands.write(String.join(SharedAgentHost.SEPARATOR, command));
+                commands.write('\n');
+                commands.flush();
+            }
+            return response.get(responseTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException(String.format("No response was received for agent %s from the shared JVM within %d ms.", agentName, responseTimeoutMillis), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting on agent " + agentName + " in the shared JVM.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("No response was received for agent " + agentName + " from the shared JVM.", e.getCause());
+        } finally {
+            pendingResponses.remove(agentName);
+        }
+    }
+
+    /**
+     * Read the responses written by the host, completing the commands awaiting them, until the host exits.
+     */
+    private void readResponses() {
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(host.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] response = line.split(SharedAgentHost.SEPARATOR);
+                if (response.length < 2) {
+                    continue;
+                }
+                final CompletableFuture<String[]> pending = pendingResponses.get(response[1]);
+                if (pending != null) {
+                    pending.complete(response);
+                }
+            }
+        } catch (IOException e) {
+            // Treated the same as the host exiting
+        }
+
+        int exitValue;
+        try {
+            exitValue = host.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exitValue = -1;
+        }
+        final IOException hostExited = new IOException("The shared JVM exited with status " + exitValue);
+        for (CompletableFuture<String[]> pending : new ArrayList<>(pendingResponses.values())) {
+            pending.completeExceptionally(hostExited);
+        }
+        for (HostedAgentProcess agent : new ArrayList<>(agents.values())) {
+            agent.markStopped(exitValue);
+        }
+    }
+
+    /**
+     * A {@link Process} representing a single agent hosted within the shared JVM.
+     * 
+     * @author Joshua Hyde
+     * @since 3.1
+     */
+    private class HostedAgentProcess extends Process {
+        private final CountDownLatch stopLatch = new CountDownLatch(1);
+        private final String agentName;
+        private volatile int exitValue;
+
+        /**
+         * Create a process.
+         * 
+         * @param agentName
+         *            The name of the hosted agent.
+         */
+        HostedAgentProcess(String agentName) {
+            this.agentName = agentName;
+        }
+
+        /**
+         * Record that the agent is no longer running.
+         * 
+         * @param exitValue
+         *            The exit value to be reported for the agent.
+         */
+        void markStopped(int exitValue) {
+            this.exitValue = exitValue;
+            stopLatch.countDown();
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                    // A hosted agent has no standard input of its own, so anything written to it is discarded
+                }
+            };
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public int waitFor() throws InterruptedException {
+            stopLatch.await();
+            return exitValue;
+        }
+
+        @Override
+        public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+            return stopLatch.await(timeout, unit);
+        }
+
+        @Override
+        public int exitValue() {
+            if (stopLatch.getCount() > 0) {
+                throw new IllegalThreadStateException("Agent " + agentName + " is still running in the shared JVM.");
+            }
+            return exitValue;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return stopLatch.getCount() > 0;
+        }
+
+        @Override
+        public void destroy() {
+            if (!isAlive()) {
+                return;
+            }
+            try {
+                stop(agentName);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to stop agent " + agentName + " in the shared JVM.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The comparison of a run against the runs of a baseline revision with the same key and configuration fingerprint. Unless a baseline revision is named, the baseline is the most recent
+ * committed revision, other than that of the run, to have been recorded. Uncommitted revisions are never used as baselines and their earlier runs are never pooled with the run, since what
+ * they measured may not be what was built.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class BaselineComparison {
+    private final String baselineRevision;
+    private final List<MetricComparison> comparisons;
+
+    /**
+     * Create a comparison.
+     * 
+     * @param baselineRevision
+     *            The revision against which the run was compared, or {@code null} if there was none.
+     * @param comparisons
+     *            A {@link List} of the {@link MetricComparison} objects of the metrics of the run.
+     */
+    private BaselineComparison(String baselineRevision, List<MetricComparison> comparisons) {
+        this.baselineRevision = baselineRevision;
+        this.comparisons = Collections.unmodifiableList(comparisons);
+    }
+
+    /**
+     * Compare a run against its baseline.
+     * 
+     * @param history
+     *            A {@link List} of the {@link RunRecord} objects of the earlier runs with the same key and fingerprint as the run, from the oldest to the most recent.
+     * @param current
+     *            The {@link RunRecord} of the run to be compared.
+     * @param baselineRevision
+     *            The revision, or a prefix of it, against which the run is to be compared, or {@code null} to compare against the most recent committed revision other than that of the run.
+     * @param runs
+     *            The greatest number of runs of each revision to be compared; the most recent are used.
+     * @param thresholdPercent
+     *            The smallest change, in percent of the baseline mean, that is reported as a regression or improvement.
+     * @return A {@link BaselineComparison}.
+     */
+    public static BaselineComparison compare(List<RunRecord> history, RunRecord current, String baselineRevision, int runs, double thresholdPercent) {
+        final String resolvedRevision = resolveBaselineRevision(history, current.getRevision(), baselineRevision);
+        if (resolvedRevision == null) {
+            return new BaselineComparison(null, Collections.<MetricComparison> emptyList());
+        }
+
+        final List<RunRecord> baselineRuns = new ArrayList<>();
+        final List<RunRecord> currentRuns = new ArrayList<>();
+        for (RunRecord run : history) {
+            if (run.getRevision().equals(resolvedRevision)) {
+                baselineRuns.add(run);
+            } else if (run.getRevision().equals(current.getRevision()) && !GitRevision.isUncommitted(current.getRevision())) {
+                currentRuns.add(run);
+            }
+        }
+        currentRuns.add(current);
+
+        final List<MetricComparison> comparisons = new ArrayList<>();
+        for (Map.Entry<Metric, Double> metric : current.getMetrics().entrySet()) {
+            final double[] baselineValues = getValues(baselineRuns, metric.getKey(), runs);
+            if (baselineValues.length > 0) {
+                comparisons.add(MetricComparison.compare(metric.getKey(), baselineValues, getValues(currentRuns, metric.getKey(), runs), thresholdPercent));
+            }
+        }
+        return new BaselineComparison(resolvedRevision, comparisons);
+    }
+
+    /**
+     * Get the revision against which the run was compared.
+     * 
+     * @return The revision against which the run was compared, or {@code null} if no runs of a baseline revision have been recorded.
+     */
+    public String getBaselineRevision() {
+        return baselineRevision;
+    }
+
+    /**
+     * Get the comparisons of the metrics of the run.
+     * 
+     * @return A {@link List} of the {@link MetricComparison} objects of each metric of the run that was also recorded by the baseline.
+     */
+    public List<MetricComparison> getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * Get the metrics that regressed.
+     * 
+     * @return A {@link List} of the {@link MetricComparison} objects whose verdict is a {@link Verdict#REGRESSION}.
+     */
+    public List<MetricComparison> getRegressions() {
+        final List<MetricComparison> regressions = new ArrayList<>();
+        for (MetricComparison comparison : comparisons) {
+            if (Verdict.REGRESSION.equals(comparison.getVerdict())) {
+                regressions.add(comparison);
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Resolve the revision against which a run is to be compared.
+     * 
+     * @param history
+     *            A {@link List} of the {@link RunRecord} objects of the earlier runs, from the oldest to the most recent.
+     * @param currentRevision
+     *            The revision of the run.
+     * @param baselineRevision
+     *            The revision, or a prefix of it, against which the run is to be compared, or {@code null} to use the most recent committed revision other than that of the run.
+     * @return The baseline revision, or {@code null} if none has been recorded.
+     */
+    private static String resolveBaselineRevision(List<RunRecord> history, String currentRevision, String baselineRevision) {
+        for (int i = history.size() - 1; i >= 0; i--) {
+            final String revision = history.get(i).getRevision();
+            if (baselineRevision == null ? !GitRevision.isUncommitted(revision) && !revision.equals(currentRevision) : revision.startsWith(baselineRevision)) {
+                return revision;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the most recent values of a metric.
+     * 
+     * @param records
+     *            A {@link List} of the {@link RunRecord} objects from which the values are to be read, from the oldest to the most recent.
+     * @param metric
+     *            The {@link Metric} whose values are to be read.
+     * @param limit
+     *            The greatest number of values to be read.
+     * @return The most recent values of the metric, from the oldest to the most recent.
+     */
+    private static double[] getValues(List<RunRecord> records, Metric metric, int limit) {
+        final List<Double> values = new ArrayList<>();
+        for (RunRecord record : records) {
+            final Double value = record.getMetrics().get(metric);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        final List<Double> recent = values.subList(Math.max(0, values.size() - limit), values.size());
+        final double[] array = new double[recent.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = recent.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Computes the fingerprint of what a run measured: the properties of an agent's configuration and the parameters of the goal that measured it. Only runs with the same fingerprint are
+ * compared, so a change to either starts a new history rather than being reported as a regression.
+ * <p />
+ * Properties named {@code port} are left out, as the ports allocated to a configuration template differ from build to build.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ConfigFingerprint {
+    private static final int LENGTH = 16;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ConfigFingerprint() {
+    }
+
+    /**
+     * Compute a fingerprint.
+     * 
+     * @param configFile
+     *            The configuration file with which the agent was started.
+     * @param parameters
+     *            A {@link Map} of the names of the parameters of the goal to their values.
+     * @return The first {@value #LENGTH} hexadecimal digits of the SHA-256 digest of the configuration and parameters.
+     * @throws IOException
+     *             If the configuration file cannot be read.
+     */
+    public static String of(File configFile, Map<String, String> parameters) throws IOException {
+        final Properties properties = new Properties();
+        try (final InputStream configIn = Files.newInputStream(configFile.toPath())) {
+            properties.load(configIn);
+        }
+        final Map<String, String> sorted = new TreeMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (!name.equals("port") && !name.endsWith(".port")) {
+                sorted.put("config:" + name, properties.getProperty(name).trim());
+            }
+        }
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            sorted.put("parameter:" + parameter.getKey(), String.valueOf(parameter.getValue()));
+        }
+        return digest(sorted);
+    }
+
+    /**
+     * Digest sorted names and values.
+     * 
+     * @param sorted
+     *            A {@link Map} of names to values, in the order in which they are to be digested.
+     * @return The first {@value #LENGTH} hexadecimal digits of the SHA-256 digest of the names and values.
+     */
+    private static String digest(Map<String, String> sorted) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM.", e);
+        }
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            digest.update((entry.getKey() + "=" + entry.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        final StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.substring(0, LENGTH);
+    }
+}
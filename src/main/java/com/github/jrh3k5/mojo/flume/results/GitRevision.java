@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Determines the git revision of a project, under which its runs are stored.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class GitRevision {
+    /**
+     * The revision of a project that is not in a git working tree, or whose revision cannot be determined.
+     */
+    public static final String UNKNOWN = "unknown";
+    /**
+     * The suffix of the revision of a working tree with uncommitted changes to tracked files.
+     */
+    public static final String DIRTY_SUFFIX = "-dirty";
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private GitRevision() {
+    }
+
+    /**
+     * Describe the revision checked out in a directory.
+     * 
+     * @param directory
+     *            The directory of the project.
+     * @return The commit checked out, followed by {@link #DIRTY_SUFFIX} if tracked files have uncommitted changes; {@link #UNKNOWN} if it cannot be determined.
+     */
+    public static String describe(File directory) {
+        try {
+            final String commit = git(directory, "rev-parse", "HEAD");
+            if (commit.isEmpty()) {
+                return UNKNOWN;
+            }
+            return git(directory, "status", "--porcelain", "--untracked-files=no").isEmpty() ? commit : commit + DIRTY_SUFFIX;
+        } catch (IOException e) {
+            return UNKNOWN;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Determine whether a revision has uncommitted changes.
+     * 
+     * @param revision
+     *            The revision.
+     * @return {@code true} if the revision is of a working tree with uncommitted changes, or is {@link #UNKNOWN}; {@code false} if it is a commit.
+     */
+    public static boolean isUncommitted(String revision) {
+        return UNKNOWN.equals(revision) || revision.endsWith(DIRTY_SUFFIX);
+    }
+
+    /**
+     * Run a git command.
+     * 
+     * @param directory
+     *            The directory in which the command is to be run.
+     * @param arguments
+     *            The arguments of the command.
+     * @return The trimmed output of the command.
+     * @throws IOException
+     *             If git cannot be run or fails.
+     * @throws InterruptedException
+     *             If interrupted while waiting for git.
+     */
+    private static String git(File directory, String... arguments) throws IOException, InterruptedException {
+        final String[] command = new String[arguments.length + 1];
+        command[0] = "git";
+        System.arraycopy(arguments, 0, command, 1, arguments.length);
+        final Process process = new ProcessBuilder(command).directory(directory).redirectErrorStream(true).start();
+        final String output;
+        try (final InputStream processOut = process.getInputStream()) {
+            output = IOUtils.toString(processOut, StandardCharsets.UTF_8).trim();
+        }
+        if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IOException("Timed out running: " + Arrays.asList(command));
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException(String.format("%s exited with %d: %s", Arrays.asList(command), process.exitValue(), output));
+        }
+        return output;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+/**
+ * Enumerations of the measurements of a run that are stored in a {@link ResultsStore} and compared against a baseline, each with the direction in which it gets better.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public enum Metric {
+    /**
+     * The sustained number of events accepted per second by an agent under closed-loop load.
+     */
+    EVENTS_PER_SECOND("eventsPerSecond", "events/s", true),
+    /**
+     * The median time, in milliseconds, an agent under closed-loop load took to accept a batch.
+     */
+    BATCH_LATENCY_P50_MILLIS("batchLatencyP50Millis", "ms", false),
+    /**
+     * The 99th percentile of the time, in milliseconds, an agent under closed-loop load took to accept a batch.
+     */
+    BATCH_LATENCY_P99_MILLIS("batchLatencyP99Millis", "ms", false),
+    /**
+     * The median end-to-end latency, in milliseconds, of the events sent to an agent at a fixed rate.
+     */
+    LATENCY_P50_MILLIS("latencyP50Millis", "ms", false),
+    /**
+     * The 99th percentile of the end-to-end latency, in milliseconds, of the events sent to an agent at a fixed rate.
+     */
+    LATENCY_P99_MILLIS("latencyP99Millis", "ms", false),
+    /**
+     * The 99.9th percentile of the end-to-end latency, in milliseconds, of the events sent to an agent at a fixed rate.
+     */
+    LATENCY_P999_MILLIS("latencyP999Millis", "ms", false);
+
+    private final String key;
+    private final String unit;
+    private final boolean higherIsBetter;
+
+    /**
+     * Create a metric.
+     * 
+     * @param key
+     *            The name under which the metric is stored.
+     * @param unit
+     *            The unit in which the metric is reported.
+     * @param higherIsBetter
+     *            {@code true} if a higher value is better; {@code false} if a lower one is.
+     */
+    private Metric(String key, String unit, boolean higherIsBetter) {
+        this.key = key;
+        this.unit = unit;
+        this.higherIsBetter = higherIsBetter;
+    }
+
+    /**
+     * Get the metric stored under a name.
+     * 
+     * @param key
+     *            The name under which the metric is stored.
+     * @return The {@link Metric} stored under the given name, or {@code null} if there is none, such as one stored by a later version of the plugin.
+     */
+    public static Metric forKey(String key) {
+        for (Metric metric : values()) {
+            if (metric.key.equals(key)) {
+                return metric;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the name under which the metric is stored.
+     * 
+     * @return The name under which the metric is stored.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Get the unit in which the metric is reported.
+     * 
+     * @return The unit in which the metric is reported.
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Determine the direction in which the metric gets better.
+     * 
+     * @return {@code true} if a higher value is better; {@code false} if a lower one is.
+     */
+    public boolean isHigherBetter() {
+        return higherIsBetter;
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+import java.util.Locale;
+
+/**
+ * The comparison of a metric of the runs of the current revision against the runs of a baseline revision. The difference between their means is given with a 95% confidence interval: from
+ * Welch's t-test if both revisions have at least two runs, or assuming the revision with one run varies as much as the other if only one of them does. A change is significant if the interval
+ * does not contain zero, and only a significant change of at least the regression threshold is reported as a {@link Verdict#REGRESSION} or {@link Verdict#IMPROVEMENT}, since the run-to-run
+ * noise of a benchmark can make even a small, real change significant.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class MetricComparison {
+    /**
+     * The two-sided 97.5th percentiles of Student's t-distribution, for 1 to 30 degrees of freedom.
+     */
+    private static final double[] T_975 = { 12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228, 2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086, 2.080,
+            2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042 };
+    private static final double Z_975 = 1.960;
+
+    private final Metric metric;
+    private final int baselineRuns;
+    private final int currentRuns;
+    private final double baselineMean;
+    private final double currentMean;
+    private final double changePercent;
+    private final double lowerPercent;
+    private final double upperPercent;
+    private final Verdict verdict;
+
+    /**
+     * Create a comparison.
+     * 
+     * @param metric
+     *            The {@link Metric} compared.
+     * @param baselineRuns
+     *            The number of runs of the baseline.
+     * @param currentRuns
+     *            The number of runs of the current revision.
+     * @param baselineMean
+     *            The mean of the metric over the runs of the baseline.
+     * @param currentMean
+     *            The mean of the metric over the runs of the current revision.
+     * @param lowerPercent
+     *            The lower bound of the confidence interval of the change, in percent of the baseline mean, or {@link Double#NaN} if there is none.
+     * @param upperPercent
+     *            The upper bound of the confidence interval of the change, in percent of the baseline mean, or {@link Double#NaN} if there is none.
+     * @param verdict
+     *            The {@link Verdict} of the comparison.
+     */
+    private MetricComparison(Metric metric, int baselineRuns, int currentRuns, double baselineMean, double currentMean, double lowerPercent, double upperPercent, Verdict verdict) {
+        this.metric = metric;
+        this.baselineRuns = baselineRuns;
+        this.currentRuns = currentRuns;
+        this.baselineMean = baselineMean;
+        this.currentMean = currentMean;
+        this.changePercent = baselineMean == 0 ? Double.NaN : (currentMean - baselineMean) * 100.0 / baselineMean;
+        this.lowerPercent = lowerPercent;
+        this.upperPercent = upperPercent;
+        this.verdict = verdict;
+    }
+
+    /**
+     * Compare the values of a metric.
+     * 
+     * @param metric
+     *            The {@link Metric} to be compared.
+     * @param baseline
+     *            The values of the metric in the runs of the baseline; there must be at least one.
+     * @param current
+     *            The values of the metric in the runs of the current revision; there must be at least one.
+     * @param thresholdPercent
+     *            The smallest change, in percent of the baseline mean, that is reported as a regression or improvement.
+     * @return A {@link MetricComparison}.
+     * @throws IllegalArgumentException
+     *             If either revision has no values.
+     */
+    public static MetricComparison compare(Metric metric, double[] baseline, double[] current, double thresholdPercent) {
+        if (baseline.length == 0 || current.length == 0) {
+            throw new IllegalArgumentException("Both the baseline and the current revision must have at least one value of " + metric.getKey());
+        }
+        final double baselineMean = mean(baseline);
+        final double currentMean = mean(current);
+        if (baselineMean == 0 || (baseline.length < 2 && current.length < 2)) {
+            return new MetricComparison(metric, baseline.length, current.length, baselineMean, currentMean, Double.NaN, Double.NaN, Verdict.INCONCLUSIVE);
+        }
+
+        final double standardError;
+        final double degreesOfFreedom;
+        if (baseline.length >= 2 && current.length >= 2) {
+            final double baselineTerm = variance(baseline, baselineMean) / baseline.length;
+            final double currentTerm = variance(current, currentMean) / current.length;
+            standardError = Math.sqrt(baselineTerm + currentTerm);
+            // The Welch-Satterthwaite approximation
+            final double denominator = baselineTerm * baselineTerm / (baseline.length - 1) + currentTerm * currentTerm / (current.length - 1);
+            degreesOfFreedom = denominator == 0 ? baseline.length + current.length - 2 : Math.pow(baselineTerm + currentTerm, 2) / denominator;
+        } else {
+            final double[] sampled = baseline.length >= 2 ? baseline : current;
+            standardError = Math.sqrt(variance(sampled, mean(sampled)) * (1.0 / baseline.length + 1.0 / current.length));
+            degreesOfFreedom = sampled.length - 1;
+        }
+        final double difference = currentMean - baselineMean;
+        final double margin = getT975(degreesOfFreedom) * standardError;
+        final double lowerPercent = (difference - margin) * 100.0 / Math.abs(baselineMean);
+        final double upperPercent = (difference + margin) * 100.0 / Math.abs(baselineMean);
+
+        final Verdict verdict;
+        final double changePercent = difference * 100.0 / Math.abs(baselineMean);
+        if ((lowerPercent > 0 || upperPercent < 0) && Math.abs(changePercent) >= thresholdPercent) {
+            verdict = (changePercent > 0) == metric.isHigherBetter() ? Verdict.IMPROVEMENT : Verdict.REGRESSION;
+        } else {
+            verdict = Verdict.UNCHANGED;
+        }
+        return new MetricComparison(metric, baseline.length, current.length, baselineMean, currentMean, lowerPercent, upperPercent, verdict);
+    }
+
+    /**
+     * Get the 97.5th percentile of Student's t-distribution.
+     * <p />
+     * This is intentionally made package-private to expose it for testing purposes.
+     * 
+     * @param degreesOfFreedom
+     *            The degrees of freedom, which are rounded down so that the interval is never too narrow.
+     * @return The 97.5th percentile of Student's t-distribution with the given degrees of freedom.
+     */
+    static double getT975(double degreesOfFreedom) {
+        final int whole = (int) Math.floor(degreesOfFreedom);
+        if (whole < 1) {
+            return T_975[0];
+        }
+        if (whole <= T_975.length) {
+            return T_975[whole - 1];
+        }
+        // Beyond the table, the percentile approaches that of the normal distribution roughly in proportion to 1 / df
+        return Z_975 + (T_975[T_975.length - 1] - Z_975) * T_975.length / whole;
+    }
+
+    /**
+     * Get the metric compared.
+     * 
+     * @return The {@link Metric} compared.
+     */
+    public Metric getMetric() {
+        return metric;
+    }
+
+    /**
+     * Get the number of runs of the baseline.
+     * 
+     * @return The number of runs of the baseline.
+     */
+    public int getBaselineRuns() {
+        return baselineRuns;
+    }
+
+    /**
+     * Get the number of runs of the current revision.
+     * 
+     * @return The number of runs of the current revision, including the run just made.
+     */
+    public int getCurrentRuns() {
+        return currentRuns;
+    }
+
+    /**
+     * Get the mean of the metric over the runs of the baseline.
+     * 
+     * @return The mean of the metric over the runs of the baseline.
+     */
+    public double getBaselineMean() {
+        return baselineMean;
+    }
+
+    /**
+     * Get the mean of the metric over the runs of the current revision.
+     * 
+     * @return The mean of the metric over the runs of the current revision.
+     */
+    public double getCurrentMean() {
+        return currentMean;
+    }
+
+    /**
+     * Get the change of the metric.
+     * 
+     * @return The change of the mean of the metric, in percent of the baseline mean.
+     */
+    public double getChangePercent() {
+        return changePercent;
+    }
+
+    /**
+     * Get the lower bound of the 95% confidence interval of the change.
+     * 
+     * @return The lower bound of the confidence interval of the change, in percent of the baseline mean, or {@link Double#NaN} if the comparison is {@link Verdict#INCONCLUSIVE}.
+     */
+    public double getLowerPercent() {
+        return lowerPercent;
+    }
+
+    /**
+     * Get the upper bound of the 95% confidence interval of the change.
+     * 
+     * @return The upper bound of the confidence interval of the change, in percent of the baseline mean, or {@link Double#NaN} if the comparison is {@link Verdict#INCONCLUSIVE}.
+     */
+    public double getUpperPercent() {
+        return upperPercent;
+    }
+
+    /**
+     * Get the verdict of the comparison.
+     * 
+     * @return The {@link Verdict} of the comparison.
+     */
+    public Verdict getVerdict() {
+        return verdict;
+    }
+
+    @Override
+    public String toString() {
+        final String interval = Double.isNaN(lowerPercent) ? "no confidence interval" : String.format(Locale.ROOT, "95%% CI %+.1f%% to %+.1f%%", lowerPercent, upperPercent);
+        return String.format(Locale.ROOT, "%s: %.2f %s over %d run(s) against %.2f %s over %d baseline run(s), %+.1f%% (%s): %s", metric.getKey(), currentMean, metric.getUnit(), currentRuns,
+                baselineMean, metric.getUnit(), baselineRuns, changePercent, interval, verdict);
+    }
+
+    /**
+     * Get the mean of values.
+     * 
+     * @param values
+     *            The values.
+     * @return The mean of the values.
+     */
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    /**
+     * Get the sample variance of values.
+     * 
+     * @param values
+     *            At least two values.
+     * @param mean
+     *            The mean of the values.
+     * @return The sample variance of the values.
+     */
+    private static double variance(double[] values, double mean) {
+        double sumOfSquares = 0;
+        for (double value : values) {
+            sumOfSquares += (value - mean) * (value - mean);
+        }
+        return sumOfSquares / (values.length - 1);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A local store of the measurements of runs, kept across builds so that each run can be compared against those of earlier revisions. Runs are appended, one line each (see
+ * {@link RunRecord}), to {@code results.tsv} in the store's directory, which can be kept under version control or cached between builds.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ResultsStore {
+    /**
+     * The name of the file to which runs are appended.
+     */
+    static final String FILE_NAME = "results.tsv";
+
+    private final File file;
+
+    /**
+     * Create a store.
+     * 
+     * @param directory
+     *            The directory in which the runs are stored.
+     */
+    public ResultsStore(File directory) {
+        this.file = new File(directory, FILE_NAME);
+    }
+
+    /**
+     * Get the file to which runs are appended.
+     * 
+     * @return The {@link File} to which runs are appended.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Append a run to the store.
+     * 
+     * @param run
+     *            The {@link RunRecord} to be stored.
+     * @throws IOException
+     *             If the run cannot be written.
+     */
+    public synchronized void append(RunRecord run) throws IOException {
+        if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Failed to create directory: " + file.getParentFile());
+        }
+        Files.write(file.toPath(), (run.toLine() + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Read the stored runs of a goal and agent with a configuration.
+     * 
+     * @param key
+     *            The name of the goal and agent measured, such as {@code load/a1}.
+     * @param fingerprint
+     *            The fingerprint of the configuration measured.
+     * @return A {@link List} of the {@link RunRecord} objects of the given goal, agent, and configuration, in the order in which they were stored; empty if nothing has been stored.
+     * @throws IOException
+     *             If the store cannot be read or a line of it is not a stored run.
+     */
+    public synchronized List<RunRecord> read(String key, String fingerprint) throws IOException {
+        final List<RunRecord> runs = new ArrayList<>();
+        if (!file.isFile()) {
+            return runs;
+        }
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            final RunRecord run = RunRecord.parse(line);
+            if (run.getKey().equals(key) && run.getFingerprint().equals(fingerprint)) {
+                runs.add(run);
+            }
+        }
+        return runs;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The measurements of one run of a goal against an agent, as stored in a {@link ResultsStore}.
+ * <p />
+ * A run is stored as a single tab-separated line: the time at which it finished, in milliseconds since the epoch; the revision of the project; the fingerprint of the agent's configuration
+ * and the goal's parameters; the name of the goal and agent measured; and the measurements, as comma-separated {@code NAME=VALUE} pairs.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class RunRecord {
+    private final long timestampMillis;
+    private final String revision;
+    private final String fingerprint;
+    private final String key;
+    private final Map<Metric, Double> metrics;
+
+    /**
+     * Create a record.
+     * 
+     * @param timestampMillis
+     *            The time at which the run finished, in milliseconds since the epoch.
+     * @param revision
+     *            The revision of the project measured.
+     * @param fingerprint
+     *            The fingerprint of the agent's configuration and the goal's parameters.
+     * @param key
+     *            The name of the goal and agent measured, such as {@code load/a1}.
+     * @param metrics
+     *            A {@link Map} of each {@link Metric} measured to its value.
+     */
+    public RunRecord(long timestampMillis, String revision, String fingerprint, String key, Map<Metric, Double> metrics) {
+        this.timestampMillis = timestampMillis;
+        this.revision = sanitize(revision);
+        this.fingerprint = sanitize(fingerprint);
+        this.key = sanitize(key);
+        this.metrics = Collections.unmodifiableMap(metrics.isEmpty() ? new EnumMap<>(Metric.class) : new EnumMap<>(metrics));
+    }
+
+    /**
+     * Parse a stored line.
+     * 
+     * @param line
+     *            The line to be parsed.
+     * @return The {@link RunRecord} stored in the line.
+     * @throws IOException
+     *             If the line is not a stored run.
+     */
+    static RunRecord parse(String line) throws IOException {
+        final String[] fields = line.split("\t", -1);
+        if (fields.length != 5) {
+            throw new IOException("Not a stored run: " + line);
+        }
+        final Map<Metric, Double> metrics = new EnumMap<>(Metric.class);
+        try {
+            for (String pair : fields[4].split(",")) {
+                final int separator = pair.indexOf('=');
+                final Metric metric = separator < 0 ? null : Metric.forKey(pair.substring(0, separator));
+                if (metric != null) {
+                    metrics.put(metric, Double.valueOf(pair.substring(separator + 1)));
+                }
+            }
+            return new RunRecord(Long.parseLong(fields[0]), fields[1], fields[2], fields[3], metrics);
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a stored run: " + line, e);
+        }
+    }
+
+    /**
+     * Get the time at which the run finished.
+     * 
+     * @return The time at which the run finished, in milliseconds since the epoch.
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Get the revision of the project measured.
+     * 
+     * @return The revision of the project measured.
+     */
+    public String getRevision() {
+        return revision;
+    }
+
+    /**
+     * Get the fingerprint of the agent's configuration and the goal's parameters; only runs with the same fingerprint are compared.
+     * 
+     * @return The fingerprint of the run's configuration.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Get the name of the goal and agent measured.
+     * 
+     * @return The name of the goal and agent measured, such as {@code load/a1}.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Get the measurements of the run.
+     * 
+     * @return A {@link Map} of each {@link Metric} measured to its value.
+     */
+    public Map<Metric, Double> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Format the run as it is stored.
+     * 
+     * @return The line in which the run is stored, without a line separator.
+     */
+    String toLine() {
+        final StringBuilder line = new StringBuilder().append(timestampMillis).append('\t').append(revision).append('\t').append(fingerprint).append('\t').append(key).append('\t');
+        boolean first = true;
+        for (Map.Entry<Metric, Double> metric : metrics.entrySet()) {
+            if (!first) {
+                line.append(',');
+            }
+            first = false;
+            line.append(metric.getKey().getKey()).append('=').append(String.format(Locale.ROOT, "%.6g", metric.getValue()));
+        }
+        return line.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "RunRecord[" + toLine() + "]";
+    }
+
+    /**
+     * Remove the characters that separate the fields and runs of the store from a field.
+     * 
+     * @param field
+     *            The field to be sanitized.
+     * @return The field, with any tab, comma, or line break replaced by a space.
+     */
+    private static String sanitize(String field) {
+        return field.replaceAll("[\\t\\r\\n,]", " ");
+    }
+}
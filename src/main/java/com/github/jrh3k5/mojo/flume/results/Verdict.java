@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+/**
+ * Enumerations of the outcomes of comparing a metric of a run against its baseline.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public enum Verdict {
+    /**
+     * The metric got significantly worse, by at least the regression threshold.
+     */
+    REGRESSION,
+    /**
+     * The metric got significantly better, by at least the regression threshold.
+     */
+    IMPROVEMENT,
+    /**
+     * The metric did not change significantly, or changed by less than the regression threshold.
+     */
+    UNCHANGED,
+    /**
+     * There were too few runs to tell how much the metric varies from run to run.
+     */
+    INCONCLUSIVE
+}
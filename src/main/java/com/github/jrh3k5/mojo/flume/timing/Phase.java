@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.timing;
+
+/**
+ * Enumerations of the phases of preparing and starting an agent that are timed by {@link PhaseTimings}, in the order in which they occur.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public enum Phase {
+    /**
+     * Waiting for another agent to finish caching the Flume archive.
+     */
+    CACHE_WAIT("cacheWait"),
+    /**
+     * Hashing the cached Flume archive to verify it.
+     */
+    HASH("hash"),
+    /**
+     * Downloading the Flume archive into the cache.
+     */
+    DOWNLOAD("download"),
+    /**
+     * Un-GZIPping the Flume archive into the agent's directory.
+     */
+    GUNZIP("gunzip"),
+    /**
+     * Extracting the Flume installation from the un-GZIPped archive.
+     */
+    UNTAR("untar"),
+    /**
+     * Rendering the agent's configuration file.
+     */
+    RENDER_CONFIG("renderConfig"),
+    /**
+     * Building the dependency graph of the project to find the agent's Flume plugins.
+     */
+    DEPENDENCY_GRAPH("dependencyGraph"),
+    /**
+     * Resolving the artifacts of the agent's Flume plugins.
+     */
+    PLUGIN_RESOLUTION("pluginResolution"),
+    /**
+     * Extracting the agent's Flume plugins into its installation.
+     */
+    PLUGIN_EXTRACTION("pluginExtraction"),
+    /**
+     * Copying the agent's logging properties into its installation.
+     */
+    LOGGING_PROPERTIES("loggingProperties"),
+    /**
+     * Estimating the heap needed by the agent's channels.
+     */
+    HEAP_SIZING("heapSizing"),
+    /**
+     * Writing the agent's {@code flume-env.sh}.
+     */
+    WRITE_ENVIRONMENT("writeEnvironment"),
+    /**
+     * Removing libraries from the agent's installation.
+     */
+    REMOVE_LIBS("removeLibs"),
+    /**
+     * Validating the agent's configuration with the configuration classes of its installation.
+     */
+    VALIDATION("validation"),
+    /**
+     * Starting the captures that receive the agent's events.
+     */
+    CAPTURES("captures"),
+    /**
+     * Starting the agent's process.
+     */
+    SPAWN("spawn"),
+    /**
+     * Waiting for the agent to start accepting connections on its sources' ports.
+     */
+    READINESS("readiness");
+
+    private final String key;
+
+    /**
+     * Create a phase.
+     * 
+     * @param key
+     *            The name under which the phase is reported.
+     */
+    private Phase(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Get the name under which the phase is reported.
+     * 
+     * @return The name under which the phase is reported.
+     */
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.timing;
+
+import static com.github.jrh3k5.mojo.flume.process.MetricsSummary.quote;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A breakdown, per agent, of the time spent in each {@link Phase} of preparing and starting the agents of a goal, preceded by that of caching the Flume archive before the agents were prepared.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class PhaseTimingReport {
+    private final Instant recordedAt;
+    private final PhaseTimings archiveTimings;
+    private final List<PhaseTimings> timings;
+
+    /**
+     * Create a report of the agents alone.
+     * 
+     * @param recordedAt
+     *            The {@link Instant} at which the timings were recorded.
+     * @param timings
+     *            A {@link List} of the {@link PhaseTimings} of the agents, in the order in which they are to be reported.
+     */
+    public PhaseTimingReport(Instant recordedAt, List<PhaseTimings> timings) {
+        this(recordedAt, null, timings);
+    }
+
+    /**
+     * Create a report.
+     * 
+     * @param recordedAt
+     *            The {@link Instant} at which the timings were recorded.
+     * @param archiveTimings
+     *            The {@link PhaseTimings} of caching the Flume archive before the agents were prepared, or {@code null} if it was not cached beforehand.
+     * @param timings
+     *            A {@link List} of the {@link PhaseTimings} of the agents, in the order in which they are to be reported.
+     */
+    public PhaseTimingReport(Instant recordedAt, PhaseTimings archiveTimings, List<PhaseTimings> timings) {
+        this.recordedAt = recordedAt;
+        this.archiveTimings = archiveTimings;
+        this.timings = Collections.unmodifiableList(new ArrayList<>(timings));
+    }
+
+    /**
+     * Describe the timings of the archive and each agent as tables, one phase to a line.
+     * 
+     * @return A {@link List} of the lines of the tables, each starting with a heading that gives the elapsed time and the time spent in all phases.
+     */
+    public List<String> toTable() {
+        final List<String> lines = new ArrayList<>();
+        if (archiveTimings != null) {
+            lines.add(String.format(Locale.ROOT, "The Flume archive was cached in %.1f ms:", toMillis(archiveTimings.getElapsedNanos())));
+            addPhaseLines(lines, archiveTimings);
+        }
+        for (PhaseTimings agentTimings : timings) {
+            lines.add(String.format(Locale.ROOT, "Agent %s was prepared and started in %.1f ms (%.1f ms across its phases):", agentTimings.getAgentName(),
+                    toMillis(agentTimings.getElapsedNanos()), toMillis(agentTimings.getTotalNanos())));
+            addPhaseLines(lines, agentTimings);
+        }
+        return lines;
+    }
+
+    /**
+     * Describe the timings of each agent as JSON.
+     * 
+     * @return A JSON object whose {@code archive} is the timings of caching the archive ({@code null} if it was not cached beforehand) and whose {@code agents} are the timings of each
+     *         agent, each with its {@code elapsedMillis}, its {@code totalMillis} across all phases, and the {@code millis}, {@code bytes}, and {@code files} of each of its recorded phases.
+     */
+    public String toJson() {
+        final StringBuilder json = new StringBuilder("{").append(quote("recordedAt")).append(':').append(quote(recordedAt.toString()));
+        json.append(',').append(quote("archive")).append(':');
+        if (archiveTimings == null) {
+            json.append("null");
+        } else {
+            json.append('{');
+            appendPhaseJson(json, archiveTimings);
+            json.append('}');
+        }
+        json.append(',').append(quote("agents")).append(":[");
+        boolean firstAgent = true;
+        for (PhaseTimings agentTimings : timings) {
+            if (!firstAgent) {
+                json.append(',');
+            }
+            firstAgent = false;
+            json.append('{').append(quote("agent")).append(':').append(quote(agentTimings.getAgentName())).append(',');
+            appendPhaseJson(json, agentTimings);
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Describe each recorded phase of timings as a line of a table.
+     * 
+     * @param lines
+     *            The {@link List} to which the lines are to be added.
+     * @param phaseTimings
+     *            The {@link PhaseTimings} whose phases are to be described.
+     */
+    private static void addPhaseLines(List<String> lines, PhaseTimings phaseTimings) {
+        for (Map.Entry<Phase, Long> phase : phaseTimings.getNanos().entrySet()) {
+            final long bytes = phaseTimings.getBytes(phase.getKey());
+            final int files = phaseTimings.getFiles(phase.getKey());
+            lines.add(String.format(Locale.ROOT, "  %-18s %10.1f ms %11s %11s", phase.getKey().getKey(), toMillis(phase.getValue()),
+                    bytes == 0 ? "" : String.format(Locale.ROOT, "%.2f MB", bytes / (1024.0 * 1024.0)), files == 0 ? "" : String.format(Locale.ROOT, "%d file(s)", files)));
+        }
+    }
+
+    /**
+     * Describe the elapsed and total times and each recorded phase of timings as the members of a JSON object.
+     * 
+     * @param json
+     *            The {@link StringBuilder} to which the members are to be appended.
+     * @param phaseTimings
+     *            The {@link PhaseTimings} to be described.
+     */
+    private static void appendPhaseJson(StringBuilder json, PhaseTimings phaseTimings) {
+        json.append(quote("elapsedMillis")).append(':').append(String.format(Locale.ROOT, "%.3f", toMillis(phaseTimings.getElapsedNanos())));
+        json.append(',').append(quote("totalMillis")).append(':').append(String.format(Locale.ROOT, "%.3f", toMillis(phaseTimings.getTotalNanos())));
+        json.append(',').append(quote("phases")).append(":{");
+        boolean firstPhase = true;
+        for (Map.Entry<Phase, Long> phase : phaseTimings.getNanos().entrySet()) {
+            if (!firstPhase) {
+                json.append(',');
+            }
+            firstPhase = false;
+            json.append(quote(phase.getKey().getKey())).append(":{");
+            json.append(quote("millis")).append(':').append(String.format(Locale.ROOT, "%.3f", toMillis(phase.getValue())));
+            json.append(',').append(quote("bytes")).append(':').append(phaseTimings.getBytes(phase.getKey()));
+            json.append(',').append(quote("files")).append(':').append(phaseTimings.getFiles(phase.getKey())).append('}');
+        }
+        json.append('}');
+    }
+
+    /**
+     * Convert nanoseconds to milliseconds.
+     * 
+     * @param nanos
+     *            The amount of time, in nanoseconds, to be converted.
+     * @return The amount of time in milliseconds.
+     */
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+}
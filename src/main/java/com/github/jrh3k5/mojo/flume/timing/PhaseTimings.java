@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.timing;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The time spent by an agent in each {@link Phase} of being prepared and started, with the number of bytes and files each phase processed. A phase that is timed more than once, such as the
+ * extraction of each of several plugins, accumulates all of its timings. Phases can run concurrently, so the time spent in all phases can exceed the {@link #getElapsedNanos() elapsed} time.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class PhaseTimings {
+    private final String agentName;
+    private final Map<Phase, Counters> counters = new EnumMap<>(Phase.class);
+    private boolean timed;
+    private long firstStartNanos;
+    private long lastEndNanos;
+
+    /**
+     * Create timings.
+     * 
+     * @param agentName
+     *            The name of the agent whose phases are timed, or {@code null} if they are not an agent's, such as those of caching the Flume archive.
+     */
+    public PhaseTimings(String agentName) {
+        this.agentName = agentName;
+    }
+
+    /**
+     * Get the name of the agent whose phases are timed.
+     * 
+     * @return The name of the agent, or {@code null} if the phases are not an agent's.
+     */
+    public String getAgentName() {
+        return agentName;
+    }
+
+    /**
+     * Start timing a phase. The phase is recorded when the returned timer is closed.
+     * 
+     * @param phase
+     *            The {@link Phase} to be timed.
+     * @return A {@link Timer} to be closed when the phase is complete.
+     */
+    public Timer start(Phase phase) {
+        return new Timer(phase, System.nanoTime());
+    }
+
+    /**
+     * Record an occurrence of a phase.
+     * 
+     * @param phase
+     *            The {@link Phase} that occurred.
+     * @param nanos
+     *            The amount of time, in nanoseconds, that the phase took.
+     * @param bytes
+     *            The number of bytes processed by the phase.
+     * @param files
+     *            The number of files processed by the phase.
+     */
+    public synchronized void record(Phase phase, long nanos, long bytes, int files) {
+        Counters phaseCounters = counters.get(phase);
+        if (phaseCounters == null) {
+            phaseCounters = new Counters();
+            counters.put(phase, phaseCounters);
+        }
+        phaseCounters.nanos += nanos;
+        phaseCounters.bytes += bytes;
+        phaseCounters.files += files;
+    }
+
+    /**
+     * Record an occurrence of a phase timed by a {@link Timer}, extending the elapsed time to include it.
+     * 
+     * @param phase
+     *            The {@link Phase} that occurred.
+     * @param startNanos
+     *            The {@link System#nanoTime()} at which the phase started.
+     * @param endNanos
+     *            The {@link System#nanoTime()} at which the phase ended.
+     * @param bytes
+     *            The number of bytes processed by the phase.
+     * @param files
+     *            The number of files processed by the phase.
+     */
+    private synchronized void record(Phase phase, long startNanos, long endNanos, long bytes, int files) {
+        record(phase, endNanos - startNanos, bytes, files);
+        if (!timed || startNanos - firstStartNanos < 0) {
+            firstStartNanos = startNanos;
+        }
+        if (!timed || endNanos - lastEndNanos > 0) {
+            lastEndNanos = endNanos;
+        }
+        timed = true;
+    }
+
+    /**
+     * Get the phases that have been recorded.
+     * 
+     * @return A {@link Map} of each recorded {@link Phase}, in the order in which the phases occur, to the amount of time, in nanoseconds, spent in it.
+     */
+    public synchronized Map<Phase, Long> getNanos() {
+        final Map<Phase, Long> nanos = new EnumMap<>(Phase.class);
+        for (Map.Entry<Phase, Counters> phaseCounters : counters.entrySet()) {
+            nanos.put(phaseCounters.getKey(), phaseCounters.getValue().nanos);
+        }
+        return Collections.unmodifiableMap(nanos);
+    }
+
+    /**
+     * Get the number of bytes processed by a phase.
+     * 
+     * @param phase
+     *            The {@link Phase} whose bytes are to be retrieved.
+     * @return The number of bytes processed by the phase; {@code 0} if it has not been recorded.
+     */
+    public synchronized long getBytes(Phase phase) {
+        final Counters phaseCounters = counters.get(phase);
+        return phaseCounters == null ? 0 : phaseCounters.bytes;
+    }
+
+    /**
+     * Get the number of files processed by a phase.
+     * 
+     * @param phase
+     *            The {@link Phase} whose files are to be retrieved.
+     * @return The number of files processed by the phase; {@code 0} if it has not been recorded.
+     */
+    public synchronized int getFiles(Phase phase) {
+        final Counters phaseCounters = counters.get(phase);
+        return phaseCounters == null ? 0 : phaseCounters.files;
+    }
+
+    /**
+     * Get the total amount of time spent in all phases.
+     * 
+     * @return The amount of time, in nanoseconds, spent in all recorded phases.
+     */
+    public synchronized long getTotalNanos() {
+        long total = 0;
+        for (Counters phaseCounters : counters.values()) {
+            total += phaseCounters.nanos;
+        }
+        return total;
+    }
+
+    /**
+     * Get the wall-clock time from the start of the first phase timed by a {@link Timer} to the end of the last.
+     * 
+     * @return The elapsed time, in nanoseconds; {@code 0} if no phase has been timed by a {@link Timer}.
+     */
+    public synchronized long getElapsedNanos() {
+        return timed ? lastEndNanos - firstStartNanos : 0;
+    }
+
+    /**
+     * A timer of a single occurrence of a phase, which counts the bytes and files processed by it.
+     * 
+     * @author Joshua Hyde
+     * @since 3.1
+     */
+    public class Timer implements AutoCloseable {
+        private final Phase phase;
+        private final long startNanos;
+        private long bytes;
+        private int files;
+
+        /**
+         * Create a timer.
+         * 
+         * @param phase
+         *            The {@link Phase} being timed.
+         * @param startNanos
+         *            The {@link System#nanoTime()} at which the phase started.
+         */
+        private Timer(Phase phase, long startNanos) {
+            this.phase = phase;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Count bytes processed by the phase.
+         * 
+         * @param processed
+         *            The number of bytes processed.
+         */
+        public void addBytes(long processed) {
+            bytes += processed;
+        }
+
+        /**
+         * Count files processed by the phase.
+         * 
+         * @param processed
+         *            The number of files processed.
+         */
+        public void addFiles(int processed) {
+            files += processed;
+        }
+
+        /**
+         * Record the phase as having ended now.
+         */
+        @Override
+        public void close() {
+            record(phase, startNanos, System.nanoTime(), bytes, files);
+        }
+    }
+
+    /**
+     * The accumulated counters of a phase.
+     * 
+     * @author Joshua Hyde
+     * @since 3.1
+     */
+    private static class Counters {
+        private long nanos;
+        private long bytes;
+        private int files;
+    }
+}
@@ -18,6 +18,7 @@
 package com.github.jrh3k5.mojo.flume;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
@@ -26,14 +27,28 @@ import static org.powermock.api.mockito.PowerMockito.when;
 import static org.powermock.api.mockito.PowerMockito.whenNew;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.mutable.MutableBoolean;
@@ -48,19 +63,25 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
 import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.codehaus.plexus.archiver.tar.TarEntry;
+import org.codehaus.plexus.archiver.tar.TarOutputStream;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.stubbing.Answer;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.reflect.Whitebox;
 
+import com.github.jrh3k5.mojo.flume.config.HeapSizingPolicy;
 import com.github.jrh3k5.mojo.flume.io.ArchiveUtils;
 import com.github.jrh3k5.mojo.flume.io.FlumeArchiveCache;
 import com.github.jrh3k5.mojo.flume.io.FlumeCopier;
 import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.github.jrh3k5.mojo.flume.process.LaunchMode;
+import com.github.jrh3k5.mojo.flume.timing.Phase;
 
 /**
  * Unit tests for {@link AbstractFlumeAgentsMojo}.
@@ -74,6 +95,7 @@ import com.github.jrh3k5.mojo.flume.process.AgentProcess;
 public class AbstractFlumeAgentsMojoTest extends AbstractUnitTest {
     private final String flumeArchiveMd5 = UUID.randomUUID().toString();
     private final String javaOpts = "-Xmx20m";
+    private final String sharedJvmJavaOpts = "-Xmx64m";
     private final String agentName = UUID.randomUUID().toString();
     private final AbstractFlumeAgentsMojo mojo = new ConcreteMojo();
     @Mock
@@ -100,6 +122,8 @@ public class AbstractFlumeAgentsMojoTest extends AbstractUnitTest {
         when(agent.getAgentName()).thenReturn(agentName);
         when(agent.getJavaOpts()).thenReturn(javaOpts);
         when(agent.getConfigFile()).thenReturn(configFile);
+        when(agent.getLaunchMode()).thenReturn(LaunchMode.EMBEDDED);
+        when(agent.getReplicas()).thenReturn(1);
 
         flumeArchiveUrl = URI.create("http://localhost:8080/apache-flume-1.4.0-bin.tar.gz").toURL();
         outputDirectory = createTestDirectory();
@@ -123,6 +147,12 @@ public class AbstractFlumeAgentsMojoTest extends AbstractUnitTest {
         final AgentProcess agentProcess = mock(AgentProcess.class);
         when(agentProcessBuilder.withAgent(agentName)).thenReturn(agentProcessBuilder);
         when(agentProcessBuilder.withConfigFile(configFile)).thenReturn(agentProcessBuilder);
+        when(agentProcessBuilder.withLaunchMode(LaunchMode.EMBEDDED)).thenReturn(agentProcessBuilder);
+        when(agentProcessBuilder.withJavaOpts(javaOpts)).thenReturn(agentProcessBuilder);
+        when(agentProcessBuilder.withSharedJvm(outputDirectory, sharedJvmJavaOpts)).thenReturn(agentProcessBuilder);
+        when(agentProcessBuilder.withClassDataSharing(false, 5000L)).thenReturn(agentProcessBuilder);
+        when(agentProcessBuilder.withMonitoringPort(-1)).thenReturn(agentProcessBuilder);
+        when(agentProcessBuilder.withMetricsRecording(null, 0L)).thenReturn(agentProcessBuilder);
         when(agentProcessBuilder.build()).thenReturn(agentProcess);
 
         final MutableBoolean copiedPlugins = new MutableBoolean(false);
@@ -130,15 +160,19 @@ public class AbstractFlumeAgentsMojoTest extends AbstractUnitTest {
         final MutableBoolean wroteFlumeEnvironment = new MutableBoolean(false);
         final MutableBoolean removedLibs = new MutableBoolean(false);
         final MutableBoolean copiedLoggingProperties = new MutableBoolean(false);
+        final MutableBoolean sizedHeap = new MutableBoolean(false);
+        final MutableBoolean validatedConfiguration = new MutableBoolean(false);
 
-        final List<Agent> passedAgents = new ArrayList<>();
+        // The steps of building the agent run concurrently
+        final List<Agent> passedAgents = Collections.synchronizedList(new ArrayList<>());
 
         final ConcreteMojo toTest = setParameters(new ConcreteMojo() {
             @Override
-            void copyFlumePlugins(Agent agent, File givenFlumeDirectory) throws IOException {
+            void extractFlumePlugins(Agent agent, File givenFlumeDirectory, Collection<Artifact> pluginArtifacts) throws IOException {
                 passedAgents.add(agent);
                 copiedPlugins.setTrue();
                 assertThat(givenFlumeDirectory).isEqualTo(flumeDirectory);
+                assertThat(pluginArtifacts).isEmpty();
             }
 
             @Override
@@ -149,8 +183,31 @@ public class AbstractFlumeAgentsMojoTest extends AbstractUnitTest {
             }
 
             @Override
-            void writeFlumeEnvironment(Agent agent, File givenFlumeDirectory) throws IOException {
+            void validateAgentConfiguration(Agent agent, File givenFlumeDirectory, File givenConfigFile) throws MojoExecutionException {
                 passedAgents.add(agent);
+                validatedConfiguration.setTrue();
+                assertThat(givenFlumeDirectory).isEqualTo(flumeDirectory);
+                assertThat(givenConfigFile).isEqualTo(configFile);
+            }
+
+            @Override
+            File renderConfigFile(Agent agent, File givenFlumeDirectory) throws IOException {
+                passedAgents.add(agent);
+                assertThat(givenFlumeDirectory).isEqualTo(flumeDirectory);
+                return configFile;
+            }
+
+            @Override
+            void sizeHeap(Agent agent, File givenConfigFile) throws MojoExecutionException {
+                passedAgents.add(agent);
+                assertThat(givenConfigFile).isEqualTo(configFile);
+                sizedHeap.setTrue();
+            }
+
+            @Override
+            void writeFlumeEnvironment(Agent agent, File givenFlumeDirectory, int monitoringPort) throws IOException {
+                passedAgents.add(agent);
+                assertThat(monitoringPort).isEqualTo(-1);
                 wroteFlumeEnvironment.setTrue();
                 assertThat(givenFlumeDirectory).isEqualTo(flumeDirectory);
             }
@@ -175,8 +232,206 @@ public class AbstractFlumeAgentsMojoTest extends AbstractUnitTest {
         assertThat(copiedPlugins.isTrue()).isTrue();
         assertThat(unpackedFlume.isTrue()).isTrue();
         assertThat(wroteFlumeEnvironment.isTrue()).isTrue();
+        assertThat(sizedHeap.isTrue()).isTrue();
+        assertThat(validatedConfiguration.isTrue()).isTrue();
 
-        assertThat(passedAgents).hasSize(5).containsOnly(agent);
+        assertThat(passedAgents).hasSize(8).containsOnly(agent);
+    }
+
+    /**
+     * The agent's plugins should be resolved while Flume is being unpacked, rather than after it.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testBuildAgentProcessResolvesPluginsWhileUnpacking() throws Exception {
+        final File flumeDirectory = createTestDirectory();
+        // Every method of the builder but build() returns the builder
+        final Answer<Object> returnsBuilder = invocation -> invocation.getMethod().getReturnType().isInstance(invocation.getMock()) ? invocation.getMock() : null;
+        final AgentProcess.Builder agentProcessBuilder = mock(AgentProcess.Builder.class, returnsBuilder);
+        mockStatic(AgentProcess.class);
+        when(AgentProcess.newBuilder(flumeDirectory)).thenReturn(agentProcessBuilder);
+        when(agent.getFlumePlugins()).thenReturn(Collections.singletonList(mock(FlumePlugin.class)));
+        when(agent.getLibs()).thenReturn(new Libs());
+        when(agent.getHeapSizing()).thenReturn(HeapSizingPolicy.NONE);
+
+        final Artifact pluginArtifact = mock(Artifact.class);
+        final CountDownLatch resolving = new CountDownLatch(1);
+        final MutableBoolean resolvedWhileUnpacking = new MutableBoolean(false);
+        final MutableObject<Collection<Artifact>> extractedArtifacts = new MutableObject<>();
+        final ConcreteMojo toTest = setParameters(new ConcreteMojo() {
+            @Override
+            File unpackFlume(Agent agent, FlumeArchiveCache archiveCache) throws IOException {
+                try {
+                    resolvedWhileUnpacking.setValue(resolving.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return flumeDirectory;
+            }
+
+            @Override
+            Collection<Artifact> getFlumePluginDependencies(Agent agent) throws IOException {
+                resolving.countDown();
+                return Collections.singletonList(pluginArtifact);
+            }
+
+            @Override
+            void extractFlumePlugins(Agent agent, File givenFlumeDirectory, Collection<Artifact> pluginArtifacts) throws IOException {
+                extractedArtifacts.setValue(pluginArtifacts);
+            }
+
+            @Override
+            File renderConfigFile(Agent agent, File givenFlumeDirectory) throws IOException {
+                return configFile;
+            }
+
+            @Override
+            void validateAgentConfiguration(Agent agent, File givenFlumeDirectory, File givenConfigFile) throws MojoExecutionException {
+            }
+        });
+
+        toTest.buildAgentProcess(agent);
+
+        assertThat(resolvedWhileUnpacking.isTrue()).isTrue();
+        assertThat(extractedArtifacts.getValue()).containsOnly(pluginArtifact);
+    }
+
+    /**
+     * If Flume cannot be unpacked, the agent should fail to be built with the failure of the unpacking, and none of the steps that depend on it should be run.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testBuildAgentProcessUnpackFailure() throws Exception {
+        final IOException failure = new IOException("The archive is corrupt.");
+        final MutableBoolean rendered = new MutableBoolean(false);
+        final ConcreteMojo toTest = setParameters(new ConcreteMojo() {
+            @Override
+            File unpackFlume(Agent agent, FlumeArchiveCache archiveCache) throws IOException {
+                throw failure;
+            }
+
+            @Override
+            File renderConfigFile(Agent agent, File givenFlumeDirectory) throws IOException {
+                rendered.setTrue();
+                return configFile;
+            }
+        });
+
+        try {
+            toTest.buildAgentProcess(agent);
+            fail("Building an agent whose Flume installation cannot be unpacked should have failed.");
+        } catch (MojoExecutionException e) {
+            assertThat(e.getMessage()).isEqualTo("Failed to unpack Flume.");
+            assertThat(e.getCause()).isSameAs(failure);
+        }
+        assertThat(rendered.isTrue()).isFalse();
+    }
+
+    /**
+     * Agents that share a Flume plugin and are built at the same time should each extract all of the plugin, without staging it beside the plugin's artifact in the local repository.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testBuildAgentProcessSharedPluginConcurrently() throws Exception {
+        final File testDirectory = createTestDirectory();
+        // Start from an empty repository, so that a file staged by a previous run cannot be mistaken for one staged by this one
+        FileUtils.deleteDirectory(testDirectory);
+        final File repositoryDirectory = new File(testDirectory, "repository");
+        FileUtils.forceMkdir(repositoryDirectory);
+        final File pluginFile = new File(repositoryDirectory, "test-plugin.tar.gz");
+        final Random random = new Random(pluginFile.hashCode());
+        final Map<String, byte[]> pluginContents = new LinkedHashMap<>();
+        try (final TarOutputStream tarOut = new TarOutputStream(new GZIPOutputStream(new FileOutputStream(pluginFile)))) {
+            for (int i = 0; i < 64; i++) {
+                final byte[] contents = new byte[64 * 1024];
+                random.nextBytes(contents);
+                final String name = String.format("test-plugin/libext/dependency-%02d.jar", i);
+                pluginContents.put(name, contents);
+                final TarEntry entry = new TarEntry(name);
+                entry.setSize(contents.length);
+                tarOut.putNextEntry(entry);
+                tarOut.write(contents);
+                tarOut.closeEntry();
+            }
+        }
+        final Artifact pluginArtifact = mock(Artifact.class);
+        when(pluginArtifact.getFile()).thenReturn(pluginFile);
+
+        final Answer<Object> returnsBuilder = invocation -> invocation.getMethod().getReturnType().isInstance(invocation.getMock()) ? invocation.getMock() : null;
+        mockStatic(AgentProcess.class);
+        final List<Agent> agents = new ArrayList<>();
+        for (String name : Arrays.asList("a1", "a2")) {
+            final Agent sharingAgent = mock(Agent.class);
+            when(sharingAgent.getAgentName()).thenReturn(name);
+            when(sharingAgent.getJavaOpts()).thenReturn(javaOpts);
+            when(sharingAgent.getConfigFile()).thenReturn(configFile);
+            when(sharingAgent.getLaunchMode()).thenReturn(LaunchMode.EMBEDDED);
+            when(sharingAgent.getReplicas()).thenReturn(1);
+            when(sharingAgent.getFlumePlugins()).thenReturn(Collections.singletonList(mock(FlumePlugin.class)));
+            when(sharingAgent.getLibs()).thenReturn(new Libs());
+            when(sharingAgent.getHeapSizing()).thenReturn(HeapSizingPolicy.NONE);
+            final File flumeDirectory = new File(testDirectory, name);
+            when(AgentProcess.newBuilder(flumeDirectory)).thenReturn(mock(AgentProcess.Builder.class, returnsBuilder));
+            agents.add(sharingAgent);
+        }
+
+        // Both agents extract the plugin only once both have resolved it, so that their extractions overlap
+        final CountDownLatch resolved = new CountDownLatch(agents.size());
+        final ConcreteMojo toTest = setParameters(new ConcreteMojo() {
+            @Override
+            File unpackFlume(Agent agent, FlumeArchiveCache archiveCache) throws IOException {
+                final File flumeDirectory = new File(testDirectory, agent.getAgentName());
+                FileUtils.forceMkdir(flumeDirectory);
+                return flumeDirectory;
+            }
+
+            @Override
+            Collection<Artifact> getFlumePluginDependencies(Agent agent) throws IOException {
+                resolved.countDown();
+                try {
+                    resolved.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Collections.singletonList(pluginArtifact);
+            }
+
+            @Override
+            File renderConfigFile(Agent agent, File givenFlumeDirectory) throws IOException {
+                return configFile;
+            }
+
+            @Override
+            void validateAgentConfiguration(Agent agent, File givenFlumeDirectory, File givenConfigFile) throws MojoExecutionException {
+            }
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(agents.size());
+        try {
+            final List<Future<AgentProcess>> builds = new ArrayList<>();
+            for (Agent sharingAgent : agents) {
+                builds.add(executor.submit(() -> toTest.buildAgentProcess(sharingAgent)));
+            }
+            for (Future<AgentProcess> build : builds) {
+                build.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Agent sharingAgent : agents) {
+            final File pluginsDirectory = new File(new File(testDirectory, sharingAgent.getAgentName()), "plugins.d");
+            for (Map.Entry<String, byte[]> pluginEntry : pluginContents.entrySet()) {
+                assertThat(FileUtils.readFileToByteArray(new File(pluginsDirectory, pluginEntry.getKey()))).isEqualTo(pluginEntry.getValue());
+            }
+        }
+        assertThat(repositoryDirectory.list()).containsOnly(pluginFile.getName());
     }
 
     /**
@@ -358,6 +613,27 @@ public class AbstractFlumeAgentsMojoTest extends AbstractUnitTest {
 
         assertThat(toRemove).doesNotExist();
         assertThat(toKeep).exists();
+        assertThat(mojo.getPhaseTimings(agent).getFiles(Phase.REMOVE_LIBS)).isEqualTo(1);
+    }
+
+    /**
+     * The timings of the agents should be written as JSON to the timings file.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReportPhaseTimings() throws Exception {
+        final File timingsFile = new File(createTestDirectory(), "flume-timings.json");
+        Whitebox.setInternalState(mojo, "timingsFile", timingsFile);
+        mojo.getPhaseTimings(agent).record(Phase.DOWNLOAD, 2000000L, 1024L, 1);
+
+        mojo.reportPhaseTimings(null, Collections.singletonList(agent));
+
+        final String json = FileUtils.readFileToString(timingsFile, "utf-8");
+        assertThat(json).startsWith("{\"recordedAt\":");
+        assertThat(json).endsWith(",\"archive\":null,\"agents\":[{\"agent\":\"" + agentName
+                + "\",\"elapsedMillis\":0.000,\"totalMillis\":2.000,\"phases\":{\"download\":{\"millis\":2.000,\"bytes\":1024,\"files\":1}}}]}");
     }
 
     /**
@@ -375,11 +651,171 @@ public class AbstractFlumeAgentsMojoTest extends AbstractUnitTest {
 
         final File flumeDirectory = new File(createTestDirectory(), "flume");
         final FlumeCopier flumeCopier = mock(FlumeCopier.class);
-        when(flumeCopier.copyTo(new File(outputDirectory, agentName))).thenReturn(flumeDirectory);
+        when(flumeCopier.copyTo(new File(outputDirectory, agentName), mojo.getPhaseTimings(agent))).thenReturn(flumeDirectory);
         whenNew(FlumeCopier.class).withArguments(archiveCache).thenReturn(flumeCopier);
         assertThat(mojo.unpackFlume(agent, archiveCache)).isEqualTo(flumeDirectory);
     }
 
+    /**
+     * Rendering a templated configuration file should fill in its placeholders and export the ports allocated to it.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testRenderConfigFile() throws Exception {
+        final Properties projectProperties = new Properties();
+        when(project.getProperties()).thenReturn(projectProperties);
+
+        final File template = new File(createTestDirectory(), "flume.conf");
+        FileUtils.writeLines(template, "utf-8", Arrays.asList("${agentName}.sources.r1.port = ${port:${agentName}-netcat}", "${agentName}.sinks.k1.hostname = ${host}"));
+        final Agent realAgent = new Agent();
+        realAgent.setAgentName("a1");
+        realAgent.setConfigFile(template);
+        realAgent.setTemplateConfigFile(true);
+
+        final File flumeDirectory = createTestDirectory();
+        final File rendered = mojo.renderConfigFile(realAgent, flumeDirectory);
+        assertThat(rendered).isEqualTo(new File(flumeDirectory, "conf/flume.conf"));
+
+        final String port = projectProperties.getProperty("flume.port.a1-netcat");
+        assertThat(port).isNotNull();
+        assertThat(FileUtils.readLines(rendered, "utf-8")).containsExactly("a1.sources.r1.port = " + port, "a1.sinks.k1.hostname = ${host}");
+
+        final Properties exportedPorts = new Properties();
+        try (final InputStream portsIn = new FileInputStream(new File(outputDirectory, "flume-ports.properties"))) {
+            exportedPorts.load(portsIn);
+        }
+        assertThat(exportedPorts.getProperty("flume.port.a1-netcat")).isEqualTo(port);
+
+        // A template that is not marked as one should be used as it is
+        realAgent.setTemplateConfigFile(false);
+        assertThat(mojo.renderConfigFile(realAgent, flumeDirectory)).isEqualTo(template);
+    }
+
+    /**
+     * An agent with several replicas should be replaced by its replicas, each of which has its configuration rendered under its own name.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testGetAgentsReplicas() throws Exception {
+        final File configuration = new File(createTestDirectory(), "flume.conf");
+        FileUtils.writeLines(configuration, "utf-8", Arrays.asList("a1.sources = r1", "  a1.sources.r1.port = 4444${replica}", "a10.sources = r1"));
+        final Agent replicated = new Agent();
+        replicated.setAgentName("a1");
+        replicated.setConfigFile(configuration);
+        replicated.setJavaOpts("-Xmx64m");
+        replicated.setReplicas(2);
+        Whitebox.setInternalState(mojo, "agents", Arrays.asList(agent, replicated));
+
+        final List<Agent> agents = mojo.getAgents();
+        assertThat(agents).hasSize(3);
+        assertThat(agents.get(0)).isEqualTo(agent);
+        assertThat(AbstractFlumeAgentsMojo.getGroupName(agent)).isEqualTo(agentName);
+
+        final Agent secondReplica = agents.get(2);
+        assertThat(secondReplica.getAgentName()).isEqualTo("a1-2");
+        assertThat(secondReplica.getJavaOpts()).isEqualTo("-Xmx64m");
+        assertThat(AbstractFlumeAgentsMojo.getGroupName(secondReplica)).isEqualTo("a1");
+
+        when(project.getProperties()).thenReturn(new Properties());
+        final File rendered = mojo.renderConfigFile(secondReplica, createTestDirectory());
+        assertThat(FileUtils.readLines(rendered, "utf-8")).containsExactly("a1-2.sources = r1", "  a1-2.sources.r1.port = 44442", "a10.sources = r1");
+    }
+
+    /**
+     * An agent with no replicas should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test(expected = MojoExecutionException.class)
+    public void testGetAgentsNoReplicas() throws Exception {
+        when(agent.getReplicas()).thenReturn(0);
+        Whitebox.setInternalState(mojo, "agents", Collections.singletonList(agent));
+        mojo.getAgents();
+    }
+
+    /**
+     * The configuration of a trial of a sweep should have its variables filled in and its swept properties replaced, or added if they are not set, and the trial should write a GC log.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testRenderConfigFileSweepTrial() throws Exception {
+        when(project.getProperties()).thenReturn(new Properties());
+        final File configuration = new File(createTestDirectory(), "flume.conf");
+        FileUtils.writeLines(configuration, "utf-8", Arrays.asList("a1.channels.c1.type = ${channelType}", "a1.channels.c1.transactionCapacity = 100", "  a1.sinks.k1.batchSize=10",
+                "a1.sinks.k1.batchSize = 20"));
+        final Agent sweptAgent = new Agent();
+        sweptAgent.setAgentName("a1");
+        sweptAgent.setConfigFile(configuration);
+        final Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("channelType", "file");
+        parameters.put("a1.sinks.k1.batchSize", "500");
+        parameters.put("a1.channels.c1.capacity", "100000");
+        final File gcLogFile = new File(createTestDirectory(), "gc.log");
+        final SweepTrial trial = new SweepTrial(sweptAgent, parameters, gcLogFile);
+
+        final File flumeDirectory = createTestDirectory();
+        final File rendered = mojo.renderConfigFile(trial, flumeDirectory);
+        assertThat(FileUtils.readLines(rendered, "utf-8")).containsExactly("a1.channels.c1.type = file", "a1.channels.c1.transactionCapacity = 100", "  a1.sinks.k1.batchSize= 500",
+                "a1.sinks.k1.batchSize = 500", "a1.channels.c1.capacity = 100000");
+
+        final ConcreteMojo toTest = setParameters(new ConcreteMojo());
+        toTest.writeFlumeEnvironment(trial, flumeDirectory, -1);
+        assertThat(FileUtils.readFileToString(new File(flumeDirectory, "conf/flume-env.sh"), "utf-8")).isEqualTo(
+                String.format("JAVA_OPTS=\"%s -Xloggc:%s\"", javaOpts, gcLogFile.getAbsolutePath()));
+    }
+
+    /**
+     * An agent whose JVM arguments are the default should have them derived from its channels when its heap sizing policy is {@link HeapSizingPolicy#AUTO}.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testSizeHeapAuto() throws Exception {
+        final Agent realAgent = newMemoryChannelAgent(HeapSizingPolicy.AUTO);
+        mojo.sizeHeap(realAgent, realAgent.getConfigFile());
+        assertThat(realAgent.getJavaOpts()).isEqualTo("-Xmx260m -XX:MaxDirectMemorySize=65m");
+
+        // JVM arguments that have been set explicitly should be left alone
+        realAgent.setJavaOpts("-Xmx32m");
+        mojo.sizeHeap(realAgent, realAgent.getConfigFile());
+        assertThat(realAgent.getJavaOpts()).isEqualTo("-Xmx32m");
+    }
+
+    /**
+     * An agent whose maximum heap is smaller than its channels need should fail the build when its heap sizing policy is {@link HeapSizingPolicy#FAIL}.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testSizeHeapFail() throws Exception {
+        final Agent realAgent = newMemoryChannelAgent(HeapSizingPolicy.FAIL);
+        realAgent.setJavaOpts("-Xmx1g");
+        mojo.sizeHeap(realAgent, realAgent.getConfigFile());
+
+        realAgent.setJavaOpts("-Xmx64m");
+        try {
+            mojo.sizeHeap(realAgent, realAgent.getConfigFile());
+            fail("Sizing a heap that is too small should have failed.");
+        } catch (MojoExecutionException e) {
+            assertThat(e.getMessage()).contains("-Xmx260m");
+        }
+    }
+
     /**
      * Test writing the Flume environment.
      * 
@@ -390,7 +826,7 @@ public class AbstractFlumeAgentsMojoTest extends AbstractUnitTest {
     public void testWriteFlumeEnvironment() throws Exception {
         final ConcreteMojo toTest = setParameters(new ConcreteMojo());
         final File flumeDirectory = new File(createTestDirectory(), "flume");
-        toTest.writeFlumeEnvironment(agent, flumeDirectory);
+        toTest.writeFlumeEnvironment(agent, flumeDirectory, -1);
         final File confDirectory = new File(flumeDirectory, "conf");
         assertThat(confDirectory).exists();
         final File flumeEnvSh = new File(confDirectory, "flume-env.sh");
@@ -398,6 +834,135 @@ public class AbstractFlumeAgentsMojoTest extends AbstractUnitTest {
         assertThat(FileUtils.readFileToString(flumeEnvSh, "utf-8")).isEqualTo(String.format("JAVA_OPTS=\"%s\"", javaOpts));
     }
 
+    /**
+     * Writing the Flume environment of an agent that is to start fast should append the fast-start flags to its JVM arguments.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testWriteFlumeEnvironmentFastStart() throws Exception {
+        when(agent.isFastStart()).thenReturn(true);
+
+        final ConcreteMojo toTest = setParameters(new ConcreteMojo());
+        final File flumeDirectory = new File(createTestDirectory(), "flume");
+        toTest.writeFlumeEnvironment(agent, flumeDirectory, -1);
+        assertThat(FileUtils.readFileToString(new File(flumeDirectory, "conf/flume-env.sh"), "utf-8")).isEqualTo(
+                String.format("JAVA_OPTS=\"%s %s\"", javaOpts, AbstractFlumeAgentsMojo.FAST_START_JAVA_OPTS));
+    }
+
+    /**
+     * Writing the Flume environment of an agent with a monitoring port should append the properties that start Flume's HTTP monitoring on that port to its JVM arguments.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testWriteFlumeEnvironmentMonitoring() throws Exception {
+        final ConcreteMojo toTest = setParameters(new ConcreteMojo());
+        final File flumeDirectory = new File(createTestDirectory(), "flume");
+        toTest.writeFlumeEnvironment(agent, flumeDirectory, 4242);
+        assertThat(FileUtils.readFileToString(new File(flumeDirectory, "conf/flume-env.sh"), "utf-8")).isEqualTo(
+                String.format("JAVA_OPTS=\"%s -Dflume.monitoring.type=http -Dflume.monitoring.port=4242\"", javaOpts));
+    }
+
+    /**
+     * Allocating a monitoring port should export it as a project property, and only for agents whose monitoring is enabled and supported by their launch mode.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testAllocateMonitoringPort() throws Exception {
+        final Properties projectProperties = new Properties();
+        when(project.getProperties()).thenReturn(projectProperties);
+
+        final ConcreteMojo toTest = setParameters(new ConcreteMojo());
+        final Agent realAgent = new Agent();
+        realAgent.setAgentName("monitored");
+        assertThat(toTest.allocateMonitoringPort(realAgent)).isEqualTo(-1);
+
+        realAgent.setMonitoring(true);
+        final int monitoringPort = toTest.allocateMonitoringPort(realAgent);
+        assertThat(monitoringPort).isGreaterThan(0);
+        assertThat(projectProperties.getProperty("flume.port.monitored.monitoring")).isEqualTo(Integer.toString(monitoringPort));
+
+        realAgent.setLaunchMode(LaunchMode.EMBEDDED);
+        assertThat(toTest.allocateMonitoringPort(realAgent)).isEqualTo(-1);
+    }
+
+    /**
+     * The samples and summaries left in the metrics directory by an earlier build, such as those of a replica that is no longer configured, should be removed by the first execution of the build
+     * to record counters, but the samples recorded by earlier executions of the same build should be kept.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testClearMetricsDirectory() throws Exception {
+        final Properties projectProperties = new Properties();
+        when(project.getProperties()).thenReturn(projectProperties);
+        final File metricsDirectory = createTestDirectory();
+        final File staleSamples = new File(metricsDirectory, "a1-3.jsonl");
+        final File staleSummary = new File(metricsDirectory, "a1-3-summary.json");
+        final File unrelatedFile = new File(metricsDirectory, "notes.txt");
+        FileUtils.write(staleSamples, "{}\n");
+        FileUtils.write(staleSummary, "{}\n");
+        FileUtils.write(unrelatedFile, "notes");
+        final ConcreteMojo toTest = setParameters(new ConcreteMojo());
+        Whitebox.setInternalState(toTest, "metricsDirectory", metricsDirectory);
+
+        toTest.clearMetricsDirectory();
+        assertThat(metricsDirectory.list()).containsOnly(unrelatedFile.getName());
+        assertThat(projectProperties.getProperty("flume.metrics.directory")).isEqualTo(metricsDirectory.getAbsolutePath());
+
+        final File currentSamples = new File(metricsDirectory, "a1-1.jsonl");
+        FileUtils.write(currentSamples, "{}\n");
+        final ConcreteMojo laterExecution = setParameters(new ConcreteMojo());
+        Whitebox.setInternalState(laterExecution, "metricsDirectory", metricsDirectory);
+        laterExecution.clearMetricsDirectory();
+        assertThat(currentSamples).exists();
+    }
+
+    /**
+     * A capture without a name should be rejected before anything is started.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test(expected = MojoExecutionException.class)
+    public void testStartCapturesNoName() throws Exception {
+        final Capture capture = new Capture();
+        capture.setName(" ");
+        when(agent.getCaptures()).thenReturn(Collections.singletonList(capture));
+        mojo.startCaptures(agent, mock(AgentProcess.class));
+    }
+
+    /**
+     * Create an agent with a single memory channel with a capacity of 100,000 events.
+     * 
+     * @param heapSizing
+     *            The {@link HeapSizingPolicy} of the agent.
+     * @return An {@link Agent} whose configuration file has been written.
+     * @throws IOException
+     *             If any errors occur while writing the agent's configuration file.
+     */
+    private Agent newMemoryChannelAgent(HeapSizingPolicy heapSizing) throws IOException {
+        final File realConfigFile = new File(createTestDirectory(), "flume.conf");
+        FileUtils.writeLines(realConfigFile, "utf-8", Arrays.asList("a1.channels = c1", "a1.channels.c1.type = memory", "a1.channels.c1.capacity = 100000"));
+
+        final Agent realAgent = new Agent();
+        realAgent.setAgentName("a1");
+        realAgent.setConfigFile(realConfigFile);
+        realAgent.setHeapSizing(heapSizing);
+        return realAgent;
+    }
+
     /**
      * Decorate the internals of the given plugin with usable values.
      * 
@@ -413,6 +978,9 @@ public class AbstractFlumeAgentsMojoTest extends AbstractUnitTest {
         Whitebox.setInternalState(mojo, "outputEncoding", "utf-8");
         Whitebox.setInternalState(mojo, "flumeArchiveUrl", flumeArchiveUrl);
         Whitebox.setInternalState(mojo, "flumeArchiveMd5", flumeArchiveMd5);
+        Whitebox.setInternalState(mojo, "sharedJvmJavaOpts", sharedJvmJavaOpts);
+        Whitebox.setInternalState(mojo, "classDataSharingTrainingMillis", 5000L);
+        Whitebox.setInternalState(mojo, "validateConfiguration", true);
         return mojo;
     }
 
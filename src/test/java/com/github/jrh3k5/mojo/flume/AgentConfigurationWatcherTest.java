@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AgentConfigurationWatcher}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentConfigurationWatcherTest extends AbstractUnitTest {
+    /**
+     * Changing a watched file should notify its listener, while changing an unwatched file in the same directory should not.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testWatch() throws Exception {
+        final File testDirectory = createTestDirectory();
+        FileUtils.forceMkdir(testDirectory);
+        final File watchedFile = new File(testDirectory, "flume.properties");
+        final File unwatchedFile = new File(testDirectory, "other.properties");
+        FileUtils.write(watchedFile, "a1.sources = r1");
+
+        final CountDownLatch changeLatch = new CountDownLatch(1);
+        final AtomicReference<File> changedFile = new AtomicReference<>();
+        try (final AgentConfigurationWatcher watcher = new AgentConfigurationWatcher(mock(Log.class), 10)) {
+            watcher.watch(watchedFile, file -> {
+                changedFile.set(file);
+                changeLatch.countDown();
+            });
+            final Thread watcherThread = new Thread(watcher);
+            watcherThread.setDaemon(true);
+            watcherThread.start();
+
+            FileUtils.write(unwatchedFile, "ignored");
+            FileUtils.write(watchedFile, "a1.sources = r1 r2");
+            assertThat(changeLatch.await(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(changedFile.get()).isEqualTo(watchedFile.getAbsoluteFile());
+    }
+}
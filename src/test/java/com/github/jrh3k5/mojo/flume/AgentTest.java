@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Agent}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentTest {
+    /**
+     * Copying an agent should copy every one of its fields, so that no field added to {@link Agent} is dropped by the agents derived from it.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testCopy() throws Exception {
+        final Agent agent = new Agent();
+        for (Field field : getFields()) {
+            field.set(agent, newValue(field.getType()));
+        }
+
+        final Agent copy = new Agent(agent) {
+        };
+        for (Field field : getFields()) {
+            assertThat(field.get(copy)).as(field.getName()).isEqualTo(field.get(agent));
+        }
+    }
+
+    /**
+     * Get the fields of an agent.
+     * 
+     * @return A {@link List} of the non-static fields declared by {@link Agent}, made accessible.
+     */
+    private static List<Field> getFields() {
+        final List<Field> fields = new ArrayList<>();
+        for (Field field : Agent.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Create a value of a field that differs from the value of the field in a new agent.
+     * 
+     * @param type
+     *            The type of the field.
+     * @return A value of the given type.
+     */
+    private static Object newValue(Class<?> type) {
+        if (type == boolean.class) {
+            return true;
+        } else if (type == int.class) {
+            return 7;
+        } else if (type == long.class) {
+            return 7L;
+        } else if (type == String.class) {
+            return "value";
+        } else if (type.isEnum()) {
+            final Object[] constants = type.getEnumConstants();
+            return constants[constants.length - 1];
+        }
+        return mock(type);
+    }
+}
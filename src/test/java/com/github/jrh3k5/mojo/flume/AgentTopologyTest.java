@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AgentTopology}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentTopologyTest {
+    /**
+     * Agents should be placed in a later tier than the agents on which they depend, with replicas kept together.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetTiers() throws Exception {
+        final Agent edge = newAgent("edge", "collector");
+        final Agent collector = newAgent("collector", "sink");
+        final Agent sink = newAgent("sink");
+        final Agent monitor = newAgent("monitor");
+        final Agent firstEdgeReplica = new AgentReplica(edge, 1);
+        final Agent secondEdgeReplica = new AgentReplica(edge, 2);
+
+        final AgentTopology topology = new AgentTopology(Arrays.asList(firstEdgeReplica, secondEdgeReplica, collector, sink, monitor));
+        final List<List<Agent>> tiers = topology.getTiers();
+        assertThat(tiers).hasSize(3);
+        assertThat(tiers.get(0)).containsExactly(sink, monitor);
+        assertThat(tiers.get(1)).containsExactly(collector);
+        assertThat(tiers.get(2)).containsExactly(firstEdgeReplica, secondEdgeReplica);
+
+        assertThat(topology.isDependedOn(sink)).isTrue();
+        assertThat(topology.isDependedOn(collector)).isTrue();
+        assertThat(topology.isDependedOn(monitor)).isFalse();
+        assertThat(topology.isDependedOn(secondEdgeReplica)).isFalse();
+    }
+
+    /**
+     * Dependencies that form a cycle should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = MojoExecutionException.class)
+    public void testGetTiersCycle() throws Exception {
+        new AgentTopology(Arrays.asList(newAgent("a1", "a2"), newAgent("a2", "a1")));
+    }
+
+    /**
+     * A dependency on an agent that is not configured should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = MojoExecutionException.class)
+    public void testGetTiersUnknownDependency() throws Exception {
+        new AgentTopology(Collections.singletonList(newAgent("a1", "a2")));
+    }
+
+    /**
+     * Create an agent.
+     * 
+     * @param agentName
+     *            The name of the agent.
+     * @param dependsOn
+     *            The names of the agents on which the agent depends.
+     * @return An {@link Agent}.
+     */
+    private static Agent newAgent(String agentName, String... dependsOn) {
+        final Agent agent = new Agent();
+        agent.setAgentName(agentName);
+        agent.setDependsOn(Arrays.asList(dependsOn));
+        return agent;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
+
+import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for {@link AwaitFlumeAgentsMojo}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ AgentProcessContainer.class })
+@PowerMockIgnore({ "com.sun.*", "sun.*", "javax.*" })
+public class AwaitFlumeAgentsMojoTest {
+    private final AwaitFlumeAgentsMojo mojo = new AwaitFlumeAgentsMojo();
+    private final AgentProcess agentProcess = mock(AgentProcess.class);
+    private HttpServer server;
+
+    /**
+     * Start a monitoring server whose sink has delivered 100 events, and register an agent process monitored through it.
+     * 
+     * @throws Exception
+     *             If any errors occur during the setup.
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/metrics", exchange -> {
+            final byte[] body = "{\"CHANNEL.c1\":{\"ChannelSize\":\"0\"},\"SINK.k1\":{\"EventDrainSuccessCount\":\"100\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        when(agentProcess.getAgentName()).thenReturn("a1");
+        when(agentProcess.getMonitoringPort()).thenReturn(server.getAddress().getPort());
+        mockStatic(AgentProcessContainer.class);
+        when(AgentProcessContainer.getAgentProcesses("a1")).thenReturn(Collections.singletonList(agentProcess));
+
+        Whitebox.setInternalState(mojo, "agentName", "a1");
+        Whitebox.setInternalState(mojo, "awaitTimeoutMillis", 300L);
+    }
+
+    /**
+     * Stop the monitoring server.
+     */
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * Awaiting events that have been delivered should succeed.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testExecuteSinkEvents() throws Exception {
+        Whitebox.setInternalState(mojo, "sink", "k1");
+        Whitebox.setInternalState(mojo, "expectedEvents", 100L);
+        mojo.execute();
+    }
+
+    /**
+     * Awaiting empty channels should succeed once they are empty.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testExecuteChannelsEmpty() throws Exception {
+        mojo.execute();
+    }
+
+    /**
+     * Awaiting events that are never delivered should fail the build.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = MojoFailureException.class)
+    public void testExecuteTimeout() throws Exception {
+        Whitebox.setInternalState(mojo, "sink", "k1");
+        Whitebox.setInternalState(mojo, "expectedEvents", 101L);
+        mojo.execute();
+    }
+
+    /**
+     * Awaiting an agent whose monitoring is not enabled should fail.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = MojoExecutionException.class)
+    public void testExecuteUnmonitored() throws Exception {
+        when(agentProcess.getMonitoringPort()).thenReturn(-1);
+        mojo.execute();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.results.BaselineComparison;
+import com.github.jrh3k5.mojo.flume.results.ConfigFingerprint;
+import com.github.jrh3k5.mojo.flume.results.Metric;
+import com.github.jrh3k5.mojo.flume.results.ResultsStore;
+import com.github.jrh3k5.mojo.flume.results.RunRecord;
+
+/**
+ * Unit tests for {@link BaselineRecorder}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class BaselineRecorderTest extends AbstractUnitTest {
+    private final Map<String, String> parameters = Collections.singletonMap("batchSize", "100");
+    private final Baseline baseline = new Baseline();
+    private File configFile;
+
+    /**
+     * Write the agent's configuration and record three runs of a baseline revision that accepted 1,000 events a second.
+     * 
+     * @throws Exception
+     *             If any errors occur during the setup.
+     */
+    @Before
+    public void setUp() throws Exception {
+        final File testDirectory = createTestDirectory();
+        FileUtils.deleteDirectory(testDirectory);
+        configFile = new File(testDirectory, "flume.properties");
+        FileUtils.writeStringToFile(configFile, "a1.sources = r1\na1.sources.r1.port = 41414\n", StandardCharsets.UTF_8);
+
+        baseline.setResultsDirectory(new File(testDirectory, "results"));
+        final ResultsStore store = new ResultsStore(baseline.getResultsDirectory());
+        final String fingerprint = ConfigFingerprint.of(configFile, parameters);
+        for (double eventsPerSecond : new double[] { 1000, 1010, 990 }) {
+            store.append(new RunRecord(0, "base", fingerprint, "load/a1", Collections.singletonMap(Metric.EVENTS_PER_SECOND, eventsPerSecond)));
+        }
+    }
+
+    /**
+     * A regression should be recorded and reported, but not fail the build unless the baseline says to.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRecordRegression() throws Exception {
+        final BaselineComparison comparison = newRecorder().record("load/a1", configFile, parameters, Collections.singletonMap(Metric.EVENTS_PER_SECOND, 500.0));
+        assertThat(comparison.getBaselineRevision()).isEqualTo("base");
+        assertThat(comparison.getRegressions()).hasSize(1);
+
+        baseline.setFailOnRegression(true);
+        try {
+            newRecorder().record("load/a1", configFile, parameters, Collections.singletonMap(Metric.EVENTS_PER_SECOND, 500.0));
+            fail("A regression should have failed the build.");
+        } catch (MojoFailureException e) {
+            assertThat(e.getMessage()).startsWith("1 metric(s) of load/a1 regressed against revision base:");
+        }
+        // Both runs are recorded, regressed or not
+        assertThat(new ResultsStore(baseline.getResultsDirectory()).read("load/a1", ConfigFingerprint.of(configFile, parameters))).hasSize(5);
+    }
+
+    /**
+     * A run with different parameters should not be compared against the baseline.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRecordDifferentParameters() throws Exception {
+        baseline.setFailOnRegression(true);
+        final BaselineComparison comparison = newRecorder().record("load/a1", configFile, Collections.singletonMap("batchSize", "500"),
+                Collections.singletonMap(Metric.EVENTS_PER_SECOND, 500.0));
+        assertThat(comparison.getBaselineRevision()).isNull();
+    }
+
+    /**
+     * A baseline without a results directory should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = MojoExecutionException.class)
+    public void testRecordNoResultsDirectory() throws Exception {
+        baseline.setResultsDirectory(null);
+        newRecorder().record("load/a1", configFile, parameters, Collections.singletonMap(Metric.EVENTS_PER_SECOND, 500.0));
+    }
+
+    /**
+     * Create a recorder of the project's own revision.
+     * 
+     * @return A {@link BaselineRecorder}.
+     */
+    private BaselineRecorder newRecorder() {
+        return new BaselineRecorder(baseline, new File("."), mock(Log.class));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link GenerateFilesMojo}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class GenerateFilesMojoTest {
+    /**
+     * Sizes should be parsed with or without a binary multiple.
+     */
+    @Test
+    public void testParseSize() {
+        assertThat(GenerateFilesMojo.parseSize("0")).isZero();
+        assertThat(GenerateFilesMojo.parseSize("512")).isEqualTo(512L);
+        assertThat(GenerateFilesMojo.parseSize("16k")).isEqualTo(16L * 1024);
+        assertThat(GenerateFilesMojo.parseSize(" 64MB ")).isEqualTo(64L * 1024 * 1024);
+        assertThat(GenerateFilesMojo.parseSize("2g")).isEqualTo(2L * 1024 * 1024 * 1024);
+    }
+
+    /**
+     * A size that is not a number of bytes should be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseSizeInvalid() {
+        GenerateFilesMojo.parseSize("1.5g");
+    }
+}
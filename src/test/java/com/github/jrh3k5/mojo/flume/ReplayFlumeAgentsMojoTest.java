@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Delta.delta;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ReplayFlumeAgentsMojo}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ReplayFlumeAgentsMojoTest {
+    /**
+     * Multipliers, with or without a trailing {@code x}, and {@code max} should be accepted as speeds.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testParseSpeed() throws Exception {
+        assertThat(ReplayFlumeAgentsMojo.parseSpeed("1")).isEqualTo(1.0, delta(0.0));
+        assertThat(ReplayFlumeAgentsMojo.parseSpeed("10x")).isEqualTo(10.0, delta(0.0));
+        assertThat(ReplayFlumeAgentsMojo.parseSpeed(" 0.5X ")).isEqualTo(0.5, delta(0.0));
+        assertThat(ReplayFlumeAgentsMojo.parseSpeed("MAX")).isEqualTo(Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * A speed that is not positive should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = MojoExecutionException.class)
+    public void testParseSpeedZero() throws Exception {
+        ReplayFlumeAgentsMojo.parseSpeed("0x");
+    }
+
+    /**
+     * A speed that is not a number should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = MojoExecutionException.class)
+    public void testParseSpeedNotANumber() throws Exception {
+        ReplayFlumeAgentsMojo.parseSpeed("fast");
+    }
+}
@@ -18,16 +18,27 @@
 package com.github.jrh3k5.mojo.flume;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Matchers.contains;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.Properties;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
 import org.junit.Test;
 import org.powermock.reflect.Whitebox;
 
+import com.github.jrh3k5.mojo.flume.io.FlumeArchiveCache;
 import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.sun.net.httpserver.HttpServer;
 
 /**
  * Unit tests for {@link RunFlumeAgentsMojo}.
@@ -36,7 +47,7 @@ import com.github.jrh3k5.mojo.flume.process.AgentProcess;
  * @since 2.0
  */
 
-public class RunFlumeAgentsMojoTest {
+public class RunFlumeAgentsMojoTest extends AbstractUnitTest {
     /**
      * Test the execution of the mojo.
      * 
@@ -46,9 +57,16 @@ public class RunFlumeAgentsMojoTest {
     @Test
     public void testExecuteMojo() throws Exception {
         final Agent agent = mock(Agent.class);
+        when(agent.getAgentName()).thenReturn("a1");
+        when(agent.getReplicas()).thenReturn(1);
         final AgentProcess agentProcess = mock(AgentProcess.class);
 
         final RunFlumeAgentsMojo toTest = new RunFlumeAgentsMojo() {
+            @Override
+            protected FlumeArchiveCache getArchiveCache() {
+                return mock(FlumeArchiveCache.class);
+            }
+
             @Override
             protected AgentProcess buildAgentProcess(Agent givenAgent) throws MojoExecutionException {
                 assertThat(givenAgent).isEqualTo(agent);
@@ -60,4 +78,73 @@ public class RunFlumeAgentsMojoTest {
         verify(agentProcess).start();
         verify(agentProcess).join();
     }
+
+    /**
+     * A change to the configuration file of a replicated agent, which runs from a copy rendered for the replica even though its file is not a template, should be rendered into that copy.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test.
+     */
+    @Test
+    public void testReloadConfigFileReplica() throws Exception {
+        final File testDirectory = createTestDirectory();
+        final File configFile = new File(testDirectory, "flume.properties");
+        FileUtils.write(configFile, "a1.channels = c1\na1.channels.c1.capacity = 100\n");
+        final Agent agent = new Agent();
+        agent.setAgentName("a1");
+        agent.setConfigFile(configFile);
+        final Agent replica = new AgentReplica(agent, 2);
+        final File flumeDirectory = new File(testDirectory, "flume");
+        final AgentProcess agentProcess = mock(AgentProcess.class);
+        when(agentProcess.getFlumeDirectory()).thenReturn(flumeDirectory);
+        when(agentProcess.getAgentName()).thenReturn(replica.getAgentName());
+        when(agentProcess.getMonitoringPort()).thenReturn(-1);
+
+        final MavenProject project = mock(MavenProject.class);
+        when(project.getProperties()).thenReturn(new Properties());
+        final RunFlumeAgentsMojo toTest = new RunFlumeAgentsMojo();
+        Whitebox.setInternalState(toTest, "project", project);
+        Whitebox.setInternalState(toTest, "outputDirectory", testDirectory);
+        Whitebox.setInternalState(toTest, "outputEncoding", "UTF-8");
+
+        final File renderedConfigFile = toTest.renderConfigFile(replica, flumeDirectory);
+        assertThat(FileUtils.readFileToString(renderedConfigFile)).contains("a1-2.channels.c1.capacity = 100");
+
+        FileUtils.write(configFile, "a1.channels = c1\na1.channels.c1.capacity = 200\n");
+        toTest.reloadConfigFile(replica, agentProcess, configFile);
+        assertThat(FileUtils.readFileToString(renderedConfigFile)).contains("a1-2.channels.c1.capacity = 200");
+    }
+
+    /**
+     * Once an agent reports having started its components since its configuration file changed, the time taken to reload it should be logged.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test.
+     */
+    @Test
+    public void testAwaitReload() throws Exception {
+        final long changeTime = System.currentTimeMillis();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/metrics", exchange -> {
+            final byte[] body = String.format("{\"SOURCE.r1\":{\"StartTime\":\"%d\"}}", System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            final AgentProcess agentProcess = mock(AgentProcess.class);
+            when(agentProcess.getAgentName()).thenReturn("a1");
+            when(agentProcess.getMonitoringPort()).thenReturn(server.getAddress().getPort());
+            final Log log = mock(Log.class);
+            final RunFlumeAgentsMojo toTest = new RunFlumeAgentsMojo();
+            toTest.setLog(log);
+            Whitebox.setInternalState(toTest, "reloadTimeoutMillis", 10000L);
+
+            toTest.awaitReload(agentProcess, new File("flume.properties"), changeTime);
+            verify(log).info(contains("Agent a1 reloaded its configuration in"));
+        } finally {
+            server.stop(0);
+        }
+    }
 }
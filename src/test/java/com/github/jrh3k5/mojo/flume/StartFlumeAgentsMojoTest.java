@@ -18,12 +18,16 @@
 package com.github.jrh3k5.mojo.flume;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
 
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.junit.Test;
@@ -33,7 +37,9 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.reflect.Whitebox;
 
 import com.github.jrh3k5.mojo.flume.process.AgentProcess;
+import com.github.jrh3k5.mojo.flume.io.FlumeArchiveCache;
 import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
+import com.github.jrh3k5.mojo.flume.timing.PhaseTimings;
 
 /**
  * Unit tests for {@link StartFlumeAgentsMojo}.
@@ -46,7 +52,7 @@ import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
 @PrepareForTest({ AgentProcessContainer.class, StartFlumeAgentsMojo.class })
 public class StartFlumeAgentsMojoTest {
     /**
-     * Test the starting of a Flume agent.
+     * Test the starting of a Flume agent, whose Flume archive should start being cached before the agent is built.
      * 
      * @throws Exception
      *             If any errors occur during the test run.
@@ -56,11 +62,30 @@ public class StartFlumeAgentsMojoTest {
         mockStatic(AgentProcessContainer.class);
 
         final Agent agent = mock(Agent.class);
+        when(agent.getAgentName()).thenReturn("a1");
+        when(agent.getReplicas()).thenReturn(1);
         final AgentProcess agentProcess = mock(AgentProcess.class);
+        final CountDownLatch archiveCached = new CountDownLatch(1);
+        final FlumeArchiveCache archiveCache = mock(FlumeArchiveCache.class);
+        when(archiveCache.getArchiveLocation(any(PhaseTimings.class))).thenAnswer(invocation -> {
+            archiveCached.countDown();
+            return null;
+        });
         final StartFlumeAgentsMojo toTest = new StartFlumeAgentsMojo() {
+            @Override
+            protected FlumeArchiveCache getArchiveCache() {
+                return archiveCache;
+            }
+
             @Override
             protected AgentProcess buildAgentProcess(Agent givenAgent) throws MojoExecutionException {
                 assertThat(givenAgent).isEqualTo(agent);
+                try {
+                    assertThat(archiveCached.await(5, TimeUnit.SECONDS)).isTrue();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MojoExecutionException("Interrupted while waiting for the archive to be cached.", e);
+                }
                 return agentProcess;
             }
         };
@@ -68,6 +93,6 @@ public class StartFlumeAgentsMojoTest {
         toTest.execute();
         verify(agentProcess).start();
         verifyStatic();
-        AgentProcessContainer.storeAgentProcess(agentProcess);
+        AgentProcessContainer.storeAgentProcess("a1", agentProcess);
     }
 }
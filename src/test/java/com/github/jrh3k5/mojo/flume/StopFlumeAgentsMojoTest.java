@@ -31,6 +31,7 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.reflect.Whitebox;
 
+import com.github.jrh3k5.mojo.flume.process.AgentProcess;
 import com.github.jrh3k5.mojo.flume.process.AgentProcessContainer;
 
 /**
@@ -63,4 +64,30 @@ public class StopFlumeAgentsMojoTest {
         verifyStatic();
         AgentProcessContainer.stopAgentProcess(agentName);
     }
+
+    /**
+     * An agent that cannot be drained because its monitoring is not enabled should be stopped regardless.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testExecuteMojoDrainUnmonitored() throws Exception {
+        final String agentName = UUID.randomUUID().toString();
+        final Agent agent = mock(Agent.class);
+        when(agent.getAgentName()).thenReturn(agentName);
+        Whitebox.setInternalState(mojo, "agents", Collections.singletonList(agent));
+        Whitebox.setInternalState(mojo, "drainTimeoutMillis", 1000L);
+
+        final AgentProcess agentProcess = mock(AgentProcess.class);
+        when(agentProcess.getAgentName()).thenReturn(agentName);
+        when(agentProcess.getMonitoringPort()).thenReturn(-1);
+
+        mockStatic(AgentProcessContainer.class);
+        when(AgentProcessContainer.getAgentProcesses(agentName)).thenReturn(Collections.singletonList(agentProcess));
+        mojo.execute();
+        verifyStatic();
+        AgentProcessContainer.stopAgentProcess(agentName);
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+/**
+ * Unit tests for {@link SweepFlumeAgentsMojo}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class SweepFlumeAgentsMojoTest {
+    /**
+     * Every combination of the values of the swept parameters should be tried, with the values of the first parameter changing slowest.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetCombinations() throws Exception {
+        final List<Map<String, String>> combinations = SweepFlumeAgentsMojo.getCombinations(Arrays.asList(newParameter("channelType", "memory", "file"),
+                newParameter("a1.sinks.k1.batchSize", "100", "500", "1000")));
+        assertThat(combinations).hasSize(6);
+        assertThat(combinations.get(0).toString()).isEqualTo("{channelType=memory, a1.sinks.k1.batchSize=100}");
+        assertThat(combinations.get(2).toString()).isEqualTo("{channelType=memory, a1.sinks.k1.batchSize=1000}");
+        assertThat(combinations.get(5).toString()).isEqualTo("{channelType=file, a1.sinks.k1.batchSize=1000}");
+    }
+
+    /**
+     * A parameter with no values should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = MojoExecutionException.class)
+    public void testGetCombinationsNoValues() throws Exception {
+        SweepFlumeAgentsMojo.getCombinations(Collections.singletonList(newParameter("channelType")));
+    }
+
+    /**
+     * A parameter swept more than once should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = MojoExecutionException.class)
+    public void testGetCombinationsDuplicate() throws Exception {
+        SweepFlumeAgentsMojo.getCombinations(Arrays.asList(newParameter("channelType", "memory"), newParameter("channelType", "file")));
+    }
+
+    /**
+     * An agent run as replicas should be swept as it is configured, under its own name, so that the properties of its configuration, which are named after it, are swept.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetAgentReplicated() throws Exception {
+        final Agent agent = new Agent();
+        agent.setAgentName("a1");
+        agent.setReplicas(3);
+        final SweepFlumeAgentsMojo toTest = new SweepFlumeAgentsMojo();
+        Whitebox.setInternalState(toTest, "agents", Collections.singletonList(agent));
+        Whitebox.setInternalState(toTest, "agentName", "a1");
+
+        final Agent swept = toTest.getAgent();
+        assertThat(swept).isSameAs(agent);
+        final SweepTrial trial = new SweepTrial(swept, Collections.singletonMap("a1.sinks.k1.batchSize", "500"), new File("gc.log"));
+        assertThat(trial.getAgentName()).isEqualTo("a1");
+        assertThat(trial.applyProperties("a1.sinks.k1.batchSize = 100\n")).contains("a1.sinks.k1.batchSize = 500").excludes("= 100");
+    }
+
+    /**
+     * Create a swept parameter.
+     * 
+     * @param name
+     *            The name of the parameter.
+     * @param values
+     *            The values of the parameter.
+     * @return A {@link SweepParameter}.
+     */
+    private static SweepParameter newParameter(String name, String... values) {
+        final SweepParameter parameter = new SweepParameter();
+        parameter.setName(name);
+        parameter.setValues(Arrays.asList(values));
+        return parameter;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+/**
+ * Unit tests for {@link VerifyMetricsMojo}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class VerifyMetricsMojoTest extends AbstractUnitTest {
+    private final VerifyMetricsMojo mojo = new VerifyMetricsMojo();
+    private File metricsDirectory;
+
+    /**
+     * Write the samples of two replicas of an agent, each of which drains 1,000 events a second from a channel that gets up to 40% full.
+     * 
+     * @throws Exception
+     *             If any errors occur during the setup.
+     */
+    @Before
+    public void setUp() throws Exception {
+        metricsDirectory = createTestDirectory();
+        for (String agentName : Arrays.asList("a1-1", "a1-2")) {
+            FileUtils.writeLines(new File(metricsDirectory, agentName + ".jsonl"), "utf-8", Arrays.asList(
+                    "{\"timestamp\":1000,\"CHANNEL.c1\":{\"ChannelFillPercentage\":\"10.0\"},\"SINK.k1\":{\"EventDrainSuccessCount\":\"0\",\"ConnectionFailedCount\":\"0\"}}",
+                    "{\"timestamp\":2000,\"CHANNEL.c1\":{\"ChannelFillPercentage\":\"40.0\"},\"SINK.k1\":{\"EventDrainSuccessCount\":\"1000\",\"ConnectionFailedCount\":\"0\"}}",
+                    "{\"timestamp\":3000,\"CHANNEL.c1\":{\"ChannelFillPercentage\":\"0.0\"},\"SINK.k1\":{\"EventDrainSuccessCount\":\"2000\",\"ConnectionFailedCount\":\"0\"}}"));
+        }
+        Whitebox.setInternalState(mojo, "metricsDirectory", metricsDirectory);
+    }
+
+    /**
+     * Thresholds that are met should not fail the build.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testExecuteMet() throws Exception {
+        Whitebox.setInternalState(mojo, "thresholds", Arrays.asList(newThreshold("a1", "SINK.k1", "EventDrainSuccessCount", MetricStatistic.FINAL, 2000.0, null),
+                newThreshold(null, "SINK", "ConnectionFailedCount", MetricStatistic.FINAL, null, 0.0),
+                newThreshold(null, null, "EventDrainSuccessCount", MetricStatistic.RATE, 900.0, null),
+                newThreshold("a1", "CHANNEL", "ChannelFillPercentage", MetricStatistic.MAX, null, 50.0)));
+        mojo.execute();
+    }
+
+    /**
+     * Thresholds that are missed should fail the build with a report of each component that missed them.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testExecuteMissed() throws Exception {
+        Whitebox.setInternalState(mojo, "thresholds", Arrays.asList(newThreshold(null, "CHANNEL.c1", "ChannelFillPercentage", MetricStatistic.MAX, null, 25.0),
+                newThreshold("a1", "SINK", "EventDrainSuccessCount", MetricStatistic.RATE, 1500.0, 3000.0), newThreshold(null, "SINK", "RollbackCount", MetricStatistic.FINAL, null, 0.0)));
+        try {
+            mojo.execute();
+            fail("Missed thresholds should have failed the build.");
+        } catch (MojoFailureException e) {
+            assertThat(e.getMessage()).startsWith("5 metric threshold(s) were not met:");
+            assertThat(e.getMessage()).contains("a1-1 CHANNEL.c1 ChannelFillPercentage (MAX) = 40, expected at most 25");
+            assertThat(e.getMessage()).contains("a1-2 CHANNEL.c1 ChannelFillPercentage (MAX) = 40, expected at most 25");
+            assertThat(e.getMessage()).contains("a1-2 SINK.k1 EventDrainSuccessCount (RATE) = 1000, expected between 1500 and 3000");
+            assertThat(e.getMessage()).contains("No component matching SINK reported RollbackCount.");
+        }
+    }
+
+    /**
+     * Verifying metrics that were never recorded should fail.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = MojoExecutionException.class)
+    public void testExecuteNoSamples() throws Exception {
+        Whitebox.setInternalState(mojo, "metricsDirectory", new File(metricsDirectory, "empty"));
+        Whitebox.setInternalState(mojo, "thresholds", Collections.singletonList(newThreshold(null, null, "EventDrainSuccessCount", MetricStatistic.FINAL, 1.0, null)));
+        mojo.execute();
+    }
+
+    /**
+     * Create a threshold.
+     * 
+     * @param agent
+     *            The agent whose counters are to be checked.
+     * @param component
+     *            The component whose counter is to be checked.
+     * @param counter
+     *            The counter to be checked.
+     * @param statistic
+     *            The statistic of the counter to be checked.
+     * @param min
+     *            The smallest acceptable value.
+     * @param max
+     *            The greatest acceptable value.
+     * @return A {@link MetricThreshold}.
+     */
+    private static MetricThreshold newThreshold(String agent, String component, String counter, MetricStatistic statistic, Double min, Double max) {
+        final MetricThreshold threshold = new MetricThreshold();
+        threshold.setAgent(agent);
+        threshold.setComponent(component);
+        threshold.setCounter(counter);
+        threshold.setStatistic(statistic);
+        threshold.setMin(min);
+        threshold.setMax(max);
+        return threshold;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLClassLoader;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AvroCaptureServer}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AvroCaptureServerTest {
+    /**
+     * Received Avro events should be converted to captured events.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testToCapturedEvents() throws Exception {
+        final ByteBuffer body = ByteBuffer.wrap("xxbodyxx".getBytes(StandardCharsets.UTF_8), 2, 4);
+        final List<CapturedEvent> events = AvroCaptureServer.toCapturedEvents(Collections.singletonList(new AvroFlumeEvent(Collections.singletonMap("key", "value"), body)), 42L);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getHeaders()).isEqualTo(Collections.singletonMap("key", "value"));
+        assertThat(new String(events.get(0).getBody(), StandardCharsets.UTF_8)).isEqualTo("body");
+        assertThat(events.get(0).getReceivedNanos()).isEqualTo(42L);
+        // The body of the Avro event must not have been consumed
+        assertThat(body.remaining()).isEqualTo(4);
+    }
+
+    /**
+     * Starting a server without Flume on the class path should fail.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testStartWithoutFlume() throws Exception {
+        try (final URLClassLoader classLoader = new URLClassLoader(new URL[0], null);
+                final AvroCaptureServer server = new AvroCaptureServer(classLoader, new InetSocketAddress(0), events -> {
+                })) {
+            server.start();
+        }
+    }
+
+    /**
+     * Closing a server that was never started should do nothing.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testCloseNotStarted() throws Exception {
+        new AvroCaptureServer(getClass().getClassLoader(), new InetSocketAddress(0), events -> {
+        }).close();
+    }
+
+    /**
+     * A stand-in for Flume's {@code AvroFlumeEvent}, whose headers are {@link CharSequence} objects.
+     * 
+     * @author Joshua Hyde
+     */
+    public static class AvroFlumeEvent {
+        private final Map<CharSequence, CharSequence> headers;
+        private final ByteBuffer body;
+
+        /**
+         * Create an event.
+         * 
+         * @param headers
+         *            A {@link Map} of the headers of the event.
+         * @param body
+         *            The body of the event.
+         */
+        AvroFlumeEvent(Map<String, String> headers, ByteBuffer body) {
+            this.headers = Collections.<CharSequence, CharSequence> unmodifiableMap(headers);
+            this.body = body;
+        }
+
+        /**
+         * Get the headers of the event.
+         * 
+         * @return A {@link Map} of the headers of the event.
+         */
+        public Map<CharSequence, CharSequence> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Get the body of the event.
+         * 
+         * @return The body of the event.
+         */
+        public ByteBuffer getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link CaptureFileReader} and the {@link CaptureFileWriter} whose files it reads.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class CaptureFileReaderTest extends AbstractUnitTest {
+    /**
+     * Events written to a capture file should be read back with their headers, bodies and times of receipt relative to the start of the capture.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        final File file = new File(createTestDirectory(), "roundTrip.capture");
+        final Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("host", "héllo");
+        headers.put("empty", "");
+        final long startNanos = System.nanoTime();
+        final long beforeMillis = System.currentTimeMillis();
+        try (final CaptureFileWriter writer = new CaptureFileWriter(file, startNanos)) {
+            writer.write(Arrays.asList(new CapturedEvent(headers, bytes("first"), startNanos + 1500000L),
+                    new CapturedEvent(Collections.<String, String> emptyMap(), new byte[0], startNanos + 1500000L)));
+            writer.write(Collections.singletonList(new CapturedEvent(Collections.singletonMap("k", "v"), bytes("third"), startNanos + 3000000000L)));
+        }
+
+        try (final CaptureFileReader reader = new CaptureFileReader(file)) {
+            // The start is derived from the wall clock when the file was created, which can differ by a millisecond from the one read just before it
+            assertThat(reader.getStartMillis()).isLessThanOrEqualTo(beforeMillis + 1).isGreaterThan(beforeMillis - 1000);
+
+            final CapturedEvent first = reader.next();
+            assertThat(first.getHeaders()).isEqualTo(headers);
+            assertThat(new String(first.getBody(), StandardCharsets.UTF_8)).isEqualTo("first");
+            assertThat(first.getReceivedNanos()).isEqualTo(1500000L);
+
+            final CapturedEvent second = reader.next();
+            assertThat(second.getHeaders()).isEmpty();
+            assertThat(second.getBody()).isEmpty();
+
+            final CapturedEvent third = reader.next();
+            assertThat(third.getHeaders()).isEqualTo(Collections.singletonMap("k", "v"));
+            assertThat(new String(third.getBody(), StandardCharsets.UTF_8)).isEqualTo("third");
+            assertThat(third.getReceivedNanos()).isEqualTo(3000000000L);
+
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    /**
+     * Events that span the regions in which the file is mapped should be written and read intact, and the file should be truncated to the events written.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testMultipleRegions() throws Exception {
+        final File file = new File(createTestDirectory(), "regions.capture");
+        final byte[] body = new byte[1024 * 1024 + 7];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) i;
+        }
+        final int eventCount = 40;
+        final long startNanos = System.nanoTime();
+        try (final CaptureFileWriter writer = new CaptureFileWriter(file, startNanos)) {
+            for (int i = 0; i < eventCount; i++) {
+                writer.write(Collections.singletonList(new CapturedEvent(Collections.singletonMap("index", Integer.toString(i)), body, startNanos + i * 1000L)));
+            }
+        }
+
+        final long recordSize = Long.BYTES + Integer.BYTES + 2 * Integer.BYTES + "index".length() + 2 + Integer.BYTES + body.length;
+        assertThat(file.length()).isLessThanOrEqualTo(CaptureFileWriter.HEADER_SIZE + eventCount * recordSize);
+
+        final List<CapturedEvent> events = CaptureFileReader.readAll(file);
+        assertThat(events).hasSize(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            assertThat(events.get(i).getHeaders().get("index")).isEqualTo(Integer.toString(i));
+            assertThat(Arrays.equals(events.get(i).getBody(), body)).isTrue();
+            assertThat(events.get(i).getReceivedNanos()).isEqualTo(i * 1000L);
+        }
+    }
+
+    /**
+     * A capture file read while it is still being written should yield only the batches written so far, not the unwritten part of the region mapped beyond them.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadWhileWriting() throws Exception {
+        final File file = new File(createTestDirectory(), "open.capture");
+        final long startNanos = System.nanoTime();
+        try (final CaptureFileWriter writer = new CaptureFileWriter(file, startNanos)) {
+            assertThat(CaptureFileReader.readAll(file)).isEmpty();
+
+            writer.write(Arrays.asList(new CapturedEvent(Collections.singletonMap("k", "v"), bytes("first"), startNanos),
+                    new CapturedEvent(Collections.<String, String> emptyMap(), bytes("second"), startNanos)));
+            final List<CapturedEvent> events = CaptureFileReader.readAll(file);
+            assertThat(events).hasSize(2);
+            assertThat(new String(events.get(0).getBody(), StandardCharsets.UTF_8)).isEqualTo("first");
+            assertThat(new String(events.get(1).getBody(), StandardCharsets.UTF_8)).isEqualTo("second");
+
+            writer.write(Collections.singletonList(new CapturedEvent(Collections.<String, String> emptyMap(), bytes("third"), startNanos)));
+            assertThat(CaptureFileReader.readAll(file)).hasSize(3);
+        }
+        assertThat(CaptureFileReader.readAll(file)).hasSize(3);
+    }
+
+    /**
+     * A file that does not start with the capture file magic should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testNotACaptureFile() throws Exception {
+        final File directory = createTestDirectory();
+        FileUtils.forceMkdir(directory);
+        final File file = new File(directory, "notACapture.capture");
+        Files.write(file.toPath(), bytes("this is not a capture file at all"));
+        new CaptureFileReader(file).close();
+    }
+
+    /**
+     * A file that ends part of the way through an event should fail to be read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testTruncated() throws Exception {
+        final File file = new File(createTestDirectory(), "truncated.capture");
+        final long startNanos = System.nanoTime();
+        try (final CaptureFileWriter writer = new CaptureFileWriter(file, startNanos)) {
+            writer.write(Collections.singletonList(new CapturedEvent(Collections.<String, String> emptyMap(), bytes("truncated body"), startNanos)));
+        }
+        final byte[] contents = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(contents, contents.length - 4));
+        CaptureFileReader.readAll(file);
+    }
+
+    /**
+     * Encode a string as UTF-8.
+     * 
+     * @param text
+     *            The string to be encoded.
+     * @return The UTF-8 bytes of the given string.
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
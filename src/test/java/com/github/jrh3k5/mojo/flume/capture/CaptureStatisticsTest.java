@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Delta.delta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link CaptureStatistics}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class CaptureStatisticsTest {
+    /**
+     * The events, batches and bytes received should be counted, and the rate should not count the events of the first batch, which arrived at the start of the measured time.
+     */
+    @Test
+    public void testRecord() {
+        final CaptureStatistics statistics = new CaptureStatistics("sink");
+        statistics.record(batch(10, 100, 0L));
+        statistics.record(batch(10, 100, 500000000L));
+        statistics.record(batch(10, 100, 1000000000L));
+        statistics.record(Collections.<CapturedEvent> emptyList());
+
+        assertThat(statistics.getName()).isEqualTo("sink");
+        assertThat(statistics.getEvents()).isEqualTo(30L);
+        assertThat(statistics.getBatches()).isEqualTo(3L);
+        assertThat(statistics.getBytes()).isEqualTo(3000L);
+        assertThat(statistics.getDurationMillis()).isEqualTo(1000L);
+        assertThat(statistics.getEventsPerSecond()).isEqualTo(20.0, delta(0.001));
+        assertThat(statistics.getInterArrivalMillis(50)).isEqualTo(500.0, delta(1.0));
+    }
+
+    /**
+     * A single batch should not yield a rate.
+     */
+    @Test
+    public void testSingleBatch() {
+        final CaptureStatistics statistics = new CaptureStatistics("sink");
+        statistics.record(batch(5, 1, 42L));
+        assertThat(statistics.getEvents()).isEqualTo(5L);
+        assertThat(statistics.getEventsPerSecond()).isEqualTo(0.0, delta(0.0));
+        assertThat(statistics.getInterArrivalMillis(99)).isEqualTo(0.0, delta(0.0));
+    }
+
+    /**
+     * The statistics should be expressed as a JSON object.
+     */
+    @Test
+    public void testToJson() {
+        final CaptureStatistics statistics = new CaptureStatistics("a \"quoted\" sink");
+        statistics.record(batch(2, 3, 0L));
+        statistics.record(batch(2, 3, 2000000000L));
+        assertThat(statistics.toJson()).isEqualTo("{\"capture\":\"a \\\"quoted\\\" sink\",\"events\":4,\"batches\":2,\"bytes\":12,\"durationMillis\":2000,\"eventsPerSecond\":1.00,"
+                + "\"interArrivalMillis\":{\"p50\":" + format(statistics.getInterArrivalMillis(50)) + ",\"p90\":" + format(statistics.getInterArrivalMillis(90)) + ",\"p99\":"
+                + format(statistics.getInterArrivalMillis(99)) + ",\"max\":2000.000}}");
+    }
+
+    /**
+     * Create a batch of events received at the same time.
+     * 
+     * @param size
+     *            The number of events in the batch.
+     * @param bodySize
+     *            The number of bytes in the body of each event.
+     * @param receivedNanos
+     *            The time at which the batch was received.
+     * @return A {@link List} of {@link CapturedEvent} objects.
+     */
+    private static List<CapturedEvent> batch(int size, int bodySize, long receivedNanos) {
+        final List<CapturedEvent> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            batch.add(new CapturedEvent(Collections.<String, String> emptyMap(), new byte[bodySize], receivedNanos));
+        }
+        return batch;
+    }
+
+    /**
+     * Format a number of milliseconds as the statistics do.
+     * 
+     * @param millis
+     *            The number of milliseconds.
+     * @return The formatted number.
+     */
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.3f", millis);
+    }
+}
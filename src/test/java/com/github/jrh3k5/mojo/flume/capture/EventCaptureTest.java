@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.capture;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link EventCapture}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class EventCaptureTest extends AbstractUnitTest {
+    /**
+     * Events received should be counted and handed to the capture's listeners, each batch should be held for the capture's delay, and the statistics should be written when the capture is
+     * closed.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testEventsReceived() throws Exception {
+        final File directory = createTestDirectory();
+        final List<CapturedEvent> heard = new ArrayList<>();
+        final CaptureListener listener = heard::addAll;
+        final List<CapturedEvent> batch = Collections.singletonList(new CapturedEvent(Collections.<String, String> emptyMap(), new byte[8], System.nanoTime()));
+        final long delayMillis = 50;
+
+        final EventCapture capture = new EventCapture("delayed", directory, false, delayMillis);
+        capture.addListener(listener);
+        final long start = System.nanoTime();
+        capture.eventsReceived(batch);
+        assertThat((System.nanoTime() - start) / 1000000L).isGreaterThanOrEqualTo(delayMillis);
+        assertThat(heard).isEqualTo(batch);
+
+        capture.removeListener(listener);
+        capture.eventsReceived(batch);
+        assertThat(heard).hasSize(1);
+        assertThat(capture.getStatistics().getEvents()).isEqualTo(2L);
+        assertThat(capture.getStatistics().getBytes()).isEqualTo(16L);
+
+        capture.close();
+        final String summary = new String(Files.readAllBytes(new File(directory, "delayed-summary.json").toPath()), StandardCharsets.UTF_8);
+        assertThat(summary).isEqualTo(capture.getStatistics().toJson());
+        assertThat(capture.getCaptureFile()).doesNotExist();
+    }
+
+    /**
+     * A capture that persists its events but cannot be started should release its capture file, leaving it readable and empty.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStartFailurePersisted() throws Exception {
+        final File directory = createTestDirectory();
+        final EventCapture capture = new EventCapture("persisted", directory, true, 0);
+        assertThat(capture.getCaptureFile()).isEqualTo(new File(directory, "persisted.capture"));
+        // Without Flume on the class path, the server cannot be started
+        final URLClassLoader classLoader = new URLClassLoader(new URL[0], null);
+        try {
+            capture.start(classLoader, 0);
+            fail("Starting a capture without Flume should have failed.");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).contains("Avro");
+        }
+        assertThat(CaptureFileReader.readAll(capture.getCaptureFile())).isEmpty();
+        assertThat(new File(directory, "persisted-summary.json")).exists();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.config;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.MapAssert.entry;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link AgentConfiguration}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentConfigurationTest extends AbstractUnitTest {
+    /**
+     * Loading an agent's configuration should read only the components named by that agent, in the order in which they are named.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testLoad() throws Exception {
+        final File configFile = new File(createTestDirectory(), "flume.conf");
+        FileUtils.writeLines(configFile, "utf-8", Arrays.asList("a1.sources = r1", "a1.channels = c2 c1", "a1.sinks = k1", "a1.sources.r1.type = netcat", "a1.sources.r1.port = 44444",
+                "a1.channels.c1.type = memory", "a1.channels.c1.capacity = 1000 ", "a1.channels.c2.type = file", "a1.channels.c3.type = memory", "a1.sinks.k1.type = logger", "a2.sources = r2"));
+
+        final AgentConfiguration configuration = AgentConfiguration.load(configFile, "a1");
+        assertThat(configuration.getAgentName()).isEqualTo("a1");
+        assertThat(configuration.getSources().keySet()).containsOnly("r1");
+        assertThat(configuration.getSources().get("r1")).hasSize(2).includes(entry("port", "44444"));
+        assertThat(new ArrayList<>(configuration.getChannels().keySet())).containsExactly("c2", "c1");
+        assertThat(configuration.getChannels().get("c1").get("capacity")).isEqualTo("1000");
+        assertThat(configuration.getSinks().keySet()).containsOnly("k1");
+
+        assertThat(AgentConfiguration.load(configFile, "a3").getChannels()).isEmpty();
+    }
+}
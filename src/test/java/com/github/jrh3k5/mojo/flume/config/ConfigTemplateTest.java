@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.config;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ConfigTemplate}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ConfigTemplateTest {
+    /**
+     * Rendering a template should fill in its variables and ports, binding each port name to a single port, and leave any other placeholders as they are.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRender() throws Exception {
+        final PortAllocator portAllocator = new PortAllocator();
+        final String rendered = new ConfigTemplate("${agentName}.sources.r1.port = ${port:avro}\n${agentName}.sinks.k1.port = ${port:avro}\n${agentName}.sinks.k2.port = ${port:${agentName}-http}\n"
+                + "${agentName}.sinks.k3.path = ${HOME}").render(Collections.singletonMap("agentName", "a1"), portAllocator);
+
+        final int avroPort = portAllocator.getPort("avro");
+        final int httpPort = portAllocator.getPort("a1-http");
+        assertThat(avroPort).isNotEqualTo(httpPort);
+        assertThat(portAllocator.getPorts()).hasSize(2);
+        assertThat(rendered).isEqualTo(String.format("a1.sources.r1.port = %d\na1.sinks.k1.port = %d\na1.sinks.k2.port = %d\na1.sinks.k3.path = ${HOME}", avroPort, avroPort, httpPort));
+    }
+}
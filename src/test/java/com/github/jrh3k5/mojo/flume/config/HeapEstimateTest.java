@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.config;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link HeapEstimate}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class HeapEstimateTest {
+    /**
+     * Only memory and spillable memory channels should be counted, each capped at its byte capacity.
+     */
+    @Test
+    public void testEstimate() {
+        final Properties properties = new Properties();
+        properties.setProperty("a1.channels", "memory spillable capped file");
+        properties.setProperty("a1.channels.memory.type", "memory");
+        properties.setProperty("a1.channels.memory.capacity", "100000");
+        properties.setProperty("a1.channels.spillable.type", "SPILLABLEMEMORY");
+        properties.setProperty("a1.channels.capped.type", "org.apache.flume.channel.MemoryChannel");
+        properties.setProperty("a1.channels.capped.capacity", "100000");
+        properties.setProperty("a1.channels.capped.byteCapacity", "1000");
+        properties.setProperty("a1.channels.file.type", "file");
+        properties.setProperty("a1.channels.file.capacity", "1000000");
+
+        final HeapEstimate estimate = HeapEstimate.estimate(new AgentConfiguration(properties, "a1"), 1024);
+        // 100,000 events in the memory channel, the default 10,000 in the spillable channel, and 1,000 bytes in the capped channel
+        assertThat(estimate.getChannelBytes()).isEqualTo(110000L * 1024 + 1000);
+        assertThat(estimate.getHeapBytes()).isEqualTo(279L * 1024 * 1024);
+        assertThat(estimate.getDirectMemoryBytes()).isEqualTo(70L * 1024 * 1024);
+        assertThat(estimate.toJavaOpts()).isEqualTo("-Xmx279m -XX:MaxDirectMemorySize=70m");
+    }
+
+    /**
+     * A channel capacity that is not a number should be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testEstimateInvalidCapacity() {
+        final Properties properties = new Properties();
+        properties.setProperty("a1.channels", "c1");
+        properties.setProperty("a1.channels.c1.type", "memory");
+        properties.setProperty("a1.channels.c1.capacity", "lots");
+        HeapEstimate.estimate(new AgentConfiguration(properties, "a1"), 1024);
+    }
+
+    /**
+     * The maximum heap size should be read from the last {@code -Xmx} argument, in any unit.
+     */
+    @Test
+    public void testGetMaxHeapBytes() {
+        assertThat(HeapEstimate.getMaxHeapBytes("-Xmx20m")).isEqualTo(20L * 1024 * 1024);
+        assertThat(HeapEstimate.getMaxHeapBytes("-Xms1g -Xmx1G -Dfoo=bar")).isEqualTo(1024L * 1024 * 1024);
+        assertThat(HeapEstimate.getMaxHeapBytes("-Xmx512k -Xmx2048")).isEqualTo(2048L);
+        assertThat(HeapEstimate.getMaxHeapBytes("-Xms64m")).isEqualTo(-1L);
+        assertThat(HeapEstimate.getMaxHeapBytes(null)).isEqualTo(-1L);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.config;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.net.ServerSocket;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PortAllocator}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class PortAllocatorTest {
+    /**
+     * A name should keep its port, no port should be handed out twice, and the allocated ports should be free.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetPort() throws Exception {
+        final PortAllocator first = new PortAllocator();
+        final PortAllocator second = new PortAllocator();
+        final int port = first.getPort("avro");
+        assertThat(first.getPort("avro")).isEqualTo(port);
+        assertThat(second.getPort("avro")).isNotEqualTo(port);
+
+        try (final ServerSocket socket = new ServerSocket(port)) {
+            assertThat(socket.getLocalPort()).isEqualTo(port);
+        }
+    }
+}
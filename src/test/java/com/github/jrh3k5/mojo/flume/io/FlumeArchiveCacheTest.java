@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.io;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+import com.github.jrh3k5.mojo.flume.timing.Phase;
+import com.github.jrh3k5.mojo.flume.timing.PhaseTimings;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ * Unit tests for {@link FlumeArchiveCache}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class FlumeArchiveCacheTest extends AbstractUnitTest {
+    private File cachedArchive;
+
+    /**
+     * Remove the archive cached by the test.
+     */
+    @After
+    public void removeCachedArchive() {
+        if (cachedArchive != null) {
+            FileUtils.deleteQuietly(cachedArchive);
+        }
+    }
+
+    /**
+     * An archive should be downloaded by the first cache to resolve it, verified by each new cache that resolves it, and neither downloaded nor verified again by a cache that already has.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetArchiveLocation() throws Exception {
+        // A version of Flume that no other run can have cached
+        final String fileName = String.format("apache-flume-0.%d.%d-bin.tar.gz", System.nanoTime() % 100000, new Random().nextInt(100000));
+        final File archive = new File(createTestDirectory(), fileName);
+        FileUtils.writeStringToFile(archive, "not really an archive", "utf-8");
+        final String md5Hash = Files.hash(archive, Hashing.md5()).toString();
+        final URL archiveUrl = archive.toURI().toURL();
+        cachedArchive = new File(FileUtils.getTempDirectory(), fileName);
+
+        final FlumeArchiveCache cache = new FlumeArchiveCache(archiveUrl, md5Hash);
+        final PhaseTimings downloaded = new PhaseTimings("a1");
+        assertThat(cache.getArchiveLocation(downloaded)).isEqualTo(cachedArchive.toURI().toURL());
+        assertThat(downloaded.getNanos().keySet()).containsOnly(Phase.CACHE_WAIT, Phase.DOWNLOAD);
+        assertThat(downloaded.getBytes(Phase.DOWNLOAD)).isEqualTo(archive.length());
+
+        final PhaseTimings reused = new PhaseTimings("a2");
+        assertThat(cache.getArchiveLocation(reused)).isEqualTo(cachedArchive.toURI().toURL());
+        assertThat(reused.getNanos().keySet()).containsOnly(Phase.CACHE_WAIT);
+
+        final PhaseTimings verified = new PhaseTimings("a3");
+        assertThat(new FlumeArchiveCache(archiveUrl, md5Hash).getArchiveLocation(verified)).isEqualTo(cachedArchive.toURI().toURL());
+        assertThat(verified.getNanos().keySet()).containsOnly(Phase.CACHE_WAIT, Phase.HASH);
+    }
+}
@@ -18,6 +18,7 @@
 package com.github.jrh3k5.mojo.flume.io;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
@@ -33,6 +34,8 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+import com.github.jrh3k5.mojo.flume.timing.Phase;
+import com.github.jrh3k5.mojo.flume.timing.PhaseTimings;
 
 /**
  * Unit tests for {@link FlumeCopier}.
@@ -54,7 +57,7 @@ public class FlumeCopierTest extends AbstractUnitTest {
         final File directory = createTestDirectory();
         final URL flumeTarGz = new File(directory, UUID.randomUUID().toString() + ".tar.gz").toURI().toURL();
         final FlumeArchiveCache archiveCache = mock(FlumeArchiveCache.class);
-        when(archiveCache.getArchiveLocation()).thenReturn(flumeTarGz);
+        when(archiveCache.getArchiveLocation(any(PhaseTimings.class))).thenReturn(flumeTarGz);
         when(archiveCache.getFlumeVersion()).thenReturn("1.2.3");
 
         final FlumeCopier copier = new FlumeCopier(archiveCache);
@@ -68,4 +71,31 @@ public class FlumeCopierTest extends AbstractUnitTest {
         ArchiveUtils.gunzipFile(flumeTarGz, flumeTar);
         ArchiveUtils.untarFile(flumeTar, directory);
     }
+
+    /**
+     * The caching and unpacking of the archive should be recorded in the given timings.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testCopyToTimed() throws Exception {
+        final File directory = createTestDirectory();
+        final URL flumeTarGz = new File(directory, UUID.randomUUID().toString() + ".tar.gz").toURI().toURL();
+        final File flumeTar = new File(directory, "apache-flume.tar");
+        final PhaseTimings timings = new PhaseTimings("agent");
+        final FlumeArchiveCache archiveCache = mock(FlumeArchiveCache.class);
+        when(archiveCache.getArchiveLocation(timings)).thenReturn(flumeTarGz);
+        when(archiveCache.getFlumeVersion()).thenReturn("1.2.3");
+
+        mockStatic(ArchiveUtils.class);
+        when(ArchiveUtils.gunzipFile(flumeTarGz, flumeTar)).thenReturn(4096L);
+        when(ArchiveUtils.untarFile(flumeTar, directory)).thenReturn(12);
+
+        assertThat(new FlumeCopier(archiveCache).copyTo(directory, timings)).isEqualTo(new File(directory, "apache-flume-1.2.3-bin"));
+        assertThat(timings.getNanos().keySet()).containsOnly(Phase.GUNZIP, Phase.UNTAR);
+        assertThat(timings.getBytes(Phase.GUNZIP)).isEqualTo(4096L);
+        assertThat(timings.getFiles(Phase.GUNZIP)).isEqualTo(1);
+        assertThat(timings.getFiles(Phase.UNTAR)).isEqualTo(12);
+    }
 }
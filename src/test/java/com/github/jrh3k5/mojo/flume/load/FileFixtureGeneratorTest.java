@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link FileFixtureGenerator}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class FileFixtureGeneratorTest extends AbstractUnitTest {
+    /**
+     * Remove the files written by any earlier run of the current test, since file numbers already used are skipped.
+     * 
+     * @throws Exception
+     *             If any errors occur during the removal.
+     */
+    @Before
+    public void removeTestDirectory() throws Exception {
+        FileUtils.deleteDirectory(createTestDirectory());
+    }
+
+    /**
+     * Files for a spooling directory source should be rotated by size, hold whole records, and appear under their final names only once complete.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testWriteSpooling() throws Exception {
+        final File directory = createTestDirectory();
+        final FileTarget target = new FileTarget("spool", directory, true, null);
+        final FixtureResult result = new FileFixtureGenerator(FixtureFormat.LINES, 100, 1000, 0, 0, "fixture-%d.log").write(Collections.singletonList(target), 2500);
+
+        assertThat(result.getEvents()).isEqualTo(25L);
+        assertThat(result.getBytes()).isEqualTo(2500L);
+        assertThat(result.getFiles()).isEqualTo(3);
+        final String[] names = directory.list();
+        Arrays.sort(names);
+        assertThat(names).isEqualTo(new String[] { "fixture-1.log", "fixture-2.log", "fixture-3.log" });
+        assertThat(new File(directory, "fixture-1.log").length()).isEqualTo(1000L);
+        assertThat(new File(directory, "fixture-3.log").length()).isEqualTo(500L);
+        for (String line : Files.readAllLines(new File(directory, "fixture-2.log").toPath(), StandardCharsets.US_ASCII)) {
+            assertThat(line.matches("[A-Za-z0-9]{99}")).isTrue();
+        }
+    }
+
+    /**
+     * File numbers already used in a directory, including by files that a spooling directory source has completed, should be skipped, and files should be spread over the targets in turn.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testWriteSkipsUsedNames() throws Exception {
+        final File first = new File(createTestDirectory(), "first");
+        final File second = new File(createTestDirectory(), "second");
+        first.mkdirs();
+        Files.write(new File(first, "fixture-1.log.COMPLETED").toPath(), new byte[0]);
+        final List<FileTarget> targets = Arrays.asList(new FileTarget("spool", first, true, null), new FileTarget("spool", second, true, null));
+        final FixtureResult result = new FileFixtureGenerator(FixtureFormat.LINES, 10, 10, 0, 0, "fixture-%d.log").write(targets, 30);
+
+        assertThat(result.getFiles()).isEqualTo(3);
+        final String[] firstNames = first.list();
+        Arrays.sort(firstNames);
+        assertThat(firstNames).isEqualTo(new String[] { "fixture-1.log.COMPLETED", "fixture-2.log", "fixture-4.log" });
+        assertThat(second.list()).isEqualTo(new String[] { "fixture-3.log" });
+    }
+
+    /**
+     * Files for a taildir source should be appended to at the configured rate and rotated by time.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testWriteTailingThrottled() throws Exception {
+        final File directory = createTestDirectory();
+        final FileTarget target = new FileTarget("tail", directory, false, Pattern.compile(".*\\.log"));
+        final FileFixtureGenerator generator = new FileFixtureGenerator(FixtureFormat.LINES, 100, Long.MAX_VALUE, 250, 10000, "fixture-%d.log");
+        assertThat(generator.getChunkSize()).isEqualTo(100);
+        final FixtureResult result = generator.write(Collections.singletonList(target), 5000);
+
+        assertThat(result.getBytes()).isEqualTo(5000L);
+        // 5,000 bytes at 10,000 bytes per second take half a second, rotated every quarter of a second
+        assertThat(result.getElapsedMillis()).isGreaterThanOrEqualTo(490L);
+        assertThat(result.getFiles()).isGreaterThanOrEqualTo(2).isLessThanOrEqualTo(3);
+    }
+
+    /**
+     * A file name that a taildir source does not read should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testWriteNameNotAccepted() throws Exception {
+        final FileTarget target = new FileTarget("tail", createTestDirectory(), false, Pattern.compile("app\\.log"));
+        new FileFixtureGenerator(FixtureFormat.LINES, 100, 1000, 0, 0, "fixture-%d.log").write(Collections.singletonList(target), 100);
+    }
+
+    /**
+     * Records should hold their sequence number and the time at which they were written, padded with text to the record size.
+     */
+    @Test
+    public void testPutRecord() {
+        final FileFixtureGenerator generator = new FileFixtureGenerator(FixtureFormat.RECORDS, 64, 1000, 0, 0, "fixture-%d.log");
+        final ByteBuffer chunk = ByteBuffer.allocate(128);
+        final long before = System.currentTimeMillis();
+        generator.putRecord(chunk, 0);
+        generator.putRecord(chunk, 1234567);
+        assertThat(chunk.position()).isEqualTo(128);
+
+        final String[] records = new String(chunk.array(), StandardCharsets.US_ASCII).split("\n");
+        assertThat(records).hasSize(2);
+        final String[] fields = records[1].split("\t");
+        assertThat(fields).hasSize(3);
+        assertThat(fields[0]).isEqualTo("1234567");
+        assertThat(Long.parseLong(fields[1])).isGreaterThanOrEqualTo(before).isLessThanOrEqualTo(System.currentTimeMillis());
+        assertThat(fields[2].matches("[A-Za-z0-9]+")).isTrue();
+        assertThat(records[0].split("\t")[0]).isEqualTo("0");
+    }
+
+    /**
+     * A record too small for the sequence number and time should be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRecordTooSmall() {
+        new FileFixtureGenerator(FixtureFormat.RECORDS, FileFixtureGenerator.MIN_RECORDS_SIZE - 1, 1000, 0, 0, "fixture-%d.log");
+    }
+}
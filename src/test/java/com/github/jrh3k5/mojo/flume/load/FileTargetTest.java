@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+
+/**
+ * Unit tests for {@link FileTarget}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class FileTargetTest {
+    private final AgentConfiguration configuration;
+
+    /**
+     * Create the test, configuring an agent with an Avro, a spooling directory, and a taildir source.
+     */
+    public FileTargetTest() {
+        final Properties properties = new Properties();
+        properties.setProperty("a1.sources", "avro spool tail");
+        properties.setProperty("a1.sources.avro.type", "avro");
+        properties.setProperty("a1.sources.avro.port", "4141");
+        properties.setProperty("a1.sources.spool.type", "spooldir");
+        properties.setProperty("a1.sources.spool.spoolDir", "/var/spool/flume");
+        properties.setProperty("a1.sources.tail.type", "TAILDIR");
+        properties.setProperty("a1.sources.tail.filegroups", "f1 f2");
+        properties.setProperty("a1.sources.tail.filegroups.f1", "/var/log/app/.*\\.log");
+        properties.setProperty("a1.sources.tail.filegroups.f2", "/var/log/other/other.log");
+        configuration = new AgentConfiguration(properties, "a1");
+    }
+
+    /**
+     * Without a source name, the first file-reading source should be used.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testForSourceSpooling() throws Exception {
+        final FileTarget target = FileTarget.forSource(configuration, null);
+        assertThat(target.getSourceName()).isEqualTo("spool");
+        assertThat(target.getDirectory()).isEqualTo(new File("/var/spool/flume"));
+        assertThat(target.isSpooling()).isTrue();
+        assertThat(target.accepts("anything")).isTrue();
+    }
+
+    /**
+     * A taildir source should be written to in the directory of its first file group, with file names that match its pattern.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testForSourceTailing() throws Exception {
+        final FileTarget target = FileTarget.forSource(configuration, "tail");
+        assertThat(target.getDirectory()).isEqualTo(new File("/var/log/app"));
+        assertThat(target.isSpooling()).isFalse();
+        assertThat(target.accepts("fixture-1.log")).isTrue();
+        assertThat(target.accepts("fixture-1.txt")).isFalse();
+    }
+
+    /**
+     * A source that does not read files should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testForSourceNotFiles() throws Exception {
+        FileTarget.forSource(configuration, "avro");
+    }
+
+    /**
+     * An unknown source should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testForSourceUnknown() throws Exception {
+        FileTarget.forSource(configuration, "missing");
+    }
+}
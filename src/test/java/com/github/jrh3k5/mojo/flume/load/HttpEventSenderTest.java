@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for {@link HttpEventSender}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class HttpEventSenderTest {
+    private final AtomicReference<String> posted = new AtomicReference<>();
+    private HttpServer server;
+
+    /**
+     * Start an HTTP server that accepts only events whose bodies are not {@code reject}.
+     * 
+     * @throws Exception
+     *             If any errors occur during the setup.
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            final String body = IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8);
+            posted.set(body);
+            exchange.sendResponseHeaders(body.contains("reject") ? 400 : 200, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    /**
+     * Stop the HTTP server.
+     */
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * A batch should be posted as a JSON array of events.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testSend() throws Exception {
+        new HttpEventSender(server.getAddress()).send(Arrays.asList("first".getBytes(StandardCharsets.UTF_8), "second".getBytes(StandardCharsets.UTF_8)));
+        assertThat(posted.get()).isEqualTo("[{\"headers\":{},\"body\":\"first\"},{\"headers\":{},\"body\":\"second\"}]");
+    }
+
+    /**
+     * The headers of events should be posted, escaped for JSON.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testSendHeaders() throws Exception {
+        new HttpEventSender(server.getAddress()).send(Collections.singletonList("body".getBytes(StandardCharsets.UTF_8)),
+                Collections.singletonList(Collections.singletonMap("quoted", "a \"b\"")));
+        assertThat(posted.get()).isEqualTo("[{\"headers\":{\"quoted\":\"a \\\"b\\\"\"},\"body\":\"body\"}]");
+    }
+
+    /**
+     * A batch that the source does not accept should fail.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testSendRejected() throws Exception {
+        new HttpEventSender(server.getAddress()).send(Collections.singletonList("reject".getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.capture.CapturedEvent;
+
+/**
+ * Unit tests for {@link LatencyBenchmark}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class LatencyBenchmarkTest {
+    private final AtomicReference<LatencyBenchmark> benchmark = new AtomicReference<>();
+
+    /**
+     * Every scheduled event should be sent and its latency recorded when it is received.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRun() throws Exception {
+        benchmark.set(new LatencyBenchmark(worker -> new DeliveringSender(0), 2, 1000, 16));
+        final LatencyResult result = benchmark.get().run(500, 1000);
+        assertThat(result.getSent()).isEqualTo(500);
+        assertThat(result.getReceived()).isEqualTo(500);
+        assertThat(result.getLost()).isZero();
+        assertThat(result.getFailedWorkers()).isZero();
+        assertThat(result.getRate()).isEqualTo(1000);
+        assertThat(result.getLatencies().getTotalCount()).isEqualTo(500);
+        assertThat(result.getUncorrectedLatencies().getTotalCount()).isEqualTo(500);
+        // Sending on schedule takes as long as the schedule
+        assertThat(result.getElapsedMillis()).isGreaterThanOrEqualTo(490);
+    }
+
+    /**
+     * Latencies should be measured from the scheduled send times, so that the events held up behind a stalled send are charged for the stall.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRunCoordinatedOmission() throws Exception {
+        benchmark.set(new LatencyBenchmark(worker -> new DeliveringSender(200), 1, 100, 16));
+        final LatencyResult result = benchmark.get().run(500, 1000);
+        assertThat(result.getReceived()).isEqualTo(50);
+        assertThat(result.getLatencies().getMaxValue()).isGreaterThanOrEqualTo(200000);
+        // The events queued behind the stalled one were sent late, but promptly delivered once sent
+        assertThat(result.getLatencies().getMean()).isGreaterThan(2 * result.getUncorrectedLatencies().getMean());
+    }
+
+    /**
+     * Events that are never received should be reported as lost.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRunLost() throws Exception {
+        benchmark.set(new LatencyBenchmark(worker -> new DroppingSender(), 1, 100, 16));
+        final LatencyResult result = benchmark.get().run(100, 100);
+        assertThat(result.getSent()).isEqualTo(10);
+        assertThat(result.getLost()).isEqualTo(10);
+        assertThat(result.getLatencies().getTotalCount()).isZero();
+    }
+
+    /**
+     * Waiting for delivery should return once a probe event has been received, without recording it.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testAwaitDelivery() throws Exception {
+        final AtomicBoolean probed = new AtomicBoolean();
+        benchmark.set(new LatencyBenchmark(worker -> new DeliveringSender(0) {
+            @Override
+            public void send(List<byte[]> bodies, List<Map<String, String>> headers) throws IOException {
+                probed.set(headers.get(0).containsKey(LatencyBenchmark.PROBE_HEADER));
+                super.send(bodies, headers);
+            }
+        }, 1, 100, 16));
+        benchmark.get().awaitDelivery(5000);
+        assertThat(probed.get()).isTrue();
+        assertThat(benchmark.get().run(10, 100).getLatencies().getTotalCount()).isEqualTo(1);
+    }
+
+    /**
+     * Waiting for delivery should time out if no probe event is received.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = TimeoutException.class)
+    public void testAwaitDeliveryTimeout() throws Exception {
+        benchmark.set(new LatencyBenchmark(worker -> new DroppingSender(), 1, 100, 16));
+        benchmark.get().awaitDelivery(100);
+    }
+
+    /**
+     * A sender that hands events straight to the benchmark, as though they had passed through an agent, after stalling on its first send.
+     * 
+     * @author Joshua Hyde
+     */
+    private class DeliveringSender implements EventSender {
+        private long stallMillis;
+
+        /**
+         * Create a sender.
+         * 
+         * @param stallMillis
+         *            The amount of time, in milliseconds, for which the first send is to stall.
+         */
+        DeliveringSender(long stallMillis) {
+            this.stallMillis = stallMillis;
+        }
+
+        @Override
+        public void send(List<byte[]> bodies, List<Map<String, String>> headers) throws IOException {
+            if (stallMillis > 0) {
+                try {
+                    Thread.sleep(stallMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                stallMillis = 0;
+            }
+            benchmark.get().eventsReceived(Collections.singletonList(new CapturedEvent(headers.get(0), bodies.get(0), System.nanoTime())));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * A sender whose events are never received.
+     * 
+     * @author Joshua Hyde
+     */
+    private static class DroppingSender implements EventSender {
+        @Override
+        public void send(List<byte[]> bodies, List<Map<String, String>> headers) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Delta.delta;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class LatencyHistogramTest {
+    /**
+     * Every counter should count a contiguous range of values, and every value should be counted by the counter whose range contains it.
+     */
+    @Test
+    public void testGetIndex() {
+        final LatencyHistogram histogram = new LatencyHistogram(3);
+        long expectedLowest = 0;
+        for (int index = 0; index < 60000; index++) {
+            final long lowest = histogram.getLowestEquivalentValue(index);
+            final long highest = histogram.getHighestEquivalentValue(index);
+            assertThat(lowest).as("Lowest value of counter " + index).isEqualTo(expectedLowest);
+            assertThat(histogram.getIndex(lowest)).as("Index of " + lowest).isEqualTo(index);
+            assertThat(histogram.getIndex(highest)).as("Index of " + highest).isEqualTo(index);
+            expectedLowest = highest + 1;
+            if (highest >= Long.MAX_VALUE / 2) {
+                break;
+            }
+        }
+        // The largest value must still have a counter
+        histogram.recordValue(Long.MAX_VALUE);
+        assertThat(histogram.getMaxValue()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    /**
+     * Values should be told apart to the requested number of significant digits.
+     */
+    @Test
+    public void testPrecision() {
+        final LatencyHistogram histogram = new LatencyHistogram(3);
+        for (long value : new long[] { 1, 1000, 123456, 987654321 }) {
+            final int index = histogram.getIndex(value);
+            final long range = histogram.getHighestEquivalentValue(index) - histogram.getLowestEquivalentValue(index);
+            assertThat((double) range / value).as("Relative precision at " + value).isLessThanOrEqualTo(0.001);
+        }
+    }
+
+    /**
+     * Percentiles should be the values below which the given share of values fall.
+     */
+    @Test
+    public void testGetValueAtPercentile() {
+        final LatencyHistogram histogram = new LatencyHistogram(3);
+        for (long value = 1; value <= 10000; value++) {
+            histogram.recordValue(value);
+        }
+        assertThat(histogram.getTotalCount()).isEqualTo(10000);
+        assertThat(histogram.getMinValue()).isEqualTo(1);
+        assertThat(histogram.getMaxValue()).isEqualTo(10000);
+        assertThat(histogram.getMean()).isEqualTo(5000.5);
+        assertThat(histogram.getValueAtPercentile(0)).isEqualTo(1);
+        assertThat((double) histogram.getValueAtPercentile(50)).isEqualTo(5000, delta(5));
+        assertThat((double) histogram.getValueAtPercentile(99)).isEqualTo(9900, delta(10));
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(10000);
+    }
+
+    /**
+     * An empty histogram should report zeroes.
+     */
+    @Test
+    public void testEmpty() {
+        final LatencyHistogram histogram = new LatencyHistogram(2);
+        assertThat(histogram.getValueAtPercentile(99)).isZero();
+        assertThat(histogram.getMinValue()).isZero();
+        assertThat(histogram.getMean()).isZero();
+        assertThat(histogram.getStdDeviation()).isZero();
+    }
+
+    /**
+     * Negative values, which can only come from clock skew, should be recorded as 0.
+     */
+    @Test
+    public void testRecordNegativeValue() {
+        final LatencyHistogram histogram = new LatencyHistogram(3);
+        histogram.recordValue(-5);
+        assertThat(histogram.getMaxValue()).isZero();
+        assertThat(histogram.getTotalCount()).isEqualTo(1);
+    }
+
+    /**
+     * The percentile distribution should be written in HdrHistogram's format, scaled to the output unit.
+     */
+    @Test
+    public void testOutputPercentileDistribution() {
+        final LatencyHistogram histogram = new LatencyHistogram(3);
+        for (long value = 1; value <= 100; value++) {
+            histogram.recordValue(value * 1000);
+        }
+        final StringWriter writer = new StringWriter();
+        histogram.outputPercentileDistribution(writer, 1000.0);
+        final String[] lines = writer.toString().split("\\r?\\n");
+        assertThat(lines[0].trim()).matches("Value\\s+Percentile\\s+TotalCount\\s+1/\\(1-Percentile\\)");
+        assertThat(lines[2].trim()).matches("1\\.000 0\\.000000000000\\s+1\\s+1\\.00");
+        assertThat(lines[lines.length - 4].trim()).matches("100\\.000 1\\.000000000000\\s+100");
+        assertThat(lines[lines.length - 3]).startsWith("#[Mean    =       50.500, StdDeviation   =");
+        assertThat(lines[lines.length - 2]).isEqualTo("#[Max     =      100.000, Total count    =          100]");
+    }
+
+    /**
+     * Only from 1 to 5 significant digits should be supported.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManySignificantDigits() {
+        new LatencyHistogram(6);
+    }
+}
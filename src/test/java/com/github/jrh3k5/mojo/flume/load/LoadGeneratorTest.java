@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LoadGenerator}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class LoadGeneratorTest {
+    /**
+     * Every worker should send batches until the duration passes, with every event sent counted.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRun() throws Exception {
+        final AtomicLong sent = new AtomicLong();
+        final LoadResult result = new LoadGenerator(worker -> new CountingSender(sent, worker == 1), 3, 10, 64).run(200);
+        assertThat(result.getFailedWorkers()).isEqualTo(1);
+        assertThat(result.getEvents()).isEqualTo(sent.get()).isGreaterThan(0L);
+        assertThat(result.getBytes()).isEqualTo(result.getEvents() * 64);
+        assertThat(result.getElapsedMillis()).isGreaterThanOrEqualTo(200L);
+        assertThat(result.getEventsPerSecond()).isGreaterThan(0.0);
+        assertThat(result.getBatchLatencies().getTotalCount()).isEqualTo(result.getEvents() / 10);
+    }
+
+    /**
+     * A run in which every worker fails should fail.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testRunAllFailed() throws Exception {
+        new LoadGenerator(worker -> new CountingSender(new AtomicLong(), true), 2, 10, 64).run(200);
+    }
+
+    /**
+     * The events of a batch should have alphanumeric bodies of the configured size.
+     */
+    @Test
+    public void testNewBatch() {
+        final List<byte[]> batch = new LoadGenerator(worker -> null, 1, 5, 32).newBatch(new Random(0));
+        assertThat(batch).hasSize(5);
+        for (byte[] body : batch) {
+            assertThat(new String(body).matches("[A-Za-z0-9]{32}")).isTrue();
+        }
+    }
+
+    /**
+     * A sender that counts the events sent to it, or fails.
+     * 
+     * @author Joshua Hyde
+     */
+    private static class CountingSender implements EventSender {
+        private final AtomicLong sent;
+        private final boolean failing;
+
+        /**
+         * Create a sender.
+         * 
+         * @param sent
+         *            An {@link AtomicLong} to which the number of events sent is to be added.
+         * @param failing
+         *            Whether every batch is to fail.
+         */
+        CountingSender(AtomicLong sent, boolean failing) {
+            this.sent = sent;
+            this.failing = failing;
+        }
+
+        @Override
+        public void send(List<byte[]> bodies, List<Map<String, String>> headers) throws IOException {
+            if (failing) {
+                throw new IOException("Refused.");
+            }
+            sent.addAndGet(bodies.size());
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
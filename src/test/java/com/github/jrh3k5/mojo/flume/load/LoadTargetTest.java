@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+
+/**
+ * Unit tests for {@link LoadTarget}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class LoadTargetTest {
+    private final AgentConfiguration configuration;
+
+    /**
+     * Create the test, configuring an agent with an exec, an HTTP, and an Avro source.
+     */
+    public LoadTargetTest() {
+        final Properties properties = new Properties();
+        properties.setProperty("a1.sources", "exec http avro");
+        properties.setProperty("a1.sources.exec.type", "exec");
+        properties.setProperty("a1.sources.http.type", "org.apache.flume.source.http.HTTPSource");
+        properties.setProperty("a1.sources.http.port", "8080");
+        properties.setProperty("a1.sources.avro.type", "AVRO");
+        properties.setProperty("a1.sources.avro.bind", "127.0.0.1");
+        properties.setProperty("a1.sources.avro.port", "4141");
+        configuration = new AgentConfiguration(properties, "a1");
+    }
+
+    /**
+     * Without a source name, the first source to which events can be sent should be used.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testForSourceFirst() throws Exception {
+        final LoadTarget target = LoadTarget.forSource(configuration, null);
+        assertThat(target.getSourceName()).isEqualTo("http");
+        assertThat(target.getProtocol()).isEqualTo(SourceProtocol.HTTP);
+        assertThat(target.getEndpoint()).isEqualTo(new InetSocketAddress("localhost", 8080));
+    }
+
+    /**
+     * A source given by name should be used.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testForSourceNamed() throws Exception {
+        final LoadTarget target = LoadTarget.forSource(configuration, "avro");
+        assertThat(target.getProtocol()).isEqualTo(SourceProtocol.AVRO);
+        assertThat(target.getEndpoint()).isEqualTo(new InetSocketAddress("127.0.0.1", 4141));
+    }
+
+    /**
+     * A source to which events cannot be sent should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testForSourceUnsupported() throws Exception {
+        LoadTarget.forSource(configuration, "exec");
+    }
+
+    /**
+     * A source that does not exist should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testForSourceUnknown() throws Exception {
+        LoadTarget.forSource(configuration, "netcat");
+    }
+}
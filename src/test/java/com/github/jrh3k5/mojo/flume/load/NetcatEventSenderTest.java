@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link NetcatEventSender}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class NetcatEventSenderTest {
+    /**
+     * Events should be written as lines, with an acknowledgement read for each.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testSend() throws Exception {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        try (final ServerSocket source = new ServerSocket(0)) {
+            final Thread server = new Thread(() -> {
+                try (final Socket socket = source.accept()) {
+                    final BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    final OutputStream out = socket.getOutputStream();
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        received.add(line);
+                        out.write("OK\n".getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // The test fails on the events not having been received
+                }
+            });
+            server.start();
+
+            try (final NetcatEventSender sender = new NetcatEventSender(new InetSocketAddress("localhost", source.getLocalPort()), true)) {
+                sender.send(Arrays.asList("first".getBytes(StandardCharsets.UTF_8), "second".getBytes(StandardCharsets.UTF_8)));
+            }
+            server.join(5000);
+        }
+        assertThat(received).containsExactly("first", "second");
+    }
+
+    /**
+     * Headers cannot be sent to a netcat source.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSendHeaders() throws Exception {
+        try (final ServerSocket source = new ServerSocket(0);
+                final NetcatEventSender sender = new NetcatEventSender(new InetSocketAddress("localhost", source.getLocalPort()), false)) {
+            sender.send(Collections.singletonList("body".getBytes(StandardCharsets.UTF_8)), Collections.singletonList(Collections.singletonMap("key", "value")));
+        }
+    }
+}
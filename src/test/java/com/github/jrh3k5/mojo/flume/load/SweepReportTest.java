@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link SweepReport}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class SweepReportTest {
+    /**
+     * Trials should be ranked by throughput, then by their 99th percentile batch latency, with failed trials last.
+     */
+    @Test
+    public void testGetRanked() {
+        final TrialResult failed = new TrialResult(Collections.singletonMap("batchSize", "1"), "Agent a1 exited before it became ready.");
+        final TrialResult slow = newTrial("10", 1000, 5000);
+        final TrialResult fastButLaggy = newTrial("100", 5000, 9000);
+        final TrialResult fast = newTrial("1000", 5000, 2000);
+        final List<TrialResult> ranked = new SweepReport(Arrays.asList(failed, slow, fastButLaggy, fast)).getRanked();
+        assertThat(ranked).containsExactly(fast, fastButLaggy, slow, failed);
+    }
+
+    /**
+     * The report should describe each trial, in rank, as JSON.
+     */
+    @Test
+    public void testToJson() {
+        final TrialResult failed = new TrialResult(Collections.singletonMap("batchSize", "1"), "Refused \"1\".");
+        final String json = new SweepReport(Arrays.asList(failed, newTrial("100", 1000, 2000))).toJson();
+        assertThat(json).startsWith("{\"trials\":[{\"rank\":1,\"parameters\":{\"batchSize\":\"100\"},\"events\":1000,\"eventsPerSecond\":1000.00,");
+        assertThat(json).contains("\"sinkEventsPerSecond\":null,\"failedWorkers\":0,\"batchLatencyMillis\":{\"p50\":2.000,\"p99\":2.000,\"max\":2.000},\"gc\":null}");
+        assertThat(json).endsWith("{\"rank\":2,\"parameters\":{\"batchSize\":\"1\"},\"failure\":\"Refused \\\"1\\\".\"}]}");
+        assertThat(new SweepReport(Arrays.asList(failed, newTrial("100", 1000, 2000))).toTable()).hasSize(3);
+    }
+
+    /**
+     * Create a trial that ran for a second.
+     * 
+     * @param batchSize
+     *            The value of the swept batch size.
+     * @param events
+     *            The number of events accepted.
+     * @param batchMicros
+     *            The time, in microseconds, taken to accept each batch.
+     * @return A {@link TrialResult}.
+     */
+    private static TrialResult newTrial(String batchSize, long events, long batchMicros) {
+        final LatencyHistogram batchLatencies = new LatencyHistogram(3);
+        batchLatencies.recordValue(batchMicros);
+        return new TrialResult(Collections.singletonMap("batchSize", batchSize), new LoadResult(events, events * 10, 1000, 0, batchLatencies), -1, null);
+    }
+}
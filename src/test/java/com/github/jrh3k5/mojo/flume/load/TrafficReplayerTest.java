@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.load;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+import com.github.jrh3k5.mojo.flume.capture.CaptureFileWriter;
+import com.github.jrh3k5.mojo.flume.capture.CapturedEvent;
+
+/**
+ * Unit tests for {@link TrafficReplayer}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class TrafficReplayerTest extends AbstractUnitTest {
+    /**
+     * Events should be replayed with their headers, events recorded together should be sent together, and the time between them, from the first event, should be scaled by the speed.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRun() throws Exception {
+        final File recording = record(50000000L, 50000000L, 50000000L, 250000000L, 450000000L);
+        final RecordingSender sender = new RecordingSender(false);
+        final long start = System.nanoTime();
+        final ReplayResult result = new TrafficReplayer(worker -> sender, 1, 10, 2, true).run(recording);
+        assertThat((System.nanoTime() - start) / 1000000L).isGreaterThanOrEqualTo(200L);
+
+        assertThat(result.getEvents()).isEqualTo(5L);
+        assertThat(result.getBytes()).isEqualTo(5L);
+        assertThat(result.getFailedWorkers()).isZero();
+        assertThat(result.getRecordedMillis()).isEqualTo(400L);
+        assertThat(sender.batchSizes).isEqualTo(Arrays.asList(3, 1, 1));
+        assertThat(sender.headers).hasSize(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(sender.headers.get(i)).isEqualTo(Collections.singletonMap("index", Integer.toString(i)));
+        }
+    }
+
+    /**
+     * At maximum speed, every event is due at once, so batches should be filled to the batch size, and headers should be left out if they are not to be sent.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRunMaxSpeed() throws Exception {
+        final File recording = record(0L, 1000000000L, 2000000000L, 3000000000L, 4000000000L);
+        final RecordingSender sender = new RecordingSender(false);
+        final long start = System.nanoTime();
+        final ReplayResult result = new TrafficReplayer(worker -> sender, 1, 2, Double.POSITIVE_INFINITY, false).run(recording);
+        assertThat((System.nanoTime() - start) / 1000000L).isLessThan(1000L);
+        assertThat(result.getEvents()).isEqualTo(5L);
+        assertThat(result.getRecordedMillis()).isEqualTo(4000L);
+        assertThat(sender.batchSizes).isEqualTo(Arrays.asList(2, 2, 1));
+        assertThat(sender.headers).isEmpty();
+    }
+
+    /**
+     * A replay in which every worker fails should fail.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testRunAllFailed() throws Exception {
+        final File recording = record(0L, 0L, 0L, 0L);
+        new TrafficReplayer(worker -> new RecordingSender(true), 2, 1, Double.POSITIVE_INFINITY, true).run(recording);
+    }
+
+    /**
+     * The time at which an event is due should be scaled by the speed of the replay.
+     */
+    @Test
+    public void testDueNanos() {
+        assertThat(new TrafficReplayer(worker -> null, 1, 1, 1, true).dueNanos(1000L)).isEqualTo(1000L);
+        assertThat(new TrafficReplayer(worker -> null, 1, 1, 4, true).dueNanos(1000L)).isEqualTo(250L);
+        assertThat(new TrafficReplayer(worker -> null, 1, 1, 0.5, true).dueNanos(1000L)).isEqualTo(2000L);
+        assertThat(new TrafficReplayer(worker -> null, 1, 1, Double.POSITIVE_INFINITY, true).dueNanos(1000L)).isZero();
+    }
+
+    /**
+     * A replay whose speed is not positive should be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroSpeed() {
+        new TrafficReplayer(worker -> null, 1, 1, 0, true);
+    }
+
+    /**
+     * Write a recording of events with one-byte bodies, each with an {@code index} header.
+     * 
+     * @param receivedNanos
+     *            The times, in nanoseconds relative to the start of the recording, at which the events were received.
+     * @return The capture file holding the recording.
+     * @throws IOException
+     *             If the recording cannot be written.
+     */
+    private File record(long... receivedNanos) throws IOException {
+        final File recording = new File(createTestDirectory(), "recording.capture");
+        try (final CaptureFileWriter writer = new CaptureFileWriter(recording, 0L)) {
+            for (int i = 0; i < receivedNanos.length; i++) {
+                writer.write(Collections.singletonList(new CapturedEvent(Collections.singletonMap("index", Integer.toString(i)), "x".getBytes(StandardCharsets.UTF_8),
+                        receivedNanos[i])));
+            }
+        }
+        return recording;
+    }
+
+    /**
+     * A sender that records the batches sent to it, or fails.
+     * 
+     * @author Joshua Hyde
+     */
+    private static class RecordingSender implements EventSender {
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        private final List<Map<String, String>> headers = Collections.synchronizedList(new ArrayList<>());
+        private final boolean failing;
+
+        /**
+         * Create a sender.
+         * 
+         * @param failing
+         *            Whether every batch is to fail.
+         */
+        RecordingSender(boolean failing) {
+            this.failing = failing;
+        }
+
+        @Override
+        public void send(List<byte[]> bodies, List<Map<String, String>> headers) throws IOException {
+            if (failing) {
+                throw new IOException("Refused.");
+            }
+            batchSizes.add(bodies.size());
+            if (headers != null) {
+                this.headers.addAll(headers);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
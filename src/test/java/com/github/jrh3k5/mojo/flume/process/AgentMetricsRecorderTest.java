@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for {@link AgentMetricsRecorder}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentMetricsRecorderTest extends AbstractUnitTest {
+    /**
+     * The recorder should append each sample to the agent's samples file and write the summary when closed.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRecord() throws Exception {
+        final AtomicInteger drained = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/metrics", exchange -> {
+            final byte[] body = String.format("{\"SINK.k1\":{\"EventDrainSuccessCount\":\"%d\"}}", drained.addAndGet(10)).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        final File metricsDirectory = createTestDirectory();
+        final AgentMetricsRecorder recorder = new AgentMetricsRecorder("a1", server.getAddress().getPort(), metricsDirectory, 50);
+        try {
+            recorder.start();
+            Thread.sleep(300);
+        } finally {
+            recorder.close();
+            server.stop(0);
+        }
+
+        final List<String> samples = FileUtils.readLines(new File(metricsDirectory, "a1.jsonl"), "utf-8");
+        assertThat(samples.size()).isGreaterThan(1);
+        assertThat(samples.get(0)).matches("\\{\"timestamp\":\\d+,\"SINK.k1\":\\{\"EventDrainSuccessCount\":\"10\"\\}\\}");
+        assertThat(recorder.getSummary().getSampleCount()).isEqualTo(samples.size());
+        assertThat(recorder.getSummary().getIncrease("SINK.k1", "EventDrainSuccessCount")).isEqualTo(10L * (samples.size() - 1));
+        assertThat(FileUtils.readFileToString(new File(metricsDirectory, "a1-summary.json"), "utf-8")).startsWith("{\"agent\":\"a1\",\"samples\":" + samples.size());
+    }
+}
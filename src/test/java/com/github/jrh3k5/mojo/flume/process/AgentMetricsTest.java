@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for {@link AgentMetrics}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentMetricsTest {
+    private static final String METRICS = "{\"SOURCE.r1\":{\"EventReceivedCount\":\"12\",\"Type\":\"SOURCE\"},"
+            + "\"CHANNEL.c1\":{\"ChannelSize\":\"3\",\"EventTakeSuccessCount\":\"9\",\"ChannelFillPercentage\":\"3.0\",\"Type\":\"CHANNEL\"},"
+            + "\"CHANNEL.c2\":{\"ChannelSize\":\"4\",\"EventTakeSuccessCount\":\"1\",\"Type\":\"CHANNEL\"}}";
+
+    /**
+     * The counters reported by Flume's HTTP monitoring should be parsed by component and summed by type.
+     */
+    @Test
+    public void testParse() {
+        final AgentMetrics metrics = AgentMetrics.parse(METRICS);
+        assertThat(new ArrayList<>(metrics.getComponents().keySet())).containsExactly("SOURCE.r1", "CHANNEL.c1", "CHANNEL.c2");
+        assertThat(new ArrayList<>(metrics.getComponents("CHANNEL").keySet())).containsExactly("c1", "c2");
+        assertThat(metrics.getComponents("CHANNEL").get("c1").get("ChannelFillPercentage")).isEqualTo("3.0");
+        assertThat(metrics.sum("CHANNEL", "ChannelSize")).isEqualTo(7L);
+        assertThat(metrics.sum("CHANNEL", "EventTakeSuccessCount")).isEqualTo(10L);
+        assertThat(metrics.sum("SINK", "EventDrainSuccessCount")).isEqualTo(0L);
+        assertThat(AgentMetrics.parse("{}").getComponents()).isEmpty();
+    }
+
+    /**
+     * The counters should be fetched from the agent's monitoring port.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testFetch() throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/metrics", exchange -> {
+            final byte[] body = METRICS.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            assertThat(AgentMetrics.fetch(server.getAddress().getPort()).sum("CHANNEL", "ChannelSize")).isEqualTo(7L);
+        } finally {
+            server.stop(0);
+        }
+    }
+}
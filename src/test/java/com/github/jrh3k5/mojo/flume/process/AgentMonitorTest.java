@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for {@link AgentMonitor}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentMonitorTest {
+    private final AtomicInteger delivered = new AtomicInteger();
+    private HttpServer server;
+
+    /**
+     * Start a monitoring server whose source accepts and sink delivers ten events, and whose channel gives up one, each time its counters are read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the setup.
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/metrics", exchange -> {
+            final int events = delivered.addAndGet(10);
+            final byte[] body = String.format("{\"CHANNEL.c1\":{\"ChannelSize\":\"%d\"},\"SINK.k1\":{\"EventDrainSuccessCount\":\"%d\"},\"SOURCE.r1\":{\"EventAcceptedCount\":\"%d\"}}",
+                    Math.max(0, 5 - events / 10), events, events)
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    /**
+     * Stop the monitoring server.
+     */
+    @After
+    public void tearDown() {
+        server.stop(0);
+        System.clearProperty("flume.port.a1-1.monitoring");
+        System.clearProperty("flume.port.a1-2.monitoring");
+    }
+
+    /**
+     * Waiting for a sink should return once it has delivered the events, summed over the replicas.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testAwaitSinkEvents() throws Exception {
+        final int port = server.getAddress().getPort();
+        final AgentMonitor monitor = new AgentMonitor(Arrays.asList(port, port));
+        assertThat(monitor.awaitSinkEvents("k1", 100, 10000)).hasSize(2);
+        assertThat(delivered.get()).isGreaterThanOrEqualTo(50).isLessThan(100);
+    }
+
+    /**
+     * Waiting for a source should return once it has accepted the events, and its count should be readable.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testAwaitSourceEvents() throws Exception {
+        final AgentMonitor monitor = new AgentMonitor(Arrays.asList(server.getAddress().getPort()));
+        assertThat(monitor.getSourceEvents("r1")).isEqualTo(10L);
+        assertThat(monitor.getSourceEvents("r2")).isZero();
+        monitor.awaitSourceEvents("r1", 50, 10000);
+        assertThat(delivered.get()).isEqualTo(50);
+    }
+
+    /**
+     * Waiting for the channels should return once they are empty.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testAwaitChannelsEmpty() throws Exception {
+        new AgentMonitor(Arrays.asList(server.getAddress().getPort())).awaitChannelsEmpty(10000);
+        assertThat(delivered.get()).isEqualTo(50);
+    }
+
+    /**
+     * Waiting for a reload should return once a component reports having been started since the change, and should not be failed by the counters being unavailable while the agent reloads.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testAwaitReload() throws Exception {
+        final long changeTime = System.currentTimeMillis();
+        final AtomicInteger requests = new AtomicInteger();
+        final HttpServer reloadingServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        reloadingServer.createContext("/metrics", exchange -> {
+            final int request = requests.incrementAndGet();
+            if (request == 2) {
+                // The agent stops serving its counters while it reloads
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            final byte[] body = String.format("{\"CHANNEL.c1\":{\"StartTime\":\"%d\"},\"SINK.k1\":{\"StartTime\":\"%d\"}}", changeTime - 60000, request < 3 ? changeTime - 60000 : changeTime)
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        reloadingServer.start();
+        try {
+            new AgentMonitor(Arrays.asList(reloadingServer.getAddress().getPort())).awaitReload(changeTime, 10000);
+            assertThat(requests.get()).isEqualTo(3);
+        } finally {
+            reloadingServer.stop(0);
+        }
+    }
+
+    /**
+     * Waiting for a reload of an agent whose components have not been started since the change should time out.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = TimeoutException.class)
+    public void testAwaitReloadTimeout() throws Exception {
+        new AgentMonitor(Arrays.asList(server.getAddress().getPort())).awaitReload(System.currentTimeMillis(), 200);
+    }
+
+    /**
+     * Waiting for a condition that is not met in time should fail with the current counters.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testAwaitTimeout() throws Exception {
+        try {
+            new AgentMonitor(Arrays.asList(server.getAddress().getPort())).awaitSinkEvents("k2", 1, 200);
+            fail("Waiting for a sink that delivers nothing should have timed out.");
+        } catch (TimeoutException e) {
+            assertThat(e.getMessage()).contains("sink k2 to deliver 1 events").contains("SINK.k1={EventDrainSuccessCount=");
+        }
+    }
+
+    /**
+     * A monitor of an agent run as replicas should be found through the monitoring port properties of its replicas.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testForAgent() throws Exception {
+        final int port = server.getAddress().getPort();
+        System.setProperty("flume.port.a1-1.monitoring", Integer.toString(port));
+        System.setProperty("flume.port.a1-2.monitoring", Integer.toString(port));
+        assertThat(AgentMonitor.forAgent("a1").getMetrics()).hasSize(2);
+    }
+
+    /**
+     * A monitor cannot be created for an agent whose monitoring port is unknown.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testForAgentUnknown() {
+        AgentMonitor.forAgent("unknown");
+    }
+}
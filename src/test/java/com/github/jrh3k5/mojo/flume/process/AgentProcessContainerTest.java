@@ -55,6 +55,32 @@ public class AgentProcessContainerTest {
         verify(agentProcess).stop();
     }
 
+    /**
+     * Stopping a group of agents should stop all of the agents stored in the group.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testStopAgentProcessGroup() throws Exception {
+        final String groupName = UUID.randomUUID().toString();
+        final AgentProcess firstReplica = mock(AgentProcess.class);
+        when(firstReplica.getAgentName()).thenReturn(groupName + "-1");
+        final AgentProcess secondReplica = mock(AgentProcess.class);
+        when(secondReplica.getAgentName()).thenReturn(groupName + "-2");
+
+        AgentProcessContainer.storeAgentProcess(groupName, firstReplica);
+        AgentProcessContainer.storeAgentProcess(groupName, secondReplica);
+        assertThat(AgentProcessContainer.getAgentProcesses(groupName)).containsExactly(firstReplica, secondReplica);
+        assertThat(AgentProcessContainer.getAgentProcesses(groupName + "-2")).containsExactly(secondReplica);
+
+        AgentProcessContainer.stopAgentProcess(groupName);
+        verify(firstReplica).stop();
+        verify(secondReplica).stop();
+        assertThat(AgentProcessContainer.getAgentProcesses(groupName)).isEmpty();
+    }
+
     /**
      * If the agent process has already been stored in the container, then an {@link IllegalStateException} should be thrown.
      * 
@@ -23,6 +23,7 @@ import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.junit.Before;
 import org.junit.Test;
@@ -32,7 +33,9 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Matchers.eq;
@@ -96,6 +99,52 @@ public class AgentProcessTest extends AbstractUnitTest {
         verify(process).waitFor();
     }
 
+    /**
+     * Restarting the agent should stop the running process and start a new one, to which any joined threads are handed off.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testRestart() throws Exception {
+        final Process process = mockAgentStart();
+        final ProcessBuilderProxy builderProxy = mock(ProcessBuilderProxy.class);
+        whenNew(ProcessBuilderProxy.class).withArguments(eq(flumeDirectory), any(List.class)).thenReturn(builderProxy);
+        final Process restartedProcess = mock(Process.class);
+        when(builderProxy.start()).thenReturn(restartedProcess);
+        when(process.waitFor(anyLong(), any(TimeUnit.class))).thenReturn(true);
+
+        agentProcess.restart();
+        verify(process).destroy();
+        verify(process).waitFor(anyLong(), any(TimeUnit.class));
+        verify(process, never()).destroyForcibly();
+
+        agentProcess.join();
+        verify(restartedProcess).waitFor();
+    }
+
+    /**
+     * Restarting an agent that does not exit when asked to stop should kill it rather than wait on it indefinitely.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testRestartNotExiting() throws Exception {
+        final Process process = mockAgentStart();
+        final ProcessBuilderProxy builderProxy = mock(ProcessBuilderProxy.class);
+        whenNew(ProcessBuilderProxy.class).withArguments(eq(flumeDirectory), any(List.class)).thenReturn(builderProxy);
+        when(builderProxy.start()).thenReturn(mock(Process.class));
+        when(process.waitFor(anyLong(), any(TimeUnit.class))).thenReturn(false);
+
+        agentProcess.restart();
+        verify(process).destroy();
+        verify(process).destroyForcibly();
+        verify(process, never()).waitFor();
+    }
+
     /**
      * Test the starting and stopping of the process.
      * 
@@ -121,6 +170,50 @@ public class AgentProcessTest extends AbstractUnitTest {
         assertThat(getArguments(args.subList(2, args.size()))).containsOnly(new Argument("-c", "conf"), new Argument("-f", configFile.getAbsolutePath()), new Argument("-n", agentName));
     }
 
+    /**
+     * Launching an agent directly should run the Flume application class with a class path and native library path built from the Flume installation.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test
+    public void testStartDirect() throws Exception {
+        final File libJar = new File(flumeDirectory, "lib/flume-ng-core.jar");
+        final File pluginJar = new File(flumeDirectory, "plugins.d/my-plugin/lib/my-plugin.jar");
+        final File pluginDependencyJar = new File(flumeDirectory, "plugins.d/my-plugin/libext/my-dependency.jar");
+        final File nativeDirectory = new File(flumeDirectory, "plugins.d/my-plugin/native");
+        FileUtils.touch(libJar);
+        FileUtils.touch(pluginJar);
+        FileUtils.touch(pluginDependencyJar);
+        FileUtils.forceMkdir(nativeDirectory);
+
+        agentProcess = AgentProcess.newBuilder(flumeDirectory).withAgent(agentName).withConfigFile(configFile).withLaunchMode(LaunchMode.DIRECT).withJavaOpts(" -Xmx64m  -Dfoo=bar").build();
+        @SuppressWarnings("rawtypes")
+        final ArgumentCaptor<List> argsCaptor = ArgumentCaptor.forClass(List.class);
+        mockAgentStart(argsCaptor);
+
+        @SuppressWarnings("unchecked")
+        final List<String> args = argsCaptor.getValue();
+        final String classPath = String.join(File.pathSeparator, new File(flumeDirectory, "conf").getAbsolutePath(), libJar.getAbsolutePath(), pluginJar.getAbsolutePath(),
+                pluginDependencyJar.getAbsolutePath());
+        assertThat(args.get(0)).isEqualTo(new File(System.getProperty("java.home"), "bin/java").getAbsolutePath());
+        assertThat(args.subList(1, 7)).containsExactly("-Xmx64m", "-Dfoo=bar", "-cp", classPath, "-Djava.library.path=" + nativeDirectory.getAbsolutePath(), "org.apache.flume.node.Application");
+        assertThat(getArguments(args.subList(7, args.size()))).containsOnly(new Argument("-f", configFile.getAbsolutePath()), new Argument("-n", agentName));
+    }
+
+    /**
+     * Starting an embedded agent without a Flume installation from which to load it should fail.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     * @since 3.1
+     */
+    @Test(expected = IOException.class)
+    public void testStartEmbeddedWithoutFlume() throws Exception {
+        AgentProcess.newBuilder(flumeDirectory).withAgent(agentName).withConfigFile(configFile).withLaunchMode(LaunchMode.EMBEDDED).build().start();
+    }
+
     /**
      * Test the stopping of the agent process.
      * 
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+import com.github.jrh3k5.mojo.flume.config.AgentConfiguration;
+
+/**
+ * Unit tests for {@link AgentReadiness}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class AgentReadinessTest extends AbstractUnitTest {
+    /**
+     * Only sources listening on TCP ports should be probed, with sources bound to all interfaces probed through the loopback interface.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetEndpoints() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("a1.sources", "avro http syslog exec");
+        properties.setProperty("a1.sources.avro.type", "avro");
+        properties.setProperty("a1.sources.avro.bind", "127.0.0.1");
+        properties.setProperty("a1.sources.avro.port", "4141");
+        properties.setProperty("a1.sources.http.type", "http");
+        properties.setProperty("a1.sources.http.bind", "0.0.0.0");
+        properties.setProperty("a1.sources.http.port", "8080");
+        properties.setProperty("a1.sources.syslog.type", "syslogudp");
+        properties.setProperty("a1.sources.syslog.port", "5140");
+        properties.setProperty("a1.sources.exec.type", "exec");
+
+        final List<InetSocketAddress> endpoints = AgentReadiness.getEndpoints(new AgentConfiguration(properties, "a1"));
+        assertThat(endpoints).containsExactly(InetSocketAddress.createUnresolved("127.0.0.1", 4141), InetSocketAddress.createUnresolved("localhost", 8080));
+    }
+
+    /**
+     * An agent should be ready once its sources accept connections, and should not be ready if it never does.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testAwaitReady() throws Exception {
+        final File configFile = new File(createTestDirectory(), "flume.conf");
+        final AgentProcess agentProcess = mock(AgentProcess.class);
+        when(agentProcess.getAgentName()).thenReturn("a1");
+        when(agentProcess.getConfigFile()).thenReturn(configFile);
+        when(agentProcess.isAlive()).thenReturn(true);
+
+        try (final ServerSocket source = new ServerSocket(0)) {
+            FileUtils.writeLines(configFile, "utf-8", Arrays.asList("a1.sources = r1", "a1.sources.r1.type = avro", "a1.sources.r1.port = " + source.getLocalPort()));
+            AgentReadiness.awaitReady(agentProcess, 5000);
+        }
+
+        IOException caught = null;
+        try {
+            AgentReadiness.awaitReady(agentProcess, 300);
+        } catch (IOException e) {
+            caught = e;
+        }
+        assertThat(caught).isNotNull();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for {@link ChannelDrain}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ChannelDrainTest {
+    private final AtomicInteger channelSize = new AtomicInteger();
+    private final AtomicInteger takes = new AtomicInteger();
+    private HttpServer server;
+
+    /**
+     * Start a monitoring server whose channel is emptied by one event each time its counters are read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the setup.
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/metrics", exchange -> {
+            final int size = channelSize.get();
+            final String metrics = String.format("{\"CHANNEL.c1\":{\"ChannelSize\":\"%d\",\"EventTakeSuccessCount\":\"%d\"}}", size, takes.get());
+            if (size > 0) {
+                channelSize.decrementAndGet();
+                takes.incrementAndGet();
+            }
+            final byte[] body = metrics.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    /**
+     * Stop the monitoring server.
+     */
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * Draining should wait until the channels are empty and report the events taken meanwhile.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testDrain() throws Exception {
+        channelSize.set(2);
+        final ChannelDrain drain = ChannelDrain.drain(server.getAddress().getPort(), 10000);
+        assertThat(drain.isDrained()).isTrue();
+        assertThat(drain.getEventsTaken()).isEqualTo(2L);
+        assertThat(drain.getRemainingEvents()).isEqualTo(0L);
+        assertThat(drain.getDrainMillis()).isGreaterThanOrEqualTo(0L);
+    }
+
+    /**
+     * Draining should give up once its timeout passes, reporting the events that remain.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testDrainTimeout() throws Exception {
+        channelSize.set(1000);
+        final ChannelDrain drain = ChannelDrain.drain(server.getAddress().getPort(), 300);
+        assertThat(drain.isDrained()).isFalse();
+        assertThat(drain.getRemainingEvents()).isGreaterThan(0L);
+        assertThat(drain.getDrainMillis()).isGreaterThanOrEqualTo(300L);
+    }
+}
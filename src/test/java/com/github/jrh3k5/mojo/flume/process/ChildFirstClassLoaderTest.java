@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link ChildFirstClassLoader}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ChildFirstClassLoaderTest extends AbstractUnitTest {
+    /**
+     * Resources should be found in the class loader's own URLs before those of its parent.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetResourceChildFirst() throws Exception {
+        final File childDirectory = createTestDirectory();
+        FileUtils.write(new File(childDirectory, "log4j.properties"), "log4j.rootLogger = INFO");
+
+        final ClassLoader parent = getClass().getClassLoader();
+        try (final ChildFirstClassLoader classLoader = new ChildFirstClassLoader(new URL[] { childDirectory.toURI().toURL() }, parent)) {
+            final URL resource = classLoader.getResource("log4j.properties");
+            assertThat(resource).isEqualTo(new File(childDirectory, "log4j.properties").toURI().toURL());
+
+            // Both copies should be visible, with the class loader's own copy first
+            final List<URL> resources = Collections.list(classLoader.getResources("log4j.properties"));
+            assertThat(resources).hasSize(2);
+            assertThat(resources.get(0)).isEqualTo(resource);
+        }
+    }
+
+    /**
+     * Classes that are not in the class loader's own URLs should be loaded from its parent, and platform classes should always come from the parent.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testLoadClassFallsBackToParent() throws Exception {
+        final File childDirectory = createTestDirectory();
+        FileUtils.forceMkdir(childDirectory);
+
+        try (final ChildFirstClassLoader classLoader = new ChildFirstClassLoader(new URL[] { childDirectory.toURI().toURL() }, getClass().getClassLoader())) {
+            assertThat(classLoader.loadClass(String.class.getName())).isEqualTo(String.class);
+            assertThat(classLoader.loadClass(AbstractUnitTest.class.getName())).isEqualTo(AbstractUnitTest.class);
+        }
+    }
+}
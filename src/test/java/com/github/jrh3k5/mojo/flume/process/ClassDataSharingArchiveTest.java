@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link ClassDataSharingArchive}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ClassDataSharingArchiveTest extends AbstractUnitTest {
+    /**
+     * The fingerprint of a class path should be stable while the class path is unchanged and change when an entry of the class path changes.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testFingerprint() throws Exception {
+        final File testDirectory = createTestDirectory();
+        final File flumeJar = new File(testDirectory, "flume-ng-core.jar");
+        final File avroJar = new File(testDirectory, "avro.jar");
+        FileUtils.write(flumeJar, "flume");
+        FileUtils.write(avroJar, "avro");
+
+        final String fingerprint = ClassDataSharingArchive.fingerprint(Arrays.asList(flumeJar, avroJar));
+        assertThat(ClassDataSharingArchive.fingerprint(Arrays.asList(flumeJar, avroJar))).isEqualTo(fingerprint);
+        // The JVM rejects an archive whose class path is in a different order
+        assertThat(ClassDataSharingArchive.fingerprint(Arrays.asList(avroJar, flumeJar))).isNotEqualTo(fingerprint);
+
+        FileUtils.write(avroJar, "avro-1.8");
+        assertThat(ClassDataSharingArchive.fingerprint(Arrays.asList(flumeJar, avroJar))).isNotEqualTo(fingerprint);
+    }
+
+    /**
+     * Ordering a class path for sharing should move its directories after its JAR files while otherwise preserving its order.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testOrderForSharing() throws Exception {
+        final File testDirectory = createTestDirectory();
+        final File confDirectory = new File(testDirectory, "conf");
+        final File flumeJar = new File(testDirectory, "flume-ng-core.jar");
+        final File avroJar = new File(testDirectory, "avro.jar");
+        FileUtils.forceMkdir(confDirectory);
+        FileUtils.touch(flumeJar);
+        FileUtils.touch(avroJar);
+
+        assertThat(ClassDataSharingArchive.orderForSharing(Arrays.asList(confDirectory, flumeJar, avroJar))).containsExactly(flumeJar, avroJar, confDirectory);
+    }
+}
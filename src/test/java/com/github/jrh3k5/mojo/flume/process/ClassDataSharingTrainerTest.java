@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.net.ServerSocket;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.flume.Context;
+import org.apache.flume.conf.Configurable;
+import org.apache.flume.sink.AbstractSink;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link ClassDataSharingTrainer}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ClassDataSharingTrainerTest extends AbstractUnitTest {
+    /**
+     * Training should configure each of the agent's components, but start none of them: no port should be bound, no spooled file consumed, and no sink started.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testTrain() throws Exception {
+        final File testDirectory = createTestDirectory();
+        final File spoolDirectory = new File(testDirectory, "spool");
+        final File spooledFile = new File(spoolDirectory, "events.log");
+        FileUtils.write(spooledFile, "event\n");
+        final int port;
+        try (final ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        final File configFile = new File(testDirectory, "flume.properties");
+        FileUtils.write(configFile, String.format("a1.sources = r1 r2%n" + "a1.channels = c1%n" + "a1.sinks = k1%n" + "a1.sources.r1.type = netcat%n" + "a1.sources.r1.bind = localhost%n"
+                + "a1.sources.r1.port = %d%n" + "a1.sources.r1.channels = c1%n" + "a1.sources.r2.type = spooldir%n" + "a1.sources.r2.spoolDir = %s%n" + "a1.sources.r2.channels = c1%n"
+                + "a1.channels.c1.type = memory%n" + "a1.sinks.k1.type = %s%n" + "a1.sinks.k1.channel = c1%n", port, spoolDirectory.getAbsolutePath().replace("\\", "\\\\"),
+                ProbeSink.class.getName()));
+
+        ProbeSink.configured = false;
+        ProbeSink.started = false;
+        ClassDataSharingTrainer.train("a1", configFile);
+
+        assertThat(ProbeSink.configured).isTrue();
+        assertThat(ProbeSink.started).isFalse();
+        assertThat(spoolDirectory.list()).containsOnly(spooledFile.getName());
+        try (final ServerSocket socket = new ServerSocket(port)) {
+            assertThat(socket.getLocalPort()).isEqualTo(port);
+        }
+    }
+
+    /**
+     * A sink that records whether it has been configured and started.
+     * 
+     * @author Joshua Hyde
+     * @since 3.1
+     */
+    public static class ProbeSink extends AbstractSink implements Configurable {
+        private static volatile boolean configured;
+        private static volatile boolean started;
+
+        @Override
+        public void configure(Context context) {
+            configured = true;
+        }
+
+        @Override
+        public synchronized void start() {
+            started = true;
+            super.start();
+        }
+
+        @Override
+        public Status process() {
+            return Status.BACKOFF;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.flume.Event;
+import org.apache.flume.conf.FlumeConfiguration;
+import org.apache.flume.source.NetcatSource;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link FlumeConfigurationValidator}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class FlumeConfigurationValidatorTest extends AbstractUnitTest {
+    /**
+     * Validating against a Flume installation that does not contain Flume's configuration classes should fail rather than report the configuration as valid.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testValidateWithoutFlumeConfiguration() throws Exception {
+        final File testDirectory = createTestDirectory();
+        final File flumeDirectory = new File(testDirectory, "flume");
+        FileUtils.forceMkdir(new File(flumeDirectory, "lib"));
+        final File configFile = new File(testDirectory, "flume.conf");
+        FileUtils.write(configFile, "a1.sources = r1");
+
+        FlumeConfigurationValidator.validate(flumeDirectory, configFile, "a1");
+    }
+
+    /**
+     * A configuration whose components are all valid and bound should have no problems reported.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testValidate() throws Exception {
+        final File configFile = writeConfigFile(String.format("a1.sources = r1%n" + "a1.channels = c1%n" + "a1.sinks = k1%n" + "a1.sources.r1.type = netcat%n"
+                + "a1.sources.r1.bind = localhost%n" + "a1.sources.r1.port = 44444%n" + "a1.sources.r1.channels = c1%n" + "a1.channels.c1.type = memory%n" + "a1.sinks.k1.type = logger%n"
+                + "a1.sinks.k1.channel = c1%n"));
+
+        assertThat(FlumeConfigurationValidator.validate(createFlumeInstallation(), configFile, "a1")).isEmpty();
+    }
+
+    /**
+     * A sink bound to no channel, which Flume silently discards, should be reported.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testValidateUnboundSink() throws Exception {
+        final File configFile = writeConfigFile(String.format("a1.sources = r1%n" + "a1.channels = c1%n" + "a1.sinks = k1 k2%n" + "a1.sources.r1.type = netcat%n"
+                + "a1.sources.r1.bind = localhost%n" + "a1.sources.r1.port = 44444%n" + "a1.sources.r1.channels = c1%n" + "a1.channels.c1.type = memory%n" + "a1.sinks.k1.type = logger%n"
+                + "a1.sinks.k1.channel = c1%n" + "a1.sinks.k2.type = logger%n"));
+
+        final List<String> problems = FlumeConfigurationValidator.validate(createFlumeInstallation(), configFile, "a1");
+        assertThat(problems).contains("The sink k2 was discarded by Flume's validation; check its type and channel bindings.");
+    }
+
+    /**
+     * A component whose type names a class that is not in the Flume installation should be reported, although Flume itself would only find out once the agent had started.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testValidateUnknownType() throws Exception {
+        final File configFile = writeConfigFile(String.format("a1.sources = r1%n" + "a1.channels = c1%n" + "a1.sinks = k1%n" + "a1.sources.r1.type = com.example.MissingSource%n"
+                + "a1.sources.r1.channels = c1%n" + "a1.channels.c1.type = memory%n" + "a1.sinks.k1.type = logger%n" + "a1.sinks.k1.channel = c1%n"));
+
+        final List<String> problems = FlumeConfigurationValidator.validate(createFlumeInstallation(), configFile, "a1");
+        assertThat(problems).hasSize(1);
+        assertThat(problems.get(0)).startsWith("The source r1 has a type of com.example.MissingSource, but its class com.example.MissingSource could not be loaded");
+    }
+
+    /**
+     * Create a Flume installation whose {@code lib/} directory holds the JARs of Flume's configuration and core components and of their dependencies, as found on the test class path.
+     * 
+     * @return A {@link File} representing the Flume installation.
+     * @throws Exception
+     *             If the installation cannot be created.
+     */
+    private File createFlumeInstallation() throws Exception {
+        final File flumeDirectory = new File(createTestDirectory(), "flume");
+        final File libDirectory = new File(flumeDirectory, "lib");
+        FileUtils.forceMkdir(libDirectory);
+        for (Class<?> jarClass : new Class<?>[] { FlumeConfiguration.class, NetcatSource.class, Event.class, org.slf4j.Logger.class, com.google.common.base.Preconditions.class,
+                org.apache.log4j.Logger.class }) {
+            FileUtils.copyFileToDirectory(new File(jarClass.getProtectionDomain().getCodeSource().getLocation().toURI()), libDirectory);
+        }
+        return flumeDirectory;
+    }
+
+    /**
+     * Write an agent's configuration file.
+     * 
+     * @param configuration
+     *            The contents of the configuration file.
+     * @return A {@link File} representing the written configuration file.
+     * @throws IOException
+     *             If the file cannot be written.
+     */
+    private File writeConfigFile(String configuration) throws IOException {
+        final File configFile = new File(createTestDirectory(), "flume.properties");
+        FileUtils.write(configFile, configuration);
+        return configFile;
+    }
+}
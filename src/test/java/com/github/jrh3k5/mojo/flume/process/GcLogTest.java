@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Delta.delta;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link GcLog}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class GcLogTest extends AbstractUnitTest {
+    /**
+     * The pauses of a Java 8 GC log, both young and full, should be counted, whatever the decimal separator.
+     */
+    @Test
+    public void testParseLegacy() {
+        final GcLog gcLog = GcLog.parse(Arrays.asList("Java HotSpot(TM) 64-Bit Server VM (25.392-b08) for linux-amd64 JRE (1.8.0_392-b08)",
+                "0.512: [GC (Allocation Failure)  33280K->1234K(125952K), 0.0040000 secs]", "1.024: [GC (Allocation Failure)  34514K->2000K(125952K), 0,0020000 secs]",
+                "2.048: [Full GC (Ergonomics)  2000K->1500K(125952K), 0.0100000 secs]"));
+        assertThat(gcLog.getPauses()).isEqualTo(3);
+        assertThat(gcLog.getPauseMillis()).isEqualTo(16.0, delta(0.001));
+        assertThat(gcLog.getMaxPauseMillis()).isEqualTo(10.0, delta(0.001));
+    }
+
+    /**
+     * Only the pauses of a unified GC log should be counted, not its concurrent phases.
+     */
+    @Test
+    public void testParseUnified() {
+        final GcLog gcLog = GcLog.parse(Arrays.asList("[0.004s][info][gc] Using G1", "[0.512s][info][gc] GC(0) Pause Young (Normal) (G1 Evacuation Pause) 24M->3M(256M) 3.500ms",
+                "[0.900s][info][gc] GC(1) Concurrent Cycle 12.000ms", "[0.901s][info][gc] GC(1) Pause Remark 10M->10M(256M) 1.500ms"));
+        assertThat(gcLog.getPauses()).isEqualTo(2);
+        assertThat(gcLog.getPauseMillis()).isEqualTo(5.0, delta(0.001));
+        assertThat(gcLog.getMaxPauseMillis()).isEqualTo(3.5, delta(0.001));
+    }
+
+    /**
+     * Only the pauses written between the given points of a GC log should be read, and not those of lines cut by either point.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testReadPeriod() throws Exception {
+        final String warmup = "0.512: [GC (Allocation Failure)  33280K->1234K(125952K), 0.0040000 secs]\n";
+        final String measured = "1.024: [GC (Allocation Failure)  34514K->2000K(125952K), 0.0020000 secs]\n" + "2.048: [Full GC (Ergonomics)  2000K->1500K(125952K), 0.0100000 secs]\n";
+        final String shutdown = "3.072: [GC (Allocation Failure)  34514K->2000K(125952K), 0.0500000 secs]\n";
+        final File logFile = new File(createTestDirectory(), "gc.log");
+        FileUtils.write(logFile, warmup + measured + shutdown, StandardCharsets.UTF_8);
+
+        final GcLog gcLog = GcLog.read(logFile, warmup.length(), warmup.length() + measured.length());
+        assertThat(gcLog.getPauses()).isEqualTo(2);
+        assertThat(gcLog.getPauseMillis()).isEqualTo(12.0, delta(0.001));
+        assertThat(gcLog.getMaxPauseMillis()).isEqualTo(10.0, delta(0.001));
+
+        // A period that starts and ends partway through lines reads only the line written entirely within it
+        assertThat(GcLog.read(logFile, warmup.length() - 10, warmup.length() + measured.length() - 10).getPauses()).isEqualTo(1);
+    }
+
+    /**
+     * The arguments with which a GC log is written should name the log file.
+     */
+    @Test
+    public void testGetJavaOpts() {
+        final File logFile = new File("target/gc.log");
+        assertThat(GcLog.getJavaOpts(logFile)).isEqualTo("-Xloggc:" + logFile.getAbsolutePath());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MetricsSummary}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class MetricsSummaryTest {
+    /**
+     * The summary should report throughput over the samples, treating a counter that drops as having been reset.
+     */
+    @Test
+    public void testThroughput() {
+        final MetricsSummary summary = new MetricsSummary("a1");
+        summary.add(1000, sample(100, 0, 10.0));
+        summary.add(2000, sample(600, 0, 20.0));
+        // The agent was restarted, so its counters started over
+        summary.add(3000, sample(500, 2, 30.0));
+
+        assertThat(summary.getSampleCount()).isEqualTo(3);
+        assertThat(summary.getDurationMillis()).isEqualTo(2000L);
+        assertThat(summary.getIncrease("SINK.k1", "EventDrainSuccessCount")).isEqualTo(1000L);
+        assertThat(summary.getRatePerSecond("SINK.k1", "EventDrainSuccessCount")).isEqualTo(500.0);
+        assertThat(summary.getIncrease("SINK.k2", "EventDrainSuccessCount")).isEqualTo(0L);
+    }
+
+    /**
+     * The percentiles of the channel fill percentages should be found by nearest rank.
+     */
+    @Test
+    public void testChannelFillPercentile() {
+        final MetricsSummary summary = new MetricsSummary("a1");
+        for (int i = 1; i <= 100; i++) {
+            summary.add(i, sample(i, 0, i));
+        }
+        assertThat(summary.getChannelFillPercentile("c1", 50)).isEqualTo(50.0);
+        assertThat(summary.getChannelFillPercentile("c1", 99)).isEqualTo(99.0);
+        assertThat(summary.getChannelFillPercentile("c1", 100)).isEqualTo(100.0);
+        assertThat(summary.getChannelFillPercentile("c2", 50)).isEqualTo(0.0);
+    }
+
+    /**
+     * The summary should be rendered as JSON.
+     */
+    @Test
+    public void testToJson() {
+        final MetricsSummary summary = new MetricsSummary("a\"1");
+        summary.add(0, sample(0, 1, 0.0));
+        summary.add(1000, sample(250, 3, 50.0));
+        assertThat(summary.toJson()).isEqualTo("{\"agent\":\"a\\\"1\",\"samples\":2,\"durationMillis\":1000,\"sources\":{},"
+                + "\"sinks\":{\"k1\":{\"events\":250,\"eventsPerSecond\":250.00}},"
+                + "\"channels\":{\"c1\":{\"fillPercentage\":{\"p50\":0.00,\"p90\":50.00,\"p99\":50.00,\"max\":50.00}}},\"rollbacks\":{\"SINK.k1\":2}}");
+    }
+
+    /**
+     * Create a sample of an agent with a single channel and sink.
+     * 
+     * @param drained
+     *            The number of events drained by the sink.
+     * @param rollbacks
+     *            The number of rollbacks counted by the sink.
+     * @param fillPercentage
+     *            The fill percentage of the channel.
+     * @return An {@link AgentMetrics} representing the sample.
+     */
+    private static AgentMetrics sample(long drained, long rollbacks, double fillPercentage) {
+        return AgentMetrics.parse(String.format("{\"CHANNEL.c1\":{\"ChannelFillPercentage\":\"%s\"},\"SINK.k1\":{\"EventDrainSuccessCount\":\"%d\",\"RollbackCount\":\"%d\"}}",
+                fillPercentage, drained, rollbacks));
+    }
+}
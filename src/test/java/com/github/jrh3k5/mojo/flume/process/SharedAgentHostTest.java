@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link SharedAgentHost}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class SharedAgentHostTest extends AbstractUnitTest {
+    /**
+     * An agent that cannot be started should be reported as failed without affecting the handling of later commands.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRunFailedStart() throws Exception {
+        final File flumeDirectory = new File(createTestDirectory(), "flume");
+        final File configFile = new File(createTestDirectory(), "flume.properties");
+        final String commands = String.join("\n", String.join("\t", "START", "a1", flumeDirectory.getAbsolutePath(), configFile.getAbsolutePath()), "bogus", String.join("\t", "STOP", "a2"));
+
+        final ByteArrayOutputStream responses = new ByteArrayOutputStream();
+        new SharedAgentHost(new PrintStream(responses, true, "UTF-8")).run(new BufferedReader(new StringReader(commands)));
+
+        final String[] lines = responses.toString("UTF-8").split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("FAILED\ta1\t");
+        assertThat(lines[1]).isEqualTo("STOPPED\ta2");
+    }
+}
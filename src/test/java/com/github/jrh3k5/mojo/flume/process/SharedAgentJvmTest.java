@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.process;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link SharedAgentJvm}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class SharedAgentJvmTest extends AbstractUnitTest {
+    /**
+     * Stopping the last running agent should not shut down the JVM while another agent is being started in it; the JVM should instead be shut down once that start has finished.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStopWhileReserved() throws Exception {
+        final FakeHost host = new FakeHost(true);
+        final SharedAgentJvm jvm = new SharedAgentJvm(host, 5000);
+        final Process agent = jvm.start("a1", new File("flume"), new File("flume.properties"));
+
+        jvm.reserve();
+        agent.destroy();
+        assertThat(agent.isAlive()).isFalse();
+        assertThat(host.isAlive()).isTrue();
+
+        jvm.release();
+        assertThat(host.isAlive()).isFalse();
+    }
+
+    /**
+     * A host that never responds to a command should cause the command to fail once the response timeout elapses.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStartNoResponse() throws Exception {
+        final SharedAgentJvm jvm = new SharedAgentJvm(new FakeHost(false), 100);
+        try {
+            jvm.start("a1", new File("flume"), new File("flume.properties"));
+            fail("An exception should have been thrown.");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).contains("a1").contains("100 ms");
+        }
+    }
+
+    /**
+     * A stand-in for the forked JVM that, optionally, acknowledges each command written to it, and exits once its input is closed.
+     * 
+     * @author Joshua Hyde
+     * @since 3.1
+     */
+    private static class FakeHost extends Process {
+        private final CountDownLatch exitLatch = new CountDownLatch(1);
+        private final PipedOutputStream responses = new PipedOutputStream();
+        private final PipedInputStream responseInput;
+        private final boolean respond;
+
+        /**
+         * Create a host.
+         * 
+         * @param respond
+         *            {@code true} if the host should acknowledge the commands written to it.
+         * @throws IOException
+         *             If the host's output cannot be created.
+         */
+        FakeHost(boolean respond) throws IOException {
+            this.respond = respond;
+            this.responseInput = new PipedInputStream(responses);
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new OutputStream() {
+                private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+                @Override
+                public void write(int b) throws IOException {
+                    if (b != '\n') {
+                        line.write(b);
+                        return;
+                    }
+                    final String[] command = new String(line.toByteArray(), StandardCharsets.UTF_8).split(SharedAgentHost.SEPARATOR);
+                    line.reset();
+                    if (respond) {
+                        final String status = SharedAgentHost.START.equals(command[0]) ? SharedAgentHost.STARTED : SharedAgentHost.STOPPED;
+                        responses.write((status + SharedAgentHost.SEPARATOR + command[1] + "\n").getBytes(StandardCharsets.UTF_8));
+                        responses.flush();
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    responses.close();
+                    exitLatch.countDown();
+                }
+            };
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return responseInput;
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public int waitFor() throws InterruptedException {
+            exitLatch.await();
+            return 0;
+        }
+
+        @Override
+        public int exitValue() {
+            if (isAlive()) {
+                throw new IllegalThreadStateException("The host is still running.");
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return exitLatch.getCount() > 0;
+        }
+
+        @Override
+        public void destroy() {
+            exitLatch.countDown();
+        }
+    }
+}
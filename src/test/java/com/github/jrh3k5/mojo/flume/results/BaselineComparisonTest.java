@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Delta.delta;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link BaselineComparison}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class BaselineComparisonTest {
+    /**
+     * Without a named baseline, the run should be compared against the most recent committed revision other than its own, pooling the earlier runs of its own revision.
+     */
+    @Test
+    public void testCompareMostRecentRevision() {
+        final List<RunRecord> history = Arrays.asList(newRun("aaa", 500), newRun("aaa", 510), newRun("bbb", 1000), newRun("bbb", 1010), newRun("bbb", 990), newRun("ccc-dirty", 100),
+                newRun("ddd", 900), newRun("ddd", 910));
+        final BaselineComparison comparison = BaselineComparison.compare(history, newRun("ddd", 890), null, 5, 5.0);
+        assertThat(comparison.getBaselineRevision()).isEqualTo("bbb");
+        assertThat(comparison.getComparisons()).hasSize(1);
+
+        final MetricComparison throughput = comparison.getComparisons().get(0);
+        assertThat(throughput.getBaselineRuns()).isEqualTo(3);
+        assertThat(throughput.getCurrentRuns()).isEqualTo(3);
+        assertThat(throughput.getCurrentMean()).isEqualTo(900.0, delta(0.001));
+        assertThat(throughput.getVerdict()).isEqualTo(Verdict.REGRESSION);
+        assertThat(comparison.getRegressions()).containsOnly(throughput);
+    }
+
+    /**
+     * The earlier runs of an uncommitted revision should not be pooled with the run, since each may have measured different changes.
+     */
+    @Test
+    public void testCompareUncommitted() {
+        final List<RunRecord> history = Arrays.asList(newRun("bbb", 1000), newRun("bbb", 1010), newRun("ddd-dirty", 100));
+        final BaselineComparison comparison = BaselineComparison.compare(history, newRun("ddd-dirty", 1005), null, 5, 5.0);
+        assertThat(comparison.getBaselineRevision()).isEqualTo("bbb");
+        assertThat(comparison.getComparisons().get(0).getCurrentRuns()).isEqualTo(1);
+        assertThat(comparison.getRegressions()).isEmpty();
+    }
+
+    /**
+     * A named baseline should be matched by prefix, and only its most recent runs compared.
+     */
+    @Test
+    public void testCompareNamedRevision() {
+        final List<RunRecord> history = Arrays.asList(newRun("aaa111", 1), newRun("aaa111", 1000), newRun("aaa111", 1000), newRun("bbb222", 500));
+        final BaselineComparison comparison = BaselineComparison.compare(history, newRun("ccc333", 1000), "aaa", 2, 5.0);
+        assertThat(comparison.getBaselineRevision()).isEqualTo("aaa111");
+        assertThat(comparison.getComparisons().get(0).getBaselineRuns()).isEqualTo(2);
+        assertThat(comparison.getComparisons().get(0).getBaselineMean()).isEqualTo(1000.0, delta(0.001));
+    }
+
+    /**
+     * A run with nothing to compare against should have no baseline.
+     */
+    @Test
+    public void testCompareNoBaseline() {
+        final List<RunRecord> history = Arrays.asList(newRun("ddd", 1000), newRun("eee-dirty", 1000));
+        final BaselineComparison comparison = BaselineComparison.compare(history, newRun("ddd", 1000), null, 5, 5.0);
+        assertThat(comparison.getBaselineRevision()).isNull();
+        assertThat(comparison.getComparisons()).isEmpty();
+    }
+
+    /**
+     * Create a run.
+     * 
+     * @param revision
+     *            The revision of the run.
+     * @param eventsPerSecond
+     *            The throughput of the run.
+     * @return A {@link RunRecord}.
+     */
+    private static RunRecord newRun(String revision, double eventsPerSecond) {
+        return new RunRecord(0, revision, "fingerprint", "load/a1", Collections.singletonMap(Metric.EVENTS_PER_SECOND, eventsPerSecond));
+    }
+}
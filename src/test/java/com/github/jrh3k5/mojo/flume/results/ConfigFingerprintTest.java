@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link ConfigFingerprint}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ConfigFingerprintTest extends AbstractUnitTest {
+    /**
+     * The fingerprint should ignore ports, which are allocated afresh by each build, and the order and spacing of properties, but not their values or the parameters of the goal.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testOf() throws Exception {
+        final File directory = createTestDirectory();
+        final Map<String, String> parameters = Collections.singletonMap("batchSize", "100");
+        final String fingerprint = ConfigFingerprint.of(write(directory, "base.properties", "a1.sources.r1.port = 41414\na1.channels.c1.capacity = 1000\n"), parameters);
+        assertThat(fingerprint).hasSize(16);
+
+        assertThat(ConfigFingerprint.of(write(directory, "reordered.properties", "a1.channels.c1.capacity=1000\na1.sources.r1.port = 52525\n"), parameters)).isEqualTo(fingerprint);
+        assertThat(ConfigFingerprint.of(write(directory, "capacity.properties", "a1.sources.r1.port = 41414\na1.channels.c1.capacity = 2000\n"), parameters)).isNotEqualTo(fingerprint);
+        assertThat(ConfigFingerprint.of(write(directory, "base.properties", "a1.sources.r1.port = 41414\na1.channels.c1.capacity = 1000\n"),
+                Collections.singletonMap("batchSize", "500"))).isNotEqualTo(fingerprint);
+    }
+
+    /**
+     * Write a configuration file.
+     * 
+     * @param directory
+     *            The directory in which the file is to be written.
+     * @param name
+     *            The name of the file.
+     * @param contents
+     *            The contents of the file.
+     * @return The written {@link File}.
+     * @throws Exception
+     *             If the file cannot be written.
+     */
+    private static File write(File directory, String name, String contents) throws Exception {
+        final File file = new File(directory, name);
+        FileUtils.writeStringToFile(file, contents, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Delta.delta;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MetricComparison}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class MetricComparisonTest {
+    /**
+     * A significant drop in throughput beyond the threshold should be a regression, with a confidence interval from Welch's t-test.
+     */
+    @Test
+    public void testCompareThroughputRegression() {
+        final MetricComparison comparison = MetricComparison.compare(Metric.EVENTS_PER_SECOND, new double[] { 1000, 1010, 990, 1005, 995 }, new double[] { 900, 910, 890 }, 5.0);
+        assertThat(comparison.getBaselineRuns()).isEqualTo(5);
+        assertThat(comparison.getCurrentRuns()).isEqualTo(3);
+        assertThat(comparison.getBaselineMean()).isEqualTo(1000.0, delta(0.001));
+        assertThat(comparison.getCurrentMean()).isEqualTo(900.0, delta(0.001));
+        assertThat(comparison.getChangePercent()).isEqualTo(-10.0, delta(0.001));
+        // se = sqrt(62.5 / 5 + 100 / 3) = 6.770; df = 3.78, rounded down to 3
+        assertThat(comparison.getLowerPercent()).isEqualTo(-10.0 - 3.182 * 0.6770, delta(0.01));
+        assertThat(comparison.getUpperPercent()).isEqualTo(-10.0 + 3.182 * 0.6770, delta(0.01));
+        assertThat(comparison.getVerdict()).isEqualTo(Verdict.REGRESSION);
+        assertThat(comparison.toString()).contains("-10.0%").endsWith(": REGRESSION");
+    }
+
+    /**
+     * A significant rise in latency should be a regression, and a significant fall an improvement.
+     */
+    @Test
+    public void testCompareLatency() {
+        final double[] baseline = { 10, 11, 9, 10 };
+        assertThat(MetricComparison.compare(Metric.LATENCY_P99_MILLIS, baseline, new double[] { 15, 16, 14 }, 5.0).getVerdict()).isEqualTo(Verdict.REGRESSION);
+        assertThat(MetricComparison.compare(Metric.LATENCY_P99_MILLIS, baseline, new double[] { 5, 6, 4 }, 5.0).getVerdict()).isEqualTo(Verdict.IMPROVEMENT);
+    }
+
+    /**
+     * A change within the run-to-run noise, or a significant change smaller than the threshold, should be unchanged.
+     */
+    @Test
+    public void testCompareUnchanged() {
+        assertThat(MetricComparison.compare(Metric.EVENTS_PER_SECOND, new double[] { 1000, 1200, 800 }, new double[] { 950, 1150, 750 }, 5.0).getVerdict()).isEqualTo(Verdict.UNCHANGED);
+        assertThat(MetricComparison.compare(Metric.EVENTS_PER_SECOND, new double[] { 1000, 1001, 999 }, new double[] { 980, 981, 979 }, 5.0).getVerdict()).isEqualTo(Verdict.UNCHANGED);
+    }
+
+    /**
+     * A single run should be compared using the variability of the other revision, and a single run on each side should be inconclusive.
+     */
+    @Test
+    public void testCompareSingleRun() {
+        final MetricComparison comparison = MetricComparison.compare(Metric.EVENTS_PER_SECOND, new double[] { 1000, 1010, 990 }, new double[] { 800 }, 5.0);
+        // se = 10 * sqrt(1 / 3 + 1) = 11.547; df = 2
+        assertThat(comparison.getLowerPercent()).isEqualTo(-20.0 - 4.303 * 1.1547, delta(0.01));
+        assertThat(comparison.getVerdict()).isEqualTo(Verdict.REGRESSION);
+
+        final MetricComparison inconclusive = MetricComparison.compare(Metric.EVENTS_PER_SECOND, new double[] { 1000 }, new double[] { 500 }, 5.0);
+        assertThat(inconclusive.getChangePercent()).isEqualTo(-50.0, delta(0.001));
+        assertThat(Double.isNaN(inconclusive.getLowerPercent())).isTrue();
+        assertThat(inconclusive.getVerdict()).isEqualTo(Verdict.INCONCLUSIVE);
+    }
+
+    /**
+     * The t-distribution should be read from its table, rounding down, and approach the normal distribution beyond it.
+     */
+    @Test
+    public void testGetT975() {
+        assertThat(MetricComparison.getT975(0.5)).isEqualTo(12.706, delta(0.0001));
+        assertThat(MetricComparison.getT975(4.9)).isEqualTo(2.776, delta(0.0001));
+        assertThat(MetricComparison.getT975(30)).isEqualTo(2.042, delta(0.0001));
+        assertThat(MetricComparison.getT975(60)).isEqualTo(2.001, delta(0.001));
+        assertThat(MetricComparison.getT975(120)).isEqualTo(1.980, delta(0.001));
+    }
+
+    /**
+     * Comparing a revision with no values should be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompareEmpty() {
+        MetricComparison.compare(Metric.EVENTS_PER_SECOND, new double[0], new double[] { 1 }, 5.0);
+    }
+}
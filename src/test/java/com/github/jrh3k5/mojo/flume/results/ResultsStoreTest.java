@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.jrh3k5.mojo.flume.AbstractUnitTest;
+
+/**
+ * Unit tests for {@link ResultsStore}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class ResultsStoreTest extends AbstractUnitTest {
+    /**
+     * Remove the results of earlier runs of the test.
+     * 
+     * @throws Exception
+     *             If any errors occur during the removal.
+     */
+    @Before
+    public void removeTestDirectory() throws Exception {
+        FileUtils.deleteDirectory(createTestDirectory());
+    }
+
+    /**
+     * Runs should be read back in the order in which they were appended, filtered by key and fingerprint.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testAppendAndRead() throws Exception {
+        final File directory = createTestDirectory();
+        final ResultsStore store = new ResultsStore(directory);
+        assertThat(store.getFile()).isEqualTo(new File(directory, ResultsStore.FILE_NAME));
+        assertThat(store.read("load/a1", "f1")).isEmpty();
+
+        store.append(newRun(1, "load/a1", "f1"));
+        store.append(newRun(2, "load/a1", "f2"));
+        store.append(newRun(3, "benchmark/a1", "f1"));
+        store.append(newRun(4, "load/a1", "f1"));
+
+        final List<RunRecord> runs = new ResultsStore(directory).read("load/a1", "f1");
+        assertThat(runs).hasSize(2);
+        assertThat(runs.get(0).getTimestampMillis()).isEqualTo(1L);
+        assertThat(runs.get(1).getTimestampMillis()).isEqualTo(4L);
+    }
+
+    /**
+     * Create a run.
+     * 
+     * @param timestampMillis
+     *            The time at which the run finished.
+     * @param key
+     *            The key of the run.
+     * @param fingerprint
+     *            The fingerprint of the run.
+     * @return A {@link RunRecord}.
+     */
+    private static RunRecord newRun(long timestampMillis, String key, String fingerprint) {
+        return new RunRecord(timestampMillis, "rev", fingerprint, key, Collections.singletonMap(Metric.EVENTS_PER_SECOND, 100.0));
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.results;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Delta.delta;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link RunRecord}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class RunRecordTest {
+    /**
+     * A run should be read back as it was stored, with any separators in its fields replaced.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        final Map<Metric, Double> metrics = new EnumMap<>(Metric.class);
+        metrics.put(Metric.EVENTS_PER_SECOND, 31234.5);
+        metrics.put(Metric.BATCH_LATENCY_P99_MILLIS, 0.125);
+        final RunRecord run = new RunRecord(1234L, "abc123-dirty", "0123456789abcdef", "load/a\t1", metrics);
+        assertThat(run.toLine()).isEqualTo("1234\tabc123-dirty\t0123456789abcdef\tload/a 1\teventsPerSecond=31234.5,batchLatencyP99Millis=0.125000");
+
+        final RunRecord parsed = RunRecord.parse(run.toLine());
+        assertThat(parsed.getTimestampMillis()).isEqualTo(1234L);
+        assertThat(parsed.getRevision()).isEqualTo("abc123-dirty");
+        assertThat(parsed.getFingerprint()).isEqualTo("0123456789abcdef");
+        assertThat(parsed.getKey()).isEqualTo("load/a 1");
+        assertThat(parsed.getMetrics().get(Metric.EVENTS_PER_SECOND)).isEqualTo(31234.5, delta(0.001));
+        assertThat(parsed.getMetrics().get(Metric.BATCH_LATENCY_P99_MILLIS)).isEqualTo(0.125, delta(0.0001));
+    }
+
+    /**
+     * Metrics unknown to this version of the plugin should be skipped, so that stores written by later versions can still be read.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testParseUnknownMetric() throws Exception {
+        final RunRecord parsed = RunRecord.parse("1\trev\tfingerprint\tload/a1\tgcPauseMillis=3.0,eventsPerSecond=10");
+        assertThat(parsed.getMetrics()).hasSize(1);
+        assertThat(parsed.getMetrics().get(Metric.EVENTS_PER_SECOND)).isEqualTo(10.0, delta(0.001));
+    }
+
+    /**
+     * A line with the wrong number of fields should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testParseWrongFields() throws Exception {
+        RunRecord.parse("1\trev\tload/a1\teventsPerSecond=10");
+    }
+
+    /**
+     * A line with a value that is not a number should be rejected.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test(expected = IOException.class)
+    public void testParseNotANumber() throws Exception {
+        RunRecord.parse("1\trev\tfingerprint\tload/a1\teventsPerSecond=fast");
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.timing;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PhaseTimingReport}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class PhaseTimingReportTest {
+    /**
+     * The report should describe each agent's recorded phases as JSON, in the order in which the agents were given.
+     */
+    @Test
+    public void testToJson() {
+        final String json = new PhaseTimingReport(Instant.parse("2017-01-02T03:04:05Z"), Arrays.asList(newTimings("a2"), new PhaseTimings("a1"))).toJson();
+        assertThat(json).isEqualTo("{\"recordedAt\":\"2017-01-02T03:04:05Z\",\"archive\":null,\"agents\":[{\"agent\":\"a2\",\"elapsedMillis\":0.000,\"totalMillis\":1500.500,\"phases\":{"
+                + "\"download\":{\"millis\":1000.000,\"bytes\":1048576,\"files\":1},\"spawn\":{\"millis\":500.500,\"bytes\":0,\"files\":0}}},"
+                + "{\"agent\":\"a1\",\"elapsedMillis\":0.000,\"totalMillis\":0.000,\"phases\":{}}]}");
+    }
+
+    /**
+     * The caching of the archive before the agents were prepared should be described ahead of the agents.
+     */
+    @Test
+    public void testToJsonWithArchive() {
+        final PhaseTimings archiveTimings = new PhaseTimings(null);
+        archiveTimings.record(Phase.HASH, 250000000L, 2048, 1);
+        final String json = new PhaseTimingReport(Instant.parse("2017-01-02T03:04:05Z"), archiveTimings, Arrays.asList(new PhaseTimings("a1"))).toJson();
+        assertThat(json).isEqualTo("{\"recordedAt\":\"2017-01-02T03:04:05Z\",\"archive\":{\"elapsedMillis\":0.000,\"totalMillis\":250.000,\"phases\":{"
+                + "\"hash\":{\"millis\":250.000,\"bytes\":2048,\"files\":1}}},\"agents\":[{\"agent\":\"a1\",\"elapsedMillis\":0.000,\"totalMillis\":0.000,\"phases\":{}}]}");
+    }
+
+    /**
+     * The report should describe the archive's and each agent's recorded phases as tables headed by their elapsed and total times.
+     */
+    @Test
+    public void testToTable() {
+        final PhaseTimings archiveTimings = new PhaseTimings(null);
+        archiveTimings.record(Phase.DOWNLOAD, 2000000L, 4096, 1);
+        final List<String> table = new PhaseTimingReport(Instant.now(), archiveTimings, Arrays.asList(newTimings("a2"))).toTable();
+        assertThat(table).hasSize(5);
+        assertThat(table.get(0)).isEqualTo("The Flume archive was cached in 0.0 ms:");
+        assertThat(table.get(1)).startsWith("  download").contains("2.0 ms");
+        assertThat(table.get(2)).isEqualTo("Agent a2 was prepared and started in 0.0 ms (1500.5 ms across its phases):");
+        assertThat(table.get(3)).startsWith("  download").contains("1000.0 ms").contains("1.00 MB").contains("1 file(s)");
+        assertThat(table.get(4)).startsWith("  spawn").contains("500.5 ms").doesNotContain("MB").doesNotContain("file(s)");
+    }
+
+    /**
+     * Create the timings of an agent that downloaded a megabyte and was spawned.
+     * 
+     * @param agentName
+     *            The name of the agent.
+     * @return The {@link PhaseTimings} of the agent.
+     */
+    private static PhaseTimings newTimings(String agentName) {
+        final PhaseTimings timings = new PhaseTimings(agentName);
+        timings.record(Phase.SPAWN, 500500000L, 0, 0);
+        timings.record(Phase.DOWNLOAD, 1000000000L, 1024 * 1024, 1);
+        return timings;
+    }
+}
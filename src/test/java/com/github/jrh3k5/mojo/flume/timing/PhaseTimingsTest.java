@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jrh3k5.mojo.flume.timing;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PhaseTimings}.
+ * 
+ * @author Joshua Hyde
+ * @since 3.1
+ */
+
+public class PhaseTimingsTest {
+    /**
+     * A phase recorded more than once should accumulate its time, bytes, and files, and the phases should be given in the order in which they occur.
+     */
+    @Test
+    public void testRecord() {
+        final PhaseTimings timings = new PhaseTimings("a1");
+        timings.record(Phase.PLUGIN_EXTRACTION, 3000, 100, 2);
+        timings.record(Phase.DOWNLOAD, 5000, 1000, 1);
+        timings.record(Phase.PLUGIN_EXTRACTION, 4000, 50, 3);
+        assertThat(new ArrayList<>(timings.getNanos().keySet())).containsExactly(Phase.DOWNLOAD, Phase.PLUGIN_EXTRACTION);
+        assertThat(timings.getNanos().get(Phase.PLUGIN_EXTRACTION)).isEqualTo(7000L);
+        assertThat(timings.getBytes(Phase.PLUGIN_EXTRACTION)).isEqualTo(150L);
+        assertThat(timings.getFiles(Phase.PLUGIN_EXTRACTION)).isEqualTo(5);
+        assertThat(timings.getTotalNanos()).isEqualTo(12000L);
+        assertThat(timings.getElapsedNanos()).isZero();
+        assertThat(timings.getBytes(Phase.UNTAR)).isZero();
+        assertThat(timings.getFiles(Phase.UNTAR)).isZero();
+    }
+
+    /**
+     * A timer should record its phase, with what it counted, when it is closed.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testStart() throws Exception {
+        final PhaseTimings timings = new PhaseTimings("a1");
+        try (final PhaseTimings.Timer timer = timings.start(Phase.UNTAR)) {
+            timer.addBytes(2048);
+            timer.addFiles(4);
+            Thread.sleep(5);
+            assertThat(timings.getNanos()).isEmpty();
+        }
+        assertThat(timings.getNanos().get(Phase.UNTAR)).isGreaterThanOrEqualTo(5000000L);
+        assertThat(timings.getBytes(Phase.UNTAR)).isEqualTo(2048L);
+        assertThat(timings.getFiles(Phase.UNTAR)).isEqualTo(4);
+        assertThat(timings.getElapsedNanos()).isEqualTo(timings.getTotalNanos());
+    }
+
+    /**
+     * The elapsed time of phases that overlap should span them, rather than be their sum.
+     * 
+     * @throws Exception
+     *             If any errors occur during the test run.
+     */
+    @Test
+    public void testGetElapsedNanosOverlapping() throws Exception {
+        final PhaseTimings timings = new PhaseTimings("a1");
+        final PhaseTimings.Timer untar = timings.start(Phase.UNTAR);
+        try (final PhaseTimings.Timer resolution = timings.start(Phase.PLUGIN_RESOLUTION)) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(10);
+        untar.close();
+        assertThat(timings.getElapsedNanos()).isEqualTo(timings.getNanos().get(Phase.UNTAR));
+        assertThat(timings.getTotalNanos()).isGreaterThan(timings.getElapsedNanos());
+    }
+}